@@ -0,0 +1,82 @@
+/*
+ * Copyright 2019 Aurélien Gâteau <mail@agateau.com>
+ *
+ * This file is part of Pixel Wheels.
+ *
+ * Pixel Wheels is free software: you can redistribute it and/or modify it under
+ * the terms of the GNU General Public License as published by the Free
+ * Software Foundation, either version 3 of the License, or (at your option)
+ * any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License for
+ * more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.agateau.pixelwheels.benchmarks;
+
+import com.agateau.pixelwheels.Assets;
+import com.agateau.pixelwheels.map.Track;
+import com.agateau.pixelwheels.map.WaypointStore;
+import com.agateau.utils.Assert;
+import com.badlogic.gdx.ApplicationAdapter;
+import com.badlogic.gdx.backends.headless.HeadlessApplication;
+import com.badlogic.gdx.backends.headless.HeadlessApplicationConfiguration;
+import com.badlogic.gdx.math.Vector2;
+import com.badlogic.gdx.physics.box2d.Box2D;
+import com.badlogic.gdx.utils.Array;
+
+/**
+ * Shared setup for the benchmarks: a headless application, so that no GPU is needed, and
+ * texture-free assets and tracks.
+ *
+ * Benchmarks must be run from the android/assets directory.
+ */
+public class BenchmarkEnvironment {
+    private static Assets sAssets;
+
+    public static synchronized Assets getAssets() {
+        if (sAssets == null) {
+            HeadlessApplicationConfiguration config = new HeadlessApplicationConfiguration();
+            // No render loop, the benchmarks drive everything
+            config.renderInterval = -1;
+            new HeadlessApplication(new ApplicationAdapter() {}, config);
+            Box2D.init();
+            sAssets = Assets.createHeadless();
+        }
+        return sAssets;
+    }
+
+    /**
+     * Returns an initialized copy of the track identified by @p trackId. The caller must dispose it.
+     */
+    public static Track createTrack(String trackId) {
+        Track referenceTrack = getAssets().findTrackById(trackId);
+        Assert.check(referenceTrack != null, "No track with id '" + trackId + "'");
+        Track track = new Track(referenceTrack.getId(), referenceTrack.getMapName());
+        track.setTextureFree(true);
+        track.init();
+        return track;
+    }
+
+    /**
+     * Returns positions along the waypoints of @p track, about @p spacing world units apart. These
+     * are the kind of positions racers go through.
+     */
+    public static Array<Vector2> createWaypointPath(Track track, float spacing) {
+        WaypointStore store = track.getWaypointStore();
+        Array<Vector2> positions = new Array<>();
+        for (int idx = 0; idx < store.getCount(); ++idx) {
+            Vector2 start = store.getWaypoint(idx);
+            Vector2 end = store.getWaypoint(store.getNextIndex(idx));
+            int count = Math.max((int)(start.dst(end) / spacing), 1);
+            for (int step = 0; step < count; ++step) {
+                positions.add(new Vector2(start).lerp(end, step / (float)count));
+            }
+        }
+        return positions;
+    }
+}
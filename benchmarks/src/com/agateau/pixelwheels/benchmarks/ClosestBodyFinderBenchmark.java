@@ -0,0 +1,113 @@
+/*
+ * Copyright 2019 Aurélien Gâteau <mail@agateau.com>
+ *
+ * This file is part of Pixel Wheels.
+ *
+ * Pixel Wheels is free software: you can redistribute it and/or modify it under
+ * the terms of the GNU General Public License as published by the Free
+ * Software Foundation, either version 3 of the License, or (at your option)
+ * any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License for
+ * more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.agateau.pixelwheels.benchmarks;
+
+import com.agateau.pixelwheels.GameWorld;
+import com.agateau.pixelwheels.map.Track;
+import com.agateau.pixelwheels.racer.Racer;
+import com.agateau.pixelwheels.racer.Vehicle;
+import com.agateau.pixelwheels.simulation.RaceSimulator;
+import com.agateau.pixelwheels.utils.ClosestBodyFinder;
+import com.badlogic.gdx.math.Vector2;
+import com.badlogic.gdx.physics.box2d.Body;
+import com.badlogic.gdx.utils.Array;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Raycasts done by the missile and the gun AI, from the racers of a race which has been running for
+ * a few seconds
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ClosestBodyFinderBenchmark {
+    // Same values as Missile and GunBonus
+    private static final float MISSILE_DEPTH = 40;
+    private static final float MISSILE_ARC = 120;
+    private static final float GUN_DEPTH = 20;
+
+    private static final float RACE_DURATION = 5;
+
+    @Param({"race", "snow2", "be", "tiny-sur-mer"})
+    public String trackId;
+
+    private Track mTrack;
+    private GameWorld mWorld;
+    private Vector2[] mOrigins;
+    private float[] mAngles;
+    private int mIndex = 0;
+
+    private final ClosestBodyFinder mMissileFinder = new ClosestBodyFinder(MISSILE_DEPTH, MISSILE_ARC);
+    private final ClosestBodyFinder mGunFinder = new ClosestBodyFinder(GUN_DEPTH);
+
+    @Setup
+    public void setUp() {
+        mTrack = BenchmarkEnvironment.createTrack(trackId);
+        RaceSimulator simulator = new RaceSimulator(BenchmarkEnvironment.getAssets());
+        mWorld = GameWorldBenchmark.createRunningWorld(simulator, mTrack, 6);
+        for (float time = 0; time < RACE_DURATION; time += mWorld.getTimeStep()) {
+            mWorld.act(mWorld.getTimeStep());
+        }
+
+        Array<Racer> racers = mWorld.getRacers();
+        mOrigins = new Vector2[racers.size];
+        mAngles = new float[racers.size];
+        for (int idx = 0; idx < racers.size; ++idx) {
+            Vehicle vehicle = racers.get(idx).getVehicle();
+            mOrigins[idx] = new Vector2(vehicle.getPosition());
+            mAngles[idx] = vehicle.getAngle();
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        mWorld.forgetTrack();
+        mWorld.dispose();
+        mTrack.dispose();
+    }
+
+    @Benchmark
+    public Body findForMissile() {
+        mIndex = (mIndex + 1) % mOrigins.length;
+        return mMissileFinder.find(mWorld.getBox2DWorld(), mOrigins[mIndex], mAngles[mIndex]);
+    }
+
+    @Benchmark
+    public Body findForGun() {
+        mIndex = (mIndex + 1) % mOrigins.length;
+        return mGunFinder.find(mWorld.getBox2DWorld(), mOrigins[mIndex], mAngles[mIndex]);
+    }
+}
@@ -0,0 +1,113 @@
+/*
+ * Copyright 2019 Aurélien Gâteau <mail@agateau.com>
+ *
+ * This file is part of Pixel Wheels.
+ *
+ * Pixel Wheels is free software: you can redistribute it and/or modify it under
+ * the terms of the GNU General Public License as published by the Free
+ * Software Foundation, either version 3 of the License, or (at your option)
+ * any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License for
+ * more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.agateau.pixelwheels.benchmarks;
+
+import com.agateau.pixelwheels.Assets;
+import com.agateau.pixelwheels.GameWorld;
+import com.agateau.pixelwheels.gamesetup.GameInfo;
+import com.agateau.pixelwheels.map.Track;
+import com.agateau.pixelwheels.simulation.RaceSimulator;
+import com.badlogic.gdx.utils.Array;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A full GameWorld.act() step of an AI-only race
+ *
+ * Each iteration starts a new race, right after the countdown, so that racers are still close to
+ * each other.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class GameWorldBenchmark {
+    @Param({"race", "snow2", "be", "tiny-sur-mer"})
+    public String trackId;
+
+    @Param({"6", "30"})
+    public int racerCount;
+
+    private Track mTrack;
+    private RaceSimulator mSimulator;
+    private GameWorld mWorld;
+    private float mTimeStep;
+
+    @Setup(Level.Trial)
+    public void setUpTrial() {
+        mTrack = BenchmarkEnvironment.createTrack(trackId);
+        mSimulator = new RaceSimulator(BenchmarkEnvironment.getAssets());
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDownTrial() {
+        mTrack.dispose();
+    }
+
+    @Setup(Level.Iteration)
+    public void setUpIteration() {
+        mWorld = createRunningWorld(mSimulator, mTrack, racerCount);
+        mTimeStep = mWorld.getTimeStep();
+    }
+
+    @TearDown(Level.Iteration)
+    public void tearDownIteration() {
+        mWorld.forgetTrack();
+        mWorld.dispose();
+    }
+
+    @Benchmark
+    public GameWorld act() {
+        mWorld.act(mTimeStep);
+        return mWorld;
+    }
+
+    /**
+     * Creates a world with @p racerCount AI racers on @p track and runs it until the countdown is over
+     */
+    static GameWorld createRunningWorld(RaceSimulator simulator, Track track, int racerCount) {
+        Assets assets = BenchmarkEnvironment.getAssets();
+        Array<GameInfo.Entrant> entrants = new Array<>();
+        for (int idx = 0; idx < racerCount; ++idx) {
+            String vehicleId = assets.vehicleDefs.get(idx % assets.vehicleDefs.size).id;
+            entrants.add(new GameInfo.Entrant(vehicleId));
+        }
+        GameWorld world = simulator.createWorld(track, entrants);
+        while (world.getState() == GameWorld.State.COUNTDOWN) {
+            world.act(world.getTimeStep());
+        }
+        return world;
+    }
+}
@@ -0,0 +1,143 @@
+/*
+ * Copyright 2019 Aurélien Gâteau <mail@agateau.com>
+ *
+ * This file is part of Pixel Wheels.
+ *
+ * Pixel Wheels is free software: you can redistribute it and/or modify it under
+ * the terms of the GNU General Public License as published by the Free
+ * Software Foundation, either version 3 of the License, or (at your option)
+ * any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License for
+ * more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.agateau.pixelwheels.benchmarks;
+
+import com.agateau.pixelwheels.Constants;
+import com.agateau.pixelwheels.map.LapPosition;
+import com.agateau.pixelwheels.map.LapPositionTable;
+import com.agateau.pixelwheels.map.Material;
+import com.agateau.pixelwheels.map.Track;
+import com.agateau.pixelwheels.map.WaypointStore;
+import com.agateau.pixelwheels.utils.OrientedPoint;
+import com.badlogic.gdx.math.Vector2;
+import com.badlogic.gdx.utils.Array;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Track lookups done by each racer at each step, measured on positions along the waypoints
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TrackLookupBenchmark {
+    private static final float PATH_SPACING = 0.5f;
+
+    @Param({"race", "snow2", "be", "tiny-sur-mer"})
+    public String trackId;
+
+    private Track mTrack;
+    private LapPositionTable mLapPositionTable;
+    private WaypointStore mWaypointStore;
+
+    private Vector2[] mPositions;
+    private int[] mPixelXs;
+    private int[] mPixelYs;
+    private float[] mLapDistances;
+    private int mIndex = 0;
+    private int mSectionId = -1;
+    private int mWaypointIndex = -1;
+
+    @Setup
+    public void setUp() {
+        mTrack = BenchmarkEnvironment.createTrack(trackId);
+        mLapPositionTable = mTrack.getLapPositionTable();
+        mWaypointStore = mTrack.getWaypointStore();
+
+        Array<Vector2> path = BenchmarkEnvironment.createWaypointPath(mTrack, PATH_SPACING);
+        mPositions = path.toArray(Vector2.class);
+        mPixelXs = new int[mPositions.length];
+        mPixelYs = new int[mPositions.length];
+        mLapDistances = new float[mPositions.length];
+        for (int idx = 0; idx < mPositions.length; ++idx) {
+            mPixelXs[idx] = (int)(mPositions[idx].x / Constants.UNIT_FOR_PIXEL);
+            mPixelYs[idx] = (int)(mPositions[idx].y / Constants.UNIT_FOR_PIXEL);
+            LapPosition pos = mLapPositionTable.get(mPixelXs[idx], mPixelYs[idx]);
+            mLapDistances[idx] = pos == null ? 0 : pos.getLapDistance();
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        mTrack.dispose();
+    }
+
+    private int nextIndex() {
+        mIndex = (mIndex + 1) % mPositions.length;
+        return mIndex;
+    }
+
+    @Benchmark
+    public LapPosition lapPositionTableGet() {
+        int idx = nextIndex();
+        return mLapPositionTable.get(mPixelXs[idx], mPixelYs[idx]);
+    }
+
+    /**
+     * Like LapPositionComponent does: pass the section of the previous position as a hint
+     */
+    @Benchmark
+    public LapPosition lapPositionTableGetWithHint() {
+        int idx = nextIndex();
+        LapPosition pos = mLapPositionTable.get(mPixelXs[idx], mPixelYs[idx], mSectionId);
+        mSectionId = pos == null ? -1 : pos.getSectionId();
+        return pos;
+    }
+
+    @Benchmark
+    public Material getMaterialAt() {
+        return mTrack.getMaterialAt(mPositions[nextIndex()]);
+    }
+
+    @Benchmark
+    public int getWaypointIndex() {
+        return mWaypointStore.getWaypointIndex(mLapDistances[nextIndex()]);
+    }
+
+    /**
+     * Like AIPilot does: pass the previous waypoint index as a hint
+     */
+    @Benchmark
+    public int getWaypointIndexWithHint() {
+        mWaypointIndex = mWaypointStore.getWaypointIndex(mLapDistances[nextIndex()], mWaypointIndex);
+        return mWaypointIndex;
+    }
+
+    @Benchmark
+    public OrientedPoint getValidPosition() {
+        int idx = nextIndex();
+        return mWaypointStore.getValidPosition(mPositions[idx], mLapDistances[idx]);
+    }
+}
@@ -0,0 +1,78 @@
+/*
+ * Copyright 2019 Aurélien Gâteau <mail@agateau.com>
+ *
+ * This file is part of Pixel Wheels.
+ *
+ * Pixel Wheels is free software: you can redistribute it and/or modify it under
+ * the terms of the GNU General Public License as published by the Free
+ * Software Foundation, either version 3 of the License, or (at your option)
+ * any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License for
+ * more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.agateau.pixelwheels.map;
+
+import com.badlogic.gdx.math.Vector2;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Warper is package-private, hence this benchmark living in the map package
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class WarperBenchmark {
+    private static final int POINT_COUNT = 1024;
+
+    private final Warper mWarper = new Warper();
+    private final float[] mXs = new float[POINT_COUNT];
+    private final float[] mYs = new float[POINT_COUNT];
+    private int mIndex = 0;
+
+    @Setup
+    public void setUp() {
+        // A trapezoid, like the sections of a curve
+        mWarper.setSource(
+                0, 0,
+                100, 0,
+                20, 60,
+                80, 60);
+        mWarper.setDestination(
+                0, 0,
+                1, 0,
+                0, 1,
+                1, 1);
+        for (int idx = 0; idx < POINT_COUNT; ++idx) {
+            float k = idx / (float)POINT_COUNT;
+            mXs[idx] = 20 + 60 * k;
+            mYs[idx] = 60 * ((idx * 7) % POINT_COUNT) / (float)POINT_COUNT;
+        }
+    }
+
+    @Benchmark
+    public Vector2 warp() {
+        mIndex = (mIndex + 1) % POINT_COUNT;
+        return mWarper.warp(mXs[mIndex], mYs[mIndex]);
+    }
+}
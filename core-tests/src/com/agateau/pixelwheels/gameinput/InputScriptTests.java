@@ -0,0 +1,81 @@
+/*
+ * Copyright 2019 Aurélien Gâteau <mail@agateau.com>
+ *
+ * This file is part of Pixel Wheels.
+ *
+ * Pixel Wheels is free software: you can redistribute it and/or modify it under
+ * the terms of the GNU General Public License as published by the Free
+ * Software Foundation, either version 3 of the License, or (at your option)
+ * any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License for
+ * more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.agateau.pixelwheels.gameinput;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+
+import static org.hamcrest.core.Is.is;
+import static org.junit.Assert.assertThat;
+
+@RunWith(JUnit4.class)
+public class InputScriptTests {
+    @Test
+    public void testWriteRead() throws IOException {
+        InputScript script = new InputScript();
+        GameInput input = new GameInput();
+        input.accelerating = true;
+        input.direction = -0.5f;
+        script.add(input);
+        input.braking = true;
+        input.triggeringBonus = true;
+        input.direction = 1;
+        script.add(input);
+
+        ByteArrayOutputStream byteStream = new ByteArrayOutputStream();
+        script.write(new DataOutputStream(byteStream));
+        InputScript script2 = InputScript.read(
+                new DataInputStream(new ByteArrayInputStream(byteStream.toByteArray())));
+
+        assertThat(script2.getFrameCount(), is(2));
+        GameInput result = new GameInput();
+        script2.get(0, result);
+        assertThat(result.accelerating, is(true));
+        assertThat(result.braking, is(false));
+        assertThat(result.triggeringBonus, is(false));
+        assertThat(result.direction, is(-0.5f));
+        script2.get(1, result);
+        assertThat(result.accelerating, is(true));
+        assertThat(result.braking, is(true));
+        assertThat(result.triggeringBonus, is(true));
+        assertThat(result.direction, is(1f));
+    }
+
+    @Test
+    public void testScriptedInputHandler() {
+        InputScript script = new InputScript();
+        GameInput input = new GameInput();
+        input.accelerating = true;
+        script.add(input);
+
+        ScriptedInputHandler handler = new ScriptedInputHandler(script);
+        assertThat(handler.isFinished(), is(false));
+        assertThat(handler.getGameInput().accelerating, is(true));
+        assertThat(handler.isFinished(), is(true));
+        // Coasts once the script is over
+        assertThat(handler.getGameInput().accelerating, is(false));
+    }
+}
@@ -0,0 +1,96 @@
+/*
+ * Copyright 2019 Aurélien Gâteau <mail@agateau.com>
+ *
+ * This file is part of Pixel Wheels.
+ *
+ * Pixel Wheels is free software: you can redistribute it and/or modify it under
+ * the terms of the GNU General Public License as published by the Free
+ * Software Foundation, either version 3 of the License, or (at your option)
+ * any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License for
+ * more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.agateau.pixelwheels.map;
+
+import com.badlogic.gdx.math.Polygon;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+@RunWith(JUnit4.class)
+public class LapPositionTableTests {
+    private static final int WIDTH = 100;
+    private static final int HEIGHT = 60;
+
+    private static LapPositionTable createTable() {
+        // Three sections, with slanted borders so that some cells are crossed by them
+        LapPositionTable table = new LapPositionTable();
+        table.addSection(0, new Polygon(new float[]{
+                10, 10,
+                37, 10,
+                31, 50,
+                10, 50
+        }));
+        table.addSection(1, new Polygon(new float[]{
+                37, 10,
+                65, 10,
+                70, 50,
+                31, 50
+        }));
+        table.addSection(2, new Polygon(new float[]{
+                65, 10,
+                90, 10,
+                90, 50,
+                70, 50
+        }));
+        return table;
+    }
+
+    @Test
+    public void testBakedMatchesPolygons() {
+        LapPositionTable reference = createTable();
+        LapPositionTable baked = createTable();
+        baked.bake(WIDTH, HEIGHT);
+
+        for (int y = -2; y < HEIGHT + 2; ++y) {
+            for (int x = -2; x < WIDTH + 2; ++x) {
+                LapPosition expected = reference.get(x, y);
+                LapPosition actual = baked.get(x, y);
+                if (expected == null) {
+                    assertNull(actual);
+                    continue;
+                }
+                String where = x + "x" + y;
+                assertEquals(where, expected.getSectionId(), actual.getSectionId());
+                assertEquals(where, expected.getSectionDistance(), actual.getSectionDistance(), 0);
+            }
+        }
+    }
+
+    @Test
+    public void testHintedLookup() {
+        LapPositionTable table = createTable();
+
+        for (int hint = -1; hint < 3; ++hint) {
+            for (int y = 0; y < HEIGHT; y += 3) {
+                for (int x = 0; x < WIDTH; x += 3) {
+                    LapPosition expected = table.get(x, y);
+                    int expectedSectionId = expected == null ? -1 : expected.getSectionId();
+                    LapPosition actual = table.get(x, y, hint);
+                    int actualSectionId = actual == null ? -1 : actual.getSectionId();
+                    assertEquals(x + "x" + y + " hint=" + hint, expectedSectionId, actualSectionId);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,135 @@
+/*
+ * Copyright 2019 Aurélien Gâteau <mail@agateau.com>
+ *
+ * This file is part of Pixel Wheels.
+ *
+ * Pixel Wheels is free software: you can redistribute it and/or modify it under
+ * the terms of the GNU General Public License as published by the Free
+ * Software Foundation, either version 3 of the License, or (at your option)
+ * any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License for
+ * more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.agateau.pixelwheels.map;
+
+import com.badlogic.gdx.graphics.Color;
+import com.badlogic.gdx.graphics.Texture;
+import com.badlogic.gdx.graphics.g2d.Batch;
+import com.badlogic.gdx.graphics.g2d.TextureRegion;
+import com.badlogic.gdx.maps.tiled.TiledMap;
+import com.badlogic.gdx.maps.tiled.TiledMapTileLayer;
+import com.badlogic.gdx.maps.tiled.renderers.OrthogonalTiledMapRenderer;
+import com.badlogic.gdx.maps.tiled.tiles.StaticTiledMapTile;
+import com.badlogic.gdx.math.Matrix4;
+import com.badlogic.gdx.utils.FloatArray;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+import static org.hamcrest.core.Is.is;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+@RunWith(JUnit4.class)
+public class TileLayerBakerTests {
+    private static final float UNIT_SCALE = 1 / 20f;
+    private static final int TILE_SIZE = 64;
+    // Not a multiple of the chunk size, to have partial chunks
+    private static final int COLUMN_COUNT = 20;
+    private static final int ROW_COUNT = 18;
+
+    @Test
+    public void testSameQuadsAsOrthogonalTiledMapRenderer() {
+        TiledMap map = createMap();
+        TiledMapTileLayer layer = (TiledMapTileLayer) map.getLayers().get(0);
+
+        // Record what OrthogonalTiledMapRenderer submits to its batch when the whole map is visible
+        final FloatArray expected = new FloatArray();
+        Batch batch = mock(Batch.class);
+        when(batch.getColor()).thenReturn(new Color(Color.WHITE));
+        doAnswer(invocation -> {
+            float[] vertices = invocation.getArgument(1);
+            expected.addAll(vertices, invocation.getArgument(2), invocation.getArgument(3));
+            return null;
+        }).when(batch).draw(any(Texture.class), any(float[].class), anyInt(), anyInt());
+        OrthogonalTiledMapRenderer renderer = new OrthogonalTiledMapRenderer(map, UNIT_SCALE, batch);
+        renderer.setView(new Matrix4(), 0, 0, COLUMN_COUNT * TILE_SIZE * UNIT_SCALE, ROW_COUNT * TILE_SIZE * UNIT_SCALE);
+        renderer.renderTileLayer(layer);
+
+        final FloatArray actual = new FloatArray();
+        new TileLayerBaker().bake(layer, UNIT_SCALE, 0, 0, COLUMN_COUNT, ROW_COUNT,
+                (texture, vertices) -> actual.addAll(vertices));
+
+        assertThat(actual.size, is(expected.size));
+        for (int idx = 0; idx < expected.size; ++idx) {
+            // OrthogonalTiledMapRenderer accumulates positions, so they can differ slightly
+            assertEquals("Vertex value #" + idx, expected.get(idx), actual.get(idx), 0.0001f);
+        }
+    }
+
+    @Test
+    public void testChunksCoverAllQuads() {
+        TiledMapTileLayer layer = (TiledMapTileLayer) createMap().getLayers().get(0);
+        TileLayerBaker baker = new TileLayerBaker();
+        final int[] count = { 0 };
+        TileLayerBaker.QuadListener listener = (texture, vertices) -> ++count[0];
+
+        baker.bake(layer, UNIT_SCALE, 0, 0, COLUMN_COUNT, ROW_COUNT, listener);
+        int fullCount = count[0];
+
+        count[0] = 0;
+        int size = BakedTileMapRenderer.CHUNK_SIZE;
+        for (int row = 0; row < ROW_COUNT; row += size) {
+            for (int col = 0; col < COLUMN_COUNT; col += size) {
+                baker.bake(layer, UNIT_SCALE, col, row,
+                        Math.min(col + size, COLUMN_COUNT), Math.min(row + size, ROW_COUNT), listener);
+            }
+        }
+        assertThat(count[0], is(fullCount));
+    }
+
+    /**
+     * Creates a map with one layer, using all the cell variants, and with a few empty cells
+     */
+    private static TiledMap createMap() {
+        Texture texture = mock(Texture.class);
+        when(texture.getWidth()).thenReturn(TILE_SIZE * 4);
+        when(texture.getHeight()).thenReturn(TILE_SIZE * 4);
+
+        TiledMapTileLayer layer = new TiledMapTileLayer(COLUMN_COUNT, ROW_COUNT, TILE_SIZE, TILE_SIZE);
+        layer.setOpacity(0.5f);
+        layer.setOffsetX(3);
+        layer.setOffsetY(5);
+        for (int row = 0; row < ROW_COUNT; ++row) {
+            for (int col = 0; col < COLUMN_COUNT; ++col) {
+                int variant = row * COLUMN_COUNT + col;
+                if (variant % 7 == 0) {
+                    continue;
+                }
+                TextureRegion region = new TextureRegion(texture,
+                        (variant % 4) * TILE_SIZE, ((variant / 4) % 4) * TILE_SIZE, TILE_SIZE, TILE_SIZE);
+                TiledMapTileLayer.Cell cell = new TiledMapTileLayer.Cell();
+                cell.setTile(new StaticTiledMapTile(region));
+                cell.setFlipHorizontally(variant % 2 == 0);
+                cell.setFlipVertically(variant % 3 == 0);
+                cell.setRotation(variant % 4);
+                layer.setCell(col, row, cell);
+            }
+        }
+        TiledMap map = new TiledMap();
+        map.getLayers().add(layer);
+        return map;
+    }
+}
@@ -0,0 +1,82 @@
+/*
+ * Copyright 2019 Aurélien Gâteau <mail@agateau.com>
+ *
+ * This file is part of Pixel Wheels.
+ *
+ * Pixel Wheels is free software: you can redistribute it and/or modify it under
+ * the terms of the GNU General Public License as published by the Free
+ * Software Foundation, either version 3 of the License, or (at your option)
+ * any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License for
+ * more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.agateau.pixelwheels.map;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+import static org.junit.Assert.assertEquals;
+
+@RunWith(JUnit4.class)
+public class WaypointStoreTests {
+    private static final float[] LAP_DISTANCES = {2, 5, 9, 14, 20};
+
+    private static WaypointStore createStore() {
+        WaypointStore store = new WaypointStore();
+        // Add them out of order, read() gets them in map order
+        for (int idx = LAP_DISTANCES.length - 1; idx >= 0; --idx) {
+            store.addWaypoint(idx, 0, LAP_DISTANCES[idx]);
+        }
+        store.sortWaypoints();
+        return store;
+    }
+
+    private static int linearWaypointIndex(float lapDistance) {
+        for (int idx = 0; idx < LAP_DISTANCES.length; ++idx) {
+            if (lapDistance < LAP_DISTANCES[idx]) {
+                return idx;
+            }
+        }
+        return 0;
+    }
+
+    @Test
+    public void testGetWaypointIndex() {
+        WaypointStore store = createStore();
+        assertEquals(0, store.getWaypointIndex(0));
+        assertEquals(1, store.getWaypointIndex(2));
+        assertEquals(2, store.getWaypointIndex(6));
+        assertEquals(4, store.getWaypointIndex(19.9f));
+        assertEquals(0, store.getWaypointIndex(20));
+        assertEquals(0, store.getWaypointIndex(25));
+        for (float distance = -1; distance < 22; distance += 0.25f) {
+            assertEquals(linearWaypointIndex(distance), store.getWaypointIndex(distance));
+        }
+    }
+
+    @Test
+    public void testGetWaypointIndexWithHint() {
+        WaypointStore store = createStore();
+        for (float distance = -1; distance < 22; distance += 0.25f) {
+            int expected = linearWaypointIndex(distance);
+            for (int hint = -1; hint <= LAP_DISTANCES.length; ++hint) {
+                assertEquals(expected, store.getWaypointIndex(distance, hint));
+            }
+        }
+    }
+
+    @Test
+    public void testGetNextIndex() {
+        WaypointStore store = createStore();
+        assertEquals(3, store.getNextIndex(1, 2));
+        assertEquals(1, store.getNextIndex(3, 3));
+        assertEquals(3, store.getWaypoint(3).x, 0);
+    }
+}
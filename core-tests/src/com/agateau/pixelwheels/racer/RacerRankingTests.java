@@ -0,0 +1,115 @@
+/*
+ * Copyright 2019 Aurélien Gâteau <mail@agateau.com>
+ *
+ * This file is part of Pixel Wheels.
+ *
+ * Pixel Wheels is free software: you can redistribute it and/or modify it under
+ * the terms of the GNU General Public License as published by the Free
+ * Software Foundation, either version 3 of the License, or (at your option)
+ * any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License for
+ * more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.agateau.pixelwheels.racer;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+import static org.hamcrest.core.Is.is;
+import static org.junit.Assert.assertThat;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+@RunWith(JUnit4.class)
+public class RacerRankingTests {
+    @Test
+    public void testEqualLapCounts() {
+        Racer racer1 = createRacer();
+        Racer racer2 = createRacer();
+        Racer racer3 = createRacer();
+        setProgress(racer1, 2, 10, false);
+        setProgress(racer2, 2, 30, false);
+        setProgress(racer3, 1, 50, false);
+
+        RacerRanking ranking = new RacerRanking();
+        ranking.add(racer1);
+        ranking.add(racer2);
+        ranking.add(racer3);
+        ranking.update();
+
+        assertRanks(ranking, racer2, racer1, racer3);
+    }
+
+    @Test
+    public void testFinishedRacersComeFirst() {
+        Racer racer1 = createRacer();
+        Racer racer2 = createRacer();
+        setProgress(racer1, 3, 80, false);
+        setProgress(racer2, 3, 10, true);
+
+        RacerRanking ranking = new RacerRanking();
+        ranking.add(racer1);
+        ranking.add(racer2);
+        ranking.update();
+
+        assertRanks(ranking, racer2, racer1);
+    }
+
+    @Test
+    public void testFinishedRacersKeepTheirRank() {
+        Racer racer1 = createRacer();
+        Racer racer2 = createRacer();
+        setProgress(racer1, 3, 90, false);
+        setProgress(racer2, 4, 1, true);
+
+        RacerRanking ranking = new RacerRanking();
+        ranking.add(racer1);
+        ranking.add(racer2);
+        ranking.update();
+        assertRanks(ranking, racer2, racer1);
+
+        // racer1 finishes too and drives further after the finish line than racer2: it must not
+        // overtake racer2
+        setProgress(racer1, 4, 5, true);
+        ranking.update();
+        assertRanks(ranking, racer2, racer1);
+    }
+
+    private static Racer createRacer() {
+        Racer racer = mock(Racer.class);
+        LapPositionComponent component = mock(LapPositionComponent.class);
+        when(racer.getLapPositionComponent()).thenReturn(component);
+
+        final int[] rank = {0};
+        doAnswer(invocation -> {
+            rank[0] = invocation.getArgument(0);
+            return null;
+        }).when(racer).setRank(anyInt());
+        when(racer.getRank()).thenAnswer(invocation -> rank[0]);
+        return racer;
+    }
+
+    private static void setProgress(Racer racer, int lapCount, float lapDistance, boolean finished) {
+        LapPositionComponent component = racer.getLapPositionComponent();
+        when(component.getLapCount()).thenReturn(lapCount);
+        when(component.getLapDistance()).thenReturn(lapDistance);
+        when(component.hasFinishedRace()).thenReturn(finished);
+    }
+
+    private static void assertRanks(RacerRanking ranking, Racer... expected) {
+        assertThat(ranking.getSize(), is(expected.length));
+        for (int idx = 0; idx < expected.length; ++idx) {
+            assertThat(ranking.getRacers().get(idx), is(expected[idx]));
+            assertThat(expected[idx].getRank(), is(idx + 1));
+        }
+    }
+}
@@ -0,0 +1,76 @@
+/*
+ * Copyright 2019 Aurélien Gâteau <mail@agateau.com>
+ *
+ * This file is part of Pixel Wheels.
+ *
+ * Pixel Wheels is free software: you can redistribute it and/or modify it under
+ * the terms of the GNU General Public License as published by the Free
+ * Software Foundation, either version 3 of the License, or (at your option)
+ * any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License for
+ * more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.agateau.pixelwheels.racer;
+
+import com.badlogic.gdx.math.Vector2;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+import static org.hamcrest.core.Is.is;
+import static org.junit.Assert.assertThat;
+
+@RunWith(JUnit4.class)
+public class SkidmarkBufferTests {
+    private static final int BIRTH_OFFSET = 5;
+
+    @Test
+    public void testTrail() {
+        SkidmarkBuffer buffer = new SkidmarkBuffer(10);
+        SkidmarkBuffer.Trail trail = new SkidmarkBuffer.Trail(buffer);
+
+        // A single point does not create a quad
+        trail.add(new Vector2(0, 0), 0);
+        assertThat(buffer.getQuadCount(), is(0));
+
+        trail.add(new Vector2(1, 0), 1);
+        assertThat(buffer.getQuadCount(), is(1));
+
+        // Start vertices are born with the first point, end vertices with the second one
+        float[] vertices = buffer.getVertices();
+        assertThat(vertices[BIRTH_OFFSET], is(0f));
+        assertThat(vertices[SkidmarkBuffer.VERTEX_SIZE + BIRTH_OFFSET], is(0f));
+        assertThat(vertices[2 * SkidmarkBuffer.VERTEX_SIZE + BIRTH_OFFSET], is(1f));
+        assertThat(vertices[3 * SkidmarkBuffer.VERTEX_SIZE + BIRTH_OFFSET], is(1f));
+
+        // The next point after end() starts a new trail
+        trail.end();
+        trail.add(new Vector2(5, 0), 2);
+        assertThat(buffer.getQuadCount(), is(1));
+        trail.add(new Vector2(6, 0), 3);
+        assertThat(buffer.getQuadCount(), is(2));
+    }
+
+    @Test
+    public void testWrapAround() {
+        SkidmarkBuffer buffer = new SkidmarkBuffer(3);
+        SkidmarkBuffer.Trail trail = new SkidmarkBuffer.Trail(buffer);
+        for (int idx = 0; idx <= 4; ++idx) {
+            trail.add(new Vector2(idx, 0), idx);
+        }
+        assertThat(buffer.getWriteCount(), is(4));
+        assertThat(buffer.getQuadCount(), is(3));
+
+        // The 4th quad, from x=3 to x=4, replaced the first one
+        float[] vertices = buffer.getVertices();
+        assertThat(vertices[0], is(3f));
+        assertThat(vertices[3 * SkidmarkBuffer.VERTEX_SIZE], is(4f));
+    }
+}
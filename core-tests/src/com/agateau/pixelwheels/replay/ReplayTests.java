@@ -0,0 +1,81 @@
+/*
+ * Copyright 2019 Aurélien Gâteau <mail@agateau.com>
+ *
+ * This file is part of Pixel Wheels.
+ *
+ * Pixel Wheels is free software: you can redistribute it and/or modify it under
+ * the terms of the GNU General Public License as published by the Free
+ * Software Foundation, either version 3 of the License, or (at your option)
+ * any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License for
+ * more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.agateau.pixelwheels.replay;
+
+import com.agateau.pixelwheels.GamePlay;
+import com.agateau.pixelwheels.gameinput.GameInput;
+import com.agateau.pixelwheels.gamesetup.GameInfo;
+import com.badlogic.gdx.files.FileHandle;
+import com.badlogic.gdx.utils.Array;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+import java.io.IOException;
+
+import static org.hamcrest.core.Is.is;
+import static org.junit.Assert.assertThat;
+
+@RunWith(JUnit4.class)
+public class ReplayTests {
+    @Rule
+    public TemporaryFolder mTemporaryFolder = new TemporaryFolder();
+
+    @Test
+    public void testWriteRead() throws IOException {
+        Array<GameInfo.Entrant> entrants = new Array<>();
+        entrants.add(new GameInfo.Entrant("ai"));
+        entrants.add(new GameInfo.Player(0, "player"));
+        Replay replay = new Replay("track", 12, GamePlay.instance, true, entrants);
+        replay.addFrame(0.5f);
+        replay.addFrame(0.5f);
+        replay.addFrame(0.25f);
+        GameInput input = new GameInput();
+        input.accelerating = true;
+        replay.getPlayerScript(0).add(input);
+
+        FileHandle testFile = new FileHandle(mTemporaryFolder.getRoot() + "/test.replay");
+        replay.write(testFile);
+        Replay replay2 = Replay.read(testFile);
+
+        assertThat(replay2.getTrackId(), is("track"));
+        assertThat(replay2.getSeed(), is(12L));
+        assertThat(replay2.isOneLapOnly(), is(true));
+        assertThat(replay2.getGamePlay().maxSpeed, is(GamePlay.instance.maxSpeed));
+
+        Array<GameInfo.Entrant> entrants2 = replay2.createEntrants();
+        assertThat(entrants2.size, is(2));
+        assertThat(entrants2.get(0).getVehicleId(), is("ai"));
+        assertThat(entrants2.get(0).isPlayer(), is(false));
+        assertThat(entrants2.get(1).getVehicleId(), is("player"));
+        assertThat(((GameInfo.Player) entrants2.get(1)).getIndex(), is(0));
+
+        assertThat(replay2.getFrameCount(), is(3));
+        assertThat(replay2.getFrameDelta(1), is(0.5f));
+        assertThat(replay2.getFrameDelta(2), is(0.25f));
+
+        assertThat(replay2.getPlayerScript(0).getFrameCount(), is(1));
+        GameInput result = new GameInput();
+        replay2.getPlayerScript(0).get(0, result);
+        assertThat(result.accelerating, is(true));
+    }
+}
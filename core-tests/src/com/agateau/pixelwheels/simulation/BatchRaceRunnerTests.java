@@ -0,0 +1,99 @@
+/*
+ * Copyright 2019 Aurélien Gâteau <mail@agateau.com>
+ *
+ * This file is part of Pixel Wheels.
+ *
+ * Pixel Wheels is free software: you can redistribute it and/or modify it under
+ * the terms of the GNU General Public License as published by the Free
+ * Software Foundation, either version 3 of the License, or (at your option)
+ * any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License for
+ * more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.agateau.pixelwheels.simulation;
+
+import com.agateau.pixelwheels.Assets;
+import com.agateau.pixelwheels.GamePlay;
+import com.agateau.pixelwheels.gamesetup.GameInfo;
+import com.agateau.pixelwheels.vehicledef.VehicleDef;
+import com.badlogic.gdx.ApplicationAdapter;
+import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.backends.headless.HeadlessApplication;
+import com.badlogic.gdx.backends.headless.HeadlessApplicationConfiguration;
+import com.badlogic.gdx.physics.box2d.Box2D;
+import com.badlogic.gdx.utils.Array;
+
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+import static org.hamcrest.core.Is.is;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assume.assumeTrue;
+
+/**
+ * Must be run from the android/assets directory, after the sprites have been packed
+ */
+@RunWith(JUnit4.class)
+public class BatchRaceRunnerTests {
+    private static final String TRACK_ID = "race";
+    private static final int RACE_COUNT = 6;
+    private static final float MAX_DURATION = 15;
+
+    private static Assets sAssets;
+
+    @BeforeClass
+    public static void setUp() {
+        HeadlessApplicationConfiguration config = new HeadlessApplicationConfiguration();
+        config.renderInterval = -1;
+        new HeadlessApplication(new ApplicationAdapter() {}, config);
+        assumeTrue("Sprites have not been packed", Gdx.files.internal("sprites/sprites.atlas").exists());
+        Box2D.init();
+        sAssets = Assets.createHeadless();
+    }
+
+    @Test
+    public void testResultsDoNotDependOnThreadCount() {
+        Array<RaceSimulator.Result> expected = run(1);
+        Array<RaceSimulator.Result> actual = run(3);
+
+        assertThat(actual.size, is(RACE_COUNT));
+        for (int race = 0; race < RACE_COUNT; ++race) {
+            RaceSimulator.Result expectedResult = expected.get(race);
+            RaceSimulator.Result actualResult = actual.get(race);
+            assertThat(actualResult.stepCount, is(expectedResult.stepCount));
+            assertThat(actualResult.racers.size, is(expectedResult.racers.size));
+            for (int idx = 0; idx < expectedResult.racers.size; ++idx) {
+                RaceSimulator.RacerResult expectedRacer = expectedResult.racers.get(idx);
+                RaceSimulator.RacerResult actualRacer = actualResult.racers.get(idx);
+                assertThat(actualRacer.entrant.getVehicleId(), is(expectedRacer.entrant.getVehicleId()));
+                assertThat(actualRacer.rank, is(expectedRacer.rank));
+                assertThat(actualRacer.pickedBonusCount, is(expectedRacer.pickedBonusCount));
+            }
+        }
+    }
+
+    private static Array<RaceSimulator.Result> run(int threadCount) {
+        BatchRaceRunner runner = new BatchRaceRunner(sAssets, threadCount);
+        runner.setMaxDuration(MAX_DURATION);
+        runner.setSeed(12);
+        return runner.run(TRACK_ID, RACE_COUNT, BatchRaceRunnerTests::createEntrants);
+    }
+
+    private static Array<GameInfo.Entrant> createEntrants(int race) {
+        Array<GameInfo.Entrant> entrants = new Array<>();
+        int vehicleCount = sAssets.vehicleDefs.size;
+        for (int idx = 0; idx < GamePlay.instance.racerCount; ++idx) {
+            VehicleDef vehicleDef = sAssets.vehicleDefs.get((race + idx) % vehicleCount);
+            entrants.add(new GameInfo.Entrant(vehicleDef.id));
+        }
+        return entrants;
+    }
+}
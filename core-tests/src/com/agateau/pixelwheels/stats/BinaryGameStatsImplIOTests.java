@@ -0,0 +1,230 @@
+/*
+ * Copyright 2019 Aurélien Gâteau <mail@agateau.com>
+ *
+ * This file is part of Pixel Wheels.
+ *
+ * Pixel Wheels is free software: you can redistribute it and/or modify it under
+ * the terms of the GNU General Public License as published by the Free
+ * Software Foundation, either version 3 of the License, or (at your option)
+ * any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License for
+ * more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.agateau.pixelwheels.stats;
+
+import com.agateau.pixelwheels.map.Championship;
+import com.agateau.pixelwheels.map.Track;
+import com.badlogic.gdx.files.FileHandle;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+
+import static org.hamcrest.core.Is.is;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
+
+@RunWith(JUnit4.class)
+public class BinaryGameStatsImplIOTests {
+    @Rule
+    public TemporaryFolder mTemporaryFolder = new TemporaryFolder();
+
+    @Test
+    public void testIO() {
+        Track track = new Track("t", "track");
+        Championship ch1 = new Championship("ch1", "champ1");
+        FileHandle testFile = new FileHandle(mTemporaryFolder.getRoot() + "/stats.bin");
+
+        BinaryGameStatsImplIO io = new BinaryGameStatsImplIO(testFile, null);
+        GameStats gameStats = new GameStatsImpl(io);
+        gameStats.getTrackStats(track).addResult(TrackStats.ResultType.LAP, new TrackResult("bob", 12));
+        gameStats.getTrackStats(track).addResult(TrackStats.ResultType.TOTAL, new TrackResult("bob", 36));
+        gameStats.onChampionshipFinished(ch1, 2);
+        gameStats.recordEvent(GameStats.Event.MISSILE_HIT);
+        assertTrue(testFile.exists());
+
+        GameStatsImpl gameStats2 = new GameStatsImpl(new BinaryGameStatsImplIO(testFile, null));
+        ArrayList<TrackResult> results = gameStats2.getTrackStats(track).get(TrackStats.ResultType.TOTAL);
+        assertThat(results.size(), is(1));
+        assertThat(results.get(0).vehicle, is("bob"));
+        assertThat(results.get(0).value, is(36f));
+        assertThat(gameStats2.getBestChampionshipRank(ch1), is(2));
+        assertThat(gameStats2.getEventCount(GameStats.Event.MISSILE_HIT), is(1));
+    }
+
+    @Test
+    public void testEventUpdates() {
+        // GIVEN a binary file with an event
+        FileHandle testFile = new FileHandle(mTemporaryFolder.getRoot() + "/stats.bin");
+        GameStats gameStats = new GameStatsImpl(new BinaryGameStatsImplIO(testFile, null));
+        gameStats.recordEvent(GameStats.Event.LEAVING_ROAD);
+
+        // WHEN the event is recorded again, from another instance
+        GameStats gameStats2 = new GameStatsImpl(new BinaryGameStatsImplIO(testFile, null));
+        gameStats2.recordIntEvent(GameStats.Event.LEAVING_ROAD, 1000);
+
+        // THEN the file has been replaced, and no temporary file is left
+        assertFalse(testFile.sibling("stats.bin.tmp").exists());
+        GameStats gameStats3 = new GameStatsImpl(new BinaryGameStatsImplIO(testFile, null));
+        assertThat(gameStats3.getEventCount(GameStats.Event.LEAVING_ROAD), is(1001));
+    }
+
+    @Test
+    public void testEventUpdatesGoToJournal() {
+        // GIVEN a binary file with an event
+        FileHandle testFile = new FileHandle(mTemporaryFolder.getRoot() + "/stats.bin");
+        GameStats gameStats = new GameStatsImpl(new BinaryGameStatsImplIO(testFile, null));
+        gameStats.recordEvent(GameStats.Event.LEAVING_ROAD);
+        byte[] data = testFile.readBytes();
+
+        // WHEN events are recorded again
+        gameStats.recordEvent(GameStats.Event.LEAVING_ROAD);
+        gameStats.recordIntEvent(GameStats.Event.PICKED_BONUS, 3);
+
+        // THEN the file is untouched and the counts are in the journal
+        FileHandle journalFile = testFile.sibling("stats.bin.journal");
+        assertThat(testFile.readBytes(), is(data));
+        assertTrue(journalFile.exists());
+
+        // WHEN loading the stats
+        GameStats gameStats2 = new GameStatsImpl(new BinaryGameStatsImplIO(testFile, null));
+
+        // THEN the journal has been applied and compacted
+        assertThat(gameStats2.getEventCount(GameStats.Event.LEAVING_ROAD), is(2));
+        assertThat(gameStats2.getEventCount(GameStats.Event.PICKED_BONUS), is(3));
+        assertFalse(journalFile.exists());
+        GameStats gameStats3 = new GameStatsImpl(new BinaryGameStatsImplIO(testFile, null));
+        assertThat(gameStats3.getEventCount(GameStats.Event.LEAVING_ROAD), is(2));
+        assertThat(gameStats3.getEventCount(GameStats.Event.PICKED_BONUS), is(3));
+    }
+
+    @Test
+    public void testTruncatedJournal() {
+        // GIVEN a journal whose last record is truncated
+        FileHandle testFile = new FileHandle(mTemporaryFolder.getRoot() + "/stats.bin");
+        GameStats gameStats = new GameStatsImpl(new BinaryGameStatsImplIO(testFile, null));
+        gameStats.recordEvent(GameStats.Event.LEAVING_ROAD);
+        gameStats.recordEvent(GameStats.Event.LEAVING_ROAD);
+        gameStats.recordEvent(GameStats.Event.LEAVING_ROAD);
+        FileHandle journalFile = testFile.sibling("stats.bin.journal");
+        byte[] journal = journalFile.readBytes();
+        journalFile.writeBytes(Arrays.copyOf(journal, journal.length - 2), false);
+
+        // WHEN loading the stats
+        GameStats gameStats2 = new GameStatsImpl(new BinaryGameStatsImplIO(testFile, null));
+
+        // THEN the complete records have been applied
+        assertThat(gameStats2.getEventCount(GameStats.Event.LEAVING_ROAD), is(2));
+    }
+
+    @Test
+    public void testStaleJournal() {
+        // GIVEN a journal
+        FileHandle testFile = new FileHandle(mTemporaryFolder.getRoot() + "/stats.bin");
+        GameStats gameStats = new GameStatsImpl(new BinaryGameStatsImplIO(testFile, null));
+        gameStats.recordEvent(GameStats.Event.LEAVING_ROAD);
+        gameStats.recordEvent(GameStats.Event.LEAVING_ROAD);
+        FileHandle journalFile = testFile.sibling("stats.bin.journal");
+        byte[] journal = journalFile.readBytes();
+
+        // AND a file which has been rewritten since, but whose journal has not been deleted
+        Championship ch1 = new Championship("ch1", "champ1");
+        gameStats.recordEvent(GameStats.Event.LEAVING_ROAD);
+        gameStats.onChampionshipFinished(ch1, 1);
+        gameStats.recordEvent(GameStats.Event.PICKED_BONUS);
+        gameStats.getTrackStats(new Track("t", "track")).addResult(TrackStats.ResultType.LAP, new TrackResult("bob", 12));
+        journalFile.writeBytes(journal, false);
+
+        // WHEN loading the stats
+        GameStats gameStats2 = new GameStatsImpl(new BinaryGameStatsImplIO(testFile, null));
+
+        // THEN the journal has been ignored
+        assertThat(gameStats2.getEventCount(GameStats.Event.LEAVING_ROAD), is(3));
+        assertThat(gameStats2.getEventCount(GameStats.Event.PICKED_BONUS), is(1));
+        assertThat(gameStats2.getBestChampionshipRank(ch1), is(1));
+        assertFalse(journalFile.exists());
+    }
+
+    @Test
+    public void testCorruptFile() {
+        // GIVEN a truncated binary file
+        FileHandle testFile = new FileHandle(mTemporaryFolder.getRoot() + "/stats.bin");
+        GameStats gameStats = new GameStatsImpl(new BinaryGameStatsImplIO(testFile, null));
+        gameStats.recordEvent(GameStats.Event.LEAVING_ROAD);
+        byte[] data = testFile.readBytes();
+        byte[] truncatedData = Arrays.copyOf(data, data.length / 2);
+        testFile.writeBytes(truncatedData, false);
+
+        // WHEN loading it
+        GameStats gameStats2 = new GameStatsImpl(new BinaryGameStatsImplIO(testFile, null));
+
+        // THEN stats are empty
+        assertThat(gameStats2.getEventCount(GameStats.Event.LEAVING_ROAD), is(0));
+
+        // AND the truncated file has been moved aside, untouched
+        FileHandle corruptFile = testFile.sibling("stats.bin.corrupt");
+        assertTrue(corruptFile.exists());
+        assertThat(corruptFile.readBytes(), is(truncatedData));
+
+        // WHEN an event is recorded
+        gameStats2.recordEvent(GameStats.Event.PICKED_BONUS);
+
+        // THEN a new valid file is written, and the moved file is left untouched
+        GameStats gameStats3 = new GameStatsImpl(new BinaryGameStatsImplIO(testFile, null));
+        assertThat(gameStats3.getEventCount(GameStats.Event.PICKED_BONUS), is(1));
+        assertThat(corruptFile.readBytes(), is(truncatedData));
+    }
+
+    @Test
+    public void testCorruptFileFallsBackToJson() {
+        // GIVEN a JSON file and a corrupt binary file
+        Championship ch1 = new Championship("ch1", "champ1");
+        FileHandle jsonFile = new FileHandle(mTemporaryFolder.getRoot() + "/stats.json");
+        FileHandle binaryFile = new FileHandle(mTemporaryFolder.getRoot() + "/stats.bin");
+        GameStats jsonStats = new GameStatsImpl(new JsonGameStatsImplIO(jsonFile));
+        jsonStats.onChampionshipFinished(ch1, 3);
+        binaryFile.writeString("garbage", false);
+
+        // WHEN loading binary stats
+        GameStats gameStats = new GameStatsImpl(new BinaryGameStatsImplIO(binaryFile, jsonFile));
+
+        // THEN the JSON content has been loaded and written to the binary file
+        assertThat(gameStats.getBestChampionshipRank(ch1), is(3));
+        GameStats gameStats2 = new GameStatsImpl(new BinaryGameStatsImplIO(binaryFile, null));
+        assertThat(gameStats2.getBestChampionshipRank(ch1), is(3));
+        assertThat(binaryFile.sibling("stats.bin.corrupt").readString(), is("garbage"));
+    }
+
+    @Test
+    public void testMigrateFromJson() {
+        // GIVEN a JSON file and no binary file
+        Championship ch1 = new Championship("ch1", "champ1");
+        FileHandle jsonFile = new FileHandle(mTemporaryFolder.getRoot() + "/stats.json");
+        FileHandle binaryFile = new FileHandle(mTemporaryFolder.getRoot() + "/stats.bin");
+        GameStats jsonStats = new GameStatsImpl(new JsonGameStatsImplIO(jsonFile));
+        jsonStats.onChampionshipFinished(ch1, 3);
+        jsonStats.recordEvent(GameStats.Event.PICKED_BONUS);
+
+        // WHEN loading binary stats
+        GameStats gameStats = new GameStatsImpl(new BinaryGameStatsImplIO(binaryFile, jsonFile));
+
+        // THEN the JSON content has been loaded and written to the binary file
+        assertThat(gameStats.getBestChampionshipRank(ch1), is(3));
+        assertTrue(binaryFile.exists());
+        GameStats gameStats2 = new GameStatsImpl(new BinaryGameStatsImplIO(binaryFile, null));
+        assertThat(gameStats2.getBestChampionshipRank(ch1), is(3));
+        assertThat(gameStats2.getEventCount(GameStats.Event.PICKED_BONUS), is(1));
+    }
+}
@@ -0,0 +1,96 @@
+/*
+ * Copyright 2019 Aurélien Gâteau <mail@agateau.com>
+ *
+ * This file is part of Pixel Wheels.
+ *
+ * Pixel Wheels is free software: you can redistribute it and/or modify it under
+ * the terms of the GNU General Public License as published by the Free
+ * Software Foundation, either version 3 of the License, or (at your option)
+ * any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License for
+ * more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.agateau.pixelwheels.stats;
+
+import com.badlogic.gdx.files.FileHandle;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+import static org.hamcrest.core.Is.is;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
+
+@RunWith(JUnit4.class)
+public class WriteBehindGameStatsImplIOTests {
+    @Rule
+    public TemporaryFolder mTemporaryFolder = new TemporaryFolder();
+
+    @Test
+    public void testSaveIsDeferredUntilFlush() {
+        // GIVEN write-behind stats
+        FileHandle testFile = new FileHandle(mTemporaryFolder.getRoot() + "/io.json");
+        WriteBehindGameStatsImplIO<String> io = new WriteBehindGameStatsImplIO<>(new JsonGameStatsImplIO(testFile));
+        GameStats gameStats = new GameStatsImpl(io);
+
+        // WHEN events are recorded
+        gameStats.recordEvent(GameStats.Event.MISSILE_HIT);
+        gameStats.recordEvent(GameStats.Event.MISSILE_HIT);
+
+        // THEN nothing is written
+        assertFalse(testFile.exists());
+
+        // WHEN the io is disposed
+        io.dispose();
+
+        // THEN all events have been written
+        assertTrue(testFile.exists());
+        GameStatsImpl gameStats2 = new GameStatsImpl(new JsonGameStatsImplIO(testFile));
+        assertThat(gameStats2.getEventCount(GameStats.Event.MISSILE_HIT), is(2));
+    }
+
+    @Test
+    public void testFlushWritesInBackground() {
+        // GIVEN write-behind stats
+        FileHandle testFile = new FileHandle(mTemporaryFolder.getRoot() + "/io.json");
+        WriteBehindGameStatsImplIO<String> io = new WriteBehindGameStatsImplIO<>(new JsonGameStatsImplIO(testFile));
+        GameStats gameStats = new GameStatsImpl(io);
+
+        // WHEN an event is recorded and the stats are flushed
+        gameStats.recordEvent(GameStats.Event.PICKED_BONUS);
+        gameStats.flush();
+        io.dispose();
+
+        // THEN it has been written, and no temporary file is left
+        GameStatsImpl gameStats2 = new GameStatsImpl(new JsonGameStatsImplIO(testFile));
+        assertThat(gameStats2.getEventCount(GameStats.Event.PICKED_BONUS), is(1));
+        assertFalse(testFile.sibling("io.json.tmp").exists());
+    }
+
+    @Test
+    public void testFlushAndWait() {
+        // GIVEN write-behind stats
+        FileHandle testFile = new FileHandle(mTemporaryFolder.getRoot() + "/io.json");
+        WriteBehindGameStatsImplIO<String> io = new WriteBehindGameStatsImplIO<>(new JsonGameStatsImplIO(testFile));
+        GameStats gameStats = new GameStatsImpl(io);
+
+        // WHEN an event is recorded and the stats are flushed, waiting for the write
+        gameStats.recordEvent(GameStats.Event.PICKED_BONUS);
+        io.flushAndWait();
+
+        // THEN it has been written before the io is disposed
+        GameStatsImpl gameStats2 = new GameStatsImpl(new JsonGameStatsImplIO(testFile));
+        assertThat(gameStats2.getEventCount(GameStats.Event.PICKED_BONUS), is(1));
+        io.dispose();
+    }
+}
@@ -0,0 +1,72 @@
+/*
+ * Copyright 2019 Aurélien Gâteau <mail@agateau.com>
+ *
+ * This file is part of Pixel Wheels.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License.
+ *
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package com.agateau.utils.tests;
+
+import com.agateau.utils.profiling.Histogram;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+import static junit.framework.TestCase.assertEquals;
+import static junit.framework.TestCase.assertTrue;
+
+@RunWith(JUnit4.class)
+public class HistogramTests {
+    @Test
+    public void testSmallValuesAreExact() {
+        Histogram histogram = new Histogram();
+        for (int value = 1; value <= 4; ++value) {
+            histogram.add(value);
+        }
+        assertEquals(4, histogram.getCount());
+        assertEquals(2.5, histogram.getMean());
+        assertEquals(2, histogram.getPercentile(50));
+        assertEquals(4, histogram.getPercentile(100));
+    }
+
+    @Test
+    public void testPercentiles() {
+        Histogram histogram = new Histogram();
+        // 1000 values from 1ms to 1s, in ns
+        for (int value = 1; value <= 1000; ++value) {
+            histogram.add(value * 1000000L);
+        }
+        assertEquals(1000000000L, histogram.getMax());
+        assertPercentileNear(histogram, 50, 500000000L);
+        assertPercentileNear(histogram, 95, 950000000L);
+        assertPercentileNear(histogram, 99, 990000000L);
+    }
+
+    @Test
+    public void testClear() {
+        Histogram histogram = new Histogram();
+        histogram.add(12);
+        histogram.clear();
+        assertEquals(0, histogram.getCount());
+        assertEquals(0, histogram.getPercentile(50));
+    }
+
+    private static void assertPercentileNear(Histogram histogram, float percentile, long expected) {
+        long actual = histogram.getPercentile(percentile);
+        // Buckets are 1/32 of a power of two wide, and percentiles return their upper bound
+        assertTrue("p" + percentile + " is " + actual, actual >= expected);
+        assertTrue("p" + percentile + " is " + actual, actual <= expected * 1.05);
+    }
+}
@@ -0,0 +1,118 @@
+/*
+ * Copyright 2019 Aurélien Gâteau <mail@agateau.com>
+ *
+ * This file is part of Pixel Wheels.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License.
+ *
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package com.agateau.utils.tests;
+
+import com.agateau.utils.log.NLog;
+import com.badlogic.gdx.Application;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+import java.util.ArrayList;
+
+import static junit.framework.TestCase.assertEquals;
+import static junit.framework.TestCase.assertTrue;
+
+@RunWith(JUnit4.class)
+public class NLogTests {
+    private static class TestPrinter implements NLog.Printer {
+        final ArrayList<String> mTags = new ArrayList<>();
+        final ArrayList<String> mMessages = new ArrayList<>();
+
+        @Override
+        public boolean isLoggable(int level) {
+            return level <= Application.LOG_INFO;
+        }
+
+        @Override
+        public void print(int level, String tag, String message) {
+            mTags.add(tag);
+            mMessages.add(message);
+        }
+    }
+
+    @Test
+    public void testRateLimit() {
+        TestPrinter printer = new TestPrinter();
+        NLog.addPrinter(printer);
+        try {
+            for (int idx = 0; idx < 50; ++idx) {
+                NLog.e("Error %d", idx);
+            }
+            NLog.flush();
+        } finally {
+            NLog.removePrinter(printer);
+        }
+        assertEquals(10, printer.mMessages.size());
+        assertEquals("Error 0", printer.mMessages.get(0));
+        assertEquals("NLogTests.testRateLimit", printer.mTags.get(0));
+    }
+
+    @Test
+    public void testRateLimitIsPerCallSite() {
+        TestPrinter printer = new TestPrinter();
+        NLog.addPrinter(printer);
+        try {
+            for (int idx = 0; idx < 20; ++idx) {
+                NLog.e("Same format");
+            }
+            for (int idx = 0; idx < 20; ++idx) {
+                NLog.e("Same format");
+            }
+            NLog.flush();
+        } finally {
+            NLog.removePrinter(printer);
+        }
+        assertEquals(20, printer.mMessages.size());
+    }
+
+    @Test
+    public void testCallSite() {
+        NLog.CallSite site = NLog.createCallSite("Test.site");
+        TestPrinter printer = new TestPrinter();
+        NLog.addPrinter(printer);
+        try {
+            for (int idx = 0; idx < 50; ++idx) {
+                site.e("Pixel %d x %d", idx, idx + 1);
+            }
+            NLog.flush();
+        } finally {
+            NLog.removePrinter(printer);
+        }
+        assertEquals(10, printer.mMessages.size());
+        assertEquals("Pixel 0 x 1", printer.mMessages.get(0));
+        assertEquals("Test.site", printer.mTags.get(0));
+    }
+
+    @Test
+    public void testLevelFiltering() {
+        TestPrinter printer = new TestPrinter();
+        NLog.addPrinter(printer);
+        try {
+            NLog.d("Debug %s", "message");
+            NLog.i("Info %s", "message");
+            NLog.flush();
+        } finally {
+            NLog.removePrinter(printer);
+        }
+        assertEquals(1, printer.mMessages.size());
+        assertTrue(printer.mMessages.get(0).startsWith("Info"));
+    }
+}
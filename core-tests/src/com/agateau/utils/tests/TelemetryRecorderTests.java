@@ -0,0 +1,79 @@
+/*
+ * Copyright 2019 Aurélien Gâteau <mail@agateau.com>
+ *
+ * This file is part of Pixel Wheels.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License.
+ *
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package com.agateau.utils.tests;
+
+import com.agateau.utils.telemetry.TelemetryReader;
+import com.agateau.utils.telemetry.TelemetryRecorder;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+import java.io.File;
+import java.io.IOException;
+
+import static junit.framework.TestCase.assertEquals;
+import static junit.framework.TestCase.assertFalse;
+import static junit.framework.TestCase.assertTrue;
+
+@RunWith(JUnit4.class)
+public class TelemetryRecorderTests {
+    @Rule
+    public TemporaryFolder mTemporaryFolder = new TemporaryFolder();
+
+    @Test
+    public void testRoundTrip() throws IOException {
+        File file = mTemporaryFolder.newFile("telemetry.bin");
+        // Enough frames to fill several buffers
+        final int frameCount = 10000;
+
+        TelemetryRecorder recorder = new TelemetryRecorder(file);
+        int speedChannel = recorder.addFloatChannel("speed");
+        int categoryChannel = recorder.addIntChannel("category");
+        for (int frame = 0; frame < frameCount; ++frame) {
+            recorder.beginFrame(frame / 60f);
+            recorder.record(speedChannel, frame * 0.5f);
+            if (frame % 2 == 0) {
+                recorder.record(categoryChannel, frame);
+            }
+        }
+        recorder.dispose();
+
+        try (TelemetryReader reader = new TelemetryReader(file)) {
+            assertEquals(3, reader.getChannelCount());
+            assertEquals("t", reader.getChannelName(TelemetryRecorder.TIME_CHANNEL));
+            assertEquals("speed", reader.getChannelName(speedChannel));
+            assertEquals("category", reader.getChannelName(categoryChannel));
+            assertTrue(reader.isIntChannel(categoryChannel));
+
+            for (int frame = 0; frame < frameCount; ++frame) {
+                assertTrue(reader.readFrame());
+                assertEquals(frame / 60f, reader.getFloatValue(TelemetryRecorder.TIME_CHANNEL));
+                assertEquals(frame * 0.5f, reader.getFloatValue(speedChannel));
+                assertEquals(frame % 2 == 0, reader.hasValue(categoryChannel));
+                if (frame % 2 == 0) {
+                    assertEquals(frame, reader.getIntValue(categoryChannel));
+                }
+            }
+            assertFalse(reader.readFrame());
+        }
+    }
+}
@@ -29,6 +29,7 @@ import com.agateau.pixelwheels.vehicledef.VehicleIO;
 import com.agateau.ui.StrictTextureAtlas;
 import com.agateau.ui.UiAssets;
 import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.files.FileHandle;
 import com.badlogic.gdx.graphics.g2d.Animation;
 import com.badlogic.gdx.graphics.g2d.TextureAtlas;
 import com.badlogic.gdx.graphics.g2d.TextureRegion;
@@ -55,7 +56,10 @@ public class Assets {
             new Track("tiny-sur-mer", "Tiny sur Mer"),
     });
     public final Array<Championship> championships = new Array<>();
-    public final UiAssets ui = new UiAssets();
+    /**
+     * Not available in headless assets
+     */
+    public final UiAssets ui;
 
     public final TextureRegion wheel;
     public final TextureRegion dot;
@@ -78,13 +82,44 @@ public class Assets {
     public final SoundAtlas soundAtlas = new SoundAtlas(Gdx.files.internal("sounds"));
 
     private final Animation<TextureRegion> explosion;
+    private final boolean headless;
 
     Assets() {
+        this(false);
+    }
+
+    /**
+     * Creates assets which can be used without a GL context, for simulations: region sizes are
+     * correct but textures contain nothing, and UI assets are not loaded
+     */
+    public static Assets createHeadless() {
+        return new Assets(true);
+    }
+
+    /**
+     * Returns true if the assets have been created with createHeadless()
+     */
+    public boolean isHeadless() {
+        return headless;
+    }
+
+    private Assets(boolean headless) {
+        this.headless = headless;
         if (GamePlay.instance.showTestTrack) {
             tracks.add(new Track("test", "Test"));
         }
 
-        this.atlas = new StrictTextureAtlas(Gdx.files.internal("sprites/sprites.atlas"));
+        FileHandle atlasHandle = Gdx.files.internal("sprites/sprites.atlas");
+        if (headless) {
+            this.ui = null;
+            this.atlas = StrictTextureAtlas.createTextureFree(atlasHandle);
+            for (Track track : tracks) {
+                track.setTextureFree(true);
+            }
+        } else {
+            this.ui = new UiAssets();
+            this.atlas = new StrictTextureAtlas(atlasHandle);
+        }
         this.wheel = findRegion("wheel");
         this.explosion = new Animation<>(EXPLOSION_FRAME_DURATION, this.atlas.findRegions("explosion"));
         this.impact = new Animation<>(IMPACT_FRAME_DURATION, this.atlas.findRegions("impact"));
@@ -159,8 +194,11 @@ public class Assets {
         return this.atlas.findRegion(name);
     }
 
+    // The find*ById() methods can be called from simulation threads: they use indexed loops since
+    // Array iterators are shared
     public VehicleDef findVehicleDefById(String id) {
-        for (VehicleDef def : vehicleDefs) {
+        for (int idx = 0; idx < vehicleDefs.size; ++idx) {
+            VehicleDef def = vehicleDefs.get(idx);
             if (def.id.equals(id)) {
                 return def;
             }
@@ -169,7 +207,8 @@ public class Assets {
     }
 
     public Championship findChampionshipById(String id) {
-        for (Championship championship : championships) {
+        for (int idx = 0; idx < championships.size; ++idx) {
+            Championship championship = championships.get(idx);
             if (championship.getId().equals(id)) {
                 return championship;
             }
@@ -178,7 +217,8 @@ public class Assets {
     }
 
     public Track findTrackById(String id) {
-        for (Track track : tracks) {
+        for (int idx = 0; idx < tracks.size; ++idx) {
+            Track track = tracks.get(idx);
             if (track.getId().equals(id)) {
                 return track;
             }
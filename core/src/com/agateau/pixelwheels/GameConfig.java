@@ -42,6 +42,7 @@ public class GameConfig {
 
     public boolean fullscreen = false;
     public boolean audio = true;
+    public boolean splitScreen = false;
 
     public GameMode gameMode = GameMode.QUICK_RACE;
     public final String[] vehicles = new String[Constants.MAX_PLAYERS];
@@ -63,6 +64,7 @@ public class GameConfig {
     private void load() {
         fullscreen = mPreferences.getBoolean(PrefConstants.FULLSCREEN, false);
         audio = mPreferences.getBoolean(PrefConstants.AUDIO, true);
+        splitScreen = mPreferences.getBoolean(PrefConstants.SPLIT_SCREEN, false);
 
         try {
             this.gameMode = GameMode.valueOf(mPreferences.getString(PrefConstants.GAME_MODE));
@@ -88,6 +90,7 @@ public class GameConfig {
     public void flush() {
         mPreferences.putBoolean(PrefConstants.FULLSCREEN, fullscreen);
         mPreferences.putBoolean(PrefConstants.AUDIO, audio);
+        mPreferences.putBoolean(PrefConstants.SPLIT_SCREEN, splitScreen);
 
         mPreferences.putString(PrefConstants.GAME_MODE, this.gameMode.toString());
         for (int idx = 0; idx < this.vehicles.length; ++idx) {
@@ -49,10 +49,20 @@ public class GamePlay {
     // When an AI is better ranked than a player, set its max speed to this percent of the best max speed
     public float aiSpeedLimiter = 0.8f;
 
+    // Act game objects at each physics step instead of once per frame, makes races independent
+    // of the frame rate. Off by default: it changes how the game feels, since pilots and friction
+    // then run at the physics rate
+    public boolean fixedStepGameObjects = false;
+
+    // Number of physics steps per second. Bodies are drawn interpolated between steps, so this can
+    // be lowered on slow devices without making the motion stutter
+    public int physicsStepRate = 60;
+
     public boolean alwaysShowTouchInput = false;
 
     public boolean showTestTrack = false;
-    public boolean createSpeedReport = false;
+    // Record vehicle values in a telemetry file, see TelemetryRecorder
+    public boolean recordTelemetry = false;
 
     public float driftVolume = 0.6f;
     public float turboVolume = 0.5f;
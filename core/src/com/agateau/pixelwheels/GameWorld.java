@@ -24,7 +24,10 @@ import com.agateau.pixelwheels.bonus.GunBonus;
 import com.agateau.pixelwheels.bonus.MineBonus;
 import com.agateau.pixelwheels.bonus.MissileBonus;
 import com.agateau.pixelwheels.bonus.TurboBonus;
+import com.agateau.pixelwheels.debug.Debug;
+import com.agateau.pixelwheels.debug.DebugShapeMap;
 import com.agateau.pixelwheels.gameobjet.GameObject;
+import com.agateau.pixelwheels.gameobjet.Interpolable;
 import com.agateau.pixelwheels.gamesetup.GameInfo;
 import com.agateau.pixelwheels.map.Track;
 import com.agateau.pixelwheels.stats.GameStats;
@@ -32,8 +35,11 @@ import com.agateau.pixelwheels.stats.TrackResult;
 import com.agateau.pixelwheels.stats.TrackStats;
 import com.agateau.pixelwheels.racer.AIPilot;
 import com.agateau.pixelwheels.racer.LapPositionComponent;
+import com.agateau.pixelwheels.racer.Pilot;
 import com.agateau.pixelwheels.racer.PlayerPilot;
 import com.agateau.pixelwheels.racer.Racer;
+import com.agateau.pixelwheels.racer.RacerRanking;
+import com.agateau.pixelwheels.racer.SkidmarkBuffer;
 import com.agateau.pixelwheels.racer.Vehicle;
 import com.agateau.pixelwheels.racescreen.Collidable;
 import com.agateau.pixelwheels.racescreen.CollisionCategories;
@@ -43,7 +49,13 @@ import com.agateau.pixelwheels.utils.Box2DUtils;
 import com.agateau.pixelwheels.vehicledef.VehicleCreator;
 import com.agateau.pixelwheels.vehicledef.VehicleDef;
 import com.agateau.utils.Assert;
+import com.agateau.utils.FileUtils;
+import com.agateau.utils.log.NLog;
+import com.agateau.utils.profiling.Profiler;
+import com.agateau.utils.telemetry.TelemetryRecorder;
+import com.badlogic.gdx.files.FileHandle;
 import com.badlogic.gdx.maps.MapObject;
+import com.badlogic.gdx.math.RandomXS128;
 import com.badlogic.gdx.math.Vector2;
 import com.badlogic.gdx.physics.box2d.Body;
 import com.badlogic.gdx.physics.box2d.Contact;
@@ -53,55 +65,121 @@ import com.badlogic.gdx.physics.box2d.Manifold;
 import com.badlogic.gdx.physics.box2d.World;
 import com.badlogic.gdx.utils.Array;
 import com.badlogic.gdx.utils.Disposable;
-import com.badlogic.gdx.utils.PerformanceCounter;
-import com.badlogic.gdx.utils.PerformanceCounters;
-import com.badlogic.gdx.utils.Sort;
 
-import java.util.Comparator;
+import java.io.IOException;
+import java.util.EnumSet;
 
 /**
  * Contains all the information and objects running in the world
  */
 public class GameWorld implements ContactListener, Disposable {
+    public interface PlayerPilotFactory {
+        Pilot createPilot(GameWorld world, Racer racer, int playerIndex);
+    }
+
     public enum State {
         COUNTDOWN,
         RUNNING,
         FINISHED
     }
 
+    // Time step at the default physics step rate, the actual one is returned by getTimeStep()
     public static final float BOX2D_TIME_STEP = 1f/60f;
     public static final int VELOCITY_ITERATIONS = 6;
     public static final int POSITION_ITERATIONS = 2;
-
-    private final PwGame mGame;
+    public static final int TOTAL_LAP_COUNT = 3;
+    private static final float MAX_FRAME_TIME = 0.25f;
+    private static final ZLevel[] Z_LEVELS = ZLevel.values();
+    private static final String TELEMETRY_FILE_NAME = "telemetry.bin";
+    private static final String ACT_PROFILER_SCOPE = "GameWorld.act";
+    // Racers add scopes for their components below this one
+    public static final String GAME_OBJECTS_PROFILER_SCOPE = ACT_PROFILER_SCOPE + "/g.o";
+
+    private final Assets mAssets;
+    private final AudioManager mAudioManager;
+    private final GameStats mGameStats;
+    private final PlayerPilotFactory mPlayerPilotFactory;
+    private final GamePlay mGamePlay;
+    private final Debug mDebug;
+    private final RandomXS128 mRandom;
+    private final DebugShapeMap mDebugShapeMap = new DebugShapeMap();
+    private final SkidmarkBuffer mSkidmarkBuffer;
     private Track mTrack;
     private final CountDown mCountDown;
 
     private final World mBox2DWorld;
+    private final float mTimeStep;
     private float mTimeAccumulator = 0;
+    // Time spent in actGameObjects(), in seconds
+    private float mTime = 0;
+    private TelemetryRecorder mTelemetry = null;
 
     private final Array<BonusPool> mBonusPools = new Array<>();
 
-    private final Array<Racer> mRacers = new Array<>();
+    private final RacerRanking mRacerRanking = new RacerRanking();
+    private final Array<Racer> mRacers = mRacerRanking.getRacers();
     private final Array<Racer> mPlayerRacers = new Array<>();
+    private int mLastPlayerRank = 0;
     private State mState = State.COUNTDOWN;
 
     private final Array<GameObject> mActiveGameObjects = new Array<>();
+    // Active game objects, indexed by the ordinal of the ZLevels they draw at
+    private final Array<Array<GameObject>> mGameObjectsForZLevel = new Array<>();
+
+    private final Profiler mProfiler;
+    private final Profiler.Scope mActScope;
+    private final Profiler.Scope mBox2DScope;
+    private final Profiler.Scope mGameObjectScope;
+
+    public GameWorld(PwGame game, GameInfo gameInfo, Profiler profiler) {
+        this(game.getAssets(), game.getAudioManager(), game.getGameStats(),
+                (world, racer, playerIndex) -> new PlayerPilot(game.getAssets(), world, racer, game.getConfig(), playerIndex),
+                GamePlay.instance, Debug.instance, gameInfo.getSeed(),
+                gameInfo.getTrack(), gameInfo.getEntrants(), profiler);
+    }
 
-    private final PerformanceCounter mBox2DPerformanceCounter;
-    private final PerformanceCounter mGameObjectPerformanceCounter;
-
-    public GameWorld(PwGame game, GameInfo gameInfo, PerformanceCounters performanceCounters) {
-        mGame = game;
+    /**
+     * Creates a world without depending on PwGame. This is what headless simulations use.
+     *
+     * @p playerPilotFactory creates the pilots of player racers, it can be null if there are none
+     *
+     * @p gamePlay and @p debug are read by the world and its objects instead of the global
+     * instances, so that simulations running in parallel can use their own settings. They must not
+     * be changed while the world is running.
+     *
+     * @p seed initializes the random source returned by getRandom(): two worlds created with the
+     * same arguments and acted with the same deltas and inputs run the same race.
+     */
+    public GameWorld(Assets assets, AudioManager audioManager, GameStats gameStats, PlayerPilotFactory playerPilotFactory,
+                     GamePlay gamePlay, Debug debug, long seed,
+                     Track track, Array<GameInfo.Entrant> entrants, Profiler profiler) {
+        mAssets = assets;
+        mAudioManager = audioManager;
+        mGameStats = gameStats;
+        mPlayerPilotFactory = playerPilotFactory;
+        mGamePlay = gamePlay;
+        mDebug = debug;
+        mRandom = new RandomXS128(seed);
+        for (int idx = 0; idx < Z_LEVELS.length; ++idx) {
+            mGameObjectsForZLevel.add(new Array<>());
+        }
+        mTimeStep = 1f / gamePlay.physicsStepRate;
         mBox2DWorld = new World(new Vector2(0, 0), true);
         mBox2DWorld.setContactListener(this);
-        mTrack = gameInfo.getTrack();
+        mTrack = track;
         mTrack.init();
-        mCountDown = new CountDown(this, game.getAudioManager(), game.getAssets().soundAtlas);
-
-        mBox2DPerformanceCounter = performanceCounters.add("- box2d");
-        mGameObjectPerformanceCounter = performanceCounters.add("- g.o");
-        setupRacers(gameInfo.getEntrants());
+        mCountDown = new CountDown(this, audioManager, assets.soundAtlas);
+        // GamePlay.maxSkidmarks is per wheel, assume vehicles have 4 wheels
+        mSkidmarkBuffer = new SkidmarkBuffer(gamePlay.maxSkidmarks * 4 * Math.max(entrants.size, 1));
+
+        mProfiler = profiler;
+        mActScope = profiler.getScope(ACT_PROFILER_SCOPE);
+        mBox2DScope = profiler.getScope(ACT_PROFILER_SCOPE + "/box2d");
+        mGameObjectScope = profiler.getScope(GAME_OBJECTS_PROFILER_SCOPE);
+        if (gamePlay.recordTelemetry) {
+            mTelemetry = createTelemetryRecorder();
+        }
+        setupRacers(entrants);
         setupRoadBorders();
         setupBonusSpots();
         setupBonusPools();
@@ -111,6 +189,34 @@ public class GameWorld implements ContactListener, Disposable {
         return mTrack;
     }
 
+    public Profiler getProfiler() {
+        return mProfiler;
+    }
+
+    public GamePlay getGamePlay() {
+        return mGamePlay;
+    }
+
+    public SkidmarkBuffer getSkidmarkBuffer() {
+        return mSkidmarkBuffer;
+    }
+
+    /**
+     * The random source to use for anything affecting the race. Cosmetic randomness, such as sound
+     * pitch variations, must not use it, otherwise replays would depend on audio settings.
+     */
+    public RandomXS128 getRandom() {
+        return mRandom;
+    }
+
+    public DebugShapeMap getDebugShapeMap() {
+        return mDebugShapeMap;
+    }
+
+    public int getTotalLapCount() {
+        return mDebug.oneLapOnly ? 1 : TOTAL_LAP_COUNT;
+    }
+
     public World getBox2DWorld() {
         return mBox2DWorld;
     }
@@ -135,8 +241,32 @@ public class GameWorld implements ContactListener, Disposable {
         return  mActiveGameObjects;
     }
 
+    /**
+     * Returns the active game objects which draw at @p zLevel, in the same order as
+     * getActiveGameObjects()
+     */
+    public Array<GameObject> getActiveGameObjects(ZLevel zLevel) {
+        return mGameObjectsForZLevel.get(zLevel.ordinal());
+    }
+
     public void addGameObject(GameObject object) {
         mActiveGameObjects.add(object);
+        EnumSet<ZLevel> zLevels = object.getZLevels();
+        for (ZLevel zLevel : Z_LEVELS) {
+            if (zLevels.contains(zLevel)) {
+                mGameObjectsForZLevel.get(zLevel.ordinal()).add(object);
+            }
+        }
+    }
+
+    private void removeGameObjectAt(int idx) {
+        GameObject object = mActiveGameObjects.removeIndex(idx);
+        EnumSet<ZLevel> zLevels = object.getZLevels();
+        for (ZLevel zLevel : Z_LEVELS) {
+            if (zLevels.contains(zLevel)) {
+                mGameObjectsForZLevel.get(zLevel.ordinal()).removeValue(object, /* identity= */ true);
+            }
+        }
     }
 
     public CountDown getCountDown() {
@@ -144,12 +274,14 @@ public class GameWorld implements ContactListener, Disposable {
     }
 
     public int getRacerRank(Racer racer) {
-        for (int idx = mRacers.size - 1; idx >= 0; --idx) {
-            if (mRacers.get(idx) == racer) {
-                return idx + 1;
-            }
-        }
-        return -1;
+        return racer.getRank();
+    }
+
+    /**
+     * Returns the rank of the worst ranked player racer, or 0 if there are no player racers
+     */
+    public int getLastPlayerRank() {
+        return mLastPlayerRank;
     }
 
     /**
@@ -164,71 +296,101 @@ public class GameWorld implements ContactListener, Disposable {
     }
 
     public GameStats getGameStats() {
-        return mGame.getGameStats();
+        return mGameStats;
     }
 
-    /**
-     * Sort racers, listing racers which have driven the longest first,
-     * so it returns 1 if racer1 has driven less than racer2
-     */
-    private static final Comparator<Racer> sRacerComparator = (racer1, racer2) -> {
-        LapPositionComponent c1 = racer1.getLapPositionComponent();
-        LapPositionComponent c2 = racer2.getLapPositionComponent();
-        if (!c1.hasFinishedRace() && c2.hasFinishedRace()) {
-            return 1;
-        }
-        if (c1.hasFinishedRace() && !c2.hasFinishedRace()) {
-            return -1;
-        }
-        if (c1.getLapCount() < c2.getLapCount()) {
-            return 1;
-        }
-        if (c1.getLapCount() > c2.getLapCount()) {
-            return -1;
-        }
-        float d1 = c1.getLapDistance();
-        float d2 = c2.getLapDistance();
-        return Float.compare(d2, d1);
-    };
-
     public void act(float delta) {
-        mCountDown.act(delta);
-        mBox2DPerformanceCounter.start();
-        // fixed time step
+        mActScope.start();
         // max frame time to avoid spiral of death (on slow devices)
-        float frameTime = Math.min(delta, 0.25f);
+        float frameTime = Math.min(delta, MAX_FRAME_TIME);
         mTimeAccumulator += frameTime;
-        while (mTimeAccumulator >= BOX2D_TIME_STEP) {
-            mBox2DWorld.step(BOX2D_TIME_STEP, VELOCITY_ITERATIONS, POSITION_ITERATIONS);
-            mTimeAccumulator -= BOX2D_TIME_STEP;
+        if (mGamePlay.fixedStepGameObjects) {
+            // Everything advances by the time step, so the race does not depend on the frame rate
+            while (mTimeAccumulator >= mTimeStep) {
+                mCountDown.act(mTimeStep);
+                stepBox2DWorld();
+                actGameObjects(mTimeStep);
+                updateRanksAndState();
+                mTimeAccumulator -= mTimeStep;
+            }
+        } else {
+            mCountDown.act(delta);
+            while (mTimeAccumulator >= mTimeStep) {
+                stepBox2DWorld();
+                mTimeAccumulator -= mTimeStep;
+            }
+            actGameObjects(delta);
+            updateRanksAndState();
         }
-        mBox2DPerformanceCounter.stop();
+        mActScope.stop();
+    }
+
+    /**
+     * Time elapsed since the world was created, countdown included, in seconds. Things which
+     * change with time, like skidmark opacity, can be computed from it instead of being updated at
+     * every step.
+     */
+    public float getTime() {
+        return mTime;
+    }
+
+    /**
+     * Duration of a physics step, in seconds
+     */
+    public float getTimeStep() {
+        return mTimeStep;
+    }
 
-        mGameObjectPerformanceCounter.start();
+    /**
+     * How far we are between the previous physics step (0) and the current one (1). Used to draw
+     * bodies at an interpolated position, see InterpolatedBody.
+     */
+    public float getInterpolationAlpha() {
+        return mTimeAccumulator / mTimeStep;
+    }
+
+    private void stepBox2DWorld() {
+        for (int idx = 0; idx < mActiveGameObjects.size; ++idx) {
+            GameObject obj = mActiveGameObjects.get(idx);
+            if (obj instanceof Interpolable) {
+                ((Interpolable) obj).storePreviousTransforms();
+            }
+        }
+        mBox2DScope.start();
+        mBox2DWorld.step(mTimeStep, VELOCITY_ITERATIONS, POSITION_ITERATIONS);
+        mBox2DScope.stop();
+    }
+
+    private void actGameObjects(float delta) {
+        if (mTelemetry != null) {
+            mTelemetry.beginFrame(mTime);
+        }
+        mTime += delta;
+        mGameObjectScope.start();
         for (int idx = mActiveGameObjects.size - 1; idx >= 0; --idx) {
             GameObject obj = mActiveGameObjects.get(idx);
             obj.act(delta);
             if (obj.isFinished()) {
-                mActiveGameObjects.removeIndex(idx);
+                removeGameObjectAt(idx);
                 if (obj instanceof Disposable) {
                     ((Disposable) obj).dispose();
                 }
             }
         }
-        mGameObjectPerformanceCounter.stop();
+        mGameObjectScope.stop();
+    }
 
-        // Skip finished racers so that they keep the position they had when they crossed the finish
-        // line, even if they continue a bit after it
-        int fromIndex;
-        for (fromIndex = 0; fromIndex < mRacers.size; ++fromIndex) {
-            if (!mRacers.get(fromIndex).getLapPositionComponent().hasFinishedRace()) {
-                break;
-            }
+    private void updateRanksAndState() {
+        mRacerRanking.update();
+        mLastPlayerRank = 0;
+        for (Racer racer : mPlayerRacers) {
+            mLastPlayerRank = Math.max(mLastPlayerRank, racer.getRank());
         }
-        Sort.instance().sort(mRacers.items, sRacerComparator, fromIndex, mRacers.size);
 
+        // Without players (simulations), wait for all racers
+        Array<Racer> racers = mPlayerRacers.size > 0 ? mPlayerRacers : mRacers;
         boolean allFinished = true;
-        for (Racer racer : mPlayerRacers) {
+        for (Racer racer : racers) {
             if (!racer.getLapPositionComponent().hasFinishedRace()) {
                 allFinished = false;
                 break;
@@ -240,7 +402,7 @@ public class GameWorld implements ContactListener, Disposable {
     }
 
     private void onFinished() {
-        TrackStats stats = mGame.getGameStats().getTrackStats(mTrack);
+        TrackStats stats = mGameStats.getTrackStats(mTrack);
         for (int idx = 0; idx < mRacers.size; ++idx) {
             Racer racer = mRacers.get(idx);
             racer.markRaceFinished();
@@ -265,30 +427,82 @@ public class GameWorld implements ContactListener, Disposable {
     }
 
     private void setupRacers(Array<GameInfo.Entrant> entrants) {
-        VehicleCreator creator = new VehicleCreator(mGame.getAssets(), this);
-        Assets assets = mGame.getAssets();
+        VehicleCreator creator = new VehicleCreator(mAssets, this);
 
         final float startAngle = 90;
         Array<Vector2> positions = mTrack.findStartTilePositions();
         positions.reverse();
+        if (entrants.size > positions.size) {
+            Assert.check(!hasPlayerEntrant(entrants), "Too many entrants");
+            addStartPositionsBehind(positions, entrants.size);
+        }
 
-        AudioManager audioManager = mGame.getAudioManager();
         for (int idx = 0; idx < entrants.size; ++idx) {
-            Assert.check(idx < positions.size, "Too many entrants");
             GameInfo.Entrant entrant = entrants.get(idx);
-            VehicleDef vehicleDef = assets.findVehicleDefById(entrant.getVehicleId());
+            VehicleDef vehicleDef = mAssets.findVehicleDefById(entrant.getVehicleId());
             Vehicle vehicle = creator.create(vehicleDef, positions.get(idx), startAngle);
-            Racer racer = new Racer(assets, audioManager, this, vehicle, entrant);
+            if (mTelemetry != null) {
+                vehicle.setupTelemetry(mTelemetry, idx + "." + vehicleDef.id);
+            }
+            Racer racer = new Racer(mAssets, mAudioManager, this, vehicle, entrant);
             if (entrant.isPlayer()) {
                 GameInfo.Player player = (GameInfo.Player)entrant;
-                PlayerPilot pilot = new PlayerPilot(assets, this, racer, mGame.getConfig(), player.getIndex());
-                racer.setPilot(pilot);
+                Assert.check(mPlayerPilotFactory != null, "Player racers need a PlayerPilotFactory");
+                racer.setPilot(mPlayerPilotFactory.createPilot(this, racer, player.getIndex()));
                 mPlayerRacers.add(racer);
             } else {
                 racer.setPilot(new AIPilot(this, mTrack, racer));
             }
             addGameObject(racer);
-            mRacers.add(racer);
+            mRacerRanking.add(racer);
+        }
+    }
+
+    private static TelemetryRecorder createTelemetryRecorder() {
+        FileHandle handle = FileUtils.getUserWritableFile(TELEMETRY_FILE_NAME);
+        handle.parent().mkdirs();
+        try {
+            return new TelemetryRecorder(handle.file());
+        } catch (IOException e) {
+            NLog.e("Failed to create telemetry file %s: %s", handle.path(), e);
+            return null;
+        }
+    }
+
+    private static boolean hasPlayerEntrant(Array<GameInfo.Entrant> entrants) {
+        for (GameInfo.Entrant entrant : entrants) {
+            if (entrant.isPlayer()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Simulations and benchmarks can have more racers than start tiles: repeat the start grid
+     * behind itself until there are @p count positions
+     */
+    private static void addStartPositionsBehind(Array<Vector2> positions, int count) {
+        float minY = Float.MAX_VALUE;
+        float maxY = -Float.MAX_VALUE;
+        for (Vector2 pos : positions) {
+            minY = Math.min(minY, pos.y);
+            maxY = Math.max(maxY, pos.y);
+        }
+        float rowSpacing = maxY - minY;
+        for (Vector2 pos : positions) {
+            float delta = pos.y - minY;
+            if (delta > 0) {
+                rowSpacing = Math.min(rowSpacing, delta);
+            }
+        }
+        // Keep the same spacing between the last row of a grid and the first row of the next one
+        float gridHeight = maxY - minY + rowSpacing;
+        Assert.check(gridHeight > 0, "Cannot add start positions to a single row grid");
+        int gridSize = positions.size;
+        for (int idx = gridSize; idx < count; ++idx) {
+            Vector2 pos = positions.get(idx % gridSize);
+            positions.add(new Vector2(pos.x, pos.y - (idx / gridSize) * gridHeight));
         }
     }
 
@@ -299,25 +513,25 @@ public class GameWorld implements ContactListener, Disposable {
                     CollisionCategories.RACER
                             | CollisionCategories.EXPLOSABLE
                             | CollisionCategories.RACER_BULLET);
-            Box2DUtils.setBodyRestitution(body, GamePlay.instance.borderRestitution / 10.0f);
+            Box2DUtils.setBodyRestitution(body, mGamePlay.borderRestitution / 10.0f);
         }
     }
 
     private void setupBonusSpots() {
         for (Vector2 pos : mTrack.findBonusSpotPositions()) {
-            BonusSpot spot = new BonusSpot(mGame.getAssets(), mGame.getAudioManager(), this, pos.x, pos.y);
+            BonusSpot spot = new BonusSpot(mAssets, mAudioManager, this, pos.x, pos.y);
             addGameObject(spot);
         }
     }
 
     private void setupBonusPools() {
-        addPool(new BonusPool<>(GunBonus.class, mGame.getAssets(), this, mGame.getAudioManager()),
+        addPool(new BonusPool<>(GunBonus.class, mAssets, this, mAudioManager),
                 new float[]{0.2f, 1.0f, 1.0f});
-        addPool(new BonusPool<>(MineBonus.class, mGame.getAssets(), this, mGame.getAudioManager()),
+        addPool(new BonusPool<>(MineBonus.class, mAssets, this, mAudioManager),
                 new float[]{2.0f, 1.0f, 0.5f});
-        addPool(new BonusPool<>(TurboBonus.class, mGame.getAssets(), this, mGame.getAudioManager()),
+        addPool(new BonusPool<>(TurboBonus.class, mAssets, this, mAudioManager),
                 new float[]{0.1f, 1.0f, 2.0f});
-        addPool(new BonusPool<>(MissileBonus.class, mGame.getAssets(), this, mGame.getAudioManager()),
+        addPool(new BonusPool<>(MissileBonus.class, mAssets, this, mAudioManager),
                 new float[]{0.2f, 1.0f, 1.0f});
     }
 
@@ -389,6 +603,7 @@ public class GameWorld implements ContactListener, Disposable {
         mState = state;
         if (mState == State.FINISHED) {
             onFinished();
+            mGameStats.flush();
         }
     }
 
@@ -403,6 +618,13 @@ public class GameWorld implements ContactListener, Disposable {
             }
         }
         mActiveGameObjects.clear();
+        for (Array<GameObject> objects : mGameObjectsForZLevel) {
+            objects.clear();
+        }
+        mBox2DWorld.dispose();
+        if (mTelemetry != null) {
+            mTelemetry.dispose();
+        }
     }
 
     public void forgetTrack() {
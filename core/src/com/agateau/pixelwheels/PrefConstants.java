@@ -29,5 +29,6 @@ public class PrefConstants {
     public static final String CHAMPIONSHIP_ID = "championshipId";
     public static final String AUDIO = "audio";
     public static final String FULLSCREEN = "fullscreen";
+    public static final String SPLIT_SCREEN = "splitScreen";
     public static final String GAME_MODE = "gameMode";
 }
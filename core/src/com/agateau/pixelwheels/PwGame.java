@@ -31,9 +31,10 @@ import com.agateau.pixelwheels.screens.PwStageScreen;
 import com.agateau.pixelwheels.screens.UnlockedRewardScreen;
 import com.agateau.pixelwheels.sound.AudioManager;
 import com.agateau.pixelwheels.sound.DefaultAudioManager;
+import com.agateau.pixelwheels.stats.BinaryGameStatsImplIO;
 import com.agateau.pixelwheels.stats.GameStats;
 import com.agateau.pixelwheels.stats.GameStatsImpl;
-import com.agateau.pixelwheels.stats.JsonGameStatsImplIO;
+import com.agateau.pixelwheels.stats.WriteBehindGameStatsImplIO;
 import com.agateau.ui.ScreenStack;
 import com.agateau.utils.Assert;
 import com.agateau.utils.FileUtils;
@@ -61,6 +62,7 @@ public class PwGame extends Game implements GameConfig.ChangeListener {
 
     private Introspector mGamePlayIntrospector;
     private Introspector mDebugIntrospector;
+    private WriteBehindGameStatsImplIO<byte[]> mGameStatsIO;
     private GameStats mGameStats;
     private RewardManager mRewardManager;
 
@@ -106,6 +108,20 @@ public class PwGame extends Game implements GameConfig.ChangeListener {
         super.render();
     }
 
+    @Override
+    public void pause() {
+        super.pause();
+        // On Android the process may be killed after this, so do not return before the stats
+        // have been written
+        mGameStatsIO.flushAndWait();
+    }
+
+    @Override
+    public void dispose() {
+        super.dispose();
+        mGameStatsIO.dispose();
+    }
+
     void refreshAssets() {
         mAssets = new Assets();
         // Tracks and championship have been recreated, need to recreate reward manager
@@ -120,8 +136,10 @@ public class PwGame extends Game implements GameConfig.ChangeListener {
     }
 
     private void setupTrackStats() {
-        JsonGameStatsImplIO io = new JsonGameStatsImplIO(FileUtils.getUserWritableFile("gamestats.json"));
-        mGameStats = new GameStatsImpl(io);
+        BinaryGameStatsImplIO io = new BinaryGameStatsImplIO(FileUtils.getUserWritableFile("gamestats.bin"),
+                FileUtils.getUserWritableFile("gamestats.json"));
+        mGameStatsIO = new WriteBehindGameStatsImplIO<>(io);
+        mGameStats = new GameStatsImpl(mGameStatsIO);
     }
 
     private void setupRewardManager() {
@@ -154,6 +172,8 @@ public class PwGame extends Game implements GameConfig.ChangeListener {
     }
 
     public void replaceScreen(Screen screen) {
+        // Not in the middle of a race, a good time to write stats
+        mGameStats.flush();
         mScreenStack.replace(screen);
     }
 
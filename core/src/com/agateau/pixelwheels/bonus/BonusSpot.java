@@ -30,15 +30,19 @@ import com.badlogic.gdx.audio.Sound;
 import com.badlogic.gdx.graphics.g2d.Batch;
 import com.badlogic.gdx.graphics.g2d.TextureRegion;
 import com.badlogic.gdx.math.MathUtils;
+import com.badlogic.gdx.math.Rectangle;
 import com.badlogic.gdx.physics.box2d.Body;
 import com.badlogic.gdx.physics.box2d.BodyDef;
 import com.badlogic.gdx.physics.box2d.Fixture;
 import com.badlogic.gdx.physics.box2d.PolygonShape;
 
+import java.util.EnumSet;
+
 /**
  * The bonus waiting to be hit by a the player
  */
 public class BonusSpot extends GameObjectAdapter {
+    private static final EnumSet<ZLevel> Z_LEVELS = EnumSet.of(ZLevel.GROUND, ZLevel.OBSTACLES);
     private static final float DISABLED_TIMEOUT = 5;
     private final TextureRegion mRegion;
     private final Sound mSound;
@@ -89,6 +93,20 @@ public class BonusSpot extends GameObjectAdapter {
         }
     }
 
+    @Override
+    public EnumSet<ZLevel> getZLevels() {
+        return Z_LEVELS;
+    }
+
+    @Override
+    public boolean isVisible(Rectangle viewBounds, ZLevel zLevel) {
+        if (!mBody.isActive()) {
+            return false;
+        }
+        float radius = Math.max(mRegion.getRegionWidth(), mRegion.getRegionHeight()) * Constants.UNIT_FOR_PIXEL;
+        return isInView(viewBounds, getX(), getY(), radius);
+    }
+
     @Override
     public void draw(Batch batch, ZLevel zLevel) {
         if (!mBody.isActive()) {
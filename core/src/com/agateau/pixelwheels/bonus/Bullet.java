@@ -26,14 +26,19 @@ import com.agateau.pixelwheels.gameobjet.AnimationObject;
 import com.agateau.pixelwheels.gameobjet.AudioClipper;
 import com.agateau.pixelwheels.gameobjet.Explosable;
 import com.agateau.pixelwheels.gameobjet.GameObjectAdapter;
+import com.agateau.pixelwheels.gameobjet.Interpolable;
 import com.agateau.pixelwheels.racer.Racer;
 import com.agateau.pixelwheels.racescreen.Collidable;
 import com.agateau.pixelwheels.racescreen.CollisionCategories;
 import com.agateau.pixelwheels.sound.AudioManager;
 import com.agateau.pixelwheels.utils.BodyRegionDrawer;
 import com.agateau.pixelwheels.utils.Box2DUtils;
+import com.agateau.pixelwheels.utils.InterpolatedBody;
+import com.agateau.utils.PerThreadPool;
 import com.badlogic.gdx.graphics.g2d.Batch;
+import com.badlogic.gdx.graphics.g2d.TextureRegion;
 import com.badlogic.gdx.math.MathUtils;
+import com.badlogic.gdx.math.Rectangle;
 import com.badlogic.gdx.math.Vector2;
 import com.badlogic.gdx.physics.box2d.Body;
 import com.badlogic.gdx.physics.box2d.BodyDef;
@@ -44,13 +49,15 @@ import com.badlogic.gdx.physics.box2d.Manifold;
 import com.badlogic.gdx.physics.box2d.PolygonShape;
 import com.badlogic.gdx.utils.Disposable;
 import com.badlogic.gdx.utils.Pool;
-import com.badlogic.gdx.utils.ReflectionPool;
+
+import java.util.EnumSet;
 
 /**
  * A player bullet
  */
-public class Bullet extends GameObjectAdapter implements Collidable, Pool.Poolable, Disposable {
-    private static final ReflectionPool<Bullet> sPool = new ReflectionPool<>(Bullet.class);
+public class Bullet extends GameObjectAdapter implements Collidable, Pool.Poolable, Disposable, Interpolable {
+    private static final EnumSet<ZLevel> Z_LEVELS = EnumSet.of(ZLevel.GROUND);
+    private static final PerThreadPool<Bullet> sPool = new PerThreadPool<>(Bullet.class);
 
     private static final float IMPULSE = 160;
 
@@ -62,6 +69,7 @@ public class Bullet extends GameObjectAdapter implements Collidable, Pool.Poolab
     private PolygonShape mShape;
 
     private Body mBody;
+    private final InterpolatedBody mInterpolatedBody = new InterpolatedBody();
     private boolean mJustShot = false;
 
     private final BodyRegionDrawer mDrawer = new BodyRegionDrawer();
@@ -82,6 +90,7 @@ public class Bullet extends GameObjectAdapter implements Collidable, Pool.Poolab
         object.mBody = gameWorld.getBox2DWorld().createBody(object.mBodyDef);
         object.mBody.createFixture(object.mShape, 0f);
         object.mBody.setUserData(object);
+        object.mInterpolatedBody.setBody(object.mBody);
         object.mBody.applyLinearImpulse(IMPULSE * MathUtils.cosDeg(angle), IMPULSE * MathUtils.sinDeg(angle), originX, originY, true);
 
         Box2DUtils.setCollisionInfo(object.mBody, CollisionCategories.RACER_BULLET,
@@ -105,6 +114,7 @@ public class Bullet extends GameObjectAdapter implements Collidable, Pool.Poolab
     public void reset() {
         mGameWorld.getBox2DWorld().destroyBody(mBody);
         mBody = null;
+        mInterpolatedBody.setBody(null);
     }
 
     @Override
@@ -116,11 +126,29 @@ public class Bullet extends GameObjectAdapter implements Collidable, Pool.Poolab
     public void act(float delta) {
     }
 
+    @Override
+    public void storePreviousTransforms() {
+        mInterpolatedBody.storePreviousTransform();
+    }
+
+    @Override
+    public EnumSet<ZLevel> getZLevels() {
+        return Z_LEVELS;
+    }
+
+    @Override
+    public boolean isVisible(Rectangle viewBounds, ZLevel zLevel) {
+        TextureRegion region = mAssets.bullet;
+        float radius = Math.max(region.getRegionWidth(), region.getRegionHeight()) * Constants.UNIT_FOR_PIXEL;
+        return isInView(viewBounds, getX(), getY(), radius);
+    }
+
     @Override
     public void draw(Batch batch, ZLevel zLevel) {
         if (zLevel == ZLevel.GROUND) {
             mDrawer.setBatch(batch);
-            mDrawer.draw(mBody, mAssets.bullet);
+            mDrawer.setInterpolationAlpha(mGameWorld.getInterpolationAlpha());
+            mDrawer.draw(mInterpolatedBody, mAssets.bullet);
         }
     }
 
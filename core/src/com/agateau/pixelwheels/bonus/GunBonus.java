@@ -24,12 +24,12 @@ import com.agateau.pixelwheels.ZLevel;
 import com.agateau.pixelwheels.debug.DebugShapeMap;
 import com.agateau.pixelwheels.racer.Racer;
 import com.agateau.pixelwheels.racer.Vehicle;
+import com.agateau.pixelwheels.utils.InterpolatedBody;
 import com.badlogic.gdx.graphics.g2d.Batch;
 import com.badlogic.gdx.graphics.g2d.TextureRegion;
 import com.badlogic.gdx.graphics.glutils.ShapeRenderer;
 import com.badlogic.gdx.math.MathUtils;
 import com.badlogic.gdx.math.Vector2;
-import com.badlogic.gdx.physics.box2d.Body;
 import com.badlogic.gdx.physics.box2d.World;
 import com.badlogic.gdx.utils.Pool;
 
@@ -54,11 +54,11 @@ public class GunBonus extends BonusAdapter implements Pool.Poolable {
         public void draw(Batch batch, ZLevel zLevel) {
             TextureRegion region = mAssets.gunAnimation.getKeyFrame(mAnimationTime, true);
             Vehicle vehicle = mRacer.getVehicle();
-            Body body = vehicle.getBody();
-            Vector2 center = body.getPosition();
-            float angle = body.getAngle() * MathUtils.radiansToDegrees;
-            float x = center.x;
-            float y = center.y;
+            InterpolatedBody body = vehicle.getInterpolatedBody();
+            float alpha = mGameWorld.getInterpolationAlpha();
+            float angle = body.getAngle(alpha) * MathUtils.radiansToDegrees;
+            float x = body.getX(alpha);
+            float y = body.getY(alpha);
             float w = Constants.UNIT_FOR_PIXEL * region.getRegionWidth();
             float h = Constants.UNIT_FOR_PIXEL * region.getRegionHeight();
             batch.draw(region,
@@ -98,7 +98,7 @@ public class GunBonus extends BonusAdapter implements Pool.Poolable {
         super.onPicked(racer);
         mRacer.getVehicleRenderer().addRenderer(mBonusRenderer);
         mClosestRacerFinder.setIgnoredRacer(mRacer);
-        DebugShapeMap.put(this, mDebugShape);
+        mGameWorld.getDebugShapeMap().put(this, mDebugShape);
     }
 
     @Override
@@ -110,7 +110,7 @@ public class GunBonus extends BonusAdapter implements Pool.Poolable {
     public void trigger() {
         mTriggered = true;
         mDelayForNextShot = 0;
-        DebugShapeMap.remove(this);
+        mGameWorld.getDebugShapeMap().remove(this);
     }
 
     @Override
@@ -127,7 +127,7 @@ public class GunBonus extends BonusAdapter implements Pool.Poolable {
 
         // Shoot
         Vehicle vehicle = mRacer.getVehicle();
-        float angle = vehicle.getAngle() + MathUtils.random(-SPREAD_ANGLE, SPREAD_ANGLE);
+        float angle = vehicle.getAngle() + (mGameWorld.getRandom().nextFloat() * 2 - 1) * SPREAD_ANGLE;
         Bullet bullet = Bullet.create(mAssets, mGameWorld, mAudioManager, mRacer, vehicle.getX(), vehicle.getY(), angle);
         mGameWorld.addGameObject(bullet);
 
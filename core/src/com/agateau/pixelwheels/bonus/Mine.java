@@ -19,10 +19,13 @@
 package com.agateau.pixelwheels.bonus;
 
 import com.agateau.pixelwheels.Assets;
+import com.agateau.pixelwheels.Constants;
 import com.agateau.pixelwheels.ZLevel;
 import com.agateau.pixelwheels.gameobjet.Explosable;
+import com.agateau.pixelwheels.gameobjet.Interpolable;
 import com.agateau.pixelwheels.utils.BodyRegionDrawer;
 import com.agateau.pixelwheels.utils.Box2DUtils;
+import com.agateau.pixelwheels.utils.InterpolatedBody;
 import com.agateau.pixelwheels.racescreen.Collidable;
 import com.agateau.pixelwheels.racescreen.CollisionCategories;
 import com.agateau.pixelwheels.GameWorld;
@@ -30,8 +33,10 @@ import com.agateau.pixelwheels.gameobjet.GameObjectAdapter;
 import com.agateau.pixelwheels.racer.Racer;
 import com.agateau.pixelwheels.racer.Vehicle;
 import com.agateau.pixelwheels.sound.AudioManager;
+import com.agateau.utils.PerThreadPool;
 import com.badlogic.gdx.graphics.g2d.Batch;
 import com.badlogic.gdx.graphics.g2d.TextureRegion;
+import com.badlogic.gdx.math.Rectangle;
 import com.badlogic.gdx.math.Vector2;
 import com.badlogic.gdx.physics.box2d.Body;
 import com.badlogic.gdx.physics.box2d.BodyDef;
@@ -44,13 +49,15 @@ import com.badlogic.gdx.physics.box2d.Manifold;
 import com.badlogic.gdx.physics.box2d.joints.WeldJointDef;
 import com.badlogic.gdx.utils.Disposable;
 import com.badlogic.gdx.utils.Pool;
-import com.badlogic.gdx.utils.ReflectionPool;
+
+import java.util.EnumSet;
 
 /**
  * A mine on the road
  */
-public class Mine extends GameObjectAdapter implements Collidable, Pool.Poolable, Disposable, Explosable {
-    private static final ReflectionPool<Mine> sPool = new ReflectionPool<>(Mine.class);
+public class Mine extends GameObjectAdapter implements Collidable, Pool.Poolable, Disposable, Explosable, Interpolable {
+    private static final EnumSet<ZLevel> Z_LEVELS = EnumSet.of(ZLevel.GROUND, ZLevel.VEHICLES);
+    private static final PerThreadPool<Mine> sPool = new PerThreadPool<>(Mine.class);
 
     private static final float MINE_RADIUS = 0.8f;
 
@@ -63,11 +70,10 @@ public class Mine extends GameObjectAdapter implements Collidable, Pool.Poolable
     private CircleShape mShape;
 
     private Body mBody;
+    private final InterpolatedBody mInterpolatedBody = new InterpolatedBody();
     private float mTime;
     private Joint mJoint;
 
-    private static final Vector2 sTmp = new Vector2();
-
     public static Mine create(GameWorld gameWorld, Assets assets, AudioManager audioManager, Racer owner) {
         Mine mine = sPool.obtain();
         if (mine.mBodyDef == null) {
@@ -81,14 +87,14 @@ public class Mine extends GameObjectAdapter implements Collidable, Pool.Poolable
         mine.setFinished(false);
 
         Vehicle vehicle = owner.getVehicle();
-        sTmp.set(-vehicle.getWidth(), 0);
-        sTmp.rotate(vehicle.getAngle()).add(vehicle.getX(), vehicle.getY());
-        mine.mBodyDef.position.set(sTmp.x, sTmp.y);
+        mine.mBodyDef.position.set(-vehicle.getWidth(), 0)
+                .rotate(vehicle.getAngle()).add(vehicle.getX(), vehicle.getY());
 
         mine.mBody = gameWorld.getBox2DWorld().createBody(mine.mBodyDef);
         mine.mBody.createFixture(mine.mShape, 0.00001f);
         mine.mBody.setUserData(mine);
         mine.mBody.setType(BodyDef.BodyType.DynamicBody);
+        mine.mInterpolatedBody.setBody(mine.mBody);
 
         Box2DUtils.setCollisionInfo(mine.mBody, CollisionCategories.EXPLOSABLE,
                 CollisionCategories.WALL | CollisionCategories.RACER
@@ -122,6 +128,7 @@ public class Mine extends GameObjectAdapter implements Collidable, Pool.Poolable
     public void reset() {
         mGameWorld.getBox2DWorld().destroyBody(mBody);
         mBody = null;
+        mInterpolatedBody.setBody(null);
     }
 
     @Override
@@ -134,21 +141,40 @@ public class Mine extends GameObjectAdapter implements Collidable, Pool.Poolable
         mTime += delta;
     }
 
+    @Override
+    public void storePreviousTransforms() {
+        mInterpolatedBody.storePreviousTransform();
+    }
+
     private final BodyRegionDrawer mBodyRegionDrawer = new BodyRegionDrawer();
+    @Override
+    public EnumSet<ZLevel> getZLevels() {
+        return Z_LEVELS;
+    }
+
+    @Override
+    public boolean isVisible(Rectangle viewBounds, ZLevel zLevel) {
+        TextureRegion region = mAssets.mine.getKeyFrame(mTime);
+        float radius = Math.max(region.getRegionWidth(), region.getRegionHeight()) * Constants.UNIT_FOR_PIXEL;
+        float alpha = mGameWorld.getInterpolationAlpha();
+        return isInView(viewBounds, mInterpolatedBody.getX(alpha), mInterpolatedBody.getY(alpha), radius);
+    }
+
     @Override
     public void draw(Batch batch, ZLevel zLevel) {
         mBodyRegionDrawer.setBatch(batch);
+        mBodyRegionDrawer.setInterpolationAlpha(mGameWorld.getInterpolationAlpha());
 
         if (zLevel == ZLevel.GROUND) {
             // Smaller shadow if the mine has been dropped
             float z = mJoint == null ? -0.1f : 0f;
             mBodyRegionDrawer.setZ(z);
             TextureRegion region = mAssets.mine.getKeyFrame(mTime);
-            mBodyRegionDrawer.drawShadow(mBody, region);
+            mBodyRegionDrawer.drawShadow(mInterpolatedBody, region);
         }
         if (zLevel == ZLevel.VEHICLES) {
             TextureRegion region = mAssets.mine.getKeyFrame(mTime);
-            mBodyRegionDrawer.draw(mBody, region);
+            mBodyRegionDrawer.draw(mInterpolatedBody, region);
         }
     }
 
@@ -19,7 +19,6 @@
 package com.agateau.pixelwheels.bonus;
 
 import com.agateau.pixelwheels.racer.Racer;
-import com.badlogic.gdx.math.MathUtils;
 import com.badlogic.gdx.utils.Pool;
 
 /**
@@ -43,7 +42,8 @@ public class MineBonus extends BonusAdapter implements Pool.Poolable {
     public void onPicked(Racer racer) {
         super.onPicked(racer);
         mMine = Mine.create(mGameWorld, mAssets, mAudioManager, mRacer);
-        mAiKeepTime = MathUtils.random(AI_KEEP_BONUS_MIN_TIME, AI_KEEP_BONUS_MAX_TIME);
+        mAiKeepTime = AI_KEEP_BONUS_MIN_TIME
+                + mGameWorld.getRandom().nextFloat() * (AI_KEEP_BONUS_MAX_TIME - AI_KEEP_BONUS_MIN_TIME);
     }
 
     @Override
@@ -27,6 +27,7 @@ import com.agateau.pixelwheels.gameobjet.AnimationObject;
 import com.agateau.pixelwheels.gameobjet.AudioClipper;
 import com.agateau.pixelwheels.gameobjet.Explosable;
 import com.agateau.pixelwheels.gameobjet.GameObjectAdapter;
+import com.agateau.pixelwheels.gameobjet.Interpolable;
 import com.agateau.pixelwheels.racer.Racer;
 import com.agateau.pixelwheels.racer.Vehicle;
 import com.agateau.pixelwheels.racescreen.Collidable;
@@ -36,11 +37,14 @@ import com.agateau.pixelwheels.sound.SoundPlayer;
 import com.agateau.pixelwheels.stats.GameStats;
 import com.agateau.pixelwheels.utils.BodyRegionDrawer;
 import com.agateau.pixelwheels.utils.Box2DUtils;
+import com.agateau.pixelwheels.utils.InterpolatedBody;
+import com.agateau.utils.PerThreadPool;
 import com.badlogic.gdx.graphics.Color;
 import com.badlogic.gdx.graphics.g2d.Batch;
 import com.badlogic.gdx.graphics.g2d.TextureRegion;
 import com.badlogic.gdx.graphics.glutils.ShapeRenderer;
 import com.badlogic.gdx.math.MathUtils;
+import com.badlogic.gdx.math.Rectangle;
 import com.badlogic.gdx.math.Vector2;
 import com.badlogic.gdx.physics.box2d.Body;
 import com.badlogic.gdx.physics.box2d.BodyDef;
@@ -54,13 +58,15 @@ import com.badlogic.gdx.physics.box2d.World;
 import com.badlogic.gdx.physics.box2d.joints.WeldJointDef;
 import com.badlogic.gdx.utils.Disposable;
 import com.badlogic.gdx.utils.Pool;
-import com.badlogic.gdx.utils.ReflectionPool;
+
+import java.util.EnumSet;
 
 /**
  * A player bullet
  */
-public class Missile extends GameObjectAdapter implements Collidable, Pool.Poolable, Disposable, Explosable {
-    private static final ReflectionPool<Missile> sPool = new ReflectionPool<>(Missile.class);
+public class Missile extends GameObjectAdapter implements Collidable, Pool.Poolable, Disposable, Explosable, Interpolable {
+    private static final EnumSet<ZLevel> Z_LEVELS = EnumSet.of(ZLevel.FLYING);
+    private static final PerThreadPool<Missile> sPool = new PerThreadPool<>(Missile.class);
 
     private static final float WIDTH = 44;
     private static final float HEIGHT = 13;
@@ -108,6 +114,7 @@ public class Missile extends GameObjectAdapter implements Collidable, Pool.Poola
     private AudioManager mAudioManager;
     private Racer mShooter;
     private Body mBody;
+    private final InterpolatedBody mInterpolatedBody = new InterpolatedBody();
 
     // Moving fields
     private float mTime;
@@ -139,6 +146,7 @@ public class Missile extends GameObjectAdapter implements Collidable, Pool.Poola
         object.mBody = gameWorld.getBox2DWorld().createBody(object.mBodyDef);
         object.mBody.createFixture(object.mShape, WAITING_DENSITY);
         object.mBody.setUserData(object);
+        object.mInterpolatedBody.setBody(object.mBody);
         Box2DUtils.setCollisionInfo(object.mBody, CollisionCategories.RACER_BULLET,
                 CollisionCategories.WALL | CollisionCategories.RACER | CollisionCategories.EXPLOSABLE);
 
@@ -151,7 +159,7 @@ public class Missile extends GameObjectAdapter implements Collidable, Pool.Poola
 
         gameWorld.addGameObject(object);
 
-        DebugShapeMap.put(object, object.mDebugShape);
+        gameWorld.getDebugShapeMap().put(object, object.mDebugShape);
 
         return object;
     }
@@ -186,7 +194,8 @@ public class Missile extends GameObjectAdapter implements Collidable, Pool.Poola
         // The joint is deleted when the body is destroyed anyway.
         mGameWorld.getBox2DWorld().destroyBody(mBody);
         mBody = null;
-        DebugShapeMap.remove(this);
+        mInterpolatedBody.setBody(null);
+        mGameWorld.getDebugShapeMap().remove(this);
     }
 
     private void resetJoint() {
@@ -216,6 +225,11 @@ public class Missile extends GameObjectAdapter implements Collidable, Pool.Poola
         }
     }
 
+    @Override
+    public void storePreviousTransforms() {
+        mInterpolatedBody.storePreviousTransform();
+    }
+
     private void actWaiting() {
         findTarget();
     }
@@ -246,9 +260,23 @@ public class Missile extends GameObjectAdapter implements Collidable, Pool.Poola
         mTarget = mRacerFinder.find(world, mBody.getWorldCenter(), mBody.getAngle() * MathUtils.radDeg);
     }
 
+    @Override
+    public EnumSet<ZLevel> getZLevels() {
+        return Z_LEVELS;
+    }
+
+    @Override
+    public boolean isVisible(Rectangle viewBounds, ZLevel zLevel) {
+        // The target marker is drawn on the target, which can be far from the missile
+        float radius = WIDTH * Constants.UNIT_FOR_PIXEL;
+        return isInView(viewBounds, getX(), getY(), radius)
+                || (mTarget != null && isInView(viewBounds, mTarget.getX(), mTarget.getY(), radius));
+    }
+
     @Override
     public void draw(Batch batch, ZLevel zLevel) {
         if (zLevel == ZLevel.FLYING) {
+            mDrawer.setInterpolationAlpha(mGameWorld.getInterpolationAlpha());
             // Draw the shadow at Z_FLYING so that the shadow is drawn *over* its vehicle
             drawShadow(batch);
             drawMissile(batch);
@@ -273,18 +301,18 @@ public class Missile extends GameObjectAdapter implements Collidable, Pool.Poola
 
     private void drawMissile(Batch batch) {
         mDrawer.setBatch(batch);
-        mDrawer.draw(mBody, mAssets.missile);
+        mDrawer.draw(mInterpolatedBody, mAssets.missile);
     }
 
     private void drawReactorFire(Batch batch) {
         TextureRegion region = mAssets.turboFlame.getKeyFrame(mTime, true);
-        Vector2 center = mBody.getPosition();
-        float angle = mBody.getAngle();
+        float alpha = mGameWorld.getInterpolationAlpha();
+        float angle = mInterpolatedBody.getAngle(alpha);
         float w = Constants.UNIT_FOR_PIXEL * region.getRegionWidth();
         float h = Constants.UNIT_FOR_PIXEL * region.getRegionHeight();
         float refH = Constants.UNIT_FOR_PIXEL * -WIDTH / 2;
-        float x = center.x + refH * MathUtils.cos(angle);
-        float y = center.y + refH * MathUtils.sin(angle);
+        float x = mInterpolatedBody.getX(alpha) + refH * MathUtils.cos(angle);
+        float y = mInterpolatedBody.getY(alpha) + refH * MathUtils.sin(angle);
         batch.draw(region,
                 x - w / 2, y - h, // pos
                 w / 2, h, // origin
@@ -295,7 +323,7 @@ public class Missile extends GameObjectAdapter implements Collidable, Pool.Poola
 
     private void drawShadow(Batch batch) {
         mDrawer.setBatch(batch);
-        mDrawer.drawShadow(mBody, mAssets.missile);
+        mDrawer.drawShadow(mInterpolatedBody, mAssets.missile);
     }
 
     @Override
@@ -328,7 +356,10 @@ public class Missile extends GameObjectAdapter implements Collidable, Pool.Poola
         Vector2 pos = mBody.getPosition();
         AnimationObject obj = mAssets.createExplosion(mAudioManager, pos.x, pos.y);
         mGameWorld.addGameObject(obj);
-        mSoundPlayer.stop();
+        // The sound player is created by audioRender(), which may not have been called yet
+        if (mSoundPlayer != null) {
+            mSoundPlayer.stop();
+        }
         setFinished(true);
     }
 
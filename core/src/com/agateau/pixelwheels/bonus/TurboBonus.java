@@ -23,11 +23,10 @@ import com.agateau.pixelwheels.Renderer;
 import com.agateau.pixelwheels.ZLevel;
 import com.agateau.pixelwheels.racer.Racer;
 import com.agateau.pixelwheels.racer.Vehicle;
+import com.agateau.pixelwheels.utils.InterpolatedBody;
 import com.badlogic.gdx.graphics.g2d.Batch;
 import com.badlogic.gdx.graphics.g2d.TextureRegion;
 import com.badlogic.gdx.math.MathUtils;
-import com.badlogic.gdx.math.Vector2;
-import com.badlogic.gdx.physics.box2d.Body;
 import com.badlogic.gdx.utils.Pool;
 
 /**
@@ -42,14 +41,14 @@ public class TurboBonus extends BonusAdapter implements Pool.Poolable {
         public void draw(Batch batch, ZLevel zLevel) {
             TextureRegion region = mAssets.turbo.getKeyFrame(mAnimationTime, true);
             Vehicle vehicle = mRacer.getVehicle();
-            Body body = vehicle.getBody();
-            Vector2 center = body.getPosition();
-            float angle = body.getAngle() * MathUtils.radiansToDegrees;
+            InterpolatedBody body = vehicle.getInterpolatedBody();
+            float alpha = mGameWorld.getInterpolationAlpha();
+            float angle = body.getAngle(alpha) * MathUtils.radiansToDegrees;
             float w = Constants.UNIT_FOR_PIXEL * region.getRegionWidth();
             float h = Constants.UNIT_FOR_PIXEL * region.getRegionHeight();
             float refH = -vehicle.getWidth() / 3;
-            float x = center.x + refH * MathUtils.cosDeg(angle);
-            float y = center.y + refH * MathUtils.sinDeg(angle);
+            float x = body.getX(alpha) + refH * MathUtils.cosDeg(angle);
+            float y = body.getY(alpha) + refH * MathUtils.sinDeg(angle);
             batch.draw(region,
                     x - w / 2, y - h / 2, // pos
                     w / 2, h / 2, // origin
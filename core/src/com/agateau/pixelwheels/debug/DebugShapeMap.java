@@ -23,23 +23,23 @@ import com.badlogic.gdx.graphics.glutils.ShapeRenderer;
 import java.util.HashMap;
 
 /**
- * An helper class to register global debug shape drawers
+ * An helper class to register debug shape drawers. Each GameWorld has its own map.
  */
 public class DebugShapeMap {
     public interface Shape {
         void draw(ShapeRenderer renderer);
     }
-    private static final HashMap<Object, Shape> sMap = new HashMap<>();
+    private final HashMap<Object, Shape> mMap = new HashMap<>();
 
-    public static HashMap<Object, Shape> getMap() {
-        return sMap;
+    public HashMap<Object, Shape> getMap() {
+        return mMap;
     }
 
-    public static void put(Object key, Shape shape) {
-        sMap.put(key, shape);
+    public void put(Object key, Shape shape) {
+        mMap.put(key, shape);
     }
 
-    public static void remove(Object key) {
-        sMap.remove(key);
+    public void remove(Object key) {
+        mMap.remove(key);
     }
 }
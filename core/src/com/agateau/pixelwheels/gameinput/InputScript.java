@@ -0,0 +1,115 @@
+/*
+ * Copyright 2019 Aurélien Gâteau <mail@agateau.com>
+ *
+ * This file is part of Pixel Wheels.
+ *
+ * Pixel Wheels is free software: you can redistribute it and/or modify it under
+ * the terms of the GNU General Public License as published by the Free
+ * Software Foundation, either version 3 of the License, or (at your option)
+ * any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License for
+ * more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.agateau.pixelwheels.gameinput;
+
+import com.agateau.utils.DataStreamUtils;
+import com.badlogic.gdx.utils.ByteArray;
+import com.badlogic.gdx.utils.FloatArray;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+
+/**
+ * A sequence of GameInput states, one per game step
+ *
+ * Inputs rarely change from one step to the next, so the binary format stores runs of identical
+ * frames: int VERSION, int frameCount, then for each run: varint length, byte flags, float direction
+ */
+public class InputScript {
+    private static final int VERSION = 2;
+    private static final int BRAKING = 1;
+    private static final int ACCELERATING = 1 << 1;
+    private static final int TRIGGERING_BONUS = 1 << 2;
+
+    private final ByteArray mFlags = new ByteArray();
+    private final FloatArray mDirections = new FloatArray();
+
+    public int getFrameCount() {
+        return mFlags.size;
+    }
+
+    public void add(GameInput input) {
+        int flags = 0;
+        if (input.braking) {
+            flags |= BRAKING;
+        }
+        if (input.accelerating) {
+            flags |= ACCELERATING;
+        }
+        if (input.triggeringBonus) {
+            flags |= TRIGGERING_BONUS;
+        }
+        mFlags.add((byte)flags);
+        mDirections.add(input.direction);
+    }
+
+    /**
+     * Copies frame @p frame to @p input
+     */
+    public void get(int frame, GameInput input) {
+        int flags = mFlags.get(frame);
+        input.braking = (flags & BRAKING) != 0;
+        input.accelerating = (flags & ACCELERATING) != 0;
+        input.triggeringBonus = (flags & TRIGGERING_BONUS) != 0;
+        input.direction = mDirections.get(frame);
+    }
+
+    public void write(DataOutputStream out) throws IOException {
+        out.writeInt(VERSION);
+        out.writeInt(mFlags.size);
+        for (int start = 0; start < mFlags.size; ) {
+            byte flags = mFlags.get(start);
+            float direction = mDirections.get(start);
+            int end = start + 1;
+            while (end < mFlags.size && mFlags.get(end) == flags
+                    && Float.floatToRawIntBits(mDirections.get(end)) == Float.floatToRawIntBits(direction)) {
+                ++end;
+            }
+            DataStreamUtils.writeVarInt(out, end - start);
+            out.writeByte(flags);
+            out.writeFloat(direction);
+            start = end;
+        }
+    }
+
+    public static InputScript read(DataInputStream in) throws IOException {
+        int version = in.readInt();
+        if (version != VERSION) {
+            throw new IOException("Unsupported input script version " + version);
+        }
+        int frameCount = in.readInt();
+        InputScript script = new InputScript();
+        script.mFlags.ensureCapacity(frameCount);
+        script.mDirections.ensureCapacity(frameCount);
+        while (script.mFlags.size < frameCount) {
+            int length = DataStreamUtils.readVarInt(in);
+            byte flags = in.readByte();
+            float direction = in.readFloat();
+            if (length <= 0 || script.mFlags.size + length > frameCount) {
+                throw new IOException("Invalid run length " + length);
+            }
+            for (int idx = 0; idx < length; ++idx) {
+                script.mFlags.add(flags);
+                script.mDirections.add(direction);
+            }
+        }
+        return script;
+    }
+}
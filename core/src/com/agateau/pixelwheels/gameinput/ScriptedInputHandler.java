@@ -0,0 +1,79 @@
+/*
+ * Copyright 2019 Aurélien Gâteau <mail@agateau.com>
+ *
+ * This file is part of Pixel Wheels.
+ *
+ * Pixel Wheels is free software: you can redistribute it and/or modify it under
+ * the terms of the GNU General Public License as published by the Free
+ * Software Foundation, either version 3 of the License, or (at your option)
+ * any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License for
+ * more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.agateau.pixelwheels.gameinput;
+
+import com.agateau.pixelwheels.Assets;
+import com.agateau.pixelwheels.bonus.Bonus;
+import com.agateau.pixelwheels.racescreen.Hud;
+import com.badlogic.gdx.Preferences;
+
+/**
+ * A GameInputHandler which plays an InputScript, for automated tests
+ *
+ * Each call to getGameInput() returns the next frame of the script. Once the script is over, the
+ * vehicle coasts: nothing is pressed.
+ */
+public class ScriptedInputHandler implements GameInputHandler {
+    private final InputScript mScript;
+    private final GameInput mInput = new GameInput();
+    private int mFrame = 0;
+
+    public ScriptedInputHandler(InputScript script) {
+        mScript = script;
+    }
+
+    public boolean isFinished() {
+        return mFrame >= mScript.getFrameCount();
+    }
+
+    @Override
+    public GameInput getGameInput() {
+        if (isFinished()) {
+            mInput.braking = false;
+            mInput.accelerating = false;
+            mInput.triggeringBonus = false;
+            mInput.direction = 0;
+        } else {
+            mScript.get(mFrame, mInput);
+            ++mFrame;
+        }
+        return mInput;
+    }
+
+    @Override
+    public void loadConfig(Preferences preferences, String prefix) {
+    }
+
+    @Override
+    public void saveConfig(Preferences preferences, String prefix) {
+    }
+
+    @Override
+    public void createHudButtons(Assets assets, Hud hud) {
+    }
+
+    @Override
+    public void setBonus(Bonus bonus) {
+    }
+
+    @Override
+    public boolean isAvailable() {
+        return true;
+    }
+}
@@ -21,19 +21,23 @@ package com.agateau.pixelwheels.gameobjet;
 import com.agateau.pixelwheels.Constants;
 import com.agateau.pixelwheels.ZLevel;
 import com.agateau.pixelwheels.sound.AudioManager;
+import com.agateau.utils.PerThreadPool;
 import com.badlogic.gdx.audio.Sound;
 import com.badlogic.gdx.graphics.g2d.Animation;
 import com.badlogic.gdx.graphics.g2d.Batch;
 import com.badlogic.gdx.graphics.g2d.TextureRegion;
+import com.badlogic.gdx.math.Rectangle;
 import com.badlogic.gdx.utils.Disposable;
 import com.badlogic.gdx.utils.Pool;
-import com.badlogic.gdx.utils.ReflectionPool;
+
+import java.util.EnumSet;
 
 /**
  * A generic short-animation game object
  */
 public class AnimationObject extends GameObjectAdapter implements Pool.Poolable, Disposable {
-    private static final ReflectionPool<AnimationObject> sPool = new ReflectionPool<>(AnimationObject.class);
+    private static final EnumSet<ZLevel> Z_LEVELS = EnumSet.of(ZLevel.OBSTACLES);
+    private static final PerThreadPool<AnimationObject> sPool = new PerThreadPool<>(AnimationObject.class);
     private float mTime;
     private Animation<TextureRegion> mAnimation;
     private float mPosX;
@@ -62,6 +66,21 @@ public class AnimationObject extends GameObjectAdapter implements Pool.Poolable,
         }
     }
 
+    @Override
+    public EnumSet<ZLevel> getZLevels() {
+        return Z_LEVELS;
+    }
+
+    @Override
+    public boolean isVisible(Rectangle viewBounds, ZLevel zLevel) {
+        if (mTime < 0) {
+            return false;
+        }
+        TextureRegion region = mAnimation.getKeyFrame(mTime);
+        float radius = Math.max(region.getRegionWidth(), region.getRegionHeight()) * Constants.UNIT_FOR_PIXEL;
+        return isInView(viewBounds, mPosX, mPosY, radius);
+    }
+
     @Override
     public void draw(Batch batch, ZLevel zLevel) {
         if (mTime < 0) {
@@ -20,8 +20,11 @@ package com.agateau.pixelwheels.gameobjet;
 
 import com.agateau.pixelwheels.ZLevel;
 import com.badlogic.gdx.graphics.g2d.Batch;
+import com.badlogic.gdx.math.Rectangle;
 import com.badlogic.gdx.math.Vector2;
 
+import java.util.EnumSet;
+
 /**
  * A generic game object
  */
@@ -34,6 +37,22 @@ public interface GameObject {
      */
     boolean isFinished();
 
+    /**
+     * The levels at which draw() may paint something. Must not change while the object is in the
+     * world: GameRenderer only calls draw() for these levels.
+     */
+    EnumSet<ZLevel> getZLevels();
+
+    /**
+     * Returns true if draw() may paint something inside @p viewBounds at @p zLevel. Called for each
+     * frame before draw(), so it must be cheap. It may return true for invisible objects, but not
+     * the other way around.
+     *
+     * GameRenderer grows @p viewBounds by a margin which covers shadows and small effects, so
+     * implementations only need to account for the size of the object itself.
+     */
+    boolean isVisible(Rectangle viewBounds, ZLevel zLevel);
+
     void draw(Batch batch, ZLevel zLevel);
 
     float getX();
@@ -18,6 +18,7 @@
  */
 package com.agateau.pixelwheels.gameobjet;
 
+import com.badlogic.gdx.math.Rectangle;
 import com.badlogic.gdx.math.Vector2;
 
 /**
@@ -42,6 +43,15 @@ public abstract class GameObjectAdapter implements GameObject {
         return mPosition;
     }
 
+    /**
+     * Helper for isVisible() implementations: returns true if the square of half-size @p radius
+     * centered on (@p x, @p y) overlaps @p viewBounds
+     */
+    protected static boolean isInView(Rectangle viewBounds, float x, float y, float radius) {
+        return x + radius > viewBounds.x && x - radius < viewBounds.x + viewBounds.width
+                && y + radius > viewBounds.y && y - radius < viewBounds.y + viewBounds.height;
+    }
+
     protected void setFinished(boolean value) {
         mIsFinished = value;
     }
@@ -46,6 +46,12 @@ public class ChampionshipGameInfo extends GameInfo {
         return mChampionship;
     }
 
+    @Override
+    public long getSeed() {
+        // Each race of the championship gets a different seed
+        return super.getSeed() + mTrackIndex;
+    }
+
     @Override
     public Track getTrack() {
         return mChampionship.getTracks().get(mTrackIndex);
@@ -23,18 +23,23 @@ import com.agateau.pixelwheels.GamePlay;
 import com.agateau.pixelwheels.map.Track;
 import com.agateau.pixelwheels.vehicledef.VehicleDef;
 import com.agateau.utils.log.NLog;
+import com.badlogic.gdx.math.RandomXS128;
 import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.TimeUtils;
 
 /**
  * Details about the game to start
  */
 public abstract class GameInfo {
     private final Array<Entrant> mEntrants = new Array<>();
+    private long mSeed;
 
     public abstract static class Builder<T extends GameInfo> {
         final Array<VehicleDef> mVehicleDefs;
         final GameConfig mGameConfig;
         Array<Player> mPlayers;
+        private long mSeed;
+        private boolean mHasSeed = false;
 
         Builder(Array<VehicleDef> vehicleDefs, GameConfig gameConfig) {
             mVehicleDefs = vehicleDefs;
@@ -46,6 +51,15 @@ public abstract class GameInfo {
             storePlayersInConfig();
         }
 
+        /**
+         * Makes the games created by build() reproducible. If it is not called, each game gets a
+         * new seed.
+         */
+        public void setSeed(long seed) {
+            mSeed = seed;
+            mHasSeed = true;
+        }
+
         public abstract T build();
 
         void createEntrants(GameInfo gameInfo) {
@@ -56,18 +70,27 @@ public abstract class GameInfo {
             for (GameInfo.Player player : mPlayers) {
                 vehicleIds.removeValue(player.mVehicleId, /* identity= */ false);
             }
-            vehicleIds.shuffle();
+            gameInfo.mSeed = mHasSeed ? mSeed : TimeUtils.nanoTime();
+            shuffle(vehicleIds, new RandomXS128(gameInfo.mSeed));
             int aiCount = GamePlay.instance.racerCount - mPlayers.size;
 
             gameInfo.mEntrants.clear();
             for (int idx = 0; idx < aiCount; ++idx) {
-                Entrant entrant = new Entrant();
-                entrant.mVehicleId = vehicleIds.get(idx % vehicleIds.size);
+                Entrant entrant = new Entrant(vehicleIds.get(idx % vehicleIds.size));
                 gameInfo.mEntrants.add(entrant);
             }
             gameInfo.mEntrants.addAll(mPlayers);
         }
 
+        /**
+         * Like Array.shuffle(), but does not use the global MathUtils.random
+         */
+        private static <E> void shuffle(Array<E> array, RandomXS128 random) {
+            for (int idx = array.size - 1; idx > 0; --idx) {
+                array.swap(idx, random.nextInt(idx + 1));
+            }
+        }
+
         private void storePlayersInConfig() {
             for (int idx = 0; idx < mGameConfig.vehicles.length; ++idx) {
                 String vehicleId = idx < mPlayers.size ? mPlayers.get(idx).mVehicleId : "";
@@ -78,11 +101,15 @@ public abstract class GameInfo {
     }
 
     public static class Entrant {
-        protected String mVehicleId;
+        protected final String mVehicleId;
 
         private int mScore = 0;
         private float mRaceTime = 0;
 
+        public Entrant(String vehicleId) {
+            mVehicleId = vehicleId;
+        }
+
         public String getVehicleId() {
             return mVehicleId;
         }
@@ -112,8 +139,8 @@ public abstract class GameInfo {
         private final int mIndex;
 
         public Player(int idx, String vehicleId) {
+            super(vehicleId);
             mIndex = idx;
-            mVehicleId = vehicleId;
         }
 
         public int getIndex() {
@@ -128,6 +155,13 @@ public abstract class GameInfo {
 
     public abstract Track getTrack();
 
+    /**
+     * Seed of the random source of the race on getTrack()
+     */
+    public long getSeed() {
+        return mSeed;
+    }
+
     public Array<Entrant> getEntrants() {
         return mEntrants;
     }
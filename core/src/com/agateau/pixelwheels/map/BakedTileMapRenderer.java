@@ -0,0 +1,189 @@
+/*
+ * Copyright 2019 Aurélien Gâteau <mail@agateau.com>
+ *
+ * This file is part of Pixel Wheels.
+ *
+ * Pixel Wheels is free software: you can redistribute it and/or modify it under
+ * the terms of the GNU General Public License as published by the Free
+ * Software Foundation, either version 3 of the License, or (at your option)
+ * any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License for
+ * more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.agateau.pixelwheels.map;
+
+import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.graphics.GL20;
+import com.badlogic.gdx.graphics.Texture;
+import com.badlogic.gdx.graphics.g2d.SpriteCache;
+import com.badlogic.gdx.maps.MapLayer;
+import com.badlogic.gdx.maps.MapLayers;
+import com.badlogic.gdx.maps.tiled.TiledMap;
+import com.badlogic.gdx.maps.tiled.TiledMapTileLayer;
+import com.badlogic.gdx.math.Matrix4;
+import com.badlogic.gdx.math.Rectangle;
+import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.Disposable;
+
+/**
+ * Renders the tile layers of a map from static vertex buffers, built once.
+ *
+ * Each layer is split in chunks of CHUNK_SIZE x CHUNK_SIZE tiles. Each chunk is stored in a
+ * SpriteCache cache, so rendering a layer costs one draw call per visible chunk instead of
+ * submitting all the visible tiles to a Batch.
+ *
+ * Tiles are baked as they are when the renderer is created: animated tiles and later changes to
+ * the layer opacity are not supported. Tiles overlapping their neighbors may be drawn in a
+ * different order than with OrthogonalTiledMapRenderer.
+ */
+public class BakedTileMapRenderer implements Disposable {
+    public static final int CHUNK_SIZE = 16;
+    // The cache does not use indices, so that its size is not limited to 8191 tiles: each quad is
+    // stored as two triangles
+    private static final int VERTICES_PER_QUAD = 6;
+    private static final int VERTEX_SIZE = TileLayerBaker.QUAD_SIZE / 4;
+    // Vertex order of the triangles, same as the SpriteBatch indices
+    private static final int[] TRIANGLE_VERTICES = { 0, 1, 2, 2, 3, 0 };
+
+    private static class Chunk {
+        final int cacheId;
+        final Rectangle bounds;
+
+        Chunk(int cacheId, Rectangle bounds) {
+            this.cacheId = cacheId;
+            this.bounds = bounds;
+        }
+    }
+
+    private final MapLayers mLayers;
+    private final SpriteCache mCache;
+    // Indexed by map layer index, empty for layers which are not tile layers
+    private final Array<Array<Chunk>> mChunksForLayer = new Array<>();
+    private final Rectangle mViewBounds = new Rectangle();
+    private boolean mBlendingEnabled = true;
+
+    private final float[] mTriangleVertices = new float[VERTICES_PER_QUAD * VERTEX_SIZE];
+    // Bounds of the quads of the chunk being baked
+    private float mChunkMinX;
+    private float mChunkMinY;
+    private float mChunkMaxX;
+    private float mChunkMaxY;
+
+    public BakedTileMapRenderer(TiledMap map, float unitScale) {
+        mLayers = map.getLayers();
+        mCache = new SpriteCache(Math.max(countQuads(unitScale), 1), /* useIndices= */ false);
+        TileLayerBaker baker = new TileLayerBaker();
+        for (int layerIdx = 0; layerIdx < mLayers.getCount(); ++layerIdx) {
+            Array<Chunk> chunks = new Array<>();
+            mChunksForLayer.add(chunks);
+            MapLayer layer = mLayers.get(layerIdx);
+            if (layer instanceof TiledMapTileLayer) {
+                bakeLayer(baker, (TiledMapTileLayer) layer, unitScale, chunks);
+            }
+        }
+    }
+
+    public void setView(Matrix4 projectionMatrix, float x, float y, float width, float height) {
+        mCache.setProjectionMatrix(projectionMatrix);
+        mViewBounds.set(x, y, width, height);
+    }
+
+    public void enableBlending() {
+        mBlendingEnabled = true;
+    }
+
+    public void disableBlending() {
+        mBlendingEnabled = false;
+    }
+
+    /**
+     * Renders the visible chunks of the layers at @p layerIndexes, in order. Must not be called
+     * between Batch.begin() and Batch.end().
+     */
+    public void render(int[] layerIndexes) {
+        if (mBlendingEnabled) {
+            Gdx.gl.glEnable(GL20.GL_BLEND);
+            Gdx.gl.glBlendFunc(GL20.GL_SRC_ALPHA, GL20.GL_ONE_MINUS_SRC_ALPHA);
+        } else {
+            Gdx.gl.glDisable(GL20.GL_BLEND);
+        }
+        mCache.begin();
+        for (int layerIdx : layerIndexes) {
+            if (!mLayers.get(layerIdx).isVisible()) {
+                continue;
+            }
+            Array<Chunk> chunks = mChunksForLayer.get(layerIdx);
+            for (int idx = 0; idx < chunks.size; ++idx) {
+                Chunk chunk = chunks.get(idx);
+                if (chunk.bounds.overlaps(mViewBounds)) {
+                    mCache.draw(chunk.cacheId);
+                }
+            }
+        }
+        mCache.end();
+    }
+
+    @Override
+    public void dispose() {
+        mCache.dispose();
+    }
+
+    private int countQuads(float unitScale) {
+        final int[] count = { 0 };
+        TileLayerBaker baker = new TileLayerBaker();
+        for (int layerIdx = 0; layerIdx < mLayers.getCount(); ++layerIdx) {
+            MapLayer layer = mLayers.get(layerIdx);
+            if (layer instanceof TiledMapTileLayer) {
+                TiledMapTileLayer tileLayer = (TiledMapTileLayer) layer;
+                baker.bake(tileLayer, unitScale, 0, 0, tileLayer.getWidth(), tileLayer.getHeight(),
+                        (texture, vertices) -> ++count[0]);
+            }
+        }
+        return count[0];
+    }
+
+    private void bakeLayer(TileLayerBaker baker, TiledMapTileLayer layer, float unitScale, Array<Chunk> chunks) {
+        // Top chunks first, like OrthogonalTiledMapRenderer which renders the top row first
+        for (int row = ((layer.getHeight() - 1) / CHUNK_SIZE) * CHUNK_SIZE; row >= 0; row -= CHUNK_SIZE) {
+            for (int col = 0; col < layer.getWidth(); col += CHUNK_SIZE) {
+                mCache.beginCache();
+                mChunkMinX = Float.MAX_VALUE;
+                mChunkMinY = Float.MAX_VALUE;
+                mChunkMaxX = -Float.MAX_VALUE;
+                mChunkMaxY = -Float.MAX_VALUE;
+                baker.bake(layer, unitScale, col, row,
+                        Math.min(col + CHUNK_SIZE, layer.getWidth()),
+                        Math.min(row + CHUNK_SIZE, layer.getHeight()),
+                        this::addQuad);
+                int cacheId = mCache.endCache();
+                if (mChunkMinX <= mChunkMaxX) {
+                    Rectangle bounds = new Rectangle(mChunkMinX, mChunkMinY,
+                            mChunkMaxX - mChunkMinX, mChunkMaxY - mChunkMinY);
+                    chunks.add(new Chunk(cacheId, bounds));
+                }
+            }
+        }
+    }
+
+    private void addQuad(Texture texture, float[] vertices) {
+        for (int idx = 0; idx < 4; ++idx) {
+            float x = vertices[idx * VERTEX_SIZE];
+            float y = vertices[idx * VERTEX_SIZE + 1];
+            mChunkMinX = Math.min(mChunkMinX, x);
+            mChunkMinY = Math.min(mChunkMinY, y);
+            mChunkMaxX = Math.max(mChunkMaxX, x);
+            mChunkMaxY = Math.max(mChunkMaxY, y);
+        }
+        for (int idx = 0; idx < VERTICES_PER_QUAD; ++idx) {
+            System.arraycopy(vertices, TRIANGLE_VERTICES[idx] * VERTEX_SIZE,
+                    mTriangleVertices, idx * VERTEX_SIZE, VERTEX_SIZE);
+        }
+        mCache.add(texture, mTriangleVertices, 0, mTriangleVertices.length);
+    }
+}
@@ -19,19 +19,41 @@
 package com.agateau.pixelwheels.map;
 
 import com.badlogic.gdx.math.Polygon;
+import com.badlogic.gdx.math.Rectangle;
 import com.badlogic.gdx.math.Vector2;
 import com.badlogic.gdx.utils.Array;
 import com.agateau.utils.Assert;
 
+import java.nio.ByteBuffer;
+
 /**
  * Can provide the position within a lap based on x, y (in tile pixels)
+ *
+ * Once bake() has been called, lookups go through a grid of CELL_SIZE x CELL_SIZE pixel cells,
+ * each cell storing the index of the only section covering it. Only cells crossed by a section
+ * border need to test the section polygons. The grid can also be loaded from a file generated
+ * offline, see LapPositionTableIO.
+ *
+ * When polygons must be tested, a LapSectionIndex limits the tests to the few sections near the
+ * position.
  */
 public class LapPositionTable {
+    public static final int CELL_SIZE = 8;
+    private static final byte NO_SECTION = -1;
+    private static final byte MIXED_SECTIONS = -2;
+
     private final Array<LapSection> mSections = new Array<>();
+    private LapSectionIndex mSectionIndex;
+
+    private ByteBuffer mCells;
+    private int mGridWidth;
+    private int mGridHeight;
 
     private static class LapSection {
         private final int mSectionId;
         private final Polygon mPolygon;
+        private final Rectangle mBounds;
+        private final boolean mConvex;
         private final Warper mWarper = new Warper();
 
         public LapSection(int sectionId, Polygon polygon) {
@@ -52,6 +74,31 @@ public class LapPositionTable {
                     1, 1,
                     0, 1
             );
+            mBounds = mPolygon.getBoundingRectangle();
+            mConvex = isConvex(vertices);
+        }
+
+        private static boolean isConvex(float[] vertices) {
+            int positive = 0;
+            int negative = 0;
+            for (int idx = 0; idx < 4; ++idx) {
+                int i1 = idx * 2;
+                int i2 = ((idx + 1) % 4) * 2;
+                int i3 = ((idx + 2) % 4) * 2;
+                float cross = (vertices[i2] - vertices[i1]) * (vertices[i3 + 1] - vertices[i2 + 1])
+                        - (vertices[i2 + 1] - vertices[i1 + 1]) * (vertices[i3] - vertices[i2]);
+                if (cross > 0) {
+                    ++positive;
+                } else if (cross < 0) {
+                    ++negative;
+                }
+            }
+            return positive == 0 || negative == 0;
+        }
+
+        boolean overlaps(float x1, float y1, float x2, float y2) {
+            return mBounds.x <= x2 && mBounds.x + mBounds.width >= x1
+                    && mBounds.y <= y2 && mBounds.y + mBounds.height >= y1;
         }
 
         private final LapPosition mLapPosition = new LapPosition();
@@ -64,17 +111,181 @@ public class LapPositionTable {
 
     public void addSection(int section, Polygon polygon) {
         mSections.add(new LapSection(section, polygon));
+        mSectionIndex = null;
+    }
+
+    /**
+     * Precompute the section covering each cell of a width x height (in tile pixels) area
+     */
+    public void bake(int width, int height) {
+        mGridWidth = (width + CELL_SIZE - 1) / CELL_SIZE;
+        mGridHeight = (height + CELL_SIZE - 1) / CELL_SIZE;
+        Assert.check(mSections.size <= Byte.MAX_VALUE, "Too many sections: " + mSections.size);
+        byte[] cells = new byte[mGridWidth * mGridHeight];
+        for (int cy = 0; cy < mGridHeight; ++cy) {
+            for (int cx = 0; cx < mGridWidth; ++cx) {
+                cells[cy * mGridWidth + cx] = computeCellValue(cx * CELL_SIZE, cy * CELL_SIZE);
+            }
+        }
+        mCells = ByteBuffer.wrap(cells);
+    }
+
+    /**
+     * Use a precomputed grid, as created by bake(). Cells must be stored row by row.
+     */
+    void setGrid(int gridWidth, int gridHeight, ByteBuffer cells) {
+        Assert.check(cells.remaining() == gridWidth * gridHeight, "Invalid grid size");
+        mGridWidth = gridWidth;
+        mGridHeight = gridHeight;
+        mCells = cells;
+    }
+
+    boolean hasGrid() {
+        return mCells != null;
+    }
+
+    int getGridWidth() {
+        return mGridWidth;
+    }
+
+    int getGridHeight() {
+        return mGridHeight;
+    }
+
+    byte getCellValue(int index) {
+        return mCells.get(index);
+    }
+
+    /**
+     * Returns a hash of the section coordinates, used to detect outdated precomputed grids
+     */
+    int computeSectionsHash() {
+        int hash = mSections.size;
+        for (LapSection section : mSections) {
+            for (float value : section.mPolygon.getTransformedVertices()) {
+                hash = 31 * hash + Float.floatToIntBits(value);
+            }
+        }
+        return hash;
     }
 
     public LapPosition get(int x, int y) {
-        for (LapSection zone : mSections) {
-            if (zone.mPolygon.contains(x, y)) {
-                return zone.computePosition(x, y);
+        return get(x, y, -1);
+    }
+
+    /**
+     * Like get(x, y), but if polygons must be tested, starts with the section whose id is
+     * @p hintSectionId and its neighbours: racers almost always stay in or next to the section
+     * they were in. Pass -1 if there is no hint.
+     *
+     * For a position exactly on the border between two sections, this can return either section.
+     */
+    public LapPosition get(int x, int y, int hintSectionId) {
+        byte value = getCellValueAt(x, y);
+        if (value == NO_SECTION) {
+            return null;
+        }
+        LapSection section;
+        if (value == MIXED_SECTIONS) {
+            section = findSectionNear(x, y, hintSectionId);
+            if (section == null) {
+                section = findSection(x, y);
+            }
+        } else {
+            section = mSections.get(value);
+        }
+        return section == null ? null : section.computePosition(x, y);
+    }
+
+    /**
+     * Returns the value of the grid cell containing (x, y), or MIXED_SECTIONS if there is no grid
+     * or (x, y) is outside it
+     */
+    private byte getCellValueAt(int x, int y) {
+        if (mCells == null || x < 0 || y < 0) {
+            return MIXED_SECTIONS;
+        }
+        int cx = x / CELL_SIZE;
+        int cy = y / CELL_SIZE;
+        if (cx >= mGridWidth || cy >= mGridHeight) {
+            return MIXED_SECTIONS;
+        }
+        return mCells.get(cy * mGridWidth + cx);
+    }
+
+    private LapSection findSectionNear(int x, int y, int sectionId) {
+        if (sectionId < 0 || sectionId >= mSections.size) {
+            return null;
+        }
+        LapSection section = mSections.get(sectionId);
+        if (section.mPolygon.contains(x, y)) {
+            return section;
+        }
+        section = mSections.get((sectionId + 1) % mSections.size);
+        if (section.mPolygon.contains(x, y)) {
+            return section;
+        }
+        section = mSections.get((sectionId + mSections.size - 1) % mSections.size);
+        if (section.mPolygon.contains(x, y)) {
+            return section;
+        }
+        return null;
+    }
+
+    private LapSection findSection(int x, int y) {
+        LapSectionIndex index = getSectionIndex();
+        int cell = index.getCellIndex(x, y);
+        if (cell == -1) {
+            return null;
+        }
+        for (int idx = index.getCellBegin(cell), end = index.getCellEnd(cell); idx < end; ++idx) {
+            LapSection section = mSections.get(index.getSectionIndex(idx));
+            if (section.mPolygon.contains(x, y)) {
+                return section;
             }
         }
         return null;
     }
 
+    private LapSectionIndex getSectionIndex() {
+        if (mSectionIndex == null) {
+            Array<Rectangle> boundsArray = new Array<>(mSections.size);
+            for (LapSection section : mSections) {
+                boundsArray.add(section.mBounds);
+            }
+            mSectionIndex = new LapSectionIndex(boundsArray);
+        }
+        return mSectionIndex;
+    }
+
+    /**
+     * A cell is assigned to a section if its 4 corner pixels are in this section and the section
+     * is convex, since this means all the pixels of the cell are in the section. A cell is empty
+     * if it does not overlap the bounds of any section.
+     */
+    private byte computeCellValue(int x1, int y1) {
+        int x2 = x1 + CELL_SIZE - 1;
+        int y2 = y1 + CELL_SIZE - 1;
+        boolean overlapped = false;
+        for (LapSection section : mSections) {
+            if (section.overlaps(x1, y1, x2, y2)) {
+                overlapped = true;
+                break;
+            }
+        }
+        if (!overlapped) {
+            return NO_SECTION;
+        }
+        LapSection section = findSection(x1, y1);
+        if (section == null || !section.mConvex
+                || findSection(x2, y1) != section
+                || findSection(x1, y2) != section
+                || findSection(x2, y2) != section) {
+            return MIXED_SECTIONS;
+        }
+        return (byte)mSections.indexOf(section, true);
+    }
+
     public int getSectionCount() {
         return mSections.size;
     }
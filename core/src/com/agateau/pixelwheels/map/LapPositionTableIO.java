@@ -20,6 +20,8 @@ package com.agateau.pixelwheels.map;
 
 import com.agateau.utils.Assert;
 import com.agateau.utils.log.NLog;
+import com.badlogic.gdx.Files;
+import com.badlogic.gdx.files.FileHandle;
 import com.badlogic.gdx.graphics.Pixmap;
 import com.badlogic.gdx.maps.MapLayer;
 import com.badlogic.gdx.maps.MapObject;
@@ -29,15 +31,36 @@ import com.badlogic.gdx.maps.tiled.TiledMap;
 import com.badlogic.gdx.math.Polygon;
 import com.badlogic.gdx.math.Polyline;
 import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.StreamUtils;
 
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
 import java.util.HashSet;
 import java.util.Set;
 
 /**
  * Loads a LapPositionTable from a TiledMap. Parses the section segments defined in
  * doc/map-format.md
+ *
+ * Also reads and writes the baked grid of a LapPositionTable. The grid file is made of a header
+ * of HEADER_INT_COUNT big-endian ints (magic, version, cell size, grid width, grid height,
+ * section count, sections hash) followed by one byte per cell, row by row.
  */
 public class LapPositionTableIO {
+    public static final String GRID_EXTENSION = "lpt";
+
+    private static final int GRID_MAGIC = 0x50574c50; // "PWLP"
+    private static final int GRID_VERSION = 1;
+    private static final int HEADER_INT_COUNT = 7;
+    private static final int HEADER_SIZE = HEADER_INT_COUNT * 4;
+
     private static class Line implements Comparable {
         float x1, y1;
         float x2, y2;
@@ -120,4 +143,105 @@ public class LapPositionTableIO {
         }
         return pixmap;
     }
+
+    public static void saveGrid(LapPositionTable table, FileHandle handle) {
+        Assert.check(table.hasGrid(), "Table must be baked before being saved");
+        DataOutputStream stream = new DataOutputStream(handle.write(false /* append */, 65536));
+        try {
+            stream.writeInt(GRID_MAGIC);
+            stream.writeInt(GRID_VERSION);
+            stream.writeInt(LapPositionTable.CELL_SIZE);
+            stream.writeInt(table.getGridWidth());
+            stream.writeInt(table.getGridHeight());
+            stream.writeInt(table.getSectionCount());
+            stream.writeInt(table.computeSectionsHash());
+            int cellCount = table.getGridWidth() * table.getGridHeight();
+            for (int idx = 0; idx < cellCount; ++idx) {
+                stream.writeByte(table.getCellValue(idx));
+            }
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to write " + handle.path(), e);
+        } finally {
+            StreamUtils.closeQuietly(stream);
+        }
+    }
+
+    /**
+     * Loads a grid saved by saveGrid() into @p table.
+     *
+     * The grid is only used if it matches the map size and the table sections. Returns false if
+     * the grid could not be used, in which case the caller should bake the table itself.
+     */
+    public static boolean loadGrid(LapPositionTable table, FileHandle handle, int width, int height) {
+        if (!handle.exists()) {
+            NLog.i("No lap position grid for %s", handle.path());
+            return false;
+        }
+        ByteBuffer buffer;
+        try {
+            buffer = mapFile(handle);
+        } catch (IOException e) {
+            NLog.e("Failed to read %s: %s", handle.path(), e);
+            return false;
+        }
+        if (buffer.remaining() < HEADER_SIZE) {
+            NLog.e("%s is too short", handle.path());
+            return false;
+        }
+        int gridWidth = (width + LapPositionTable.CELL_SIZE - 1) / LapPositionTable.CELL_SIZE;
+        int gridHeight = (height + LapPositionTable.CELL_SIZE - 1) / LapPositionTable.CELL_SIZE;
+        if (buffer.getInt() != GRID_MAGIC
+                || buffer.getInt() != GRID_VERSION
+                || buffer.getInt() != LapPositionTable.CELL_SIZE
+                || buffer.getInt() != gridWidth
+                || buffer.getInt() != gridHeight
+                || buffer.getInt() != table.getSectionCount()
+                || buffer.getInt() != table.computeSectionsHash()) {
+            NLog.e("%s is outdated or invalid, ignoring it", handle.path());
+            return false;
+        }
+        if (buffer.remaining() != gridWidth * gridHeight) {
+            NLog.e("%s has an invalid size", handle.path());
+            return false;
+        }
+        table.setGrid(gridWidth, gridHeight, buffer.slice());
+        return true;
+    }
+
+    /**
+     * Returns a read-only view of the content of @p handle. Memory-maps the file when it is
+     * available on the file system, otherwise (Android assets) reads it in a direct buffer so that
+     * its content does not end up on the Java heap.
+     */
+    private static ByteBuffer mapFile(FileHandle handle) throws IOException {
+        if (handle.type() != Files.FileType.Classpath) {
+            File file = handle.file();
+            if (file.exists()) {
+                RandomAccessFile raf = new RandomAccessFile(file, "r");
+                try {
+                    FileChannel channel = raf.getChannel();
+                    return channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+                } finally {
+                    StreamUtils.closeQuietly(raf);
+                }
+            }
+        }
+        long length = handle.length();
+        if (length <= 0) {
+            // Length is unknown, for example for compressed Android assets
+            return ByteBuffer.wrap(handle.readBytes());
+        }
+        ByteBuffer buffer = ByteBuffer.allocateDirect((int)length);
+        InputStream stream = handle.read();
+        try {
+            ReadableByteChannel channel = Channels.newChannel(stream);
+            while (buffer.hasRemaining() && channel.read(buffer) >= 0) {
+                // Keep reading
+            }
+        } finally {
+            StreamUtils.closeQuietly(stream);
+        }
+        buffer.flip();
+        return buffer;
+    }
 }
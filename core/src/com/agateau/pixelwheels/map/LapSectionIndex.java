@@ -0,0 +1,141 @@
+/*
+ * Copyright 2019 Aurélien Gâteau <mail@agateau.com>
+ *
+ * This file is part of Pixel Wheels.
+ *
+ * Pixel Wheels is free software: you can redistribute it and/or modify it under
+ * the terms of the GNU General Public License as published by the Free
+ * Software Foundation, either version 3 of the License, or (at your option)
+ * any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License for
+ * more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.agateau.pixelwheels.map;
+
+import com.badlogic.gdx.math.MathUtils;
+import com.badlogic.gdx.math.Rectangle;
+import com.badlogic.gdx.utils.Array;
+
+import java.util.Arrays;
+
+/**
+ * A uniform grid listing, for each of its cells, the sections whose bounds overlap the cell.
+ *
+ * Sections are listed in increasing index order, so iterating over the sections of a cell gives
+ * the same first match as iterating over all the sections.
+ */
+class LapSectionIndex {
+    static final int CELL_SIZE = 64;
+
+    private final float mOriginX;
+    private final float mOriginY;
+    private final int mWidth;
+    private final int mHeight;
+
+    // The sections of cell N are mSectionIndexes[mCellStarts[N]] to
+    // mSectionIndexes[mCellStarts[N + 1] - 1]
+    private final int[] mCellStarts;
+    private final int[] mSectionIndexes;
+
+    LapSectionIndex(Array<Rectangle> boundsArray) {
+        if (boundsArray.size == 0) {
+            mOriginX = 0;
+            mOriginY = 0;
+            mWidth = 0;
+            mHeight = 0;
+            mCellStarts = new int[1];
+            mSectionIndexes = new int[0];
+            return;
+        }
+        float minX = Float.MAX_VALUE;
+        float minY = Float.MAX_VALUE;
+        float maxX = -Float.MAX_VALUE;
+        float maxY = -Float.MAX_VALUE;
+        for (Rectangle bounds : boundsArray) {
+            minX = Math.min(minX, bounds.x);
+            minY = Math.min(minY, bounds.y);
+            maxX = Math.max(maxX, bounds.x + bounds.width);
+            maxY = Math.max(maxY, bounds.y + bounds.height);
+        }
+        mOriginX = minX;
+        mOriginY = minY;
+        mWidth = MathUtils.floor((maxX - minX) / CELL_SIZE) + 1;
+        mHeight = MathUtils.floor((maxY - minY) / CELL_SIZE) + 1;
+
+        // First pass: count the sections of each cell
+        int[] counts = new int[mWidth * mHeight];
+        int total = 0;
+        for (Rectangle bounds : boundsArray) {
+            int x1 = getColumn(bounds.x);
+            int x2 = getColumn(bounds.x + bounds.width);
+            int y1 = getRow(bounds.y);
+            int y2 = getRow(bounds.y + bounds.height);
+            for (int y = y1; y <= y2; ++y) {
+                for (int x = x1; x <= x2; ++x) {
+                    ++counts[y * mWidth + x];
+                    ++total;
+                }
+            }
+        }
+        mCellStarts = new int[counts.length + 1];
+        for (int idx = 0; idx < counts.length; ++idx) {
+            mCellStarts[idx + 1] = mCellStarts[idx] + counts[idx];
+        }
+
+        // Second pass: fill the cells, reusing counts to track how many sections have been added
+        mSectionIndexes = new int[total];
+        Arrays.fill(counts, 0);
+        for (int sectionIdx = 0; sectionIdx < boundsArray.size; ++sectionIdx) {
+            Rectangle bounds = boundsArray.get(sectionIdx);
+            int x1 = getColumn(bounds.x);
+            int x2 = getColumn(bounds.x + bounds.width);
+            int y1 = getRow(bounds.y);
+            int y2 = getRow(bounds.y + bounds.height);
+            for (int y = y1; y <= y2; ++y) {
+                for (int x = x1; x <= x2; ++x) {
+                    int cell = y * mWidth + x;
+                    mSectionIndexes[mCellStarts[cell] + counts[cell]] = sectionIdx;
+                    ++counts[cell];
+                }
+            }
+        }
+    }
+
+    /**
+     * Returns the index of the cell containing (x, y), or -1 if no section can contain it
+     */
+    int getCellIndex(float x, float y) {
+        int column = getColumn(x);
+        int row = getRow(y);
+        if (column < 0 || column >= mWidth || row < 0 || row >= mHeight) {
+            return -1;
+        }
+        return row * mWidth + column;
+    }
+
+    int getCellBegin(int cell) {
+        return mCellStarts[cell];
+    }
+
+    int getCellEnd(int cell) {
+        return mCellStarts[cell + 1];
+    }
+
+    int getSectionIndex(int idx) {
+        return mSectionIndexes[idx];
+    }
+
+    private int getColumn(float x) {
+        return MathUtils.floor((x - mOriginX) / CELL_SIZE);
+    }
+
+    private int getRow(float y) {
+        return MathUtils.floor((y - mOriginY) / CELL_SIZE);
+    }
+}
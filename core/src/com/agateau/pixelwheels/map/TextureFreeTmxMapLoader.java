@@ -0,0 +1,78 @@
+/*
+ * Copyright 2019 Aurélien Gâteau <mail@agateau.com>
+ *
+ * This file is part of Pixel Wheels.
+ *
+ * Pixel Wheels is free software: you can redistribute it and/or modify it under
+ * the terms of the GNU General Public License as published by the Free
+ * Software Foundation, either version 3 of the License, or (at your option)
+ * any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License for
+ * more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.agateau.pixelwheels.map;
+
+import com.agateau.ui.SizeOnlyTexture;
+import com.agateau.utils.Assert;
+import com.badlogic.gdx.files.FileHandle;
+import com.badlogic.gdx.graphics.Texture;
+import com.badlogic.gdx.maps.ImageResolver;
+import com.badlogic.gdx.maps.tiled.TiledMap;
+import com.badlogic.gdx.maps.tiled.TmxMapLoader;
+import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.ObjectMap;
+import com.badlogic.gdx.utils.StreamUtils;
+
+import java.io.DataInputStream;
+import java.io.IOException;
+
+/**
+ * A TmxMapLoader which does not load tileset images: it creates SizeOnlyTexture instances instead,
+ * so that a map can be loaded without a GL context.
+ *
+ * The size is read from the PNG header because tile ids depend on the real image size.
+ */
+class TextureFreeTmxMapLoader extends TmxMapLoader {
+    private static final long PNG_SIGNATURE = 0x89504e470d0a1a0aL;
+
+    @Override
+    public TiledMap load(String fileName, Parameters parameters) {
+        convertObjectToTileSpace = parameters.convertObjectToTileSpace;
+        flipY = parameters.flipY;
+        FileHandle tmxFile = resolve(fileName);
+        root = xml.parse(tmxFile);
+        ObjectMap<String, Texture> textures = new ObjectMap<>();
+        try {
+            Array<FileHandle> textureFiles = loadTilesets(root, tmxFile);
+            textureFiles.addAll(loadImages(root, tmxFile));
+            for (FileHandle textureFile : textureFiles) {
+                textures.put(textureFile.path(), createTexture(textureFile));
+            }
+        } catch (IOException e) {
+            throw new RuntimeException("Couldn't load tilemap '" + fileName + "'", e);
+        }
+        TiledMap map = loadTilemap(root, tmxFile, new ImageResolver.DirectImageResolver(textures));
+        map.setOwnedResources(textures.values().toArray());
+        return map;
+    }
+
+    private static Texture createTexture(FileHandle handle) throws IOException {
+        DataInputStream stream = new DataInputStream(handle.read());
+        try {
+            Assert.check(stream.readLong() == PNG_SIGNATURE, handle.path() + " is not a PNG file");
+            stream.readInt(); // IHDR chunk length
+            stream.readInt(); // IHDR chunk type
+            int width = stream.readInt();
+            int height = stream.readInt();
+            return new SizeOnlyTexture(width, height);
+        } finally {
+            StreamUtils.closeQuietly(stream);
+        }
+    }
+}
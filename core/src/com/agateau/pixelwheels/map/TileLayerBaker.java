@@ -0,0 +1,179 @@
+/*
+ * Copyright 2019 Aurélien Gâteau <mail@agateau.com>
+ *
+ * This file is part of Pixel Wheels.
+ *
+ * Pixel Wheels is free software: you can redistribute it and/or modify it under
+ * the terms of the GNU General Public License as published by the Free
+ * Software Foundation, either version 3 of the License, or (at your option)
+ * any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License for
+ * more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.agateau.pixelwheels.map;
+
+import com.badlogic.gdx.graphics.Color;
+import com.badlogic.gdx.graphics.Texture;
+import com.badlogic.gdx.graphics.g2d.TextureRegion;
+import com.badlogic.gdx.maps.tiled.TiledMapTile;
+import com.badlogic.gdx.maps.tiled.TiledMapTileLayer;
+
+import static com.badlogic.gdx.graphics.g2d.Batch.C1;
+import static com.badlogic.gdx.graphics.g2d.Batch.C2;
+import static com.badlogic.gdx.graphics.g2d.Batch.C3;
+import static com.badlogic.gdx.graphics.g2d.Batch.C4;
+import static com.badlogic.gdx.graphics.g2d.Batch.U1;
+import static com.badlogic.gdx.graphics.g2d.Batch.U2;
+import static com.badlogic.gdx.graphics.g2d.Batch.U3;
+import static com.badlogic.gdx.graphics.g2d.Batch.U4;
+import static com.badlogic.gdx.graphics.g2d.Batch.V1;
+import static com.badlogic.gdx.graphics.g2d.Batch.V2;
+import static com.badlogic.gdx.graphics.g2d.Batch.V3;
+import static com.badlogic.gdx.graphics.g2d.Batch.V4;
+import static com.badlogic.gdx.graphics.g2d.Batch.X1;
+import static com.badlogic.gdx.graphics.g2d.Batch.X2;
+import static com.badlogic.gdx.graphics.g2d.Batch.X3;
+import static com.badlogic.gdx.graphics.g2d.Batch.X4;
+import static com.badlogic.gdx.graphics.g2d.Batch.Y1;
+import static com.badlogic.gdx.graphics.g2d.Batch.Y2;
+import static com.badlogic.gdx.graphics.g2d.Batch.Y3;
+import static com.badlogic.gdx.graphics.g2d.Batch.Y4;
+
+/**
+ * Turns the cells of a TiledMapTileLayer into quads, exactly like
+ * OrthogonalTiledMapRenderer.renderTileLayer() does, so that they can be stored once in a static
+ * vertex buffer instead of being rebuilt for each frame.
+ *
+ * Quads use the Batch vertex layout: 4 vertices of 5 floats (x, y, packed color, u, v).
+ */
+public class TileLayerBaker {
+    public static final int QUAD_SIZE = 20;
+
+    public interface QuadListener {
+        /**
+         * Called for each quad. @p vertices is reused between calls: copy it if needed.
+         */
+        void onQuad(Texture texture, float[] vertices);
+    }
+
+    private final float[] mVertices = new float[QUAD_SIZE];
+
+    /**
+     * Calls @p listener for the cells of @p layer from column @p col1 to @p col2 (excluded) and from
+     * row @p row1 to @p row2 (excluded), top row first.
+     */
+    public void bake(TiledMapTileLayer layer, float unitScale, int col1, int row1, int col2, int row2,
+                     QuadListener listener) {
+        // Same color as OrthogonalTiledMapRenderer, assuming a white batch color
+        final float color = Color.toFloatBits(1, 1, 1, layer.getOpacity());
+
+        final float layerTileWidth = layer.getTileWidth() * unitScale;
+        final float layerTileHeight = layer.getTileHeight() * unitScale;
+
+        final float layerOffsetX = layer.getRenderOffsetX() * unitScale;
+        // Offset in Tiled is y down, so flip it
+        final float layerOffsetY = -layer.getRenderOffsetY() * unitScale;
+
+        final float[] vertices = mVertices;
+        for (int row = row2 - 1; row >= row1; row--) {
+            float y = row * layerTileHeight + layerOffsetY;
+            for (int col = col1; col < col2; col++) {
+                final TiledMapTileLayer.Cell cell = layer.getCell(col, row);
+                if (cell == null) {
+                    continue;
+                }
+                final TiledMapTile tile = cell.getTile();
+                if (tile == null) {
+                    continue;
+                }
+                float x = col * layerTileWidth + layerOffsetX;
+
+                TextureRegion region = tile.getTextureRegion();
+
+                float x1 = x + tile.getOffsetX() * unitScale;
+                float y1 = y + tile.getOffsetY() * unitScale;
+                float x2 = x1 + region.getRegionWidth() * unitScale;
+                float y2 = y1 + region.getRegionHeight() * unitScale;
+
+                float u1 = region.getU();
+                float v1 = region.getV2();
+                float u2 = region.getU2();
+                float v2 = region.getV();
+
+                vertices[X1] = x1;
+                vertices[Y1] = y1;
+                vertices[C1] = color;
+                vertices[U1] = u1;
+                vertices[V1] = v1;
+
+                vertices[X2] = x1;
+                vertices[Y2] = y2;
+                vertices[C2] = color;
+                vertices[U2] = u1;
+                vertices[V2] = v2;
+
+                vertices[X3] = x2;
+                vertices[Y3] = y2;
+                vertices[C3] = color;
+                vertices[U3] = u2;
+                vertices[V3] = v2;
+
+                vertices[X4] = x2;
+                vertices[Y4] = y1;
+                vertices[C4] = color;
+                vertices[U4] = u2;
+                vertices[V4] = v1;
+
+                if (cell.getFlipHorizontally()) {
+                    swap(vertices, U1, U3);
+                    swap(vertices, U2, U4);
+                }
+                if (cell.getFlipVertically()) {
+                    swap(vertices, V1, V3);
+                    swap(vertices, V2, V4);
+                }
+                switch (cell.getRotation()) {
+                case TiledMapTileLayer.Cell.ROTATE_90:
+                    rotate(vertices, V1, V2, V3, V4);
+                    rotate(vertices, U1, U2, U3, U4);
+                    break;
+                case TiledMapTileLayer.Cell.ROTATE_180:
+                    swap(vertices, U1, U3);
+                    swap(vertices, U2, U4);
+                    swap(vertices, V1, V3);
+                    swap(vertices, V2, V4);
+                    break;
+                case TiledMapTileLayer.Cell.ROTATE_270:
+                    rotate(vertices, V1, V4, V3, V2);
+                    rotate(vertices, U1, U4, U3, U2);
+                    break;
+                }
+                listener.onQuad(region.getTexture(), vertices);
+            }
+        }
+    }
+
+    private static void swap(float[] vertices, int idx1, int idx2) {
+        float tmp = vertices[idx1];
+        vertices[idx1] = vertices[idx2];
+        vertices[idx2] = tmp;
+    }
+
+    /**
+     * Moves the value at @p idx2 to @p idx1, @p idx3 to @p idx2, @p idx4 to @p idx3 and @p idx1 to
+     * @p idx4
+     */
+    private static void rotate(float[] vertices, int idx1, int idx2, int idx3, int idx4) {
+        float tmp = vertices[idx1];
+        vertices[idx1] = vertices[idx2];
+        vertices[idx2] = vertices[idx3];
+        vertices[idx3] = vertices[idx4];
+        vertices[idx4] = tmp;
+    }
+}
@@ -19,10 +19,10 @@
 package com.agateau.pixelwheels.map;
 
 import com.agateau.pixelwheels.Constants;
-import com.agateau.pixelwheels.debug.Debug;
 import com.agateau.pixelwheels.utils.OrientedPoint;
 import com.agateau.utils.Assert;
 import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.files.FileHandle;
 import com.badlogic.gdx.graphics.Color;
 import com.badlogic.gdx.maps.MapLayer;
 import com.badlogic.gdx.maps.MapObject;
@@ -43,13 +43,17 @@ import com.badlogic.gdx.utils.Disposable;
  * The map of the current game
  */
 public class Track implements Disposable {
-    private static final int CELL_ID_ROW_STRIDE = 10000;
+    private static final Material[] MATERIALS = Material.values();
 
     private final String mId;
     private final String mMapName;
 
     private TiledMap mMap;
     private Material[] mMaterialForTileId;
+    // Ordinal of the material of the top-most background tile, indexed by ty * mColumnCount + tx
+    private byte[] mMaterialGrid;
+    private int mColumnCount;
+    private int mRowCount;
     private int mStartTileId = -1;
     private Array<TiledMapTileLayer> mBackgroundLayers;
     private Array<TiledMapTileLayer> mForegroundLayers;
@@ -60,27 +64,39 @@ public class Track implements Disposable {
     private final Array<MapObject> mBorderObjects = new Array<>();
     private LapPositionTable mLapPositionTable;
     private Color mBackgroundColor;
+    private boolean mTextureFree = false;
+    private BakedTileMapRenderer mTileMapRenderer;
 
     public Track(String id, String name) {
         mId = id;
         mMapName = name;
     }
 
+    /**
+     * If set, init() does not load the tileset images: the track can be used without a GL context
+     * but cannot be rendered
+     */
+    public void setTextureFree(boolean textureFree) {
+        mTextureFree = textureFree;
+    }
+
     public void init() {
         if (mMap != null) {
             return;
         }
-        TmxMapLoader loader = new TmxMapLoader();
+        TmxMapLoader loader = mTextureFree ? new TextureFreeTmxMapLoader() : new TmxMapLoader();
         mMap = loader.load(Gdx.files.internal("maps/" + mId + ".tmx").path());
         mMaterialForTileId = computeMaterialForTileId();
         findSpecialTileIds();
         findLayers();
         readBorders();
+        computeMaterialGrid();
 
         mTileWidth = Constants.UNIT_FOR_PIXEL * mBackgroundLayers.get(0).getTileWidth();
         mTileHeight = Constants.UNIT_FOR_PIXEL * mBackgroundLayers.get(0).getTileHeight();
 
         mLapPositionTable = LapPositionTableIO.load(mMap);
+        loadLapPositionGrid();
         readWaypoints();
 
         String bgColorText = mMap.getProperties().get("backgroundcolor", "#808080", String.class);
@@ -88,6 +104,16 @@ public class Track implements Disposable {
         mBackgroundColor = Color.valueOf(bgColorText);
     }
 
+    private void loadLapPositionGrid() {
+        TiledMapTileLayer groundLayer = mBackgroundLayers.get(0);
+        int width = groundLayer.getWidth() * (int)groundLayer.getTileWidth();
+        int height = groundLayer.getHeight() * (int)groundLayer.getTileHeight();
+        FileHandle gridFile = Gdx.files.internal("maps/" + mId + "." + LapPositionTableIO.GRID_EXTENSION);
+        if (!LapPositionTableIO.loadGrid(mLapPositionTable, gridFile, width, height)) {
+            mLapPositionTable.bake(width, height);
+        }
+    }
+
     private void findLayers() {
         mBackgroundLayers = findLayersMatching("bg");
         Assert.check(mBackgroundLayers.size > 0, "No background layers found");
@@ -117,10 +143,6 @@ public class Track implements Disposable {
         return mBackgroundColor;
     }
 
-    public int getTotalLapCount() {
-        return Debug.instance.oneLapOnly ? 1 : 3;
-    }
-
     public TiledMap getMap() {
         return mMap;
     }
@@ -200,26 +222,51 @@ public class Track implements Disposable {
         Assert.check(mStartTileId != -1, "No start id");
     }
 
-    private TiledMapTile getTopTileAt(Array<TiledMapTileLayer> layers, float x, float y) {
+    /**
+     * Flattens the background layers into mMaterialGrid, so that finding the material at a
+     * position does not have to go through the layers
+     */
+    private void computeMaterialGrid() {
+        Assert.check(MATERIALS.length <= Byte.MAX_VALUE, "Too many materials");
+        TiledMapTileLayer groundLayer = mBackgroundLayers.get(0);
+        mColumnCount = groundLayer.getWidth();
+        mRowCount = groundLayer.getHeight();
+        mMaterialGrid = new byte[mColumnCount * mRowCount];
+        for (int ty = 0; ty < mRowCount; ++ty) {
+            for (int tx = 0; tx < mColumnCount; ++tx) {
+                Material material = Material.ROAD;
+                for (int idx = mBackgroundLayers.size - 1; idx >= 0; idx--) {
+                    TiledMapTileLayer.Cell cell = mBackgroundLayers.get(idx).getCell(tx, ty);
+                    if (cell != null) {
+                        material = mMaterialForTileId[cell.getTile().getId()];
+                        break;
+                    }
+                }
+                mMaterialGrid[ty * mColumnCount + tx] = (byte)material.ordinal();
+            }
+        }
+    }
+
+    /**
+     * Returns the index of the tile at the given screen coordinates in mMaterialGrid, or -1 if
+     * the coordinates are outside the map
+     */
+    private int getTileIndexAt(float x, float y) {
         int tx = MathUtils.floor(x / mTileWidth);
         int ty = MathUtils.floor(y / mTileHeight);
-        for (int idx = layers.size - 1; idx >= 0; idx--) {
-            TiledMapTileLayer.Cell cell = layers.get(idx).getCell(tx, ty);
-            if (cell != null) {
-                return cell.getTile();
-            }
+        if (tx < 0 || tx >= mColumnCount || ty < 0 || ty >= mRowCount) {
+            return -1;
         }
-        return null;
+        return ty * mColumnCount + tx;
     }
 
     /**
      * Returns a "cell id" for the given screen coordinates
-     * A cell id is a long representing the combination of x and y in map coordinates
+     * A cell id is a long representing the combination of x and y in map coordinates. All
+     * coordinates outside the map share the same cell id, -1.
      */
     public long getCellIdAt(float x, float y) {
-        int tx = MathUtils.floor(x / mTileWidth);
-        int ty = MathUtils.floor(y / mTileHeight);
-        return ty * CELL_ID_ROW_STRIDE + tx;
+        return getTileIndexAt(x, y);
     }
 
     public Material getMaterialAt(Vector2 pos) {
@@ -227,15 +274,31 @@ public class Track implements Disposable {
     }
 
     public Material getMaterialAt(float x, float y) {
-        TiledMapTile tile = getTopTileAt(mBackgroundLayers, x, y);
-        if (tile == null) {
+        int index = getTileIndexAt(x, y);
+        if (index == -1) {
             return Material.ROAD;
         }
-        return mMaterialForTileId[tile.getId()];
+        return MATERIALS[mMaterialGrid[index]];
+    }
+
+    /**
+     * Returns a renderer for the tile layers of the track. It is created on the first call, so
+     * that headless users of the track do not need a GL context, and kept until dispose().
+     */
+    public BakedTileMapRenderer getTileMapRenderer() {
+        Assert.check(!mTextureFree, "Texture-free tracks cannot be rendered");
+        if (mTileMapRenderer == null) {
+            mTileMapRenderer = new BakedTileMapRenderer(mMap, Constants.UNIT_FOR_PIXEL);
+        }
+        return mTileMapRenderer;
     }
 
     @Override
     public void dispose() {
+        if (mTileMapRenderer != null) {
+            mTileMapRenderer.dispose();
+            mTileMapRenderer = null;
+        }
         mMap.dispose();
         mMap = null;
     }
@@ -33,7 +33,8 @@ import com.badlogic.gdx.utils.Array;
  * Holds all the waypoints used by AI players
  */
 public class WaypointStore {
-    private static final OrientedPoint tmpPoint = new OrientedPoint();
+    private final OrientedPoint mTmpPoint = new OrientedPoint();
+    private final Vector2 mTmpVector = new Vector2();
 
     private static class WaypointInfo implements Comparable {
         float lapDistance;
@@ -47,6 +48,8 @@ public class WaypointStore {
     }
 
     private final Array<WaypointInfo> mWaypointInfos = new Array<>();
+    // Lap distances of mWaypointInfos, kept in a plain array for the lookups
+    private float[] mLapDistances = new float[0];
 
     public void read(MapLayer layer, LapPositionTable lapPositionTable) {
         final float U = Constants.UNIT_FOR_PIXEL;
@@ -55,12 +58,27 @@ public class WaypointStore {
             Assert.check(object instanceof EllipseMapObject, "Waypoints layer should contains only ellipses. " + object + " is not an ellipse.");
             Ellipse ellipse = ((EllipseMapObject) object).getEllipse();
             final LapPosition pos = lapPositionTable.get((int) ellipse.x, (int) ellipse.y);
-            WaypointInfo info = new WaypointInfo();
-            info.waypoint = new Vector2(ellipse.x * U, ellipse.y * U);
-            info.lapDistance = pos.getLapDistance();
-            mWaypointInfos.add(info);
+            addWaypoint(ellipse.x * U, ellipse.y * U, pos.getLapDistance());
         }
+        sortWaypoints();
+    }
+
+    void addWaypoint(float x, float y, float lapDistance) {
+        WaypointInfo info = new WaypointInfo();
+        info.waypoint = new Vector2(x, y);
+        info.lapDistance = lapDistance;
+        mWaypointInfos.add(info);
+    }
+
+    /**
+     * Must be called once all waypoints have been added
+     */
+    void sortWaypoints() {
         mWaypointInfos.sort();
+        mLapDistances = new float[mWaypointInfos.size];
+        for (int idx = 0; idx < mWaypointInfos.size; ++idx) {
+            mLapDistances[idx] = mWaypointInfos.get(idx).lapDistance;
+        }
     }
 
     public Vector2 getWaypoint(int index) {
@@ -75,6 +93,14 @@ public class WaypointStore {
         return (index + 1) % mWaypointInfos.size;
     }
 
+    /**
+     * Returns the index of the waypoint @p count waypoints after the one at @p index, so that AI
+     * can look further ahead than the next waypoint
+     */
+    public int getNextIndex(int index, int count) {
+        return (index + count) % mWaypointInfos.size;
+    }
+
     public int getCount() {
         return mWaypointInfos.size;
     }
@@ -84,7 +110,7 @@ public class WaypointStore {
         int prevIdx = getPreviousIndex(nextIdx);
         Vector2 prev = mWaypointInfos.get(prevIdx).waypoint;
         Vector2 next = mWaypointInfos.get(nextIdx).waypoint;
-        Vector2 projected = AgcMathUtils.project(pos, prev, next);
+        Vector2 projected = AgcMathUtils.project(pos, prev, next, mTmpVector);
         float waypointSquareLength = prev.dst2(next);
         if (projected.dst2(prev) > waypointSquareLength) {
             // projected is after the [prev, next] segment
@@ -93,18 +119,61 @@ public class WaypointStore {
             // projected is before the [prev, next] segment
             projected.set(prev);
         }
-        tmpPoint.x = projected.x;
-        tmpPoint.y = projected.y;
-        tmpPoint.angle = AgcMathUtils.normalizeAngle(AgcMathUtils.segmentAngle(prev, next));
-        return tmpPoint;
+        mTmpPoint.x = projected.x;
+        mTmpPoint.y = projected.y;
+        mTmpPoint.angle = AgcMathUtils.normalizeAngle(AgcMathUtils.segmentAngle(prev, next));
+        return mTmpPoint;
     }
 
+    /**
+     * Returns the index of the first waypoint whose lap distance is greater than @p lapDistance,
+     * or 0 if there are none
+     */
     public int getWaypointIndex(float lapDistance) {
-        for (int idx = 0; idx < mWaypointInfos.size; ++idx) {
-            if (lapDistance < mWaypointInfos.get(idx).lapDistance) {
-                return idx;
+        // Binary search for the first lap distance greater than lapDistance
+        int low = 0;
+        int high = mLapDistances.length;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (mLapDistances[middle] <= lapDistance) {
+                low = middle + 1;
+            } else {
+                high = middle;
             }
         }
-        return 0;
+        return low < mLapDistances.length ? low : 0;
+    }
+
+    /**
+     * Like getWaypointIndex(lapDistance), but first checks @p hintIndex and its neighbours.
+     * @p hintIndex should be the index returned by the previous call for the same racer: racers
+     * move by less than a waypoint between two calls, so this usually avoids the search.
+     */
+    public int getWaypointIndex(float lapDistance, int hintIndex) {
+        int count = mLapDistances.length;
+        if (hintIndex >= 0 && hintIndex < count) {
+            if (isWaypointIndex(lapDistance, hintIndex)) {
+                return hintIndex;
+            }
+            int next = getNextIndex(hintIndex);
+            if (isWaypointIndex(lapDistance, next)) {
+                return next;
+            }
+            int previous = getPreviousIndex(hintIndex);
+            if (isWaypointIndex(lapDistance, previous)) {
+                return previous;
+            }
+        }
+        return getWaypointIndex(lapDistance);
+    }
+
+    /**
+     * Returns true if getWaypointIndex(@p lapDistance) would return @p index
+     */
+    private boolean isWaypointIndex(float lapDistance, int index) {
+        if (index == 0) {
+            return lapDistance < mLapDistances[0] || lapDistance >= mLapDistances[mLapDistances.length - 1];
+        }
+        return mLapDistances[index - 1] <= lapDistance && lapDistance < mLapDistances[index];
     }
 }
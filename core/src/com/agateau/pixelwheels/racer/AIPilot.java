@@ -19,7 +19,6 @@
 package com.agateau.pixelwheels.racer;
 
 import com.agateau.pixelwheels.bonus.Bonus;
-import com.agateau.pixelwheels.GamePlay;
 import com.agateau.pixelwheels.GameWorld;
 import com.agateau.pixelwheels.map.Championship;
 import com.agateau.pixelwheels.map.Track;
@@ -50,6 +49,8 @@ public class AIPilot implements Pilot {
     private State mState = State.NORMAL;
     private float mBlockedDuration = 0;
     private float mReverseDuration = 0;
+    // Last result of WaypointStore.getWaypointIndex(), passed back as a hint
+    private int mWaypointIndex = -1;
 
     public AIPilot(GameWorld gameWorld, Track track, Racer racer) {
         mGameWorld = gameWorld;
@@ -109,6 +110,11 @@ public class AIPilot implements Pilot {
         public void save() {
 
         }
+
+        @Override
+        public void flush() {
+
+        }
     };
 
     @Override
@@ -150,15 +156,8 @@ public class AIPilot implements Pilot {
         vehicle.setBraking(false);
 
         // If we are better ranked than a player, slow down a bit
-        float rank = mGameWorld.getRacerRank(mRacer);
-        boolean needLimit = false;
-        for (Racer racer : mGameWorld.getPlayerRacers()) {
-            if (mGameWorld.getRacerRank(racer) > rank) {
-                needLimit = true;
-                break;
-            }
-        }
-        float limit = needLimit ? GamePlay.instance.aiSpeedLimiter : 1f;
+        boolean needLimit = mGameWorld.getRacerRank(mRacer) < mGameWorld.getLastPlayerRank();
+        float limit = needLimit ? mGameWorld.getGamePlay().aiSpeedLimiter : 1f;
         vehicle.setSpeedLimiter(limit);
     }
 
@@ -174,15 +173,15 @@ public class AIPilot implements Pilot {
         } else if (deltaAngle < -180) {
             deltaAngle += 360;
         }
-        float direction = MathUtils.clamp(deltaAngle / GamePlay.instance.lowSpeedMaxSteer, -1, 1);
+        float direction = MathUtils.clamp(deltaAngle / mGameWorld.getGamePlay().lowSpeedMaxSteer, -1, 1);
         vehicle.setDirection(direction);
     }
 
     private void updateTargetVector() {
         float lapDistance = mRacer.getLapPositionComponent().getLapDistance();
         WaypointStore store = mTrack.getWaypointStore();
-        int index = store.getWaypointIndex(lapDistance);
-        Vector2 waypoint = store.getWaypoint(store.getNextIndex(index));
+        mWaypointIndex = store.getWaypointIndex(lapDistance, mWaypointIndex);
+        Vector2 waypoint = store.getWaypoint(store.getNextIndex(mWaypointIndex));
         mTargetVector.set(waypoint.x - mRacer.getX(), waypoint.y - mRacer.getY());
     }
 
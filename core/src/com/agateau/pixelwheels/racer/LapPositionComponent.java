@@ -32,7 +32,11 @@ public class LapPositionComponent implements Racer.Component {
         COMPLETED, // Crossed the finished line, or was an AI currently racing when the last human finished
         DID_NOT_START // Had not yet crossed the start line when the last human finished!
     }
+    // Can be logged by every racer, every frame, so use a CallSite
+    private static final NLog.CallSite sNoLapPositionLog = NLog.createCallSite("LapPositionComponent.updatePosition");
+
     private final Track mTrack;
+    private final int mTotalLapCount;
     private final Vehicle mVehicle;
 
     private float mBestLapTime = -1;
@@ -47,8 +51,9 @@ public class LapPositionComponent implements Racer.Component {
     // Set to true again when we pass the line backward
     private boolean mSkipNextFinishLine = true;
 
-    public LapPositionComponent(Track track, Vehicle vehicle) {
+    public LapPositionComponent(Track track, int totalLapCount, Vehicle vehicle) {
         mTrack = track;
+        mTotalLapCount = totalLapCount;
         mVehicle = vehicle;
     }
 
@@ -91,9 +96,9 @@ public class LapPositionComponent implements Racer.Component {
         final float PFU = 1 / Constants.UNIT_FOR_PIXEL;
         final int pixelX = (int)(PFU * mVehicle.getX());
         final int pixelY = (int)(PFU * mVehicle.getY());
-        final LapPosition pos = mTrack.getLapPositionTable().get(pixelX, pixelY);
+        final LapPosition pos = mTrack.getLapPositionTable().get(pixelX, pixelY, oldSectionId);
         if (pos == null) {
-            NLog.e("No LapPosition at pixel " + pixelX + " x " + pixelY);
+            sNoLapPositionLog.e("No LapPosition at pixel %d x %d", pixelX, pixelY);
             return;
         }
         mLapPosition.copy(pos);
@@ -106,7 +111,7 @@ public class LapPositionComponent implements Racer.Component {
                 onLapCompleted();
             }
             ++mLapCount;
-            if (mLapCount > mTrack.getTotalLapCount()) {
+            if (mLapCount > mTotalLapCount) {
                 --mLapCount;
                 mStatus = Status.COMPLETED;
             }
@@ -131,21 +136,21 @@ public class LapPositionComponent implements Racer.Component {
         if (mLapCount == 0) {
             // This vehicle did not really start!
             mTotalTime = Float.MAX_VALUE;
-            mBestLapTime = mTotalTime / mTrack.getTotalLapCount();
+            mBestLapTime = mTotalTime / mTotalLapCount;
             mStatus = Status.DID_NOT_START;
             return;
         }
 
         mStatus = Status.COMPLETED;
         // Completing one lap represents that percentage of the race
-        float lapPercent = 1f / mTrack.getTotalLapCount();
+        float lapPercent = 1f / mTotalLapCount;
 
         float lastLapPercent = mLapPosition.getLapDistance() / mTrack.getLapPositionTable().getSectionCount() * lapPercent;
         float percentageDone = (mLapCount - 1) * lapPercent + lastLapPercent;
 
         mTotalTime = mTotalTime / percentageDone;
         if (!hasBestLapTime()) {
-            mBestLapTime = mTotalTime / mTrack.getTotalLapCount();
+            mBestLapTime = mTotalTime / mTotalLapCount;
         }
     }
 
@@ -23,6 +23,7 @@ import com.agateau.pixelwheels.GameConfig;
 import com.agateau.pixelwheels.GameWorld;
 import com.agateau.pixelwheels.gameinput.GameInput;
 import com.agateau.pixelwheels.gameinput.GameInputHandler;
+import com.agateau.pixelwheels.gameinput.InputScript;
 import com.agateau.pixelwheels.gameinput.KeyboardInputHandler;
 import com.agateau.pixelwheels.racescreen.Hud;
 import com.agateau.pixelwheels.stats.GameStats;
@@ -41,6 +42,7 @@ public class PlayerPilot implements Pilot {
 
     private GameInputHandler mInputHandler;
     private boolean mLastTriggering = false;
+    private InputScript mInputRecorder = null;
 
     public PlayerPilot(Assets assets, GameWorld gameWorld, Racer racer, GameConfig gameConfig, int playerIndex) {
         mAssets = assets;
@@ -53,6 +55,26 @@ public class PlayerPilot implements Pilot {
         mGameConfig.addListener(() -> updateInputHandler());
     }
 
+    /**
+     * Creates a pilot which always uses @p inputHandler, instead of the one selected in the game
+     * config. Used to replay recorded inputs.
+     */
+    public PlayerPilot(Assets assets, GameWorld gameWorld, Racer racer, GameInputHandler inputHandler) {
+        mAssets = assets;
+        mGameWorld = gameWorld;
+        mRacer = racer;
+        mGameConfig = null;
+        mPlayerIndex = 0;
+        mInputHandler = inputHandler;
+    }
+
+    /**
+     * Makes the pilot append the input it uses at each step to @p script
+     */
+    public void setInputRecorder(InputScript script) {
+        mInputRecorder = script;
+    }
+
     public void createHudButtons(Hud hud) {
         hud.deleteInputUiContainer();
         mInputHandler.createHudButtons(mAssets, hud);
@@ -65,6 +87,9 @@ public class PlayerPilot implements Pilot {
         if (mGameWorld.getState() == GameWorld.State.RUNNING) {
             mInputHandler.setBonus(mRacer.getBonus());
             GameInput input = mInputHandler.getGameInput();
+            if (mInputRecorder != null) {
+                mInputRecorder.add(input);
+            }
             vehicle.setDirection(input.direction);
             vehicle.setAccelerating(input.accelerating);
             vehicle.setBraking(input.braking);
@@ -19,20 +19,23 @@
 package com.agateau.pixelwheels.racer;
 
 import com.agateau.pixelwheels.Assets;
-import com.agateau.pixelwheels.GamePlay;
 import com.agateau.pixelwheels.GameWorld;
 import com.agateau.pixelwheels.ZLevel;
 import com.agateau.pixelwheels.bonus.Bonus;
 import com.agateau.pixelwheels.bonus.BonusPool;
 import com.agateau.pixelwheels.gameobjet.AudioClipper;
 import com.agateau.pixelwheels.gameobjet.GameObjectAdapter;
+import com.agateau.pixelwheels.gameobjet.Interpolable;
 import com.agateau.pixelwheels.gamesetup.GameInfo;
 import com.agateau.pixelwheels.racescreen.Collidable;
 import com.agateau.pixelwheels.racescreen.CollisionCategories;
 import com.agateau.pixelwheels.sound.AudioManager;
 import com.agateau.pixelwheels.stats.GameStats;
+import com.agateau.utils.AgcMathUtils;
+import com.agateau.utils.profiling.Profiler;
 import com.badlogic.gdx.graphics.g2d.Batch;
 import com.badlogic.gdx.math.MathUtils;
+import com.badlogic.gdx.math.Rectangle;
 import com.badlogic.gdx.math.Vector2;
 import com.badlogic.gdx.physics.box2d.Body;
 import com.badlogic.gdx.physics.box2d.Contact;
@@ -42,10 +45,13 @@ import com.badlogic.gdx.physics.box2d.Manifold;
 import com.badlogic.gdx.utils.Array;
 import com.badlogic.gdx.utils.Disposable;
 
+import java.util.EnumSet;
+
 /**
  * A racer
  */
-public class Racer extends GameObjectAdapter implements Collidable, Disposable {
+public class Racer extends GameObjectAdapter implements Collidable, Disposable, Interpolable {
+    private static final EnumSet<ZLevel> Z_LEVELS = EnumSet.of(ZLevel.GROUND, ZLevel.VEHICLES, ZLevel.FLYING);
     private final GameWorld mGameWorld;
     private final Vehicle mVehicle;
     private final VehicleRenderer mVehicleRenderer;
@@ -54,6 +60,8 @@ public class Racer extends GameObjectAdapter implements Collidable, Disposable {
     private final LapPositionComponent mLapPositionComponent;
     private final AudioComponent mAudioComponent;
     private final Array<Component> mComponents = new Array<>();
+    // Same size and order as mComponents
+    private final Array<Profiler.Scope> mComponentScopes = new Array<>();
     private final Array<Collidable> mCollidableComponents = new Array<>();
     private final GameInfo.Entrant mEntrant;
 
@@ -61,6 +69,8 @@ public class Racer extends GameObjectAdapter implements Collidable, Disposable {
 
     // State
     private Bonus mBonus;
+    private int mPickedBonusCount = 0;
+    private int mRank = -1;
     private final RecordRanks mRecordRanks = new RecordRanks();
 
     public static class RecordRanks {
@@ -90,7 +100,7 @@ public class Racer extends GameObjectAdapter implements Collidable, Disposable {
 
     public Racer(Assets assets, AudioManager audioManager, GameWorld gameWorld, Vehicle vehicle, GameInfo.Entrant entrant) {
         mGameWorld = gameWorld;
-        mLapPositionComponent = new LapPositionComponent(gameWorld.getTrack(), vehicle);
+        mLapPositionComponent = new LapPositionComponent(gameWorld.getTrack(), gameWorld.getTotalLapCount(), vehicle);
         mSpinningComponent = new SpinningComponent(vehicle);
 
         mVehicle = vehicle;
@@ -120,16 +130,12 @@ public class Racer extends GameObjectAdapter implements Collidable, Disposable {
         addComponent(supervisorComponent);
         addComponent(new BonusSpotHitComponent(this));
         addComponent(mAudioComponent);
-
-        if (GamePlay.instance.createSpeedReport) {
-            Probe probe = new Probe("speed.dat");
-            mVehicle.setProbe(probe);
-            addComponent(probe);
-        }
     }
 
     private void addComponent(Component component) {
         mComponents.add(component);
+        mComponentScopes.add(mGameWorld.getProfiler().getScope(
+                GameWorld.GAME_OBJECTS_PROFILER_SCOPE + "/" + component.getClass().getSimpleName()));
         if (component instanceof Collidable) {
             mCollidableComponents.add((Collidable)component);
         }
@@ -143,6 +149,10 @@ public class Racer extends GameObjectAdapter implements Collidable, Disposable {
         return mEntrant;
     }
 
+    public int getPickedBonusCount() {
+        return mPickedBonusCount;
+    }
+
     public Pilot getPilot() {
         return mPilot;
     }
@@ -163,6 +173,17 @@ public class Racer extends GameObjectAdapter implements Collidable, Disposable {
         return mLapPositionComponent;
     }
 
+    /**
+     * Returns the rank of the racer, starting from 1, as maintained by RacerRanking
+     */
+    public int getRank() {
+        return mRank;
+    }
+
+    void setRank(int rank) {
+        mRank = rank;
+    }
+
     public AudioComponent getAudioComponent() {
         return mAudioComponent;
     }
@@ -189,7 +210,9 @@ public class Racer extends GameObjectAdapter implements Collidable, Disposable {
         if (mSpinningComponent.isActive()) {
             return mSpinningComponent.getOriginalAngle();
         } else {
-            return mVehicle.getAngle();
+            // Use the angle the vehicle is drawn at, so that the camera does not jitter
+            float angle = mVehicle.getInterpolatedBody().getAngle(mGameWorld.getInterpolationAlpha());
+            return AgcMathUtils.normalizeAngle(angle * MathUtils.radiansToDegrees);
         }
     }
 
@@ -233,7 +256,7 @@ public class Racer extends GameObjectAdapter implements Collidable, Disposable {
         mTmp.set(body2.getLinearVelocity()).sub(body1.getLinearVelocity());
         float deltaV = mTmp.len();
 
-        final float k = GamePlay.instance.simplifiedCollisionKFactor * MathUtils.clamp(deltaV / GamePlay.instance.simplifiedCollisionMaxDeltaV, 0, 1);
+        final float k = mGameWorld.getGamePlay().simplifiedCollisionKFactor * MathUtils.clamp(deltaV / mGameWorld.getGamePlay().simplifiedCollisionMaxDeltaV, 0, 1);
         mTmp.set(body2.getWorldCenter()).sub(body1.getWorldCenter()).nor().scl(k);
 
         body2.applyLinearImpulse(mTmp, body2.getWorldCenter(), true);
@@ -257,10 +280,18 @@ public class Racer extends GameObjectAdapter implements Collidable, Disposable {
         }
     }
 
+    @Override
+    public void storePreviousTransforms() {
+        mVehicle.storePreviousTransforms();
+    }
+
     @Override
     public void act(float delta) {
-        for (Racer.Component component : mComponents) {
-            component.act(delta);
+        for (int idx = 0, n = mComponents.size; idx < n; ++idx) {
+            Profiler.Scope scope = mComponentScopes.get(idx);
+            scope.start();
+            mComponents.get(idx).act(delta);
+            scope.stop();
         }
 
         if (mBonus != null) {
@@ -279,7 +310,7 @@ public class Racer extends GameObjectAdapter implements Collidable, Disposable {
 
         // To avoid allocating an array of the counts for each normalized rank, we subtract counts
         // from pick, until it is less than 0, at this point we are on the selected pool
-        float pick = MathUtils.random(0f, totalCount);
+        float pick = mGameWorld.getRandom().nextFloat() * totalCount;
         BonusPool pool = null;
         for (int idx = 0; idx < pools.size; ++idx) {
             pool = pools.get(idx);
@@ -294,6 +325,7 @@ public class Racer extends GameObjectAdapter implements Collidable, Disposable {
 
         mBonus = (Bonus)pool.obtain();
         mBonus.onPicked(this);
+        ++mPickedBonusCount;
         getGameStats().recordEvent(GameStats.Event.PICKED_BONUS);
     }
 
@@ -320,6 +352,17 @@ public class Racer extends GameObjectAdapter implements Collidable, Disposable {
         }
     }
 
+    @Override
+    public EnumSet<ZLevel> getZLevels() {
+        return Z_LEVELS;
+    }
+
+    @Override
+    public boolean isVisible(Rectangle viewBounds, ZLevel zLevel) {
+        float radius = Math.max(mVehicle.getWidth(), mVehicle.getHeight()) * (mVehicle.getZ() + 1);
+        return isInView(viewBounds, getX(), getY(), radius);
+    }
+
     @Override
     public void draw(Batch batch, ZLevel zLevel) {
         mVehicleRenderer.draw(batch, zLevel);
@@ -0,0 +1,103 @@
+/*
+ * Copyright 2019 Aurélien Gâteau <mail@agateau.com>
+ *
+ * This file is part of Pixel Wheels.
+ *
+ * Pixel Wheels is free software: you can redistribute it and/or modify it under
+ * the terms of the GNU General Public License as published by the Free
+ * Software Foundation, either version 3 of the License, or (at your option)
+ * any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License for
+ * more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.agateau.pixelwheels.racer;
+
+import com.badlogic.gdx.utils.Array;
+
+import java.util.Comparator;
+
+/**
+ * Keeps racers sorted by race progress, the racer which has driven the longest first
+ *
+ * Racers rarely overtake each other between two updates, so the order is maintained with an
+ * insertion sort: it only does adjacent swaps and costs N - 1 comparisons when nothing changed.
+ * Each racer knows its rank, so looking it up is O(1).
+ */
+public class RacerRanking {
+    private final Array<Racer> mRacers = new Array<>(Racer.class);
+
+    /**
+     * Sort racers, listing racers which have driven the longest first,
+     * so it returns 1 if racer1 has driven less than racer2
+     */
+    private static final Comparator<Racer> sRacerComparator = (racer1, racer2) -> {
+        LapPositionComponent c1 = racer1.getLapPositionComponent();
+        LapPositionComponent c2 = racer2.getLapPositionComponent();
+        if (!c1.hasFinishedRace() && c2.hasFinishedRace()) {
+            return 1;
+        }
+        if (c1.hasFinishedRace() && !c2.hasFinishedRace()) {
+            return -1;
+        }
+        if (c1.getLapCount() < c2.getLapCount()) {
+            return 1;
+        }
+        if (c1.getLapCount() > c2.getLapCount()) {
+            return -1;
+        }
+        float d1 = c1.getLapDistance();
+        float d2 = c2.getLapDistance();
+        return Float.compare(d2, d1);
+    };
+
+    public void add(Racer racer) {
+        mRacers.add(racer);
+        racer.setRank(mRacers.size);
+    }
+
+    /**
+     * Racers, in rank order. Must not be modified.
+     */
+    public Array<Racer> getRacers() {
+        return mRacers;
+    }
+
+    public int getSize() {
+        return mRacers.size;
+    }
+
+    /**
+     * Updates the order of the racers, and their ranks
+     */
+    public void update() {
+        Racer[] racers = mRacers.items;
+        // Skip finished racers so that they keep the position they had when they crossed the finish
+        // line, even if they continue a bit after it
+        int fromIndex;
+        for (fromIndex = 0; fromIndex < mRacers.size; ++fromIndex) {
+            if (!racers[fromIndex].getLapPositionComponent().hasFinishedRace()) {
+                break;
+            }
+        }
+        for (int idx = fromIndex + 1; idx < mRacers.size; ++idx) {
+            Racer racer = racers[idx];
+            int pos = idx;
+            // Strict comparison, so that racers with the same progress keep their order
+            while (pos > fromIndex && sRacerComparator.compare(racers[pos - 1], racer) > 0) {
+                racers[pos] = racers[pos - 1];
+                racers[pos].setRank(pos + 1);
+                --pos;
+            }
+            if (pos != idx) {
+                racers[pos] = racer;
+                racer.setRank(pos + 1);
+            }
+        }
+    }
+}
@@ -0,0 +1,166 @@
+/*
+ * Copyright 2019 Aurélien Gâteau <mail@agateau.com>
+ *
+ * This file is part of Pixel Wheels.
+ *
+ * Pixel Wheels is free software: you can redistribute it and/or modify it under
+ * the terms of the GNU General Public License as published by the Free
+ * Software Foundation, either version 3 of the License, or (at your option)
+ * any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License for
+ * more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.agateau.pixelwheels.racer;
+
+import com.agateau.pixelwheels.Constants;
+import com.agateau.utils.Assert;
+import com.badlogic.gdx.math.Vector2;
+
+/**
+ * The skidmarks of all the wheels of a world, stored as ready-to-render quads in a ring buffer.
+ *
+ * A quad is written once, when a wheel adds a point to its trail. Quads are never updated after
+ * that: each vertex stores the GameWorld time it was created at, and SkidmarksRenderer computes the
+ * opacity from it and the current world time at draw time, so aging skidmarks costs nothing. When
+ * the buffer is full, new quads overwrite the oldest ones.
+ *
+ * This class does not depend on OpenGL, so that headless worlds can use it.
+ */
+public class SkidmarkBuffer {
+    public static final float LIFETIME = 10f;
+
+    // x, y, u, v, alpha, birth time
+    public static final int VERTEX_SIZE = 6;
+    public static final int VERTICES_PER_QUAD = 4;
+    public static final int QUAD_SIZE = VERTEX_SIZE * VERTICES_PER_QUAD;
+
+    private static final float WIDTH = 7 * Constants.UNIT_FOR_PIXEL;
+    private static final float ALPHA_INC = 0.05f;
+    private static final float ALPHA_MIN = 0.1f;
+    private static final float ALPHA_MAX = 0.4f;
+
+    /**
+     * The skidmarks of one wheel: a list of points, joined by quads
+     */
+    public static class Trail {
+        private final SkidmarkBuffer mBuffer;
+        private final Vector2 mLastPos = new Vector2();
+        private float mLastBirth;
+        private boolean mHasLastPos = false;
+        private float mLastThickX;
+        private float mLastThickY;
+        private boolean mHasLastThickness = false;
+        private float mAlpha = ALPHA_MIN;
+
+        public Trail(SkidmarkBuffer buffer) {
+            mBuffer = buffer;
+        }
+
+        /**
+         * Adds a point at @p pos, created at @p time (see GameWorld.getTime())
+         */
+        public void add(Vector2 pos, float time) {
+            if (mHasLastPos && !mLastPos.equals(pos)) {
+                // Width vector, perpendicular to the segment
+                float dx = pos.x - mLastPos.x;
+                float dy = pos.y - mLastPos.y;
+                float k = WIDTH / 2 / (float) Math.sqrt(dx * dx + dy * dy);
+                float thickX = -dy * k;
+                float thickY = dx * k;
+                if (!mHasLastThickness) {
+                    mLastThickX = thickX;
+                    mLastThickY = thickY;
+                    mHasLastThickness = true;
+                }
+                mBuffer.addQuad(mLastPos, mLastThickX, mLastThickY, mAlpha, mLastBirth,
+                        pos, thickX, thickY, mAlpha + ALPHA_INC, time);
+                mAlpha = Math.min(ALPHA_MAX, mAlpha + ALPHA_INC);
+                mLastThickX = thickX;
+                mLastThickY = thickY;
+            }
+            mLastPos.set(pos);
+            mLastBirth = time;
+            mHasLastPos = true;
+        }
+
+        /**
+         * Ends the current trail: the next point starts a new one
+         */
+        public void end() {
+            mHasLastPos = false;
+            mHasLastThickness = false;
+            mAlpha = ALPHA_MIN;
+        }
+    }
+
+    private final int mCapacity;
+    private final float[] mVertices;
+    private int mWriteCount = 0;
+
+    /**
+     * @p capacity is the maximum number of quads
+     */
+    public SkidmarkBuffer(int capacity) {
+        Assert.check(capacity > 0, "Capacity must be positive");
+        mCapacity = capacity;
+        mVertices = new float[capacity * QUAD_SIZE];
+    }
+
+    public int getCapacity() {
+        return mCapacity;
+    }
+
+    /**
+     * Total number of quads added since the buffer was created. The last quad added is at index
+     * (getWriteCount() - 1) % getCapacity().
+     */
+    public int getWriteCount() {
+        return mWriteCount;
+    }
+
+    /**
+     * Number of valid quads, stored from index 0
+     */
+    public int getQuadCount() {
+        return Math.min(mWriteCount, mCapacity);
+    }
+
+    public float[] getVertices() {
+        return mVertices;
+    }
+
+    /*
+        0            3
+         x----------x        ^
+         |          |        |
+    pos1 x          x pos2   | thickness
+         |          |
+         x----------x
+        1            2
+     */
+    private void addQuad(Vector2 pos1, float thickX1, float thickY1, float alpha1, float birth1,
+                         Vector2 pos2, float thickX2, float thickY2, float alpha2, float birth2) {
+        int offset = (mWriteCount % mCapacity) * QUAD_SIZE;
+        offset = setVertex(offset, pos1.x + thickX1, pos1.y + thickY1, 0, 0, alpha1, birth1);
+        offset = setVertex(offset, pos1.x - thickX1, pos1.y - thickY1, 1, 0, alpha1, birth1);
+        offset = setVertex(offset, pos2.x - thickX2, pos2.y - thickY2, 1, 1, alpha2, birth2);
+        setVertex(offset, pos2.x + thickX2, pos2.y + thickY2, 0, 1, alpha2, birth2);
+        ++mWriteCount;
+    }
+
+    private int setVertex(int offset, float x, float y, float u, float v, float alpha, float birth) {
+        mVertices[offset++] = x;
+        mVertices[offset++] = y;
+        mVertices[offset++] = u;
+        mVertices[offset++] = v;
+        mVertices[offset++] = alpha;
+        mVertices[offset++] = birth;
+        return offset;
+    }
+}
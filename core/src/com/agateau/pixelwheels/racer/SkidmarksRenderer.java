@@ -19,118 +19,273 @@
 package com.agateau.pixelwheels.racer;
 
 import com.agateau.pixelwheels.Assets;
-import com.agateau.pixelwheels.Constants;
-import com.badlogic.gdx.graphics.Color;
-import com.badlogic.gdx.graphics.g2d.Batch;
+import com.agateau.utils.Assert;
+import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.graphics.GL20;
+import com.badlogic.gdx.graphics.Mesh;
+import com.badlogic.gdx.graphics.VertexAttribute;
+import com.badlogic.gdx.graphics.VertexAttributes;
 import com.badlogic.gdx.graphics.g2d.TextureRegion;
-import com.badlogic.gdx.math.Vector2;
-import com.agateau.utils.CircularArray;
-import com.agateau.utils.AgcMathUtils;
+import com.badlogic.gdx.graphics.glutils.IndexBufferObject;
+import com.badlogic.gdx.graphics.glutils.ShaderProgram;
+import com.badlogic.gdx.graphics.glutils.VertexData;
+import com.badlogic.gdx.math.Matrix4;
+import com.badlogic.gdx.utils.BufferUtils;
+import com.badlogic.gdx.utils.Disposable;
+
+import java.nio.FloatBuffer;
 
 /**
- * Render a circular array of skidmarks
+ * Renders the skidmarks of a SkidmarkBuffer with a single draw call
+ *
+ * The quads of the buffer are kept in a vertex buffer object. Each frame only the quads added
+ * since the previous frame are uploaded, and the shader makes skidmarks fade out using their birth
+ * time.
+ *
+ * The vertex buffer is not a libGDX VertexBufferObject because it uploads all its vertices whenever
+ * some of them change. It is still wrapped in a Mesh: libGDX invalidates managed meshes when the GL
+ * context is lost (on Android), which recreates the vertex and index buffers, and the vertex buffer
+ * then uploads all the quads again.
  */
-public class SkidmarksRenderer {
-    private static final float SKIDMARK_WIDTH = 7 * Constants.UNIT_FOR_PIXEL;
-    private static final float SKIDMARK_ALPHA_INC = 0.05f;
-    private static final float SKIDMARK_ALPHA_MIN = 0.1f;
-    private static final float SKIDMARK_ALPHA_MAX = 0.4f;
-
-    private final Assets mAssets;
-
-    private boolean mValidThickness = false;
-    private float mThickX1;
-    private float mThickY1;
-    private float mThickX2;
-    private float mThickY2;
-
-    public SkidmarksRenderer(Assets assets) {
-        mAssets = assets;
+public class SkidmarksRenderer implements Disposable {
+    private static final int INDICES_PER_QUAD = 6;
+    private static final int FLOAT_SIZE = 4;
+
+    private static final String ALPHA_ATTRIBUTE = "a_alpha";
+    private static final String BIRTH_ATTRIBUTE = "a_birth";
+
+    private static final String VERTEX_SHADER = ""
+            + "attribute vec4 " + ShaderProgram.POSITION_ATTRIBUTE + ";\n"
+            + "attribute vec2 " + ShaderProgram.TEXCOORD_ATTRIBUTE + "0;\n"
+            + "attribute float " + ALPHA_ATTRIBUTE + ";\n"
+            + "attribute float " + BIRTH_ATTRIBUTE + ";\n"
+            + "uniform mat4 u_projTrans;\n"
+            + "uniform vec4 u_region;\n"
+            + "uniform float u_time;\n"
+            + "uniform float u_lifetime;\n"
+            + "varying vec2 v_texCoords;\n"
+            + "varying float v_alpha;\n"
+            + "void main() {\n"
+            + "    v_texCoords = u_region.xy + " + ShaderProgram.TEXCOORD_ATTRIBUTE + "0 * u_region.zw;\n"
+            + "    v_alpha = " + ALPHA_ATTRIBUTE + " * clamp(1.0 - (u_time - " + BIRTH_ATTRIBUTE + ") / u_lifetime, 0.0, 1.0);\n"
+            + "    gl_Position = u_projTrans * " + ShaderProgram.POSITION_ATTRIBUTE + ";\n"
+            + "}\n";
+
+    private static final String FRAGMENT_SHADER = ""
+            + "#ifdef GL_ES\n"
+            + "precision mediump float;\n"
+            + "#endif\n"
+            + "varying vec2 v_texCoords;\n"
+            + "varying float v_alpha;\n"
+            + "uniform sampler2D u_texture;\n"
+            + "void main() {\n"
+            + "    gl_FragColor = texture2D(u_texture, v_texCoords) * vec4(1.0, 1.0, 1.0, v_alpha);\n"
+            + "}\n";
+
+    private final SkidmarkBuffer mBuffer;
+    private final TextureRegion mRegion;
+    private final ShaderProgram mShader;
+    private final Mesh mMesh;
+
+    public SkidmarksRenderer(Assets assets, SkidmarkBuffer buffer) {
+        mBuffer = buffer;
+        mRegion = assets.skidmark;
+
+        mShader = new ShaderProgram(VERTEX_SHADER, FRAGMENT_SHADER);
+        if (!mShader.isCompiled()) {
+            throw new RuntimeException("Failed to compile skidmark shader: " + mShader.getLog());
+        }
+
+        // Indices are unsigned shorts
+        int capacity = buffer.getCapacity();
+        Assert.check(capacity * SkidmarkBuffer.VERTICES_PER_QUAD <= 65536, "Too many skidmarks: " + capacity);
+        short[] indices = new short[capacity * INDICES_PER_QUAD];
+        for (int quad = 0, idx = 0; quad < capacity; ++quad) {
+            int vertex = quad * SkidmarkBuffer.VERTICES_PER_QUAD;
+            indices[idx++] = (short) vertex;
+            indices[idx++] = (short) (vertex + 1);
+            indices[idx++] = (short) (vertex + 2);
+            indices[idx++] = (short) (vertex + 2);
+            indices[idx++] = (short) (vertex + 3);
+            indices[idx++] = (short) vertex;
+        }
+        IndexBufferObject indexBuffer = new IndexBufferObject(true, indices.length);
+        indexBuffer.setIndices(indices, 0, indices.length);
+        // Mesh only has a protected constructor accepting custom vertex data
+        mMesh = new Mesh(new SkidmarkVertexData(), indexBuffer, false /* isVertexArray */) {};
     }
 
-    public void draw(Batch batch, CircularArray<Wheel.Skidmark> skidmarks) {
-        int idx1 = skidmarks.getBeginIndex();
-        if (idx1 == skidmarks.getEndIndex()) {
+    /**
+     * @p time is the current GameWorld time, used to compute the opacity of the skidmarks.
+     *
+     * Must not be called between Batch.begin() and Batch.end()
+     */
+    public void render(Matrix4 projectionMatrix, float time) {
+        int quadCount = mBuffer.getQuadCount();
+        if (quadCount == 0) {
             return;
         }
-        int idx2 = skidmarks.getNextIndex(idx1);
-        float alpha = SKIDMARK_ALPHA_MIN;
+        Gdx.gl.glEnable(GL20.GL_BLEND);
+        Gdx.gl.glBlendFunc(GL20.GL_SRC_ALPHA, GL20.GL_ONE_MINUS_SRC_ALPHA);
+        mRegion.getTexture().bind(0);
+        mShader.begin();
+        mShader.setUniformMatrix("u_projTrans", projectionMatrix);
+        mShader.setUniformi("u_texture", 0);
+        mShader.setUniformf("u_region", mRegion.getU(), mRegion.getV(),
+                mRegion.getU2() - mRegion.getU(), mRegion.getV2() - mRegion.getV());
+        mShader.setUniformf("u_time", time);
+        mShader.setUniformf("u_lifetime", SkidmarkBuffer.LIFETIME);
+        mMesh.render(mShader, GL20.GL_TRIANGLES, 0, quadCount * INDICES_PER_QUAD);
+        mShader.end();
+        Gdx.gl.glDisable(GL20.GL_BLEND);
+    }
 
-        for (; idx2 != skidmarks.getEndIndex(); idx1 = idx2, idx2 = skidmarks.getNextIndex(idx2)) {
-            Wheel.Skidmark mark1 = skidmarks.get(idx1);
-            Wheel.Skidmark mark2 = skidmarks.get(idx2);
+    @Override
+    public void dispose() {
+        mMesh.dispose();
+        mShader.dispose();
+    }
 
-            Vector2 pos1 = mark1.getPos();
-            Vector2 pos2 = mark2.getPos();
+    /**
+     * Vertex data of the mesh: a vertex buffer object mirroring the vertices of mBuffer
+     */
+    private class SkidmarkVertexData implements VertexData {
+        private final VertexAttributes mAttributes = new VertexAttributes(
+                new VertexAttribute(VertexAttributes.Usage.Position, 2, ShaderProgram.POSITION_ATTRIBUTE),
+                new VertexAttribute(VertexAttributes.Usage.TextureCoordinates, 2, ShaderProgram.TEXCOORD_ATTRIBUTE + "0"),
+                new VertexAttribute(VertexAttributes.Usage.Generic, 1, ALPHA_ATTRIBUTE),
+                new VertexAttribute(VertexAttributes.Usage.Generic, 1, BIRTH_ATTRIBUTE));
+        private final FloatBuffer mUploadBuffer;
+        private int mHandle;
+        // Value of mBuffer.getWriteCount() when the vertex buffer was last updated
+        private int mUploadedWriteCount;
 
-            if (!mValidThickness) {
-                mValidThickness = true;
-                Vector2 thickness = AgcMathUtils.computeWidthVector(pos1, pos2, SKIDMARK_WIDTH / 2);
-                mThickX2 = thickness.x;
-                mThickY2 = thickness.y;
-            }
+        SkidmarkVertexData() {
+            Assert.check(mAttributes.vertexSize == SkidmarkBuffer.VERTEX_SIZE * FLOAT_SIZE,
+                    "Vertex attributes do not match SkidmarkBuffer.VERTEX_SIZE");
+            mUploadBuffer = BufferUtils.newFloatBuffer(mBuffer.getCapacity() * SkidmarkBuffer.QUAD_SIZE);
+            createBuffer();
+        }
 
-            if (!mark1.isEnd() && !mark2.isEnd()) {
-                mThickX1 = mThickX2;
-                mThickY1 = mThickY2;
-                Vector2 thickness = AgcMathUtils.computeWidthVector(pos1, pos2, SKIDMARK_WIDTH / 2);
-                mThickX2 = thickness.x;
-                mThickY2 = thickness.y;
-                drawSkidmark(batch, pos1, pos2, alpha * mark1.getOpacity(),
-                        (alpha + SKIDMARK_ALPHA_INC) * mark2.getOpacity());
-                alpha = Math.min(SKIDMARK_ALPHA_MAX, alpha + SKIDMARK_ALPHA_INC);
-            } else {
-                mValidThickness = false;
-                alpha = SKIDMARK_ALPHA_MIN;
-            }
+        private void createBuffer() {
+            mHandle = Gdx.gl.glGenBuffer();
+            Gdx.gl.glBindBuffer(GL20.GL_ARRAY_BUFFER, mHandle);
+            Gdx.gl.glBufferData(GL20.GL_ARRAY_BUFFER, mUploadBuffer.capacity() * FLOAT_SIZE, null, GL20.GL_DYNAMIC_DRAW);
+            Gdx.gl.glBindBuffer(GL20.GL_ARRAY_BUFFER, 0);
+            // The buffer is empty, so upload all the quads on the next bind
+            mUploadedWriteCount = 0;
         }
-    }
 
-    private final float[] mVertices = new float[4 * 5];
-    private void drawSkidmark(Batch batch, Vector2 pos1, Vector2 pos2, float alpha1, float alpha2) {
-        TextureRegion region = mAssets.skidmark;
-        float c = Color.toFloatBits(1, 1, 1, alpha1);
-        float c2 = Color.toFloatBits(1, 1, 1, alpha2);
-        float u = region.getU();
-        float v = region.getV();
-        float u2 = region.getU2();
-        float v2 = region.getV2();
-
-        /*
-            0            3
-             x----------x        ^
-             |          |        |
-        pos1 x          x pos2   | thickness
-             |          |
-             x----------x
-            1            2
-         */
-        float x0 = pos1.x + mThickX1;
-        float y0 = pos1.y + mThickY1;
+        @Override
+        public int getNumVertices() {
+            return mBuffer.getQuadCount() * SkidmarkBuffer.VERTICES_PER_QUAD;
+        }
+
+        @Override
+        public int getNumMaxVertices() {
+            return mBuffer.getCapacity() * SkidmarkBuffer.VERTICES_PER_QUAD;
+        }
+
+        @Override
+        public VertexAttributes getAttributes() {
+            return mAttributes;
+        }
 
-        float x1 = pos1.x - mThickX1;
-        float y1 = pos1.y - mThickY1;
+        @Override
+        public void setVertices(float[] vertices, int offset, int count) {
+            throw new UnsupportedOperationException("Vertices come from the SkidmarkBuffer");
+        }
 
-        float x2 = pos2.x - mThickX2;
-        float y2 = pos2.y - mThickY2;
+        @Override
+        public void updateVertices(int targetOffset, float[] vertices, int sourceOffset, int count) {
+            throw new UnsupportedOperationException("Vertices come from the SkidmarkBuffer");
+        }
 
-        float x3 = pos2.x + mThickX2;
-        float y3 = pos2.y + mThickY2;
+        @Override
+        public FloatBuffer getBuffer() {
+            return mUploadBuffer;
+        }
 
-        initVertex(0, x0, y0, c, u, v);
-        initVertex(1, x1, y1, c, u2, v);
-        initVertex(2, x2, y2, c2, u2, v2);
-        initVertex(3, x3, y3, c2, u, v2);
+        @Override
+        public void bind(ShaderProgram shader) {
+            bind(shader, null);
+        }
 
-        batch.draw(region.getTexture(), mVertices, 0, mVertices.length);
-    }
+        @Override
+        public void bind(ShaderProgram shader, int[] locations) {
+            Gdx.gl.glBindBuffer(GL20.GL_ARRAY_BUFFER, mHandle);
+            uploadNewQuads();
+            for (int idx = 0; idx < mAttributes.size(); ++idx) {
+                VertexAttribute attribute = mAttributes.get(idx);
+                shader.enableVertexAttribute(attribute.alias);
+                shader.setVertexAttribute(attribute.alias, attribute.numComponents, GL20.GL_FLOAT,
+                        false, mAttributes.vertexSize, attribute.offset);
+            }
+        }
 
-    private void initVertex(int index, float x, float y, float c, float u, float v) {
-        int idx = index * 5;
-        mVertices[idx++] = x;
-        mVertices[idx++] = y;
-        mVertices[idx++] = c;
-        mVertices[idx++] = u;
-        mVertices[idx  ] = v;
+        @Override
+        public void unbind(ShaderProgram shader) {
+            unbind(shader, null);
+        }
+
+        @Override
+        public void unbind(ShaderProgram shader, int[] locations) {
+            for (int idx = 0; idx < mAttributes.size(); ++idx) {
+                shader.disableVertexAttribute(mAttributes.get(idx).alias);
+            }
+            Gdx.gl.glBindBuffer(GL20.GL_ARRAY_BUFFER, 0);
+        }
+
+        /**
+         * Called by libGDX when the GL context has been recreated: the old buffer died with it, so
+         * it must not be deleted
+         */
+        @Override
+        public void invalidate() {
+            createBuffer();
+        }
+
+        @Override
+        public void dispose() {
+            Gdx.gl.glDeleteBuffer(mHandle);
+        }
+
+        /**
+         * Uploads the quads added since the last call. The vertex buffer must be bound.
+         */
+        private void uploadNewQuads() {
+            int writeCount = mBuffer.getWriteCount();
+            int newQuads = writeCount - mUploadedWriteCount;
+            if (newQuads == 0) {
+                return;
+            }
+            int capacity = mBuffer.getCapacity();
+            if (newQuads >= capacity) {
+                uploadQuads(0, capacity);
+            } else {
+                int begin = mUploadedWriteCount % capacity;
+                int end = writeCount % capacity;
+                if (begin < end) {
+                    uploadQuads(begin, end);
+                } else {
+                    // The new quads wrap around the end of the buffer
+                    uploadQuads(begin, capacity);
+                    uploadQuads(0, end);
+                }
+            }
+            mUploadedWriteCount = writeCount;
+        }
+
+        private void uploadQuads(int begin, int end) {
+            if (begin == end) {
+                return;
+            }
+            int offset = begin * SkidmarkBuffer.QUAD_SIZE;
+            int count = (end - begin) * SkidmarkBuffer.QUAD_SIZE;
+            mUploadBuffer.clear();
+            mUploadBuffer.put(mBuffer.getVertices(), offset, count);
+            mUploadBuffer.flip();
+            Gdx.gl.glBufferSubData(GL20.GL_ARRAY_BUFFER, offset * FLOAT_SIZE, count * FLOAT_SIZE, mUploadBuffer);
+        }
     }
 }
@@ -18,7 +18,6 @@
  */
 package com.agateau.pixelwheels.racer;
 
-import com.agateau.pixelwheels.GameWorld;
 import com.agateau.pixelwheels.racescreen.Collidable;
 import com.agateau.pixelwheels.racescreen.CollisionCategories;
 import com.badlogic.gdx.math.MathUtils;
@@ -64,19 +63,20 @@ public class SpinningComponent implements Racer.Component, Collidable {
             return;
         }
         Body body = mVehicle.getBody();
+        float timeStep = mVehicle.getGameWorld().getTimeStep();
 
         // Slow down
         body.applyLinearImpulse(body.getLinearVelocity().nor().scl(-body.getMass()), body.getWorldCenter(), true);
 
         // Spin
-        float nextAngle = body.getAngle() + body.getAngularVelocity() * GameWorld.BOX2D_TIME_STEP;
+        float nextAngle = body.getAngle() + body.getAngularVelocity() * timeStep;
         if (nextAngle > mTargetBodyAngle) {
             stopSpinning();
             return;
         }
 
         float totalRotation = mTargetBodyAngle - nextAngle;
-        float desiredAngularVelocity = totalRotation / GameWorld.BOX2D_TIME_STEP;
+        float desiredAngularVelocity = totalRotation / timeStep;
         if (desiredAngularVelocity < 0) {
             desiredAngularVelocity = MathUtils.clamp(desiredAngularVelocity, -MAX_ANGULAR_VELOCITY, -MIN_ANGULAR_VELOCITY);
         } else {
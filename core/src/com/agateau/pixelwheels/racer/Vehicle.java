@@ -24,7 +24,9 @@ import com.agateau.pixelwheels.GameWorld;
 import com.agateau.pixelwheels.map.Material;
 import com.agateau.pixelwheels.stats.GameStats;
 import com.agateau.pixelwheels.utils.Box2DUtils;
+import com.agateau.pixelwheels.utils.InterpolatedBody;
 import com.agateau.utils.AgcMathUtils;
+import com.agateau.utils.telemetry.TelemetryRecorder;
 import com.badlogic.gdx.graphics.g2d.TextureRegion;
 import com.badlogic.gdx.math.MathUtils;
 import com.badlogic.gdx.math.Shape2D;
@@ -56,6 +58,7 @@ public class Vehicle implements Racer.Component, Disposable {
     }
 
     private final Body mBody;
+    private final InterpolatedBody mInterpolatedBody = new InterpolatedBody();
     private final GameWorld mGameWorld;
     private Racer mRacer;
 
@@ -76,7 +79,10 @@ public class Vehicle implements Racer.Component, Disposable {
     private Material mMaterial = Material.ROAD;
     private float mSpeedLimiter = 1f;
 
-    private Probe mProbe = null;
+    private TelemetryRecorder mTelemetry = null;
+    private int mSteerChannel;
+    private int mSpeedChannel;
+    private int mCategoryChannel;
 
     private final ArrayMap<Long, Float> mTurboCellMap = new ArrayMap<>(8);
 
@@ -93,16 +99,18 @@ public class Vehicle implements Racer.Component, Disposable {
         bodyDef.angle = angle * MathUtils.degreesToRadians;
         mBody = mGameWorld.getBox2DWorld().createBody(bodyDef);
 
-        // Body fixtures
-        for (Shape2D shape : shapes) {
+        // Body fixtures. Use indices: @p shapes is shared between simulation threads
+        for (int idx = 0; idx < shapes.size; ++idx) {
+            Shape2D shape = shapes.get(idx);
             FixtureDef fixtureDef = new FixtureDef();
             fixtureDef.shape = Box2DUtils.createBox2DShape(shape, Constants.UNIT_FOR_PIXEL);
-            fixtureDef.density = GamePlay.instance.vehicleDensity / 10.0f;
+            fixtureDef.density = mGameWorld.getGamePlay().vehicleDensity / 10.0f;
             fixtureDef.friction = 0.2f;
-            fixtureDef.restitution = GamePlay.instance.vehicleRestitution / 10.0f;
+            fixtureDef.restitution = mGameWorld.getGamePlay().vehicleRestitution / 10.0f;
             mBody.createFixture(fixtureDef);
             fixtureDef.shape.dispose();
         }
+        mInterpolatedBody.setBody(mBody);
     }
 
     @Override
@@ -141,8 +149,14 @@ public class Vehicle implements Racer.Component, Disposable {
         }
     }
 
-    public void setProbe(Probe probe) {
-        mProbe = probe;
+    /**
+     * Registers telemetry channels for this vehicle, prefixing their names with @p prefix
+     */
+    public void setupTelemetry(TelemetryRecorder telemetry, String prefix) {
+        mTelemetry = telemetry;
+        mSteerChannel = telemetry.addFloatChannel(prefix + ".steer");
+        mSpeedChannel = telemetry.addFloatChannel(prefix + ".speed");
+        mCategoryChannel = telemetry.addIntChannel(prefix + ".category");
     }
 
     public void setCollisionInfo(int categoryBits, int maskBits) {
@@ -167,6 +181,21 @@ public class Vehicle implements Racer.Component, Disposable {
         return mBody;
     }
 
+    public InterpolatedBody getInterpolatedBody() {
+        return mInterpolatedBody;
+    }
+
+    public GameWorld getGameWorld() {
+        return mGameWorld;
+    }
+
+    void storePreviousTransforms() {
+        mInterpolatedBody.storePreviousTransform();
+        for (WheelInfo info : mWheels) {
+            info.wheel.getInterpolatedBody().storePreviousTransform();
+        }
+    }
+
     public TextureRegion getRegion() {
         return mRegion;
     }
@@ -291,7 +320,7 @@ public class Vehicle implements Racer.Component, Disposable {
      * - apply drag
      */
     private void applyGroundEffects(float dt) {
-        final GamePlay GP = GamePlay.instance;
+        final GamePlay GP = mGameWorld.getGamePlay();
         float groundSpeed = 0;
         for (WheelInfo info : mWheels) {
             float wheelGroundSpeed = info.wheel.getGroundSpeed();
@@ -355,7 +384,7 @@ public class Vehicle implements Racer.Component, Disposable {
     }
 
     private void applyTurbo(float dt) {
-        final GamePlay GP = GamePlay.instance;
+        final GamePlay GP = mGameWorld.getGamePlay();
 
         if (mTurboTime == 0) {
             mBody.applyLinearImpulse(computeDirectionVector(GP.turboStrength / 6), mBody.getWorldCenter(), true);
@@ -370,13 +399,13 @@ public class Vehicle implements Racer.Component, Disposable {
     }
 
     private float computeSteerAngle() {
-        final GamePlay GP = GamePlay.instance;
+        final GamePlay GP = mGameWorld.getGamePlay();
         if (mDirection == 0) {
-            if (mProbe != null) {
+            if (mTelemetry != null) {
                 float speed = mBody.getLinearVelocity().len() * Box2DUtils.MS_TO_KMH;
-                mProbe.addValue("steer", 0);
-                mProbe.addValue("speed", speed);
-                mProbe.addValue("category", 0);
+                mTelemetry.record(mSteerChannel, 0f);
+                mTelemetry.record(mSpeedChannel, speed);
+                mTelemetry.record(mCategoryChannel, 0);
             }
             return 0;
         }
@@ -385,7 +414,7 @@ public class Vehicle implements Racer.Component, Disposable {
         float steer;
         // Category is 0 if speed is < GP.lowSpeed, 1 if < GP.maxSpeed, 2 if > GP.maxSpeed
         // For a better driving experience, it should not reach 2 except when triggering turbos
-        float category;
+        int category;
         if (speed < GP.lowSpeed) {
             steer = MathUtils.lerp(GP.stoppedMaxSteer, GP.lowSpeedMaxSteer, speed / GP.lowSpeed);
             category = 0;
@@ -397,10 +426,10 @@ public class Vehicle implements Racer.Component, Disposable {
             steer = GP.highSpeedMaxSteer;
             category = 2;
         }
-        if (mProbe != null) {
-            mProbe.addValue("steer", steer);
-            mProbe.addValue("speed", speed);
-            mProbe.addValue("category", category);
+        if (mTelemetry != null) {
+            mTelemetry.record(mSteerChannel, steer);
+            mTelemetry.record(mSpeedChannel, speed);
+            mTelemetry.record(mCategoryChannel, category);
         }
         return mDirection * steer;
     }
@@ -410,7 +439,7 @@ public class Vehicle implements Racer.Component, Disposable {
     }
 
     private void addTriggeredTurboCell(long cellId) {
-        mTurboCellMap.put(cellId, GamePlay.instance.turboDuration);
+        mTurboCellMap.put(cellId, mGameWorld.getGamePlay().turboDuration);
     }
 
     private void updateTriggeredTurboTiles(float delta) {
@@ -428,6 +457,10 @@ public class Vehicle implements Racer.Component, Disposable {
         mAccelerating = value;
     }
 
+    public boolean isAccelerating() {
+        return mAccelerating;
+    }
+
     public void setBraking(boolean value) {
         mBraking = value;
     }
@@ -440,6 +473,10 @@ public class Vehicle implements Racer.Component, Disposable {
         mDirection = direction;
     }
 
+    public float getDirection() {
+        return mDirection;
+    }
+
     public Vector2 getPosition() {
         return mBody.getPosition();
     }
@@ -21,15 +21,13 @@ package com.agateau.pixelwheels.racer;
 import com.agateau.pixelwheels.Assets;
 import com.agateau.pixelwheels.ZLevel;
 import com.agateau.pixelwheels.utils.BodyRegionDrawer;
+import com.agateau.pixelwheels.utils.InterpolatedBody;
 import com.agateau.pixelwheels.Constants;
 import com.agateau.pixelwheels.Renderer;
-import com.badlogic.gdx.Gdx;
 import com.badlogic.gdx.graphics.Color;
 import com.badlogic.gdx.graphics.g2d.Batch;
 import com.badlogic.gdx.graphics.g2d.TextureRegion;
 import com.badlogic.gdx.math.MathUtils;
-import com.badlogic.gdx.math.Vector2;
-import com.badlogic.gdx.physics.box2d.Body;
 import com.badlogic.gdx.utils.Array;
 
 /**
@@ -40,14 +38,11 @@ public class VehicleRenderer implements Renderer {
     private final Assets mAssets;
     private final Vehicle mVehicle;
     private final Array<Renderer> mRenderers = new Array<>();
-    private final SkidmarksRenderer mSkidmarksRenderer;
-    private float mTime = 0;
     private final BodyRegionDrawer mBodyRegionDrawer = new BodyRegionDrawer();
 
     public VehicleRenderer(Assets assets, Vehicle vehicle) {
         mAssets = assets;
         mVehicle = vehicle;
-        mSkidmarksRenderer = new SkidmarksRenderer(mAssets);
     }
 
     public void addRenderer(Renderer renderer) {
@@ -64,20 +59,19 @@ public class VehicleRenderer implements Renderer {
     public void draw(Batch batch, ZLevel zLevel) {
         mBodyRegionDrawer.setBatch(batch);
         mBodyRegionDrawer.setScale(mVehicle.getZ() + 1);
-        mTime += Gdx.app.getGraphics().getDeltaTime();
+        mBodyRegionDrawer.setInterpolationAlpha(mVehicle.getGameWorld().getInterpolationAlpha());
+        // Use the world time: draw() is called a variable number of times per frame, depending on
+        // culling and on the number of views
+        float time = mVehicle.getGameWorld().getTime();
         if (zLevel == ZLevel.GROUND) {
-            for(Vehicle.WheelInfo info: mVehicle.getWheelInfos()) {
-                mSkidmarksRenderer.draw(batch, info.wheel.getSkidmarks());
-            }
-
             // Only draw splash and shadow if we are not falling
             if (!mVehicle.isFalling()) {
                 for (Vehicle.WheelInfo info : mVehicle.getWheelInfos()) {
                     if (info.wheel.getMaterial().isWater()) {
-                        mBodyRegionDrawer.draw(info.wheel.getBody(), mAssets.splash.getKeyFrame(mTime, true));
+                        mBodyRegionDrawer.draw(info.wheel.getInterpolatedBody(), mAssets.splash.getKeyFrame(time, true));
                     }
                 }
-                mBodyRegionDrawer.drawShadow(mVehicle.getBody(), mVehicle.getRegion());
+                mBodyRegionDrawer.drawShadow(mVehicle.getInterpolatedBody(), mVehicle.getRegion());
             }
             return;
         }
@@ -97,10 +91,10 @@ public class VehicleRenderer implements Renderer {
             // Do not draw the wheels when falling: when the body is painted with alpha < 1 the wheels are visible
             // through it and it looks ugly
             for(Vehicle.WheelInfo info: mVehicle.getWheelInfos()) {
-                mBodyRegionDrawer.draw(info.wheel.getBody(), info.wheel.getRegion());
+                mBodyRegionDrawer.draw(info.wheel.getInterpolatedBody(), info.wheel.getRegion());
             }
         }
-        mBodyRegionDrawer.draw(mVehicle.getBody(), mVehicle.getRegion());
+        mBodyRegionDrawer.draw(mVehicle.getInterpolatedBody(), mVehicle.getRegion());
 
         if (mVehicle.getTurboTime() >= 0) {
             drawTurbo(batch);
@@ -117,14 +111,14 @@ public class VehicleRenderer implements Renderer {
 
     private void drawTurbo(Batch batch) {
         TextureRegion region = mAssets.turboFlame.getKeyFrame(mVehicle.getTurboTime(), true);
-        Body body = mVehicle.getBody();
-        Vector2 center = body.getPosition();
-        float angle = body.getAngle() * MathUtils.radiansToDegrees;
+        InterpolatedBody body = mVehicle.getInterpolatedBody();
+        float alpha = mVehicle.getGameWorld().getInterpolationAlpha();
+        float angle = body.getAngle(alpha) * MathUtils.radiansToDegrees;
         float w = Constants.UNIT_FOR_PIXEL * region.getRegionWidth();
         float h = Constants.UNIT_FOR_PIXEL * region.getRegionHeight();
         float refH = -mVehicle.getWidth() / 2;
-        float x = center.x + refH * MathUtils.cosDeg(angle);
-        float y = center.y + refH * MathUtils.sinDeg(angle);
+        float x = body.getX(alpha) + refH * MathUtils.cosDeg(angle);
+        float y = body.getY(alpha) + refH * MathUtils.sinDeg(angle);
         batch.draw(region,
                 x - w / 2, y - h, // pos
                 w / 2, h, // origin
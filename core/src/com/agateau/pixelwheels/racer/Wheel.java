@@ -19,11 +19,10 @@
 package com.agateau.pixelwheels.racer;
 
 import com.agateau.pixelwheels.Constants;
-import com.agateau.pixelwheels.GamePlay;
 import com.agateau.pixelwheels.GameWorld;
 import com.agateau.pixelwheels.map.Material;
 import com.agateau.pixelwheels.utils.Box2DUtils;
-import com.agateau.utils.CircularArray;
+import com.agateau.pixelwheels.utils.InterpolatedBody;
 import com.badlogic.gdx.graphics.g2d.TextureRegion;
 import com.badlogic.gdx.math.Interpolation;
 import com.badlogic.gdx.math.MathUtils;
@@ -40,53 +39,16 @@ public class Wheel implements Disposable {
     private static final float DRIFT_IMPULSE_REDUCTION = 0.5f; // Limit how much of the lateral velocity is killed when drifting
     private static final float DRAG_FACTOR = 1;
     private static final int SKIDMARK_INTERVAL = 3;
-    private static final float SKIDMARK_LIFETIME = 10f;
-
-    public static class Skidmark {
-        private final Vector2 mPos = new Vector2();
-        private boolean mIsEnd = false;
-        private float mRemainingLife;
-
-        public boolean isEnd() {
-            return mIsEnd;
-        }
-
-        public Vector2 getPos() {
-            return mPos;
-        }
-
-        public void init(Vector2 pos) {
-            mPos.set(pos);
-            mRemainingLife = SKIDMARK_LIFETIME;
-        }
-
-        public void initAsEnd() {
-            mIsEnd = true;
-        }
-
-        public void act(float delta) {
-            mRemainingLife = Math.max(0, mRemainingLife - delta);
-        }
-
-        public float getOpacity() {
-            return mRemainingLife / SKIDMARK_LIFETIME;
-        }
-    }
-
-    private final CircularArray<Skidmark> mSkidmarks = new CircularArray<Skidmark>(GamePlay.instance.maxSkidmarks) {
-        @Override
-        protected Skidmark createInstance() {
-            return new Skidmark();
-        }
-    };
+    private final SkidmarkBuffer.Trail mSkidmarkTrail;
     private int mSkidmarkCount = 0; // Used to limit the number of skidmarks created
 
     private final Body mBody;
+    private final InterpolatedBody mInterpolatedBody = new InterpolatedBody();
     private final GameWorld mGameWorld;
     private final TextureRegion mRegion;
     private final Vehicle mVehicle;
     private boolean mCanDrift = false;
-    private float mMaxDrivingForce = GamePlay.instance.maxDrivingForce;
+    private float mMaxDrivingForce;
     private boolean mGripEnabled = true;
     private Material mMaterial = Material.ROAD;
     private boolean mDrifting = false;
@@ -95,6 +57,8 @@ public class Wheel implements Disposable {
         mGameWorld = gameWorld;
         mVehicle = vehicle;
         mRegion = region;
+        mMaxDrivingForce = gameWorld.getGamePlay().maxDrivingForce;
+        mSkidmarkTrail = new SkidmarkBuffer.Trail(gameWorld.getSkidmarkBuffer());
 
         float w = Constants.UNIT_FOR_PIXEL * region.getRegionWidth();
         float h = Constants.UNIT_FOR_PIXEL * region.getRegionHeight();
@@ -109,6 +73,7 @@ public class Wheel implements Disposable {
         shape.set(Box2DUtils.createOctogon(w, h, w / 4, w / 4));
         mBody.createFixture(shape, 2f);
         shape.dispose();
+        mInterpolatedBody.setBody(mBody);
     }
 
     public TextureRegion getRegion() {
@@ -133,16 +98,16 @@ public class Wheel implements Disposable {
             }
             Box2DUtils.applyDrag(mBody, DRAG_FACTOR);
         }
-        for (int idx = mSkidmarks.getBeginIndex(), end = mSkidmarks.getEndIndex();
-                idx != end; idx = mSkidmarks.getNextIndex(idx)) {
-            mSkidmarks.get(idx).act(delta);
-        }
     }
 
     public Body getBody() {
         return mBody;
     }
 
+    public InterpolatedBody getInterpolatedBody() {
+        return mInterpolatedBody;
+    }
+
     public float getGroundSpeed() {
         return mMaterial.getSpeed();
     }
@@ -157,7 +122,7 @@ public class Wheel implements Disposable {
         }
         final float currentSpeed = mBody.getLinearVelocity().len() * Box2DUtils.MS_TO_KMH;
 
-        final float limit = 1 - 0.2f * Interpolation.sineOut.apply(currentSpeed / GamePlay.instance.maxSpeed);
+        final float limit = 1 - 0.2f * Interpolation.sineOut.apply(currentSpeed / mGameWorld.getGamePlay().maxSpeed);
         amount *= limit;
 
         float force = mMaxDrivingForce * amount;
@@ -173,18 +138,18 @@ public class Wheel implements Disposable {
     private void updateFriction() {
         // Kill lateral velocity
         Vector2 impulse = Box2DUtils.getLateralVelocity(mBody).scl(-mBody.getMass()).scl(mMaterial.getGrip());
-        float maxImpulse = (float)GamePlay.instance.maxLateralImpulse / (mVehicle.isBraking() ? 0.2f : 1);
+        float maxImpulse = (float)mGameWorld.getGamePlay().maxLateralImpulse / (mVehicle.isBraking() ? 0.2f : 1);
         if (mMaterial != Material.ICE && mCanDrift && impulse.len() > maxImpulse) {
             // Drift
             mDrifting = true;
             if (mSkidmarkCount == 0) {
-                mSkidmarks.add().init(mBody.getWorldCenter());
+                mSkidmarkTrail.add(mBody.getWorldCenter(), mGameWorld.getTime());
             }
             mSkidmarkCount = (mSkidmarkCount + 1) % SKIDMARK_INTERVAL;
             maxImpulse = Math.max(maxImpulse, impulse.len() - DRIFT_IMPULSE_REDUCTION);
             impulse.limit(maxImpulse);
         } else if (mDrifting) {
-            mSkidmarks.add().initAsEnd();
+            mSkidmarkTrail.end();
             mDrifting = false;
         }
         mBody.applyLinearImpulse(impulse, mBody.getWorldCenter(), true);
@@ -209,10 +174,6 @@ public class Wheel implements Disposable {
         mMaxDrivingForce = maxDrivingForce;
     }
 
-    public CircularArray<Skidmark> getSkidmarks() {
-        return mSkidmarks;
-    }
-
     public Material getMaterial() {
         return mMaterial;
     }
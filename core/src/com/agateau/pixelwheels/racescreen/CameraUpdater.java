@@ -20,6 +20,8 @@ package com.agateau.pixelwheels.racescreen;
 
 import com.agateau.pixelwheels.GameWorld;
 import com.agateau.pixelwheels.map.Track;
+import com.agateau.pixelwheels.racer.Vehicle;
+import com.agateau.pixelwheels.utils.InterpolatedBody;
 import com.badlogic.gdx.graphics.OrthographicCamera;
 import com.badlogic.gdx.math.MathUtils;
 import com.badlogic.gdx.math.Vector2;
@@ -33,6 +35,7 @@ abstract class CameraUpdater {
     private OrthographicCamera mCamera;
     int mScreenWidth;
     int mScreenHeight;
+    float mViewportWidthRatio = 1;
 
     static class CameraInfo {
         float viewportWidth;
@@ -65,14 +68,29 @@ abstract class CameraUpdater {
         mWorld = world;
     }
 
-    public void init(OrthographicCamera camera, int screenWidth, int screenHeight) {
+    /**
+     * @p viewportWidthRatio is the fraction of GamePlay.viewportWidth the camera shows. It is less
+     * than 1 for split-screen views, so that they use the same scale as a full-screen view.
+     */
+    public void init(OrthographicCamera camera, int screenWidth, int screenHeight, float viewportWidthRatio) {
         mCamera = camera;
         mScreenWidth = screenWidth;
         mScreenHeight = screenHeight;
+        mViewportWidthRatio = viewportWidthRatio;
     }
 
     public abstract void update(float delta);
 
+    /**
+     * Sets @p out to the position @p vehicle is drawn at. The camera must follow this position
+     * rather than the Box2D one, otherwise it moves by physics steps and the vehicle jitters.
+     */
+    void getDrawPosition(Vehicle vehicle, Vector2 out) {
+        float alpha = mWorld.getInterpolationAlpha();
+        InterpolatedBody body = vehicle.getInterpolatedBody();
+        out.set(body.getX(alpha), body.getY(alpha));
+    }
+
     void applyChanges() {
         mNextCameraInfo.clampPositionToTrack(mWorld.getTrack());
 
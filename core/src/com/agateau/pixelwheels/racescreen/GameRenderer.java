@@ -18,48 +18,85 @@
  */
 package com.agateau.pixelwheels.racescreen;
 
+import com.agateau.pixelwheels.Assets;
 import com.agateau.pixelwheels.Constants;
 import com.agateau.pixelwheels.GameWorld;
 import com.agateau.pixelwheels.ZLevel;
 import com.agateau.pixelwheels.debug.Debug;
 import com.agateau.pixelwheels.debug.DebugShapeMap;
 import com.agateau.pixelwheels.gameobjet.GameObject;
+import com.agateau.pixelwheels.map.BakedTileMapRenderer;
 import com.agateau.pixelwheels.map.MapUtils;
 import com.agateau.pixelwheels.map.Track;
+import com.agateau.pixelwheels.racer.Racer;
+import com.agateau.pixelwheels.racer.SkidmarksRenderer;
+import com.agateau.utils.profiling.Profiler;
 import com.badlogic.gdx.Gdx;
 import com.badlogic.gdx.graphics.OrthographicCamera;
 import com.badlogic.gdx.graphics.g2d.Batch;
 import com.badlogic.gdx.graphics.glutils.ShapeRenderer;
-import com.badlogic.gdx.maps.tiled.renderers.OrthogonalTiledMapRenderer;
+import com.badlogic.gdx.math.Rectangle;
 import com.badlogic.gdx.physics.box2d.Box2DDebugRenderer;
-import com.badlogic.gdx.utils.PerformanceCounter;
-import com.badlogic.gdx.utils.PerformanceCounters;
+import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.Disposable;
 
 /**
  * Responsible for rendering the game world
+ *
+ * The world is rendered in one or more views, each with its own camera: one view for all the
+ * players, or one view per player in split-screen mode. Tile chunks are shared between views, and
+ * game objects are culled in a single pass for all views.
  */
-public class GameRenderer {
+public class GameRenderer implements Disposable {
+    private static final ZLevel[] Z_LEVELS = ZLevel.values();
+    // Added around the camera rectangle when culling game objects, to account for shadows and
+    // effects drawn outside of the objects, such as turbo flames
+    private static final float VIEW_MARGIN = 4;
+    // Space between split-screen views, in pixels
+    private static final int SPLIT_SCREEN_GAP = 2;
+
+    private static class View {
+        final OrthographicCamera camera = new OrthographicCamera();
+        final CameraUpdater cameraUpdater;
+        final Rectangle viewBounds = new Rectangle();
+        // Objects visible in this view, indexed by ZLevel ordinal
+        final Array<Array<GameObject>> visibleObjects = new Array<>();
+        int screenX;
+        int screenY;
+        int screenWidth;
+        int screenHeight;
+
+        View(CameraUpdater cameraUpdater) {
+            this.cameraUpdater = cameraUpdater;
+            for (int idx = 0; idx < Z_LEVELS.length; ++idx) {
+                visibleObjects.add(new Array<>());
+            }
+        }
+    }
+
     private final Track mTrack;
-    private final OrthogonalTiledMapRenderer mRenderer;
+    private final BakedTileMapRenderer mRenderer;
+    private final SkidmarksRenderer mSkidmarksRenderer;
     private final Box2DDebugRenderer mDebugRenderer;
     private final Batch mBatch;
-    private final OrthographicCamera mCamera;
     private final ShapeRenderer mShapeRenderer = new ShapeRenderer();
     private final GameWorld mWorld;
-    private final CameraUpdater mCameraUpdater;
+    private final Array<View> mViews = new Array<>();
 
     private final int[] mBackgroundLayerFirstIndexes = { 0 };
     private final int[] mExtraBackgroundLayerIndexes;
     private final int[] mForegroundLayerIndexes;
 
-    private int mScreenX;
-    private int mScreenY;
-    private int mScreenWidth;
-    private int mScreenHeight;
-    private final PerformanceCounter mTilePerformanceCounter;
-    private final PerformanceCounter mGameObjectPerformanceCounter;
+    private int mDrawCount = 0;
+    private final Profiler.Scope mRenderScope;
+    private final Profiler.Scope mCullingScope;
+    private final Profiler.Scope mTileScope;
+    private final Profiler.Scope mGameObjectScope;
 
-    public GameRenderer(GameWorld world, Batch batch, PerformanceCounters counters) {
+    /**
+     * If @p splitScreen is true and there are several players, each player gets its own view
+     */
+    public GameRenderer(GameWorld world, Assets assets, Batch batch, boolean splitScreen, Profiler profiler) {
         mDebugRenderer = new Box2DDebugRenderer();
         mWorld = world;
 
@@ -69,104 +106,191 @@ public class GameRenderer {
         mForegroundLayerIndexes = mTrack.getForegroundLayerIndexes();
 
         mBatch = batch;
-        mCamera = new OrthographicCamera();
-        boolean singlePlayer = mWorld.getPlayerRacers().size == 1;
-        mCameraUpdater = singlePlayer ? new SinglePlayerCameraUpdater(mWorld) : new MultiPlayerCameraUpdater(mWorld);
-        mRenderer = new OrthogonalTiledMapRenderer(mTrack.getMap(), Constants.UNIT_FOR_PIXEL, mBatch);
+        Array<Racer> playerRacers = mWorld.getPlayerRacers();
+        if (playerRacers.size == 1 || splitScreen) {
+            for (Racer racer : playerRacers) {
+                mViews.add(new View(new SinglePlayerCameraUpdater(mWorld, racer)));
+            }
+        } else {
+            mViews.add(new View(new MultiPlayerCameraUpdater(mWorld)));
+        }
+        mRenderer = mTrack.getTileMapRenderer();
+        mSkidmarksRenderer = new SkidmarksRenderer(assets, mWorld.getSkidmarkBuffer());
 
-        mTilePerformanceCounter = counters.add("- tiles");
-        mGameObjectPerformanceCounter = counters.add("- g.o.");
+        mRenderScope = profiler.getScope("GameRenderer.render");
+        mCullingScope = profiler.getScope("GameRenderer.render/culling");
+        mTileScope = profiler.getScope("GameRenderer.render/tiles");
+        mGameObjectScope = profiler.getScope("GameRenderer.render/g.o");
 
         mDebugRenderer.setDrawVelocities(Debug.instance.drawVelocities);
     }
 
+    /**
+     * Defines the part of the screen to render to. Split-screen views are laid out inside it side
+     * by side if there are two of them, in a grid with two columns otherwise, so that views do not
+     * become narrow strips.
+     */
     public void setScreenRect(int x, int y, int width, int height) {
-        mScreenX = x;
-        mScreenY = y;
-        mScreenWidth = width;
-        mScreenHeight = height;
-        mCameraUpdater.init(mCamera, width, height);
+        int count = mViews.size;
+        int columns = count <= 2 ? count : 2;
+        int rows = (count + columns - 1) / columns;
+        int viewWidth = (width - SPLIT_SCREEN_GAP * (columns - 1)) / columns;
+        int viewHeight = (height - SPLIT_SCREEN_GAP * (rows - 1)) / rows;
+        for (int idx = 0; idx < count; ++idx) {
+            View view = mViews.get(idx);
+            int column = idx % columns;
+            // First row at the top, screen coordinates go up
+            int row = rows - 1 - idx / columns;
+            view.screenX = x + column * (viewWidth + SPLIT_SCREEN_GAP);
+            view.screenY = y + row * (viewHeight + SPLIT_SCREEN_GAP);
+            view.screenWidth = viewWidth;
+            view.screenHeight = viewHeight;
+            // Narrower views show a narrower part of the world, at the same scale
+            view.cameraUpdater.init(view.camera, viewWidth, viewHeight, (float) viewWidth / width);
+        }
     }
 
     public void onAboutToStart() {
-        updateCamera(CameraUpdater.IMMEDIATE);
+        updateCameras(CameraUpdater.IMMEDIATE);
     }
 
     public void render(float delta) {
-        Gdx.gl.glViewport(mScreenX, mScreenY, mScreenWidth, mScreenHeight);
-        updateCamera(delta);
-        updateMapRendererCamera();
+        mRenderScope.start();
+        updateCameras(delta);
 
-        mTilePerformanceCounter.start();
-        mBatch.disableBlending();
+        mCullingScope.start();
+        collectVisibleObjects();
+        mCullingScope.stop();
+
+        mDrawCount = 0;
+        for (View view : mViews) {
+            renderView(view);
+        }
+        mRenderScope.stop();
+    }
+
+    /**
+     * Number of GameObject.draw() calls during the last render() call
+     */
+    public int getDrawCount() {
+        return mDrawCount;
+    }
+
+    private void updateCameras(float delta) {
+        for (View view : mViews) {
+            view.cameraUpdater.update(delta);
+            OrthographicCamera camera = view.camera;
+            float width = camera.viewportWidth * camera.zoom;
+            float height = camera.viewportHeight * camera.zoom;
+            float x = camera.position.x - width / 2;
+            float y = camera.position.y - height / 2;
+            view.viewBounds.set(x - VIEW_MARGIN, y - VIEW_MARGIN, width + 2 * VIEW_MARGIN, height + 2 * VIEW_MARGIN);
+        }
+    }
+
+    /**
+     * Goes through the game objects once, adding them to the lists of the views they are visible in
+     */
+    private void collectVisibleObjects() {
+        for (ZLevel z : Z_LEVELS) {
+            for (View view : mViews) {
+                view.visibleObjects.get(z.ordinal()).clear();
+            }
+            Array<GameObject> objects = mWorld.getActiveGameObjects(z);
+            for (int idx = 0; idx < objects.size; ++idx) {
+                GameObject object = objects.get(idx);
+                for (int viewIdx = 0; viewIdx < mViews.size; ++viewIdx) {
+                    View view = mViews.get(viewIdx);
+                    if (object.isVisible(view.viewBounds, z)) {
+                        view.visibleObjects.get(z.ordinal()).add(object);
+                    }
+                }
+            }
+        }
+    }
+
+    private void renderView(View view) {
+        OrthographicCamera camera = view.camera;
+        Gdx.gl.glViewport(view.screenX, view.screenY, view.screenWidth, view.screenHeight);
+        float width = camera.viewportWidth * camera.zoom;
+        float height = camera.viewportHeight * camera.zoom;
+        mRenderer.setView(camera.combined,
+                camera.position.x - width / 2, camera.position.y - height / 2, width, height);
+        mBatch.setProjectionMatrix(camera.combined);
+
+        mTileScope.start();
+        mRenderer.disableBlending();
         mRenderer.render(mBackgroundLayerFirstIndexes);
-        mBatch.enableBlending();
+        mRenderer.enableBlending();
         if (mExtraBackgroundLayerIndexes.length > 0) {
             mRenderer.render(mExtraBackgroundLayerIndexes);
         }
-        mTilePerformanceCounter.stop();
+        mTileScope.stop();
 
-        mGameObjectPerformanceCounter.start();
+        mGameObjectScope.start();
+        // Skidmarks are below everything drawn at the GROUND level
+        mSkidmarksRenderer.render(camera.combined, mWorld.getTime());
         mBatch.begin();
-        for (ZLevel z : ZLevel.values()) {
-            for (GameObject object : mWorld.getActiveGameObjects()) {
-                object.draw(mBatch, z);
+        for (ZLevel z : Z_LEVELS) {
+            Array<GameObject> objects = view.visibleObjects.get(z.ordinal());
+            for (int idx = 0; idx < objects.size; ++idx) {
+                objects.get(idx).draw(mBatch, z);
             }
+            mDrawCount += objects.size;
 
             if (z == ZLevel.OBSTACLES && mForegroundLayerIndexes.length > 0) {
-                mGameObjectPerformanceCounter.stop();
-                mTilePerformanceCounter.start();
+                mGameObjectScope.stop();
+                mTileScope.start();
 
                 mBatch.end();
                 mRenderer.render(mForegroundLayerIndexes);
                 mBatch.begin();
 
-                mTilePerformanceCounter.stop();
-                mGameObjectPerformanceCounter.start();
+                mTileScope.stop();
+                mGameObjectScope.start();
             }
         }
-        mGameObjectPerformanceCounter.stop();
+        mGameObjectScope.stop();
         mBatch.end();
 
         if (Debug.instance.showDebugLayer) {
-            if (Debug.instance.drawTileCorners) {
-                mShapeRenderer.begin(ShapeRenderer.ShapeType.Filled);
-                mShapeRenderer.setProjectionMatrix(mCamera.combined);
-                mShapeRenderer.setColor(1, 1, 1, 1);
-                float tileW = mTrack.getTileWidth();
-                float tileH = mTrack.getTileHeight();
-                float mapWidth = mTrack.getMapWidth();
-                float mapHeight = mTrack.getMapHeight();
-                for (float y = 0; y < mapHeight; y += tileH) {
-                    for (float x = 0; x < mapWidth; x += tileW) {
-                        mShapeRenderer.rect(x, y, Constants.UNIT_FOR_PIXEL, Constants.UNIT_FOR_PIXEL);
-                    }
-                }
-                mShapeRenderer.end();
-            }
+            renderDebugLayer(camera);
+        }
+    }
 
-            for (DebugShapeMap.Shape shape : DebugShapeMap.getMap().values()) {
-                shape.draw(mShapeRenderer);
-            }
+    @Override
+    public void dispose() {
+        mSkidmarksRenderer.dispose();
+        mShapeRenderer.dispose();
+        mDebugRenderer.dispose();
+    }
 
-            mShapeRenderer.begin(ShapeRenderer.ShapeType.Line);
-            mShapeRenderer.setProjectionMatrix(mCamera.combined);
-            mShapeRenderer.setColor(1, 0, 0, 1);
-            MapUtils.renderObjectLayer(mShapeRenderer, mWorld.getTrack().getBordersLayer());
+    private void renderDebugLayer(OrthographicCamera camera) {
+        mShapeRenderer.setProjectionMatrix(camera.combined);
+        if (Debug.instance.drawTileCorners) {
+            mShapeRenderer.begin(ShapeRenderer.ShapeType.Filled);
+            mShapeRenderer.setColor(1, 1, 1, 1);
+            float tileW = mTrack.getTileWidth();
+            float tileH = mTrack.getTileHeight();
+            float mapWidth = mTrack.getMapWidth();
+            float mapHeight = mTrack.getMapHeight();
+            for (float y = 0; y < mapHeight; y += tileH) {
+                for (float x = 0; x < mapWidth; x += tileW) {
+                    mShapeRenderer.rect(x, y, Constants.UNIT_FOR_PIXEL, Constants.UNIT_FOR_PIXEL);
+                }
+            }
             mShapeRenderer.end();
+        }
 
-            mDebugRenderer.render(mWorld.getBox2DWorld(), mCamera.combined);
+        for (DebugShapeMap.Shape shape : mWorld.getDebugShapeMap().getMap().values()) {
+            shape.draw(mShapeRenderer);
         }
-    }
 
-    private void updateCamera(float delta) {
-        mCameraUpdater.update(delta);
-    }
+        mShapeRenderer.begin(ShapeRenderer.ShapeType.Line);
+        mShapeRenderer.setColor(1, 0, 0, 1);
+        MapUtils.renderObjectLayer(mShapeRenderer, mWorld.getTrack().getBordersLayer());
+        mShapeRenderer.end();
 
-    private void updateMapRendererCamera() {
-        float width = mCamera.viewportWidth * mCamera.zoom;
-        float height = mCamera.viewportHeight * mCamera.zoom;
-        mRenderer.setView(mCamera.combined,
-                mCamera.position.x - width / 2, mCamera.position.y - height / 2, width, height);
+        mDebugRenderer.render(mWorld.getBox2DWorld(), camera.combined);
     }
 }
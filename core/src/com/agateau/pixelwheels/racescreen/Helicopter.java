@@ -26,6 +26,7 @@ import com.agateau.pixelwheels.gameobjet.GameObjectAdapter;
 import com.agateau.pixelwheels.map.Track;
 import com.agateau.pixelwheels.sound.AudioManager;
 import com.agateau.pixelwheels.sound.SoundPlayer;
+import com.agateau.utils.PerThreadPool;
 import com.badlogic.gdx.Gdx;
 import com.badlogic.gdx.graphics.Color;
 import com.badlogic.gdx.graphics.GL20;
@@ -37,10 +38,12 @@ import com.badlogic.gdx.graphics.g2d.TextureRegion;
 import com.badlogic.gdx.graphics.glutils.FrameBuffer;
 import com.badlogic.gdx.math.MathUtils;
 import com.badlogic.gdx.math.Matrix4;
+import com.badlogic.gdx.math.Rectangle;
 import com.badlogic.gdx.math.Vector2;
 import com.badlogic.gdx.utils.Disposable;
 import com.badlogic.gdx.utils.Pool;
-import com.badlogic.gdx.utils.ReflectionPool;
+
+import java.util.EnumSet;
 
 import static com.agateau.pixelwheels.utils.BodyRegionDrawer.SHADOW_ALPHA;
 
@@ -49,6 +52,7 @@ import static com.agateau.pixelwheels.utils.BodyRegionDrawer.SHADOW_ALPHA;
  */
 
 public class Helicopter extends GameObjectAdapter implements Pool.Poolable, Disposable {
+    private static final EnumSet<ZLevel> Z_LEVELS = EnumSet.of(ZLevel.SHADOWS, ZLevel.FLYING);
     private static final float SHADOW_OFFSET = 80;
     private static final Vector2 BODY_CENTER = new Vector2(30, (111 - 35));
     private static final float PROPELLER_SPEED = -720;
@@ -63,7 +67,7 @@ public class Helicopter extends GameObjectAdapter implements Pool.Poolable, Disp
         RECOVERING,
         LEAVING
     }
-    private static final ReflectionPool<Helicopter> sPool = new ReflectionPool<>(Helicopter.class);
+    private static final PerThreadPool<Helicopter> sPool = new PerThreadPool<>(Helicopter.class);
 
     private SoundPlayer mSoundPlayer;
     private FrameBuffer mFrameBuffer;
@@ -104,12 +108,13 @@ public class Helicopter extends GameObjectAdapter implements Pool.Poolable, Disp
         object.mTime = 0;
         object.mState = State.ARRIVING;
 
-        if (object.mFrameBuffer == null) {
-            int bufferWidth = object.mPropellerRegion.getRegionWidth();
-            int bufferHeight = object.mPropellerRegion.getRegionHeight() / 2 + (int)BODY_CENTER.y;
-            object.mFrameBuffer = new FrameBuffer(Pixmap.Format.RGBA8888, bufferWidth, bufferHeight, false /* hasDepth */);
-            object.mFrameBufferBatch = new SpriteBatch();
-            object.mFrameBufferBatch.setProjectionMatrix(new Matrix4().setToOrtho2D(0, 0, bufferWidth, bufferHeight));
+        // Headless simulations have no GL context, so they never get a frame buffer. Otherwise
+        // render it now, so that the first draw() has something to show
+        if (!assets.isHeadless()) {
+            if (object.mFrameBuffer == null) {
+                object.createFrameBuffer();
+            }
+            object.updateFrameBuffer();
         }
 
         return object;
@@ -152,7 +157,10 @@ public class Helicopter extends GameObjectAdapter implements Pool.Poolable, Disp
     @Override
     public void act(float delta) {
         mTime += delta;
-        updateFrameBuffer();
+        // There is no frame buffer in headless simulations
+        if (mFrameBuffer != null) {
+            updateFrameBuffer();
+        }
         switch (mState) {
         case ARRIVING:
             actArriving(delta);
@@ -209,6 +217,17 @@ public class Helicopter extends GameObjectAdapter implements Pool.Poolable, Disp
         mAngle = MathUtils.lerp(mStartAngle, mEndAngle, progress);
     }
 
+    @Override
+    public EnumSet<ZLevel> getZLevels() {
+        return Z_LEVELS;
+    }
+
+    @Override
+    public boolean isVisible(Rectangle viewBounds, ZLevel zLevel) {
+        // There is at most one helicopter, so do not bother
+        return true;
+    }
+
     @Override
     public void draw(Batch batch, ZLevel zLevel) {
         if (zLevel == ZLevel.SHADOWS) {
@@ -222,6 +241,14 @@ public class Helicopter extends GameObjectAdapter implements Pool.Poolable, Disp
         }
     }
 
+    private void createFrameBuffer() {
+        int bufferWidth = mPropellerRegion.getRegionWidth();
+        int bufferHeight = mPropellerRegion.getRegionHeight() / 2 + (int)BODY_CENTER.y;
+        mFrameBuffer = new FrameBuffer(Pixmap.Format.RGBA8888, bufferWidth, bufferHeight, false /* hasDepth */);
+        mFrameBufferBatch = new SpriteBatch();
+        mFrameBufferBatch.setProjectionMatrix(new Matrix4().setToOrtho2D(0, 0, bufferWidth, bufferHeight));
+    }
+
     @SuppressWarnings("SuspiciousNameCombination")
     private void updateFrameBuffer() {
         final float w = mBodyRegion.getRegionWidth();
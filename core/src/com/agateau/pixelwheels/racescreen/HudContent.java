@@ -25,6 +25,7 @@ import com.agateau.pixelwheels.racer.Racer;
 import com.agateau.pixelwheels.utils.StringUtils;
 import com.agateau.ui.anchor.Anchor;
 import com.agateau.ui.anchor.AnchorGroup;
+import com.agateau.utils.profiling.Profiler;
 import com.badlogic.gdx.Gdx;
 import com.badlogic.gdx.scenes.scene2d.Actor;
 import com.badlogic.gdx.scenes.scene2d.ui.Label;
@@ -32,8 +33,6 @@ import com.badlogic.gdx.scenes.scene2d.ui.Skin;
 import com.badlogic.gdx.scenes.scene2d.utils.ClickListener;
 import com.badlogic.gdx.utils.Align;
 import com.badlogic.gdx.utils.Array;
-import com.badlogic.gdx.utils.PerformanceCounter;
-import com.badlogic.gdx.utils.PerformanceCounters;
 import com.badlogic.gdx.utils.StringBuilder;
 
 import java.util.Map;
@@ -45,7 +44,8 @@ public class HudContent {
     private final Assets mAssets;
     private final GameWorld mGameWorld;
     private final Hud mHud;
-    private PerformanceCounters mPerformanceCounters = null;
+    private Profiler mProfiler = null;
+    private GameRenderer mGameRenderer = null;
 
     private final Array<Label> mRankLabels = new Array<>();
     private final Array<Label> mLapLabels = new Array<>();
@@ -98,14 +98,21 @@ public class HudContent {
         }
     }
 
-    public void setPerformanceCounters(PerformanceCounters performanceCounters) {
-        mPerformanceCounters = performanceCounters;
+    public void setProfiler(Profiler profiler) {
+        mProfiler = profiler;
         mDebugLabel = new Label("D", mAssets.ui.skin, "tiny");
 
         AnchorGroup root = mHud.getRoot();
         root.addPositionRule(mDebugLabel, Anchor.CENTER_LEFT, root, Anchor.CENTER_LEFT);
     }
 
+    /**
+     * Show the number of game objects drawn by @p gameRenderer in the debug label
+     */
+    public void setGameRenderer(GameRenderer gameRenderer) {
+        mGameRenderer = gameRenderer;
+    }
+
     public void createPauseButton(ClickListener clickListener) {
         HudButton button = new HudButton(mAssets, mHud, "pause");
         button.addListener(clickListener);
@@ -130,7 +137,7 @@ public class HudContent {
             Label rankLabel = mRankLabels.get(idx);
 
             int lapCount = Math.max(racer.getLapPositionComponent().getLapCount(), 1);
-            int totalLapCount = mGameWorld.getTrack().getTotalLapCount();
+            int totalLapCount = mGameWorld.getTotalLapCount();
             int rank = mGameWorld.getRacerRank(racer);
 
             mStringBuilder.setLength(0);
@@ -170,13 +177,19 @@ public class HudContent {
     private void updateDebugLabel() {
         sDebugSB.setLength(0);
         sDebugSB.append("objCount: ").append(mGameWorld.getActiveGameObjects().size).append('\n');
+        if (mGameRenderer != null) {
+            sDebugSB.append("drawCount: ").append(mGameRenderer.getDrawCount()).append('\n');
+        }
         sDebugSB.append("FPS: ").append(Gdx.graphics.getFramesPerSecond()).append('\n');
-        for (PerformanceCounter counter : mPerformanceCounters.counters) {
-            sDebugSB.append(counter.name).append(": ")
-                    .append(String.valueOf((int) (counter.time.value * 1000)))
-                    .append(" | ")
-                    .append(String.valueOf((int) (counter.load.value * 100)))
-                    .append("%\n")
+        for (Profiler.Scope scope : mProfiler.getScopes()) {
+            for (int idx = 0; idx < scope.getDepth(); ++idx) {
+                sDebugSB.append("- ");
+            }
+            sDebugSB.append(scope.getName()).append(": ")
+                    .append((int) (scope.getRecentMean() * 1000))
+                    .append(" | p95 ")
+                    .append(scope.getHistogram().getPercentile(95) / 1000)
+                    .append("us\n")
             ;
         }
         for (Map.Entry<String, String> entry : DebugStringMap.getMap().entrySet()) {
@@ -25,6 +25,8 @@ import com.agateau.pixelwheels.racer.Racer;
 import com.badlogic.gdx.math.Vector2;
 
 class MultiPlayerCameraUpdater extends CameraUpdater {
+    private final Vector2 mPos = new Vector2();
+
     MultiPlayerCameraUpdater(GameWorld world) {
         super(world);
     }
@@ -32,7 +34,7 @@ class MultiPlayerCameraUpdater extends CameraUpdater {
     @Override
     public void update(float delta) {
         // Compute viewport size
-        float viewportWidth = GamePlay.instance.viewportWidth;
+        float viewportWidth = GamePlay.instance.viewportWidth * mViewportWidthRatio;
         float viewportHeight = viewportWidth * mScreenHeight / mScreenWidth;
 
         // Compute rect containing all players
@@ -41,11 +43,11 @@ class MultiPlayerCameraUpdater extends CameraUpdater {
         float x2 = 0;
         float y2 = 0;
         for (Racer racer : mWorld.getPlayerRacers()) {
-            Vector2 pos = racer.getVehicle().getPosition();
-            x1 = Math.min(x1, pos.x);
-            x2 = Math.max(x2, pos.x);
-            y1 = Math.min(y1, pos.y);
-            y2 = Math.max(y2, pos.y);
+            getDrawPosition(racer.getVehicle(), mPos);
+            x1 = Math.min(x1, mPos.x);
+            x2 = Math.max(x2, mPos.x);
+            y1 = Math.min(y1, mPos.y);
+            y2 = Math.max(y2, mPos.y);
         }
         float padding = Constants.CAMERA_ADVANCE_PERCENT * viewportWidth;
         x1 -= padding;
@@ -22,7 +22,6 @@ import com.agateau.pixelwheels.GamePlay;
 import com.agateau.pixelwheels.GameWorld;
 import com.agateau.pixelwheels.PwGame;
 import com.agateau.pixelwheels.debug.Debug;
-import com.agateau.pixelwheels.debug.DebugShapeMap;
 import com.agateau.pixelwheels.gameinput.GameInputHandlerFactories;
 import com.agateau.pixelwheels.gameobjet.AudioClipper;
 import com.agateau.pixelwheels.gameobjet.GameObject;
@@ -32,23 +31,33 @@ import com.agateau.pixelwheels.racer.Pilot;
 import com.agateau.pixelwheels.racer.PlayerPilot;
 import com.agateau.pixelwheels.racer.Racer;
 import com.agateau.pixelwheels.racer.RacerDebugShape;
+import com.agateau.pixelwheels.replay.Replay;
 import com.agateau.pixelwheels.screens.ConfigScreen;
 import com.agateau.pixelwheels.screens.PwStageScreen;
+import com.agateau.utils.FileUtils;
 import com.agateau.utils.log.NLog;
+import com.agateau.utils.profiling.Profiler;
 import com.badlogic.gdx.Gdx;
 import com.badlogic.gdx.Input;
 import com.badlogic.gdx.ScreenAdapter;
+import com.badlogic.gdx.files.FileHandle;
 import com.badlogic.gdx.graphics.Color;
 import com.badlogic.gdx.graphics.GL20;
 import com.badlogic.gdx.graphics.g2d.SpriteBatch;
 import com.badlogic.gdx.scenes.scene2d.InputEvent;
 import com.badlogic.gdx.scenes.scene2d.Stage;
 import com.badlogic.gdx.scenes.scene2d.utils.ClickListener;
-import com.badlogic.gdx.utils.PerformanceCounter;
-import com.badlogic.gdx.utils.PerformanceCounters;
+import com.badlogic.gdx.utils.GdxRuntimeException;
 import com.badlogic.gdx.utils.viewport.ScreenViewport;
 
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.Writer;
+
 public class RaceScreen extends ScreenAdapter {
+    private static final String PROFILER_REPORT_FILE_NAME = "profile.txt";
+    private static final String REPLAY_FILE_NAME = "last.replay";
+
     public interface Listener {
         void onRestartPressed();
         void onQuitPressed();
@@ -65,6 +74,8 @@ public class RaceScreen extends ScreenAdapter {
     private final PauseButtons mPauseButtons;
 
     private final GameWorld mGameWorld;
+    private final Replay mReplay;
+    private boolean mReplayWritten = false;
     private final Color mBackgroundColor;
 
     private final GameRenderer mGameRenderer;
@@ -75,10 +86,8 @@ public class RaceScreen extends ScreenAdapter {
     private final ScreenViewport mHudViewport = new ScreenViewport();
     private final Stage mHudStage;
 
-    private final PerformanceCounters mPerformanceCounters = new PerformanceCounters();
-    private final PerformanceCounter mGameWorldPerformanceCounter;
-    private final PerformanceCounter mRendererPerformanceCounter;
-    private final PerformanceCounter mOverallPerformanceCounter;
+    private final Profiler mProfiler = new Profiler();
+    private final Profiler.Scope mFrameScope;
     private PauseOverlay mPauseOverlay = null;
 
     private boolean mFirstRender = true;
@@ -90,17 +99,21 @@ public class RaceScreen extends ScreenAdapter {
         mListener = listener;
         mPauseButtons = pauseButtons;
 
-        mOverallPerformanceCounter = mPerformanceCounters.add("All");
-        mGameWorldPerformanceCounter = mPerformanceCounters.add("GameWorld.act");
-        mGameWorld = new GameWorld(game, gameInfo, mPerformanceCounters);
+        mFrameScope = mProfiler.getScope("Frame");
+        mReplay = new Replay(gameInfo.getTrack().getId(), gameInfo.getSeed(), GamePlay.instance,
+                Debug.instance.oneLapOnly, gameInfo.getEntrants());
+        mGameWorld = new GameWorld(game, gameInfo, mProfiler);
+        for (Racer racer : mGameWorld.getPlayerRacers()) {
+            int playerIndex = ((GameInfo.Player) racer.getEntrant()).getIndex();
+            ((PlayerPilot) racer.getPilot()).setInputRecorder(mReplay.getPlayerScript(playerIndex));
+        }
         mBackgroundColor = gameInfo.getTrack().getBackgroundColor();
-        mRendererPerformanceCounter = mPerformanceCounters.add("Renderer");
 
         SpriteBatch batch = new SpriteBatch();
         mHudStage = new Stage(mHudViewport, batch);
         mHudStage.setDebugAll(Debug.instance.showHudDebugLines);
 
-        mGameRenderer = new GameRenderer(mGameWorld, batch, mPerformanceCounters);
+        mGameRenderer = new GameRenderer(mGameWorld, game.getAssets(), batch, game.getConfig().splitScreen, mProfiler);
         setupHud(mGameWorld.getTrack());
 
         mAudioClipper = createAudioClipper();
@@ -113,13 +126,14 @@ public class RaceScreen extends ScreenAdapter {
         if (Debug.instance.showDebugLayer) {
             int idx = 0;
             for (Racer racer : mGameWorld.getPlayerRacers()) {
-                DebugShapeMap.getMap().put("racer" + idx, new RacerDebugShape(racer, track));
+                mGameWorld.getDebugShapeMap().put("racer" + idx, new RacerDebugShape(racer, track));
                 ++idx;
             }
         }
 
         if (Debug.instance.showDebugHud) {
-            mHudContent.setPerformanceCounters(mPerformanceCounters);
+            mHudContent.setProfiler(mProfiler);
+            mHudContent.setGameRenderer(mGameRenderer);
         }
 
         if (GameInputHandlerFactories.hasMultitouch()) {
@@ -164,19 +178,17 @@ public class RaceScreen extends ScreenAdapter {
         }
         boolean paused = mPauseOverlay != null;
 
-        mOverallPerformanceCounter.start();
-        mGameWorldPerformanceCounter.start();
+        mFrameScope.start();
         if (!paused) {
             GameWorld.State oldState = mGameWorld.getState();
+            mReplay.addFrame(delta);
             mGameWorld.act(delta);
             GameWorld.State newState = mGameWorld.getState();
             if (newState == GameWorld.State.FINISHED && oldState != newState) {
                 onFinished();
             }
         }
-        mGameWorldPerformanceCounter.stop();
 
-        mRendererPerformanceCounter.start();
         Gdx.gl.glClearColor(mBackgroundColor.r, mBackgroundColor.g, mBackgroundColor.b, 1);
         Gdx.gl.glClear(GL20.GL_COLOR_BUFFER_BIT);
         mGameRenderer.render(delta);
@@ -193,8 +205,6 @@ public class RaceScreen extends ScreenAdapter {
             }
         }
 
-        mRendererPerformanceCounter.stop();
-
         // Process hud *after* rendering game so that if an action on the hud (called from
         // mHudStage.act()) causes us to leave this screen (back to menu from pause, or leaving
         // the FinishedOverlay) then the game renderer does not alter the OpenGL viewport *after*
@@ -204,9 +214,9 @@ public class RaceScreen extends ScreenAdapter {
         mHudStage.draw();
         mHudStage.act(delta);
 
-        mOverallPerformanceCounter.stop();
+        mFrameScope.stop();
         if (!paused) {
-            mPerformanceCounters.tick(delta);
+            mProfiler.endFrame();
         }
     }
 
@@ -232,10 +242,50 @@ public class RaceScreen extends ScreenAdapter {
     }
 
     private void onFinished() {
+        writeProfilerReport();
+        writeReplay();
         FinishedOverlay overlay = new FinishedOverlay(mGame, mListener, mGameWorld.getRacers());
         mHudStage.addActor(overlay);
     }
 
+    private void writeProfilerReport() {
+        FileHandle handle = FileUtils.getUserWritableFile(PROFILER_REPORT_FILE_NAME);
+        try (Writer writer = handle.writer(false /* append */)) {
+            mProfiler.write(writer);
+            NLog.i("Wrote profiler report to %s", handle.path());
+        } catch (IOException | GdxRuntimeException e) {
+            NLog.e("Failed to write profiler report to %s: %s", handle.path(), e);
+        }
+    }
+
+    /**
+     * Writes the replay once, on a background thread. The replay is serialized here because the
+     * game keeps adding frames to it after the race is finished.
+     */
+    private void writeReplay() {
+        if (mReplayWritten) {
+            return;
+        }
+        mReplayWritten = true;
+        ByteArrayOutputStream stream = new ByteArrayOutputStream();
+        try {
+            mReplay.write(stream);
+        } catch (IOException e) {
+            // Cannot happen when writing to memory
+            throw new RuntimeException(e);
+        }
+        final byte[] data = stream.toByteArray();
+        final FileHandle handle = FileUtils.getUserWritableFile(REPLAY_FILE_NAME);
+        Thread thread = new Thread(() -> {
+            try {
+                handle.writeBytes(data, false /* append */);
+            } catch (GdxRuntimeException e) {
+                NLog.e("Failed to write replay to %s: %s", handle.path(), e);
+            }
+        }, "replay-writer");
+        thread.start();
+    }
+
     private void pauseRace() {
         mGame.getAudioManager().setMuted(true);
         mPauseOverlay = new PauseOverlay(mGame, this);
@@ -254,6 +304,7 @@ public class RaceScreen extends ScreenAdapter {
     }
 
     void onQuitPressed() {
+        writeReplay();
         mListener.onQuitPressed();
     }
 
@@ -280,6 +331,7 @@ public class RaceScreen extends ScreenAdapter {
     @Override
     public void dispose() {
         super.dispose();
+        mGameRenderer.dispose();
         mGameWorld.dispose();
     }
 
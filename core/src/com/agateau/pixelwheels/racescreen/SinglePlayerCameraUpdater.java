@@ -31,29 +31,35 @@ class SinglePlayerCameraUpdater extends CameraUpdater {
     private static final float MIN_ZOOM = 0.6f;
     private static final float MAX_ZOOM = 2.1f;
 
+    private final Racer mRacer;
     private final Vector2 sDelta = new Vector2();
+    private final Vector2 mVehiclePos = new Vector2();
 
-    SinglePlayerCameraUpdater(GameWorld world) {
+    /**
+     * Follows @p racer
+     */
+    SinglePlayerCameraUpdater(GameWorld world, Racer racer) {
         super(world);
+        mRacer = racer;
     }
 
     @Override
     public void update(float delta) {
         boolean immediate = delta < 0;
-        Racer racer = mWorld.getPlayerRacers().first();
-        Vehicle vehicle = racer.getVehicle();
+        Vehicle vehicle = mRacer.getVehicle();
 
         // Compute viewport size
         mNextCameraInfo.zoom = MathUtils.lerp(MIN_ZOOM, MAX_ZOOM, vehicle.getSpeed() / MAX_ZOOM_SPEED);
         limitZoomChange(delta);
-        float viewportWidth = GamePlay.instance.viewportWidth * mNextCameraInfo.zoom;
+        float viewportWidth = GamePlay.instance.viewportWidth * mViewportWidthRatio * mNextCameraInfo.zoom;
         float viewportHeight = viewportWidth * mScreenHeight / mScreenWidth;
         mNextCameraInfo.viewportWidth = viewportWidth;
         mNextCameraInfo.viewportHeight = viewportHeight;
 
         // Compute pos
         float advance = Math.min(viewportWidth, viewportHeight) * Constants.CAMERA_ADVANCE_PERCENT;
-        sDelta.set(advance, 0).rotate(racer.getCameraAngle()).add(vehicle.getPosition()).sub(mCameraInfo.position);
+        getDrawPosition(vehicle, mVehiclePos);
+        sDelta.set(advance, 0).rotate(mRacer.getCameraAngle()).add(mVehiclePos).sub(mCameraInfo.position);
         mNextCameraInfo.position.set(mCameraInfo.position).add(sDelta);
         if (!immediate) {
             sDelta.limit(MAX_CAMERA_DELTA * delta);
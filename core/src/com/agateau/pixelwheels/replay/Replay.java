@@ -0,0 +1,243 @@
+/*
+ * Copyright 2019 Aurélien Gâteau <mail@agateau.com>
+ *
+ * This file is part of Pixel Wheels.
+ *
+ * Pixel Wheels is free software: you can redistribute it and/or modify it under
+ * the terms of the GNU General Public License as published by the Free
+ * Software Foundation, either version 3 of the License, or (at your option)
+ * any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License for
+ * more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.agateau.pixelwheels.replay;
+
+import com.agateau.pixelwheels.GamePlay;
+import com.agateau.pixelwheels.gameinput.InputScript;
+import com.agateau.pixelwheels.gamesetup.GameInfo;
+import com.agateau.utils.DataStreamUtils;
+import com.badlogic.gdx.files.FileHandle;
+import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.FloatArray;
+import com.badlogic.gdx.utils.IntArray;
+import com.badlogic.gdx.utils.IntMap;
+import com.google.gson.Gson;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * Everything needed to replay a race: its setup, the random seed, the duration of each frame and
+ * the inputs of each player. AI pilots are not recorded, they do the same thing when replaying.
+ *
+ * Binary format (big endian):
+ *
+ *     int MAGIC, int VERSION,
+ *     string trackId, long seed, string gamePlay (JSON), boolean oneLapOnly,
+ *     int entrantCount, then for each entrant: string vehicleId, byte playerIndex (-1 for AI),
+ *     int frameCount, then for each run of identical frame durations: varint length, float delta,
+ *     then the InputScript of each player, in player index order (player indexes go from 0 to
+ *     playerCount - 1)
+ */
+public class Replay {
+    private static final int MAGIC = 0x50575250; // "PWRP"
+    private static final int VERSION = 1;
+    private static final int AI_INDEX = -1;
+
+    private final String mTrackId;
+    private final long mSeed;
+    private final GamePlay mGamePlay;
+    private final boolean mOneLapOnly;
+    private final Array<String> mVehicleIds = new Array<>();
+    private final IntArray mPlayerIndexes = new IntArray();
+    private final FloatArray mFrameDeltas = new FloatArray();
+    private final IntMap<InputScript> mPlayerScripts = new IntMap<>();
+
+    /**
+     * Creates an empty replay, for a race on @p trackId between @p entrants
+     */
+    public Replay(String trackId, long seed, GamePlay gamePlay, boolean oneLapOnly,
+                  Array<GameInfo.Entrant> entrants) {
+        mTrackId = trackId;
+        mSeed = seed;
+        mGamePlay = copyGamePlay(gamePlay);
+        mOneLapOnly = oneLapOnly;
+        for (GameInfo.Entrant entrant : entrants) {
+            mVehicleIds.add(entrant.getVehicleId());
+            if (entrant.isPlayer()) {
+                int playerIndex = ((GameInfo.Player) entrant).getIndex();
+                mPlayerIndexes.add(playerIndex);
+                mPlayerScripts.put(playerIndex, new InputScript());
+            } else {
+                mPlayerIndexes.add(AI_INDEX);
+            }
+        }
+    }
+
+    public String getTrackId() {
+        return mTrackId;
+    }
+
+    public long getSeed() {
+        return mSeed;
+    }
+
+    /**
+     * The GamePlay used by the race. Must not be changed.
+     */
+    public GamePlay getGamePlay() {
+        return mGamePlay;
+    }
+
+    public boolean isOneLapOnly() {
+        return mOneLapOnly;
+    }
+
+    /**
+     * Returns new entrants, identical to the ones of the recorded race
+     */
+    public Array<GameInfo.Entrant> createEntrants() {
+        Array<GameInfo.Entrant> entrants = new Array<>();
+        for (int idx = 0; idx < mVehicleIds.size; ++idx) {
+            int playerIndex = mPlayerIndexes.get(idx);
+            String vehicleId = mVehicleIds.get(idx);
+            entrants.add(playerIndex == AI_INDEX ? new GameInfo.Entrant(vehicleId)
+                    : new GameInfo.Player(playerIndex, vehicleId));
+        }
+        return entrants;
+    }
+
+    /**
+     * Records a frame which lasted @p delta seconds
+     */
+    public void addFrame(float delta) {
+        mFrameDeltas.add(delta);
+    }
+
+    public int getFrameCount() {
+        return mFrameDeltas.size;
+    }
+
+    public float getFrameDelta(int frame) {
+        return mFrameDeltas.get(frame);
+    }
+
+    /**
+     * The inputs of player @p playerIndex, one frame per game step
+     */
+    public InputScript getPlayerScript(int playerIndex) {
+        return mPlayerScripts.get(playerIndex);
+    }
+
+    public void write(FileHandle handle) throws IOException {
+        try (OutputStream stream = new BufferedOutputStream(handle.write(false))) {
+            write(stream);
+        }
+    }
+
+    /**
+     * Writes the replay to @p stream, without closing it
+     */
+    public void write(OutputStream stream) throws IOException {
+        DataOutputStream out = new DataOutputStream(stream);
+        out.writeInt(MAGIC);
+        out.writeInt(VERSION);
+        out.writeUTF(mTrackId);
+        out.writeLong(mSeed);
+        out.writeUTF(new Gson().toJson(mGamePlay));
+        out.writeBoolean(mOneLapOnly);
+
+        out.writeInt(mVehicleIds.size);
+        for (int idx = 0; idx < mVehicleIds.size; ++idx) {
+            out.writeUTF(mVehicleIds.get(idx));
+            out.writeByte(mPlayerIndexes.get(idx));
+        }
+
+        out.writeInt(mFrameDeltas.size);
+        for (int start = 0; start < mFrameDeltas.size; ) {
+            float delta = mFrameDeltas.get(start);
+            int end = start + 1;
+            while (end < mFrameDeltas.size && Float.floatToRawIntBits(mFrameDeltas.get(end)) == Float.floatToRawIntBits(delta)) {
+                ++end;
+            }
+            DataStreamUtils.writeVarInt(out, end - start);
+            out.writeFloat(delta);
+            start = end;
+        }
+
+        for (int idx = 0; idx < mPlayerScripts.size; ++idx) {
+            mPlayerScripts.get(idx).write(out);
+        }
+        out.flush();
+    }
+
+    public static Replay read(FileHandle handle) throws IOException {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(handle.read()))) {
+            if (in.readInt() != MAGIC) {
+                throw new IOException(handle.path() + " is not a replay");
+            }
+            int version = in.readInt();
+            if (version != VERSION) {
+                throw new IOException("Unsupported replay version " + version);
+            }
+            String trackId = in.readUTF();
+            long seed = in.readLong();
+            GamePlay gamePlay = new Gson().fromJson(in.readUTF(), GamePlay.class);
+            boolean oneLapOnly = in.readBoolean();
+
+            Array<GameInfo.Entrant> entrants = new Array<>();
+            int entrantCount = in.readInt();
+            for (int idx = 0; idx < entrantCount; ++idx) {
+                String vehicleId = in.readUTF();
+                int playerIndex = in.readByte();
+                entrants.add(playerIndex == AI_INDEX ? new GameInfo.Entrant(vehicleId)
+                        : new GameInfo.Player(playerIndex, vehicleId));
+            }
+            Replay replay = new Replay(trackId, seed, gamePlay, oneLapOnly, entrants);
+            if (!replay.hasContiguousPlayerIndexes()) {
+                throw new IOException("Invalid player indexes");
+            }
+
+            int frameCount = in.readInt();
+            while (replay.mFrameDeltas.size < frameCount) {
+                int length = DataStreamUtils.readVarInt(in);
+                float delta = in.readFloat();
+                if (length <= 0 || replay.mFrameDeltas.size + length > frameCount) {
+                    throw new IOException("Invalid run length " + length);
+                }
+                for (int idx = 0; idx < length; ++idx) {
+                    replay.mFrameDeltas.add(delta);
+                }
+            }
+
+            for (int idx = 0; idx < replay.mPlayerScripts.size; ++idx) {
+                replay.mPlayerScripts.put(idx, InputScript.read(in));
+            }
+            return replay;
+        }
+    }
+
+    private boolean hasContiguousPlayerIndexes() {
+        for (int idx = 0; idx < mPlayerScripts.size; ++idx) {
+            if (!mPlayerScripts.containsKey(idx)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static GamePlay copyGamePlay(GamePlay gamePlay) {
+        Gson gson = new Gson();
+        return gson.fromJson(gson.toJson(gamePlay), GamePlay.class);
+    }
+}
@@ -0,0 +1,77 @@
+/*
+ * Copyright 2019 Aurélien Gâteau <mail@agateau.com>
+ *
+ * This file is part of Pixel Wheels.
+ *
+ * Pixel Wheels is free software: you can redistribute it and/or modify it under
+ * the terms of the GNU General Public License as published by the Free
+ * Software Foundation, either version 3 of the License, or (at your option)
+ * any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License for
+ * more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.agateau.pixelwheels.replay;
+
+import com.agateau.pixelwheels.Assets;
+import com.agateau.pixelwheels.GameWorld;
+import com.agateau.pixelwheels.debug.Debug;
+import com.agateau.pixelwheels.gameinput.ScriptedInputHandler;
+import com.agateau.pixelwheels.map.Track;
+import com.agateau.pixelwheels.racer.PlayerPilot;
+import com.agateau.pixelwheels.simulation.RaceSimulator;
+import com.agateau.utils.Assert;
+import com.badlogic.gdx.utils.Disposable;
+
+/**
+ * Plays a Replay in a headless GameWorld, one recorded frame at a time
+ *
+ * Like RaceSimulator, the track is left initialized.
+ */
+public class ReplayPlayer implements Disposable {
+    private final Replay mReplay;
+    private final GameWorld mWorld;
+    private int mFrame = 0;
+
+    public ReplayPlayer(Assets assets, Track track, Replay replay) {
+        Assert.check(track.getId().equals(replay.getTrackId()), "Replay is for track " + replay.getTrackId());
+        mReplay = replay;
+
+        Debug debug = new Debug();
+        debug.oneLapOnly = replay.isOneLapOnly();
+        RaceSimulator simulator = new RaceSimulator(assets);
+        simulator.setGamePlay(replay.getGamePlay());
+        simulator.setDebug(debug);
+        simulator.setSeed(replay.getSeed());
+        mWorld = simulator.createWorld(track, replay.createEntrants(),
+                (world, racer, playerIndex) -> new PlayerPilot(assets, world, racer,
+                        new ScriptedInputHandler(replay.getPlayerScript(playerIndex))));
+    }
+
+    public GameWorld getWorld() {
+        return mWorld;
+    }
+
+    public boolean isFinished() {
+        return mFrame >= mReplay.getFrameCount();
+    }
+
+    /**
+     * Acts the world with the duration of the next recorded frame
+     */
+    public void step() {
+        mWorld.act(mReplay.getFrameDelta(mFrame));
+        ++mFrame;
+    }
+
+    @Override
+    public void dispose() {
+        mWorld.forgetTrack();
+        mWorld.dispose();
+    }
+}
@@ -126,6 +126,18 @@ public class ConfigScreen extends PwStageScreen {
                     }
                 });
                 group.addItemWithLabel("Fullscreen:", fullscreenSwitch);
+
+                // Multiplayer is only available on desktop
+                final SwitchMenuItem splitScreenSwitch = new SwitchMenuItem(menu);
+                splitScreenSwitch.setChecked(gameConfig.splitScreen);
+                splitScreenSwitch.getActor().addListener(new ChangeListener() {
+                    @Override
+                    public void changed(ChangeEvent event, Actor actor) {
+                        gameConfig.splitScreen = splitScreenSwitch.isChecked();
+                        gameConfig.flush();
+                    }
+                });
+                group.addItemWithLabel("Split screen:", splitScreenSwitch);
             }
         }
 
@@ -98,6 +98,8 @@ public class DebugScreen extends PwStageScreen {
 
         mCurrentGroup = tabMenuItem.addPage("Misc");
         addCheckBox("Force touch input", "alwaysShowTouchInput");
+        addCheckBox("Fixed-step game objects", "fixedStepGameObjects");
+        addRange("Physics step rate", "physicsStepRate", 20, 120, 10);
         mCurrentIntrospector = mGame.getDebugIntrospector();
         addCheckBox("One lap only", "oneLapOnly");
 
@@ -0,0 +1,123 @@
+/*
+ * Copyright 2019 Aurélien Gâteau <mail@agateau.com>
+ *
+ * This file is part of Pixel Wheels.
+ *
+ * Pixel Wheels is free software: you can redistribute it and/or modify it under
+ * the terms of the GNU General Public License as published by the Free
+ * Software Foundation, either version 3 of the License, or (at your option)
+ * any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License for
+ * more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.agateau.pixelwheels.simulation;
+
+import com.agateau.pixelwheels.Assets;
+import com.agateau.pixelwheels.GamePlay;
+import com.agateau.pixelwheels.gamesetup.GameInfo;
+import com.agateau.pixelwheels.map.Track;
+import com.agateau.utils.Assert;
+import com.badlogic.gdx.utils.Array;
+
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Runs independent races in parallel, one GameWorld, and thus one Box2D World, per thread.
+ *
+ * Each worker thread has its own RaceSimulator and its own Track instance: tracks keep lookup
+ * state, so they cannot be shared between threads. Assets are only read, so they are shared.
+ */
+public class BatchRaceRunner {
+    public interface EntrantsFactory {
+        /**
+         * Called from worker threads. Must return a new array each time.
+         */
+        Array<GameInfo.Entrant> create(int raceIndex);
+    }
+
+    private final Assets mAssets;
+    private final int mThreadCount;
+    private GamePlay mGamePlay = GamePlay.instance;
+    private float mMaxDuration = RaceSimulator.DEFAULT_MAX_DURATION;
+    private long mSeed = 0;
+
+    public BatchRaceRunner(Assets assets, int threadCount) {
+        Assert.check(threadCount > 0, "threadCount must be at least 1");
+        mAssets = assets;
+        mThreadCount = threadCount;
+    }
+
+    /**
+     * Use @p gamePlay instead of GamePlay.instance for all the races. It is shared by the threads,
+     * so it must not change during run().
+     */
+    public void setGamePlay(GamePlay gamePlay) {
+        mGamePlay = gamePlay;
+    }
+
+    public void setMaxDuration(float seconds) {
+        mMaxDuration = seconds;
+    }
+
+    /**
+     * Race number N is run with seed @p seed + N, so results do not depend on the thread count
+     */
+    public void setSeed(long seed) {
+        mSeed = seed;
+    }
+
+    /**
+     * Runs @p raceCount races on the track identified by @p trackId and returns the results,
+     * indexed by race
+     */
+    public Array<RaceSimulator.Result> run(String trackId, final int raceCount, final EntrantsFactory factory) {
+        final Track referenceTrack = mAssets.findTrackById(trackId);
+        Assert.check(referenceTrack != null, "No track with id '" + trackId + "'");
+
+        final RaceSimulator.Result[] results = new RaceSimulator.Result[raceCount];
+        final AtomicInteger nextRace = new AtomicInteger();
+        int threadCount = Math.min(mThreadCount, raceCount);
+        ExecutorService executor = Executors.newFixedThreadPool(threadCount);
+        Array<Future<?>> futures = new Array<>();
+        try {
+            for (int idx = 0; idx < threadCount; ++idx) {
+                futures.add(executor.submit(() -> {
+                    Track track = new Track(referenceTrack.getId(), referenceTrack.getMapName());
+                    track.setTextureFree(true);
+                    track.init();
+                    RaceSimulator simulator = new RaceSimulator(mAssets);
+                    simulator.setGamePlay(mGamePlay);
+                    simulator.setMaxDuration(mMaxDuration);
+                    try {
+                        // Races are claimed one at a time, so that threads which get short races
+                        // do not wait for the others
+                        for (int race = nextRace.getAndIncrement(); race < raceCount; race = nextRace.getAndIncrement()) {
+                            simulator.setSeed(mSeed + race);
+                            results[race] = simulator.run(track, factory.create(race));
+                        }
+                    } finally {
+                        track.dispose();
+                    }
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } catch (InterruptedException | ExecutionException e) {
+            throw new RuntimeException("Race simulation failed", e);
+        } finally {
+            executor.shutdownNow();
+        }
+        return new Array<>(results);
+    }
+}
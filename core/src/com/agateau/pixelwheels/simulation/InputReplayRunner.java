@@ -0,0 +1,136 @@
+/*
+ * Copyright 2019 Aurélien Gâteau <mail@agateau.com>
+ *
+ * This file is part of Pixel Wheels.
+ *
+ * Pixel Wheels is free software: you can redistribute it and/or modify it under
+ * the terms of the GNU General Public License as published by the Free
+ * Software Foundation, either version 3 of the License, or (at your option)
+ * any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License for
+ * more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.agateau.pixelwheels.simulation;
+
+import com.agateau.pixelwheels.Assets;
+import com.agateau.pixelwheels.GameWorld;
+import com.agateau.pixelwheels.gameinput.GameInput;
+import com.agateau.pixelwheels.gameinput.InputScript;
+import com.agateau.pixelwheels.gameinput.ScriptedInputHandler;
+import com.agateau.pixelwheels.gamesetup.GameInfo;
+import com.agateau.pixelwheels.map.Track;
+import com.agateau.pixelwheels.racer.PlayerPilot;
+import com.agateau.pixelwheels.racer.Racer;
+import com.agateau.pixelwheels.racer.Vehicle;
+import com.agateau.utils.profiling.Histogram;
+import com.badlogic.gdx.utils.Array;
+
+/**
+ * Records the inputs of racers, then replays them through PlayerPilots and ScriptedInputHandlers
+ * to measure the cost of each game step.
+ *
+ * Racers without a script are driven by AI pilots. Like RaceSimulator, the track is left
+ * initialized.
+ */
+public class InputReplayRunner {
+    private final Assets mAssets;
+    private final RaceSimulator mSimulator;
+    private float mMaxDuration = RaceSimulator.DEFAULT_MAX_DURATION;
+
+    public InputReplayRunner(Assets assets) {
+        mAssets = assets;
+        mSimulator = new RaceSimulator(assets);
+    }
+
+    public void setMaxDuration(float seconds) {
+        mMaxDuration = seconds;
+    }
+
+    /**
+     * Runs an AI race on @p track and returns the inputs applied to the vehicles of the first
+     * @p scriptCount racers, one frame per step while the race is running.
+     *
+     * AI pilots do not go through a GameInput, so bonus triggers are not recorded.
+     */
+    public Array<InputScript> record(Track track, Array<GameInfo.Entrant> entrants, int scriptCount) {
+        GameWorld world = mSimulator.createWorld(track, entrants);
+        // Copy the racers now: the world keeps them sorted by rank
+        Array<Racer> racers = new Array<>(world.getRacers());
+        Array<InputScript> scripts = new Array<>();
+        for (int idx = 0; idx < scriptCount; ++idx) {
+            scripts.add(new InputScript());
+        }
+        GameInput input = new GameInput();
+        float timeStep = world.getTimeStep();
+        int maxSteps = (int)(mMaxDuration / timeStep);
+        try {
+            for (int step = 0; step < maxSteps && world.getState() != GameWorld.State.FINISHED; ++step) {
+                world.act(timeStep);
+                // Pilots only act once the countdown is over
+                if (world.getState() == GameWorld.State.COUNTDOWN) {
+                    continue;
+                }
+                for (int idx = 0; idx < scriptCount; ++idx) {
+                    Vehicle vehicle = racers.get(idx).getVehicle();
+                    input.direction = vehicle.getDirection();
+                    input.accelerating = vehicle.isAccelerating();
+                    input.braking = vehicle.isBraking();
+                    scripts.get(idx).add(input);
+                }
+            }
+        } finally {
+            world.forgetTrack();
+            world.dispose();
+        }
+        return scripts;
+    }
+
+    /**
+     * Runs a race on @p track where the first racers replay @p scripts, and adds the duration of
+     * each step, in nanoseconds, to @p histogram.
+     *
+     * The race stops when all scripts are over, or when all racers have finished.
+     */
+    public void measure(Track track, Array<GameInfo.Entrant> entrants, Array<InputScript> scripts,
+                        Histogram histogram) {
+        GameWorld world = mSimulator.createWorld(track, entrants);
+        Array<ScriptedInputHandler> handlers = new Array<>();
+        Array<Racer> racers = world.getRacers();
+        for (int idx = 0; idx < scripts.size; ++idx) {
+            Racer racer = racers.get(idx);
+            ScriptedInputHandler handler = new ScriptedInputHandler(scripts.get(idx));
+            racer.setPilot(new PlayerPilot(mAssets, world, racer, handler));
+            handlers.add(handler);
+        }
+        float timeStep = world.getTimeStep();
+        int maxSteps = (int)(mMaxDuration / timeStep);
+        try {
+            for (int step = 0; step < maxSteps && world.getState() != GameWorld.State.FINISHED; ++step) {
+                if (areAllFinished(handlers)) {
+                    break;
+                }
+                long startTime = System.nanoTime();
+                world.act(timeStep);
+                histogram.add(System.nanoTime() - startTime);
+            }
+        } finally {
+            world.forgetTrack();
+            world.dispose();
+        }
+    }
+
+    private static boolean areAllFinished(Array<ScriptedInputHandler> handlers) {
+        for (ScriptedInputHandler handler : handlers) {
+            if (!handler.isFinished()) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
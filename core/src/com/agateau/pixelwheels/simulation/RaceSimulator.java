@@ -0,0 +1,190 @@
+/*
+ * Copyright 2019 Aurélien Gâteau <mail@agateau.com>
+ *
+ * This file is part of Pixel Wheels.
+ *
+ * Pixel Wheels is free software: you can redistribute it and/or modify it under
+ * the terms of the GNU General Public License as published by the Free
+ * Software Foundation, either version 3 of the License, or (at your option)
+ * any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License for
+ * more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.agateau.pixelwheels.simulation;
+
+import com.agateau.pixelwheels.Assets;
+import com.agateau.pixelwheels.GamePlay;
+import com.agateau.pixelwheels.GameWorld;
+import com.agateau.pixelwheels.debug.Debug;
+import com.agateau.pixelwheels.gamesetup.GameInfo;
+import com.agateau.pixelwheels.map.Track;
+import com.agateau.pixelwheels.racer.LapPositionComponent;
+import com.agateau.pixelwheels.racer.Racer;
+import com.agateau.pixelwheels.sound.AudioManager;
+import com.agateau.pixelwheels.sound.NoAudioManager;
+import com.agateau.pixelwheels.stats.GameStats;
+import com.agateau.pixelwheels.stats.GameStatsImpl;
+import com.agateau.utils.Assert;
+import com.agateau.utils.profiling.Profiler;
+import com.badlogic.gdx.utils.Array;
+
+/**
+ * Runs AI-only races without rendering nor audio, as fast as the CPU allows.
+ *
+ * Without a GL context, @p assets must have been created with Assets.createHeadless().
+ */
+public class RaceSimulator {
+    public static final float DEFAULT_MAX_DURATION = 10 * 60;
+
+    public static class RacerResult {
+        public final GameInfo.Entrant entrant;
+        public final int rank;
+        public final boolean finished;
+        public final float totalTime;
+        public final float bestLapTime;
+        public final int pickedBonusCount;
+
+        RacerResult(Racer racer, int rank) {
+            LapPositionComponent component = racer.getLapPositionComponent();
+            this.entrant = racer.getEntrant();
+            this.rank = rank;
+            this.finished = component.hasFinishedRace();
+            this.totalTime = component.getTotalTime();
+            this.bestLapTime = component.getBestLapTime();
+            this.pickedBonusCount = racer.getPickedBonusCount();
+        }
+    }
+
+    public static class Result {
+        /**
+         * Sorted by rank
+         */
+        public final Array<RacerResult> racers = new Array<>();
+        /**
+         * Simulated time, in seconds
+         */
+        public float duration;
+        public int stepCount;
+        /**
+         * True if the race did not finish within the maximum duration
+         */
+        public boolean timedOut;
+    }
+
+    private static class NoIO implements GameStatsImpl.IO {
+        @Override
+        public void setGameStats(GameStatsImpl gameStats) {
+        }
+
+        @Override
+        public void load() {
+        }
+
+        @Override
+        public void save() {
+        }
+
+        @Override
+        public void flush() {
+        }
+    }
+
+    private final Assets mAssets;
+    private final AudioManager mAudioManager = new NoAudioManager();
+    private final GameStats mGameStats = new GameStatsImpl(new NoIO());
+    private float mMaxDuration = DEFAULT_MAX_DURATION;
+    private GamePlay mGamePlay = GamePlay.instance;
+    private Debug mDebug = Debug.instance;
+    private long mSeed = 0;
+
+    public RaceSimulator(Assets assets) {
+        mAssets = assets;
+    }
+
+    /**
+     * Use @p gamePlay instead of GamePlay.instance. It must not change while a race is running.
+     */
+    public void setGamePlay(GamePlay gamePlay) {
+        mGamePlay = gamePlay;
+    }
+
+    /**
+     * Use @p debug instead of Debug.instance. It must not change while a race is running.
+     */
+    public void setDebug(Debug debug) {
+        mDebug = debug;
+    }
+
+    /**
+     * Seed of the random source of the worlds created from now on. Races with the same seed and
+     * the same entrants have the same result.
+     */
+    public void setSeed(long seed) {
+        mSeed = seed;
+    }
+
+    /**
+     * Races which take longer than @p seconds of simulated time are stopped
+     */
+    public void setMaxDuration(float seconds) {
+        mMaxDuration = seconds;
+    }
+
+    /**
+     * Creates a world for a simulated race on @p track, without running it. The caller must dispose
+     * the world.
+     */
+    public GameWorld createWorld(Track track, Array<GameInfo.Entrant> entrants) {
+        for (GameInfo.Entrant entrant : entrants) {
+            Assert.check(!entrant.isPlayer(), "Simulations only support AI entrants");
+        }
+        return createWorld(track, entrants, null);
+    }
+
+    /**
+     * Like createWorld(Track, Array), but player entrants are allowed: their pilots are created by
+     * @p playerPilotFactory
+     */
+    public GameWorld createWorld(Track track, Array<GameInfo.Entrant> entrants,
+                                 GameWorld.PlayerPilotFactory playerPilotFactory) {
+        Profiler profiler = new Profiler();
+        profiler.setEnabled(false);
+        return new GameWorld(mAssets, mAudioManager, mGameStats, playerPilotFactory,
+                mGamePlay, mDebug, mSeed, track, entrants, profiler);
+    }
+
+    /**
+     * Runs a race on @p track. The track is left initialized, so that it can be reused by the next
+     * run: call track.dispose() when done.
+     */
+    public Result run(Track track, Array<GameInfo.Entrant> entrants) {
+        GameWorld world = createWorld(track, entrants);
+        Result result = new Result();
+        float timeStep = world.getTimeStep();
+        try {
+            while (world.getState() != GameWorld.State.FINISHED) {
+                if (result.duration >= mMaxDuration) {
+                    result.timedOut = true;
+                    break;
+                }
+                world.act(timeStep);
+                result.duration += timeStep;
+                ++result.stepCount;
+            }
+            Array<Racer> racers = world.getRacers();
+            for (int idx = 0; idx < racers.size; ++idx) {
+                result.racers.add(new RacerResult(racers.get(idx), idx + 1));
+            }
+        } finally {
+            world.forgetTrack();
+            world.dispose();
+        }
+        return result;
+    }
+}
@@ -0,0 +1,90 @@
+/*
+ * Copyright 2019 Aurélien Gâteau <mail@agateau.com>
+ *
+ * This file is part of Pixel Wheels.
+ *
+ * Pixel Wheels is free software: you can redistribute it and/or modify it under
+ * the terms of the GNU General Public License as published by the Free
+ * Software Foundation, either version 3 of the License, or (at your option)
+ * any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License for
+ * more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.agateau.pixelwheels.sound;
+
+import com.badlogic.gdx.audio.Sound;
+
+/**
+ * An AudioManager which never plays anything, used for headless simulations
+ */
+public class NoAudioManager implements AudioManager {
+    @Override
+    public boolean isMuted() {
+        return true;
+    }
+
+    @Override
+    public void setMuted(boolean muted) {
+    }
+
+    @Override
+    public void play(Sound sound, float volume) {
+    }
+
+    @Override
+    public SoundPlayer createSoundPlayer(Sound sound) {
+        return new NoSoundPlayer();
+    }
+
+    private static class NoSoundPlayer implements SoundPlayer {
+        private float mVolume = 1;
+        private float mPitch = 1;
+        private boolean mLooping = false;
+
+        @Override
+        public void play() {
+            mLooping = false;
+        }
+
+        @Override
+        public void loop() {
+            mLooping = true;
+        }
+
+        @Override
+        public void stop() {
+            mLooping = false;
+        }
+
+        @Override
+        public float getVolume() {
+            return mVolume;
+        }
+
+        @Override
+        public void setVolume(float volume) {
+            mVolume = volume;
+        }
+
+        @Override
+        public float getPitch() {
+            return mPitch;
+        }
+
+        @Override
+        public void setPitch(float pitch) {
+            mPitch = pitch;
+        }
+
+        @Override
+        public boolean isLooping() {
+            return mLooping;
+        }
+    }
+}
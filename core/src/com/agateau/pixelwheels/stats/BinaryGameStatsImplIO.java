@@ -0,0 +1,448 @@
+/*
+ * Copyright 2019 Aurélien Gâteau <mail@agateau.com>
+ *
+ * This file is part of Pixel Wheels.
+ *
+ * Pixel Wheels is free software: you can redistribute it and/or modify it under
+ * the terms of the GNU General Public License as published by the Free
+ * Software Foundation, either version 3 of the License, or (at your option)
+ * any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License for
+ * more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.agateau.pixelwheels.stats;
+
+import com.agateau.utils.Assert;
+import com.agateau.utils.FileUtils;
+import com.agateau.utils.log.NLog;
+import com.badlogic.gdx.files.FileHandle;
+import com.badlogic.gdx.utils.GdxRuntimeException;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.zip.CRC32;
+
+/**
+ * Stores game stats in a compact, versioned binary file
+ *
+ * Format, big endian, strings are written with DataOutput.writeUTF():
+ *
+ *     int magic ("PWGS")
+ *     int version
+ *     int eventCount, then for each event: string id, int count
+ *     int championshipCount, then for each championship: string id, int best rank
+ *     int trackCount, then for each track: string id, lap results, total results
+ *
+ * where results are: int resultCount, then for each result: string vehicle, float value
+ *
+ * Most saves only change event counters, so write() does not rewrite the whole file for them:
+ * it appends the new values of the changed counters to a journal file, "<name>.journal":
+ *
+ *     int magic ("PWJL")
+ *     int CRC32 of the stats file content the journal applies to
+ *     then for each changed counter: string id, int new count
+ *
+ * load() applies the journal, then compacts it: it writes the stats file and deletes the journal.
+ * The CRC makes load() ignore a journal left behind if the app stopped between writing the stats
+ * file and deleting the journal. Appending can only tear the last record, which load() skips.
+ *
+ * The stats file itself is written to a temporary file, then replaced with it, so that it is never
+ * left half-written. This happens when something else than event counters changes, when the
+ * journal gets too long, and when compacting the journal.
+ *
+ * If the binary file does not exist but the legacy JSON file does, load() reads the JSON file and
+ * writes its content in the binary file. The JSON file is left untouched.
+ *
+ * If the binary file cannot be read (corrupted, or written by a newer version), load() renames it
+ * to "<name>.corrupt" so that it is not overwritten, then falls back to the legacy JSON file if
+ * there is one, or to empty stats. If it cannot even be renamed, nothing is ever written to it.
+ */
+public class BinaryGameStatsImplIO implements TwoStepIO<byte[]> {
+    private static final int MAGIC = 0x50574753;
+    private static final int VERSION = 1;
+    private static final int JOURNAL_MAGIC = 0x50574a4c;
+    private static final int MAX_JOURNAL_RECORD_COUNT = 256;
+    // Offsets of the event counts in the data returned by serialize(), indexed by Event.ordinal()
+    private static final int[] sEventCountOffsets = computeEventCountOffsets();
+
+    private final FileHandle mHandle;
+    private final FileHandle mLegacyJsonHandle;
+    private final FileHandle mJournalHandle;
+    private GameStatsImpl mGameStats;
+    // What the file and its journal contain
+    private byte[] mWrittenData;
+    // CRC32 of what the file contains
+    private int mFileCrc;
+    private int mJournalRecordCount = 0;
+    // Set if the file could neither be read nor moved aside
+    private boolean mReadOnly = false;
+
+    /**
+     * @p legacyJsonHandle can be null if there is nothing to migrate
+     */
+    public BinaryGameStatsImplIO(FileHandle handle, FileHandle legacyJsonHandle) {
+        mHandle = handle;
+        mLegacyJsonHandle = legacyJsonHandle;
+        mJournalHandle = handle.sibling(handle.name() + ".journal");
+    }
+
+    @Override
+    public void setGameStats(GameStatsImpl gameStats) {
+        mGameStats = gameStats;
+    }
+
+    @Override
+    public void load() {
+        Assert.check(mGameStats != null, "setGameStats() has not been called");
+        if (!mHandle.exists()) {
+            if (mLegacyJsonHandle != null && mLegacyJsonHandle.exists()) {
+                migrateLegacyJson();
+            }
+            return;
+        }
+        byte[] data;
+        try {
+            data = mHandle.readBytes();
+            read(new DataInputStream(new ByteArrayInputStream(data)));
+        } catch (IOException | RuntimeException e) {
+            NLog.e("Failed to read %s: %s", mHandle.path(), e);
+            resetGameStats();
+            if (!moveAside()) {
+                NLog.e("Failed to move %s aside, game stats will not be saved", mHandle.path());
+                mReadOnly = true;
+                return;
+            }
+            if (mLegacyJsonHandle != null && mLegacyJsonHandle.exists()) {
+                migrateLegacyJson();
+            }
+            return;
+        }
+        mWrittenData = data;
+        mFileCrc = computeCrc(data);
+        if (mJournalHandle.exists()) {
+            applyJournal();
+        }
+    }
+
+    /**
+     * Applies the journal on top of the loaded stats, then compacts it
+     */
+    private void applyJournal() {
+        int recordCount = 0;
+        try {
+            DataInputStream in = new DataInputStream(new ByteArrayInputStream(mJournalHandle.readBytes()));
+            if (in.readInt() != JOURNAL_MAGIC || in.readInt() != mFileCrc) {
+                NLog.i("Ignoring stale journal %s", mJournalHandle.path());
+                mJournalHandle.delete();
+                return;
+            }
+            while (in.available() > 0) {
+                String id = in.readUTF();
+                int count = in.readInt();
+                GameStats.Event event = findEvent(id);
+                if (event == null) {
+                    NLog.e("Skipping unknown event '%s'", id);
+                    continue;
+                }
+                mGameStats.mEventCounts[event.ordinal()] = count;
+                ++recordCount;
+            }
+        } catch (EOFException e) {
+            NLog.e("Skipping truncated record at the end of %s", mJournalHandle.path());
+        } catch (IOException | RuntimeException e) {
+            NLog.e("Failed to read %s after %d records: %s", mJournalHandle.path(), recordCount, e);
+        }
+        writeFile(serialize());
+    }
+
+    /**
+     * Renames the stats file to "<name>.corrupt", replacing any previous one, so that the next
+     * write does not destroy data which could perhaps be recovered
+     */
+    private boolean moveAside() {
+        FileHandle corruptHandle = mHandle.sibling(mHandle.name() + ".corrupt");
+        if (!FileUtils.replaceFile(mHandle, corruptHandle)) {
+            return false;
+        }
+        NLog.i("Moved unreadable game stats to %s", corruptHandle.path());
+        return true;
+    }
+
+    private void resetGameStats() {
+        Arrays.fill(mGameStats.mEventCounts, 0);
+        mGameStats.mBestChampionshipRank.clear();
+        mGameStats.mTrackStats.clear();
+    }
+
+    private void migrateLegacyJson() {
+        JsonGameStatsImplIO jsonIO = new JsonGameStatsImplIO(mLegacyJsonHandle);
+        jsonIO.setGameStats(mGameStats);
+        jsonIO.load();
+        write(serialize());
+        NLog.i("Migrated game stats from %s to %s", mLegacyJsonHandle.path(), mHandle.path());
+    }
+
+    @Override
+    public void save() {
+        write(serialize());
+    }
+
+    @Override
+    public void flush() {
+        // save() writes synchronously, nothing to do
+    }
+
+    @Override
+    public byte[] serialize() {
+        Assert.check(mGameStats != null, "setGameStats() has not been called");
+        ByteArrayOutputStream byteStream = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(byteStream);
+        try {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            writeEventCounts(out, mGameStats.mEventCounts);
+            writeStringIntMap(out, mGameStats.mBestChampionshipRank);
+            out.writeInt(mGameStats.mTrackStats.size());
+            for (Map.Entry<String, TrackStats> kv : mGameStats.mTrackStats.entrySet()) {
+                out.writeUTF(kv.getKey());
+                writeResults(out, kv.getValue().mLapRecords);
+                writeResults(out, kv.getValue().mTotalRecords);
+            }
+            out.flush();
+        } catch (IOException e) {
+            // Cannot happen when writing to memory
+            throw new RuntimeException(e);
+        }
+        return byteStream.toByteArray();
+    }
+
+    @Override
+    public void write(byte[] data) {
+        if (mReadOnly || Arrays.equals(data, mWrittenData)) {
+            return;
+        }
+        if (mWrittenData != null && mJournalRecordCount < MAX_JOURNAL_RECORD_COUNT
+                && onlyEventCountsDiffer(mWrittenData, data)) {
+            if (appendToJournal(data)) {
+                return;
+            }
+        }
+        writeFile(data);
+    }
+
+    private void writeFile(byte[] data) {
+        FileHandle tmpHandle = mHandle.sibling(mHandle.name() + ".tmp");
+        tmpHandle.writeBytes(data, false /* append */);
+        if (!FileUtils.replaceFile(tmpHandle, mHandle)) {
+            // Keep mWrittenData as is so that the next write tries again
+            return;
+        }
+        mWrittenData = data;
+        mFileCrc = computeCrc(data);
+        // If this fails, the journal CRC no longer matches, so load() ignores it anyway
+        mJournalHandle.delete();
+        mJournalRecordCount = 0;
+    }
+
+    /**
+     * Appends the event counts which differ between mWrittenData and @p data to the journal,
+     * starting a new journal if there is none
+     */
+    private boolean appendToJournal(byte[] data) {
+        ByteArrayOutputStream byteStream = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(byteStream);
+        int recordCount = 0;
+        try {
+            if (mJournalRecordCount == 0) {
+                out.writeInt(JOURNAL_MAGIC);
+                out.writeInt(mFileCrc);
+            }
+            ByteBuffer oldBuffer = ByteBuffer.wrap(mWrittenData);
+            ByteBuffer newBuffer = ByteBuffer.wrap(data);
+            GameStats.Event[] events = GameStats.Event.values();
+            for (int idx = 0; idx < events.length; ++idx) {
+                int count = newBuffer.getInt(sEventCountOffsets[idx]);
+                if (count != oldBuffer.getInt(sEventCountOffsets[idx])) {
+                    out.writeUTF(events[idx].toString());
+                    out.writeInt(count);
+                    ++recordCount;
+                }
+            }
+            out.flush();
+        } catch (IOException e) {
+            // Cannot happen when writing to memory
+            throw new RuntimeException(e);
+        }
+        try {
+            // Not appending when starting a new journal overwrites any stale one
+            mJournalHandle.writeBytes(byteStream.toByteArray(), mJournalRecordCount > 0 /* append */);
+        } catch (GdxRuntimeException e) {
+            NLog.e("Failed to append to %s: %s", mJournalHandle.path(), e);
+            return false;
+        }
+        mJournalRecordCount += recordCount;
+        mWrittenData = data;
+        return true;
+    }
+
+    /**
+     * Returns true if @p data1 and @p data2 only differ by their event counts
+     */
+    private static boolean onlyEventCountsDiffer(byte[] data1, byte[] data2) {
+        if (data1.length != data2.length) {
+            return false;
+        }
+        int start = 0;
+        for (int offset : sEventCountOffsets) {
+            if (!rangeEquals(data1, data2, start, offset)) {
+                return false;
+            }
+            start = offset + 4;
+        }
+        return rangeEquals(data1, data2, start, data1.length);
+    }
+
+    private static boolean rangeEquals(byte[] data1, byte[] data2, int start, int end) {
+        for (int idx = start; idx < end; ++idx) {
+            if (data1[idx] != data2[idx]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static int computeCrc(byte[] data) {
+        CRC32 crc = new CRC32();
+        crc.update(data);
+        return (int)crc.getValue();
+    }
+
+    /**
+     * Must match what serialize() writes
+     */
+    private static int[] computeEventCountOffsets() {
+        GameStats.Event[] events = GameStats.Event.values();
+        int[] offsets = new int[events.length];
+        DataOutputStream out = new DataOutputStream(new ByteArrayOutputStream());
+        try {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeInt(events.length);
+            for (GameStats.Event event : events) {
+                out.writeUTF(event.toString());
+                offsets[event.ordinal()] = out.size();
+                out.writeInt(0);
+            }
+        } catch (IOException e) {
+            // Cannot happen when writing to memory
+            throw new RuntimeException(e);
+        }
+        return offsets;
+    }
+
+    private void read(DataInputStream in) throws IOException {
+        if (in.readInt() != MAGIC) {
+            throw new IOException("Not a game stats file");
+        }
+        int version = in.readInt();
+        if (version != VERSION) {
+            throw new IOException("Unsupported game stats version " + version);
+        }
+        readEventCounts(in, mGameStats.mEventCounts);
+        readStringIntMap(in, mGameStats.mBestChampionshipRank);
+        mGameStats.mTrackStats.clear();
+        int trackCount = in.readInt();
+        for (int idx = 0; idx < trackCount; ++idx) {
+            String trackId = in.readUTF();
+            TrackStats trackStats = new TrackStats(mGameStats);
+            readResults(in, trackStats.mLapRecords);
+            readResults(in, trackStats.mTotalRecords);
+            mGameStats.mTrackStats.put(trackId, trackStats);
+        }
+    }
+
+    /**
+     * Writes all the events, even those which have never been recorded, so that recording one
+     * only changes its count, which write() can then append to the journal
+     */
+    private static void writeEventCounts(DataOutputStream out, int[] counts) throws IOException {
+        GameStats.Event[] events = GameStats.Event.values();
+        out.writeInt(events.length);
+        for (GameStats.Event event : events) {
+            out.writeUTF(event.toString());
+            out.writeInt(counts[event.ordinal()]);
+        }
+    }
+
+    private static void readEventCounts(DataInputStream in, int[] counts) throws IOException {
+        Arrays.fill(counts, 0);
+        int count = in.readInt();
+        for (int idx = 0; idx < count; ++idx) {
+            String id = in.readUTF();
+            int value = in.readInt();
+            GameStats.Event event = findEvent(id);
+            if (event == null) {
+                NLog.e("Skipping unknown event '%s'", id);
+                continue;
+            }
+            counts[event.ordinal()] = value;
+        }
+    }
+
+    private static GameStats.Event findEvent(String id) {
+        for (GameStats.Event event : GameStats.Event.values()) {
+            if (event.toString().equals(id)) {
+                return event;
+            }
+        }
+        return null;
+    }
+
+    private static void writeStringIntMap(DataOutputStream out, Map<String, Integer> map) throws IOException {
+        out.writeInt(map.size());
+        for (Map.Entry<String, Integer> kv : map.entrySet()) {
+            out.writeUTF(kv.getKey());
+            out.writeInt(kv.getValue());
+        }
+    }
+
+    private static void readStringIntMap(DataInputStream in, Map<String, Integer> map) throws IOException {
+        map.clear();
+        int count = in.readInt();
+        for (int idx = 0; idx < count; ++idx) {
+            String id = in.readUTF();
+            map.put(id, in.readInt());
+        }
+    }
+
+    private static void writeResults(DataOutputStream out, ArrayList<TrackResult> results) throws IOException {
+        out.writeInt(results.size());
+        for (TrackResult result : results) {
+            out.writeUTF(result.vehicle);
+            out.writeFloat(result.value);
+        }
+    }
+
+    private static void readResults(DataInputStream in, ArrayList<TrackResult> results) throws IOException {
+        results.clear();
+        int count = in.readInt();
+        for (int idx = 0; idx < count; ++idx) {
+            String vehicle = in.readUTF();
+            results.add(new TrackResult(vehicle, in.readFloat()));
+        }
+    }
+}
@@ -47,4 +47,10 @@ public interface GameStats {
     int getEventCount(Event event);
 
     void save();
+
+    /**
+     * Writes changes which save() may have deferred. Called outside of races: at the end of a
+     * race, when changing screens or when the game is paused.
+     */
+    void flush();
 }
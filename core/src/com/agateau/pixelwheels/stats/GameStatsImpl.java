@@ -29,12 +29,18 @@ public class GameStatsImpl implements GameStats {
     private transient Listener mListener;
     final HashMap<String, TrackStats> mTrackStats = new HashMap<>();
     final HashMap<String, Integer> mBestChampionshipRank = new HashMap<>();
-    final HashMap<String, Integer> mEvents = new HashMap<>();
+    // Indexed by Event.ordinal(), IO implementations take care of mapping them to event names
+    final int[] mEventCounts = new int[Event.values().length];
 
     public interface IO {
         void setGameStats(GameStatsImpl gameStats);
         void load();
         void save();
+
+        /**
+         * Makes sure everything passed to save() is written
+         */
+        void flush();
     }
 
     public GameStatsImpl(IO io) {
@@ -70,6 +76,7 @@ public class GameStatsImpl implements GameStats {
         if (currentBest == null || currentBest > rank) {
             mBestChampionshipRank.put(championship.getId(), rank);
             save();
+            flush();
         }
     }
 
@@ -80,24 +87,19 @@ public class GameStatsImpl implements GameStats {
 
     @Override
     public void recordIntEvent(Event event, int value) {
-        String id = event.toString();
-        Integer count = mEvents.get(id);
-        if (count == null) {
-            count = 0;
-        }
+        int count = mEventCounts[event.ordinal()];
         int newCount = count + value;
         if (newCount < count) {
             // Do not wrap around
             newCount = Integer.MAX_VALUE;
         }
-        mEvents.put(id, newCount);
+        mEventCounts[event.ordinal()] = newCount;
         save();
     }
 
     @Override
     public int getEventCount(Event event) {
-        //noinspection ConstantConditions
-        return CollectionUtils.getOrDefault(mEvents, event.toString(), 0);
+        return mEventCounts[event.ordinal()];
     }
 
     public void save() {
@@ -106,4 +108,9 @@ public class GameStatsImpl implements GameStats {
         }
         mIO.save();
     }
+
+    @Override
+    public void flush() {
+        mIO.flush();
+    }
 }
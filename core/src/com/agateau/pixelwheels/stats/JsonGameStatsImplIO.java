@@ -19,6 +19,7 @@
 package com.agateau.pixelwheels.stats;
 
 import com.agateau.utils.Assert;
+import com.agateau.utils.FileUtils;
 import com.badlogic.gdx.files.FileHandle;
 import com.google.gson.Gson;
 import com.google.gson.GsonBuilder;
@@ -28,9 +29,10 @@ import com.google.gson.JsonObject;
 import com.google.gson.JsonParser;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Map;
 
-public class JsonGameStatsImplIO implements GameStatsImpl.IO {
+public class JsonGameStatsImplIO implements TwoStepIO<String> {
     private final FileHandle mHandle;
     private GameStatsImpl mGameStats;
     private final Gson mGson = new GsonBuilder().setPrettyPrinting().create();
@@ -62,7 +64,7 @@ public class JsonGameStatsImplIO implements GameStatsImpl.IO {
             loadTrackStats(trackStats, kv.getValue().getAsJsonObject());
         }
         loadStringIntMap(mGameStats.mBestChampionshipRank, root.getAsJsonObject("bestChampionshipRank"));
-        loadStringIntMap(mGameStats.mEvents, root.getAsJsonObject("events"));
+        loadEventCounts(mGameStats.mEventCounts, root.getAsJsonObject("events"));
     }
 
     private void loadTrackStats(TrackStats trackStats, JsonObject object) {
@@ -82,6 +84,19 @@ public class JsonGameStatsImplIO implements GameStatsImpl.IO {
         }
     }
 
+    private static void loadEventCounts(int[] counts, JsonObject object) {
+        Arrays.fill(counts, 0);
+        if (object == null) {
+            return;
+        }
+        for (GameStats.Event event : GameStats.Event.values()) {
+            JsonElement element = object.get(event.toString());
+            if (element != null) {
+                counts[event.ordinal()] = element.getAsInt();
+            }
+        }
+    }
+
     private void loadResults(ArrayList<TrackResult> results, JsonArray array) {
         results.clear();
         for (JsonElement element : array) {
@@ -92,6 +107,16 @@ public class JsonGameStatsImplIO implements GameStatsImpl.IO {
 
     @Override
     public void save() {
+        write(serialize());
+    }
+
+    @Override
+    public void flush() {
+        // save() writes synchronously, nothing to do
+    }
+
+    @Override
+    public String serialize() {
         Assert.check(mGameStats != null, "setGameStats() has not been called");
         JsonObject root = new JsonObject();
         JsonObject trackStatsObject = new JsonObject();
@@ -101,9 +126,24 @@ public class JsonGameStatsImplIO implements GameStatsImpl.IO {
         }
 
         root.add("bestChampionshipRank", mGson.toJsonTree(mGameStats.mBestChampionshipRank));
-        root.add("events", mGson.toJsonTree(mGameStats.mEvents));
-        String json = mGson.toJson(root);
-        mHandle.writeString(json, false /* append */);
+        JsonObject eventsObject = new JsonObject();
+        for (GameStats.Event event : GameStats.Event.values()) {
+            eventsObject.addProperty(event.toString(), mGameStats.mEventCounts[event.ordinal()]);
+        }
+        root.add("events", eventsObject);
+        return mGson.toJson(root);
+    }
+
+    /**
+     * Writes @p json to a temporary file, then renames it over the stats file, so that the stats
+     * file is never left half-written
+     */
+    @Override
+    public void write(String json) {
+        FileHandle tmpHandle = mHandle.sibling(mHandle.name() + ".tmp");
+        tmpHandle.writeString(json, false /* append */, "UTF-8");
+        // replaceFile() logs failures, the next write tries again
+        FileUtils.replaceFile(tmpHandle, mHandle);
     }
 
     private JsonObject createJsonForTrack(TrackStats trackStats) {
@@ -0,0 +1,32 @@
+/*
+ * Copyright 2019 Aurélien Gâteau <mail@agateau.com>
+ *
+ * This file is part of Pixel Wheels.
+ *
+ * Pixel Wheels is free software: you can redistribute it and/or modify it under
+ * the terms of the GNU General Public License as published by the Free
+ * Software Foundation, either version 3 of the License, or (at your option)
+ * any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License for
+ * more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.agateau.pixelwheels.stats;
+
+/**
+ * A GameStatsImpl.IO whose save() is split in two steps, so that WriteBehindGameStatsImplIO can do
+ * the second one on a background thread:
+ *
+ * - serialize(), which must be called from the thread modifying the stats
+ * - write(), which can be called from any thread, but only one at a time
+ */
+public interface TwoStepIO<T> extends GameStatsImpl.IO {
+    T serialize();
+
+    void write(T data);
+}
@@ -0,0 +1,132 @@
+/*
+ * Copyright 2019 Aurélien Gâteau <mail@agateau.com>
+ *
+ * This file is part of Pixel Wheels.
+ *
+ * Pixel Wheels is free software: you can redistribute it and/or modify it under
+ * the terms of the GNU General Public License as published by the Free
+ * Software Foundation, either version 3 of the License, or (at your option)
+ * any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License for
+ * more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.agateau.pixelwheels.stats;
+
+import com.agateau.utils.log.NLog;
+import com.badlogic.gdx.utils.Disposable;
+
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Wraps a TwoStepIO so that saving never blocks the game on disk access
+ *
+ * save() only marks the stats as changed: events are recorded in the middle of races, where even
+ * serializing the stats could cause a frame hitch. The stats are serialized by flush(), which must
+ * only be called at points where this does not matter (end of race, screen change, pause...), then
+ * written by a background thread. If writes pile up while the thread is busy, only the most recent
+ * one is written.
+ */
+public class WriteBehindGameStatsImplIO<T> implements GameStatsImpl.IO, Disposable {
+    private static final long WAIT_TIMEOUT_MS = 5000;
+
+    private final TwoStepIO<T> mIO;
+    private final ExecutorService mExecutor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "gamestats-writer");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private final AtomicReference<T> mPendingData = new AtomicReference<>();
+    private boolean mDirty = false;
+
+    public WriteBehindGameStatsImplIO(TwoStepIO<T> io) {
+        mIO = io;
+    }
+
+    @Override
+    public void setGameStats(GameStatsImpl gameStats) {
+        mIO.setGameStats(gameStats);
+    }
+
+    @Override
+    public void load() {
+        mIO.load();
+    }
+
+    @Override
+    public void save() {
+        mDirty = true;
+    }
+
+    @Override
+    public void flush() {
+        if (!mDirty) {
+            return;
+        }
+        mDirty = false;
+        // Serialize here: the stats are not thread-safe
+        T data = mIO.serialize();
+        if (mPendingData.getAndSet(data) == null) {
+            // No write queued, queue one. Otherwise the queued write picks the new data.
+            mExecutor.execute(this::writePendingData);
+        }
+    }
+
+    /**
+     * Like flush(), but waits for the data to be written, for when the process may be killed
+     * right after
+     */
+    public void flushAndWait() {
+        flush();
+        // The executor has a single thread, so this task runs after any queued write
+        try {
+            mExecutor.submit(() -> {}).get(WAIT_TIMEOUT_MS, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            NLog.e("Timed out while writing game stats");
+        } catch (ExecutionException e) {
+            NLog.e("Failed to wait for game stats: %s", e);
+        } catch (InterruptedException e) {
+            NLog.e("Interrupted while writing game stats");
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void writePendingData() {
+        T data = mPendingData.getAndSet(null);
+        if (data == null) {
+            return;
+        }
+        try {
+            mIO.write(data);
+        } catch (RuntimeException e) {
+            NLog.e("Failed to write game stats: %s", e);
+        }
+    }
+
+    /**
+     * Flushes pending changes and waits for them to be written
+     */
+    @Override
+    public void dispose() {
+        flush();
+        mExecutor.shutdown();
+        try {
+            if (!mExecutor.awaitTermination(WAIT_TIMEOUT_MS, TimeUnit.MILLISECONDS)) {
+                NLog.e("Timed out while writing game stats");
+            }
+        } catch (InterruptedException e) {
+            NLog.e("Interrupted while writing game stats");
+            Thread.currentThread().interrupt();
+        }
+    }
+}
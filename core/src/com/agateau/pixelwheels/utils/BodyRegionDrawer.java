@@ -39,6 +39,7 @@ public class BodyRegionDrawer {
     private float mScale = 1;
     private float mOffsetX = 0;
     private float mOffsetY = 0;
+    private float mInterpolationAlpha = 1;
 
     public void setBatch(Batch batch) {
         mBatch = batch;
@@ -71,11 +72,27 @@ public class BodyRegionDrawer {
         mOffsetY = y;
     }
 
+    /**
+     * Defines where interpolated bodies are drawn between their previous and current transforms,
+     * see GameWorld.getInterpolationAlpha()
+     */
+    public void setInterpolationAlpha(float alpha) {
+        mInterpolationAlpha = alpha;
+    }
+
     public void draw(Body body, TextureRegion region) {
         Vector2 center = body.getPosition();
-        float angle = body.getAngle();
-        float x = center.x + mOffsetX * MathUtils.cos(angle) - mOffsetY * MathUtils.sin(angle);
-        float y = center.y + mOffsetX * MathUtils.sin(angle) + mOffsetY * MathUtils.cos(angle);
+        draw(center.x, center.y, body.getAngle(), region);
+    }
+
+    public void draw(InterpolatedBody body, TextureRegion region) {
+        draw(body.getX(mInterpolationAlpha), body.getY(mInterpolationAlpha),
+                body.getAngle(mInterpolationAlpha), region);
+    }
+
+    private void draw(float centerX, float centerY, float angle, TextureRegion region) {
+        float x = centerX + mOffsetX * MathUtils.cos(angle) - mOffsetY * MathUtils.sin(angle);
+        float y = centerY + mOffsetX * MathUtils.sin(angle) + mOffsetY * MathUtils.cos(angle);
         float w = Constants.UNIT_FOR_PIXEL * region.getRegionWidth();
         float h = Constants.UNIT_FOR_PIXEL * region.getRegionHeight();
         mBatch.draw(region,
@@ -88,11 +105,20 @@ public class BodyRegionDrawer {
 
     public void drawShadow(Body body, TextureRegion region) {
         Vector2 center = body.getPosition();
-        float angle = body.getAngle() * MathUtils.radiansToDegrees;
+        drawShadow(center.x, center.y, body.getAngle(), region);
+    }
+
+    public void drawShadow(InterpolatedBody body, TextureRegion region) {
+        drawShadow(body.getX(mInterpolationAlpha), body.getY(mInterpolationAlpha),
+                body.getAngle(mInterpolationAlpha), region);
+    }
+
+    private void drawShadow(float centerX, float centerY, float bodyAngle, TextureRegion region) {
+        float angle = bodyAngle * MathUtils.radiansToDegrees;
         float offset = (SHADOW_OFFSET_PX + mZ * Z_MAX_SHADOW_OFFSET_PX + (mScale - 1) * SCALE_MAX_SHADOW_OFFSET_PX)
                 * Constants.UNIT_FOR_PIXEL;
-        float x = center.x + offset;
-        float y = center.y - offset;
+        float x = centerX + offset;
+        float y = centerY - offset;
         float w = Constants.UNIT_FOR_PIXEL * region.getRegionWidth();
         float h = Constants.UNIT_FOR_PIXEL * region.getRegionHeight();
         Color old = mBatch.getColor();
@@ -0,0 +1,77 @@
+/*
+ * Copyright 2019 Aurélien Gâteau <mail@agateau.com>
+ *
+ * This file is part of Pixel Wheels.
+ *
+ * Pixel Wheels is free software: you can redistribute it and/or modify it under
+ * the terms of the GNU General Public License as published by the Free
+ * Software Foundation, either version 3 of the License, or (at your option)
+ * any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License for
+ * more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.agateau.pixelwheels.utils;
+
+import com.badlogic.gdx.math.Vector2;
+import com.badlogic.gdx.physics.box2d.Body;
+
+/**
+ * Keeps the transform a Box2D body had before the last physics step, so that it can be drawn
+ * between the previous and the current step
+ */
+public class InterpolatedBody {
+    private Body mBody;
+    private float mPreviousX;
+    private float mPreviousY;
+    private float mPreviousAngle;
+
+    public Body getBody() {
+        return mBody;
+    }
+
+    /**
+     * Sets the body to follow. Its current transform is used as the previous transform
+     */
+    public void setBody(Body body) {
+        mBody = body;
+        if (body != null) {
+            storePreviousTransform();
+        }
+    }
+
+    /**
+     * Must be called before each physics step
+     */
+    public void storePreviousTransform() {
+        Vector2 pos = mBody.getPosition();
+        mPreviousX = pos.x;
+        mPreviousY = pos.y;
+        mPreviousAngle = mBody.getAngle();
+    }
+
+    /**
+     * Returns the X coordinate of the body at @p alpha, where 0 is the previous step and 1 the current one
+     */
+    public float getX(float alpha) {
+        return mPreviousX + (mBody.getPosition().x - mPreviousX) * alpha;
+    }
+
+    public float getY(float alpha) {
+        return mPreviousY + (mBody.getPosition().y - mPreviousY) * alpha;
+    }
+
+    /**
+     * Returns the angle of the body in radians at @p alpha
+     *
+     * Box2D angles are not wrapped, so a plain linear interpolation is fine
+     */
+    public float getAngle(float alpha) {
+        return mPreviousAngle + (mBody.getAngle() - mPreviousAngle) * alpha;
+    }
+}
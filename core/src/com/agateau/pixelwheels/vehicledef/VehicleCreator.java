@@ -20,7 +20,6 @@ package com.agateau.pixelwheels.vehicledef;
 
 import com.agateau.pixelwheels.Assets;
 import com.agateau.pixelwheels.Constants;
-import com.agateau.pixelwheels.GamePlay;
 import com.agateau.pixelwheels.GameWorld;
 import com.agateau.pixelwheels.racer.Vehicle;
 import com.badlogic.gdx.graphics.g2d.TextureRegion;
@@ -41,7 +40,7 @@ public class VehicleCreator {
     private final Vector2 sWheelPos = new Vector2();
     public Vehicle create(VehicleDef vehicleDef, Vector2 position, float angle) {
         final float U = Constants.UNIT_FOR_PIXEL;
-        float maxDrivingForce = GamePlay.instance.maxDrivingForce * vehicleDef.speed;
+        float maxDrivingForce = mGameWorld.getGamePlay().maxDrivingForce * vehicleDef.speed;
 
         TextureRegion mainRegion = mAssets.findRegion("vehicles/" + vehicleDef.mainImage);
         TextureRegion wheelRegion = mAssets.wheel;
@@ -50,7 +49,10 @@ public class VehicleCreator {
         vehicle.setName(vehicleDef.name);
         vehicle.setId(vehicleDef.id);
 
-        for (AxleDef axle : vehicleDef.axles) {
+        // Vehicle definitions are shared by the threads of batch simulations: use indices, Array
+        // iterators are not thread safe
+        for (int idx = 0; idx < vehicleDef.axles.size; ++idx) {
+            AxleDef axle = vehicleDef.axles.get(idx);
             /*
               axle assumes the vehicle is facing top, like this:
 
@@ -0,0 +1,76 @@
+/*
+ * Copyright 2019 Aurélien Gâteau <mail@agateau.com>
+ *
+ * This file is part of Pixel Wheels.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License.
+ *
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package com.agateau.ui;
+
+import com.badlogic.gdx.graphics.GL20;
+import com.badlogic.gdx.graphics.Texture;
+import com.badlogic.gdx.graphics.TextureData;
+import com.badlogic.gdx.graphics.glutils.GLOnlyTextureData;
+
+/**
+ * A texture which only knows its size: nothing is decoded nor uploaded to the GPU.
+ *
+ * Regions created from it have the right sizes, which is all the game logic needs, so it can be
+ * used to run the game without a GL context.
+ */
+public class SizeOnlyTexture extends Texture {
+    private final int mWidth;
+    private final int mHeight;
+
+    public SizeOnlyTexture(int width, int height) {
+        super(GL20.GL_TEXTURE_2D, 0 /* glHandle */,
+                new GLOnlyTextureData(width, height, 0, GL20.GL_RGBA, GL20.GL_RGBA, GL20.GL_UNSIGNED_BYTE));
+        mWidth = width;
+        mHeight = height;
+    }
+
+    @Override
+    public void load(TextureData data) {
+    }
+
+    @Override
+    public int getWidth() {
+        return mWidth;
+    }
+
+    @Override
+    public int getHeight() {
+        return mHeight;
+    }
+
+    @Override
+    public void bind() {
+    }
+
+    @Override
+    public void bind(int unit) {
+    }
+
+    @Override
+    public void setFilter(TextureFilter minFilter, TextureFilter magFilter) {
+        this.minFilter = minFilter;
+        this.magFilter = magFilter;
+    }
+
+    @Override
+    public void setWrap(TextureWrap u, TextureWrap v) {
+        this.uWrap = u;
+        this.vWrap = v;
+    }
+}
@@ -20,22 +20,42 @@ package com.agateau.ui;
 
 import com.badlogic.gdx.files.FileHandle;
 import com.badlogic.gdx.graphics.g2d.TextureAtlas;
+import com.agateau.utils.Assert;
 import com.badlogic.gdx.utils.Array;
 
-import java.util.HashMap;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * An atlas which:
  * - fails immediately when it does not find a region
  * - cache the found regions
+ *
+ * findRegion() can be called from several threads: BatchRaceRunner workers share the same
+ * Assets instance.
  */
 public class StrictTextureAtlas extends TextureAtlas {
-    private final HashMap<String, TextureAtlas.AtlasRegion> mRegions = new HashMap<>();
+    private final ConcurrentHashMap<String, TextureAtlas.AtlasRegion> mRegions = new ConcurrentHashMap<>();
 
     public StrictTextureAtlas(FileHandle handle) {
         super(handle);
     }
 
+    public StrictTextureAtlas(TextureAtlas.TextureAtlasData data) {
+        super(data);
+    }
+
+    /**
+     * Creates an atlas whose pages are SizeOnlyTexture instances, for use without a GL context
+     */
+    public static StrictTextureAtlas createTextureFree(FileHandle handle) {
+        TextureAtlas.TextureAtlasData data = new TextureAtlas.TextureAtlasData(handle, handle.parent(), false);
+        for (TextureAtlas.TextureAtlasData.Page page : data.getPages()) {
+            Assert.check(page.width > 0 && page.height > 0, "Atlas page " + page.textureFile + " has no size");
+            page.texture = new SizeOnlyTexture((int)page.width, (int)page.height);
+        }
+        return new StrictTextureAtlas(data);
+    }
+
     @Override
     public TextureAtlas.AtlasRegion findRegion(String name) {
         TextureAtlas.AtlasRegion region = mRegions.get(name);
@@ -107,14 +107,22 @@ public class AgcMathUtils {
      * @return the projected point. Vector is reused.
      */
     public static Vector2 project(Vector2 a, Vector2 pos1, Vector2 pos2) {
-        sTmpVector.set(pos2).sub(pos1).nor();
-        float vx = sTmpVector.x;
-        float vy = sTmpVector.y;
+        return project(a, pos1, pos2, sTmpVector);
+    }
+
+    /**
+     * Same as project(Vector2, Vector2, Vector2), but stores the result in @p out. Safe to call
+     * from several threads.
+     */
+    public static Vector2 project(Vector2 a, Vector2 pos1, Vector2 pos2, Vector2 out) {
+        out.set(pos2).sub(pos1).nor();
+        float vx = out.x;
+        float vy = out.y;
 
         float pos1ToH = (a.x - pos1.x) * vx + (a.y - pos1.y) * vy;
-        sTmpVector.x = pos1.x + pos1ToH * vx;
-        sTmpVector.y = pos1.y + pos1ToH * vy;
-        return sTmpVector;
+        out.x = pos1.x + pos1ToH * vx;
+        out.y = pos1.y + pos1ToH * vy;
+        return out;
     }
 
     /**
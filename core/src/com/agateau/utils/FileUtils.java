@@ -19,11 +19,14 @@
 package com.agateau.utils;
 
 import com.agateau.utils.log.NLog;
+import com.badlogic.gdx.Application;
 import com.badlogic.gdx.Gdx;
 import com.badlogic.gdx.files.FileHandle;
 import com.badlogic.gdx.utils.XmlReader;
 
 import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
 
 public class FileUtils {
     public static String appName = "unnamed";
@@ -51,6 +54,32 @@ public class FileUtils {
         return handle;
     }
 
+    /**
+     * Atomically renames @p src to @p dst, replacing @p dst if it exists: @p dst is never left
+     * half-written. @p src and @p dst must be on the same file system.
+     *
+     * Returns false if the rename failed. In this case @p dst is left untouched.
+     */
+    public static boolean replaceFile(FileHandle src, FileHandle dst) {
+        if (Gdx.app != null && Gdx.app.getType() == Application.ApplicationType.Android) {
+            // java.nio.file is not available before API 26, but on Android renameTo() calls
+            // rename(2), which atomically replaces its target
+            if (!src.file().renameTo(dst.file())) {
+                NLog.e("Failed to rename %s to %s", src.path(), dst.path());
+                return false;
+            }
+            return true;
+        }
+        try {
+            Files.move(src.file().toPath(), dst.file().toPath(),
+                    StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            return true;
+        } catch (IOException e) {
+            NLog.e("Failed to rename %s to %s: %s", src.path(), dst.path(), e);
+            return false;
+        }
+    }
+
     public static FileHandle assets(String path) {
         return Gdx.files.internal(path);
     }
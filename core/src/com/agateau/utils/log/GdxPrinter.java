@@ -38,6 +38,11 @@ public class GdxPrinter implements NLog.Printer {
         Gdx.app.setLogLevel(Application.LOG_DEBUG);
     }
 
+    @Override
+    public boolean isLoggable(int level) {
+        return level <= Gdx.app.getLogLevel();
+    }
+
     @Override
     public void print(int level, String tag, String message) {
         tag = mPrefix + tag;
@@ -0,0 +1,105 @@
+/*
+ * Copyright 2019 Aurélien Gâteau <mail@agateau.com>
+ *
+ * This file is part of Pixel Wheels.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License.
+ *
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package com.agateau.utils.log;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A bounded, lock-free, multiple-producers single-consumer queue of log entries.
+ *
+ * Entries are allocated once and reused. Each slot holds a sequence number telling whether it is
+ * ready to be written by a producer or to be read by the consumer.
+ */
+class LogRingBuffer {
+    static class Entry {
+        volatile long sequence;
+        int level;
+        String tag;
+        String message;
+    }
+
+    private final Entry[] mEntries;
+    private final int mMask;
+    private final AtomicLong mTail = new AtomicLong();
+    private volatile long mHead = 0;
+
+    /**
+     * @p capacity must be a power of two
+     */
+    LogRingBuffer(int capacity) {
+        if (Integer.bitCount(capacity) != 1) {
+            throw new IllegalArgumentException("Capacity must be a power of two, got " + capacity);
+        }
+        mEntries = new Entry[capacity];
+        mMask = capacity - 1;
+        for (int idx = 0; idx < capacity; ++idx) {
+            mEntries[idx] = new Entry();
+            mEntries[idx].sequence = idx;
+        }
+    }
+
+    /**
+     * Adds an entry, can be called from any thread.
+     *
+     * Returns false if the buffer is full
+     */
+    boolean offer(int level, String tag, String message) {
+        long pos = mTail.get();
+        Entry entry;
+        while (true) {
+            entry = mEntries[(int)(pos & mMask)];
+            long diff = entry.sequence - pos;
+            if (diff == 0) {
+                if (mTail.compareAndSet(pos, pos + 1)) {
+                    break;
+                }
+                pos = mTail.get();
+            } else if (diff < 0) {
+                return false;
+            } else {
+                pos = mTail.get();
+            }
+        }
+        entry.level = level;
+        entry.tag = tag;
+        entry.message = message;
+        entry.sequence = pos + 1;
+        return true;
+    }
+
+    /**
+     * Returns the oldest entry, or null if the buffer is empty. Must only be called from the
+     * consumer thread. The entry must be passed to release() once it has been processed.
+     */
+    Entry peek() {
+        Entry entry = mEntries[(int)(mHead & mMask)];
+        return entry.sequence == mHead + 1 ? entry : null;
+    }
+
+    void release(Entry entry) {
+        entry.tag = null;
+        entry.message = null;
+        entry.sequence = mHead + mEntries.length;
+        ++mHead;
+    }
+
+    boolean isEmpty() {
+        return mTail.get() == mHead;
+    }
+}
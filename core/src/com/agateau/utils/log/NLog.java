@@ -18,15 +18,54 @@
  */
 package com.agateau.utils.log;
 
-import java.util.Vector;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
 
 import com.badlogic.gdx.Application;
 
+/**
+ * Logging facility.
+ *
+ * Callers never block on printers: messages are queued in a ring buffer and printed by a
+ * background thread. Messages are only formatted if a printer accepts their level, and each call
+ * site (source file and line) can only print MAX_MESSAGES_PER_PERIOD messages per
+ * RATE_LIMIT_PERIOD_MS. Call sites are cached, once the cache is full new call sites share a
+ * single rate limit.
+ *
+ * NLog.d(), i() and e() have to walk the stack to find their call site, even if the message ends up
+ * being suppressed. Code which runs every frame must instead log through a CallSite created once
+ * with createCallSite(): it checks the rate limit without walking the stack, and its fixed-arity
+ * methods do not allocate unless the message is printed.
+ */
 public class NLog {
-    private static final Vector<Printer> sPrinters = new Vector<>();
-    private static int sStackDepth = -1;
+    private static final int BUFFER_CAPACITY = 1024;
+    private static final int MAX_CALL_SITES = 512;
+    private static final int MAX_MESSAGES_PER_PERIOD = 10;
+    private static final long RATE_LIMIT_PERIOD_MS = 1000;
+    private static final long FLUSH_TIMEOUT_MS = 1000;
+    private static final long PRINTER_IDLE_NS = 100 * 1000 * 1000;
+
+    private static final CopyOnWriteArrayList<Printer> sPrinters = new CopyOnWriteArrayList<>();
+    // StackTraceElement equality includes the class, method, file and line
+    private static final ConcurrentHashMap<StackTraceElement, CallSite> sCallSites = new ConcurrentHashMap<>();
+    // Used when sCallSites is full, its tag is not used
+    private static final CallSite sOverflowCallSite = new CallSite(null);
+    private static final Object[] NO_ARGS = new Object[0];
+    private static final LogRingBuffer sBuffer = new LogRingBuffer(BUFFER_CAPACITY);
+    private static final AtomicInteger sDroppedCount = new AtomicInteger();
+    private static volatile Thread sPrinterThread;
 
     public interface Printer {
+        /**
+         * Returns true if messages of level @p level are going to be printed
+         */
+        boolean isLoggable(int level);
+
+        /**
+         * Called from the printer thread
+         */
         void print(int level, String tag, String message);
     }
 
@@ -40,6 +79,11 @@ public class NLog {
             mStartTime = System.currentTimeMillis();
         }
 
+        @Override
+        public boolean isLoggable(int level) {
+            return true;
+        }
+
         @Override
         public void print(int level, String tag, String message) {
             String levelString;
@@ -55,6 +99,109 @@ public class NLog {
         }
     }
 
+    /**
+     * A rate-limited call site, with a fixed tag
+     */
+    public static final class CallSite {
+        final String mTag;
+        long mPeriodStart;
+        int mPeriodCount;
+        int mSuppressedCount;
+
+        private CallSite(String tag) {
+            mTag = tag;
+        }
+
+        public void d(Object obj) {
+            log(Application.LOG_DEBUG, obj, NO_ARGS);
+        }
+
+        public void d(Object obj, int arg1, int arg2) {
+            int suppressedCount = tryAcquire(Application.LOG_DEBUG);
+            if (suppressedCount >= 0) {
+                enqueue(Application.LOG_DEBUG, mTag, suppressedCount, obj, arg1, arg2);
+            }
+        }
+
+        public void d(Object obj, Object... args) {
+            log(Application.LOG_DEBUG, obj, args);
+        }
+
+        public void i(Object obj) {
+            log(Application.LOG_INFO, obj, NO_ARGS);
+        }
+
+        public void i(Object obj, int arg1, int arg2) {
+            int suppressedCount = tryAcquire(Application.LOG_INFO);
+            if (suppressedCount >= 0) {
+                enqueue(Application.LOG_INFO, mTag, suppressedCount, obj, arg1, arg2);
+            }
+        }
+
+        public void i(Object obj, Object... args) {
+            log(Application.LOG_INFO, obj, args);
+        }
+
+        public void e(Object obj) {
+            log(Application.LOG_ERROR, obj, NO_ARGS);
+        }
+
+        public void e(Object obj, int arg1, int arg2) {
+            int suppressedCount = tryAcquire(Application.LOG_ERROR);
+            if (suppressedCount >= 0) {
+                enqueue(Application.LOG_ERROR, mTag, suppressedCount, obj, arg1, arg2);
+            }
+        }
+
+        public void e(Object obj, Object... args) {
+            log(Application.LOG_ERROR, obj, args);
+        }
+
+        private void log(int level, Object obj, Object[] args) {
+            int suppressedCount = tryAcquire(level);
+            if (suppressedCount >= 0) {
+                enqueue(level, mTag, suppressedCount, obj, args);
+            }
+        }
+
+        /**
+         * Like acquire(), but also returns -1 if no printer accepts @p level. The fixed-arity
+         * methods call it before boxing their arguments.
+         */
+        private int tryAcquire(int level) {
+            if (!isLoggable(level)) {
+                return -1;
+            }
+            return acquire(System.currentTimeMillis());
+        }
+
+        /**
+         * Returns -1 if the message must be suppressed, otherwise returns the number of messages
+         * suppressed since the last one which went through
+         */
+        synchronized int acquire(long now) {
+            if (now - mPeriodStart >= RATE_LIMIT_PERIOD_MS) {
+                mPeriodStart = now;
+                mPeriodCount = 0;
+            }
+            if (mPeriodCount >= MAX_MESSAGES_PER_PERIOD) {
+                ++mSuppressedCount;
+                return -1;
+            }
+            ++mPeriodCount;
+            int suppressedCount = mSuppressedCount;
+            mSuppressedCount = 0;
+            return suppressedCount;
+        }
+    }
+
+    /**
+     * Creates a call site whose messages are tagged with @p tag. Keep it in a static field.
+     */
+    public static CallSite createCallSite(String tag) {
+        return new CallSite(tag);
+    }
+
     public static void d(Object obj, Object...args) {
         print(Application.LOG_DEBUG, obj, args);
     }
@@ -69,51 +216,161 @@ public class NLog {
 
     public static void backtrace() {
         StackTraceElement[] lst = Thread.currentThread().getStackTrace();
+        StringBuilder builder = new StringBuilder("bt:");
         for (int idx = 2, n = lst.length; idx < n; ++idx) {
-            NLog.d("bt: %s", lst[idx]);
+            builder.append("\n    ").append(lst[idx]);
         }
+        NLog.d(builder.toString());
     }
 
     public static void addPrinter(Printer printer) {
         sPrinters.add(printer);
     }
 
-    private static synchronized void print(int level, Object obj, Object...args) {
-        if (sStackDepth < 0) {
-            initStackDepth();
+    public static void removePrinter(Printer printer) {
+        sPrinters.remove(printer);
+    }
+
+    /**
+     * Waits until all queued messages have been printed, or until a timeout expires
+     */
+    public static void flush() {
+        Thread thread = sPrinterThread;
+        if (thread == null || thread == Thread.currentThread()) {
+            return;
+        }
+        long deadline = System.currentTimeMillis() + FLUSH_TIMEOUT_MS;
+        while (!sBuffer.isEmpty() && System.currentTimeMillis() < deadline) {
+            LockSupport.unpark(thread);
+            Thread.yield();
+        }
+    }
+
+    private static void print(int level, Object obj, Object...args) {
+        if (!isLoggable(level)) {
+            return;
+        }
+        StackTraceElement caller = getCaller();
+        CallSite site = getCallSite(caller);
+        int suppressedCount = site.acquire(System.currentTimeMillis());
+        if (suppressedCount < 0) {
+            return;
+        }
+        String tag = site == sOverflowCallSite ? createTag(caller) : site.mTag;
+        enqueue(level, tag, suppressedCount, obj, args);
+    }
+
+    private static void enqueue(int level, String tag, int suppressedCount, Object obj, Object... args) {
+        String format = obj == null ? "(null)" : obj.toString();
+        String message = args.length > 0 ? String.format(format, args) : format;
+        if (suppressedCount > 0) {
+            message += " (" + suppressedCount + " similar messages suppressed)";
         }
-        final String tag = getCallerMethod();
-        String message;
-        if (obj == null) {
-            message = "(null)";
-        } else {
-            String format = obj.toString();
-            message = args.length > 0 ? String.format(format, args) : format;
+        if (!sBuffer.offer(level, tag, message)) {
+            sDroppedCount.incrementAndGet();
         }
+        wakeUpPrinterThread();
+    }
+
+    private static boolean isLoggable(int level) {
         if (sPrinters.isEmpty()) {
-            sPrinters.add(new DefaultPrinter());
+            sPrinters.addIfAbsent(new DefaultPrinter());
         }
-        for (Printer printer: sPrinters) {
-            printer.print(level, tag, message);
+        for (int idx = 0, n = sPrinters.size(); idx < n; ++idx) {
+            if (sPrinters.get(idx).isLoggable(level)) {
+                return true;
+            }
         }
+        return false;
     }
 
-    private static void initStackDepth() {
-        final StackTraceElement[] lst = Thread.currentThread().getStackTrace();
-        for (int i = 0, n = lst.length; i < n; ++i) {
-            if (lst[i].getMethodName().equals("initStackDepth")) {
-                sStackDepth = i;
-                return;
+    private static CallSite getCallSite(StackTraceElement caller) {
+        if (caller == null) {
+            return sOverflowCallSite;
+        }
+        CallSite site = sCallSites.get(caller);
+        if (site != null) {
+            return site;
+        }
+        if (sCallSites.size() >= MAX_CALL_SITES) {
+            return sOverflowCallSite;
+        }
+        site = new CallSite(createTag(caller));
+        CallSite existingSite = sCallSites.putIfAbsent(caller, site);
+        return existingSite != null ? existingSite : site;
+    }
+
+    /**
+     * Returns the first stack frame outside of NLog, or null if there is none
+     */
+    private static StackTraceElement getCaller() {
+        // Thread.getStackTrace() would add VM frames on Android
+        final StackTraceElement[] lst = new Throwable().getStackTrace();
+        final String logClassName = NLog.class.getName();
+        for (StackTraceElement stackTraceElement : lst) {
+            if (!stackTraceElement.getClassName().equals(logClassName)) {
+                return stackTraceElement;
             }
         }
+        return null;
     }
 
-    private static String getCallerMethod() {
-        final StackTraceElement stackTraceElement = Thread.currentThread().getStackTrace()[sStackDepth + 3];
-        final String fullClassName = stackTraceElement.getClassName();
+    private static String createTag(StackTraceElement caller) {
+        if (caller == null) {
+            return "?";
+        }
+        final String fullClassName = caller.getClassName();
         final String className = fullClassName.substring(fullClassName.lastIndexOf(".") + 1);
-        final String method = stackTraceElement.getMethodName();
-        return className + "." + method;
+        return className + "." + caller.getMethodName();
     }
 
+    private static void wakeUpPrinterThread() {
+        Thread thread = sPrinterThread;
+        if (thread == null) {
+            thread = startPrinterThread();
+        }
+        LockSupport.unpark(thread);
+    }
+
+    private static synchronized Thread startPrinterThread() {
+        if (sPrinterThread != null) {
+            return sPrinterThread;
+        }
+        Thread thread = new Thread(NLog::runPrinterLoop, "NLog");
+        thread.setDaemon(true);
+        thread.start();
+        Runtime.getRuntime().addShutdownHook(new Thread(NLog::flush));
+        sPrinterThread = thread;
+        return thread;
+    }
+
+    private static void runPrinterLoop() {
+        while (true) {
+            LogRingBuffer.Entry entry = sBuffer.peek();
+            if (entry == null) {
+                LockSupport.parkNanos(PRINTER_IDLE_NS);
+                continue;
+            }
+            int droppedCount = sDroppedCount.getAndSet(0);
+            if (droppedCount > 0) {
+                printEntry(Application.LOG_ERROR, "NLog",
+                        droppedCount + " messages dropped: log buffer full");
+            }
+            printEntry(entry.level, entry.tag, entry.message);
+            sBuffer.release(entry);
+        }
+    }
+
+    private static void printEntry(int level, String tag, String message) {
+        for (Printer printer : sPrinters) {
+            if (!printer.isLoggable(level)) {
+                continue;
+            }
+            try {
+                printer.print(level, tag, message);
+            } catch (RuntimeException e) {
+                e.printStackTrace();
+            }
+        }
+    }
 }
@@ -0,0 +1,114 @@
+/*
+ * Copyright 2019 Aurélien Gâteau <mail@agateau.com>
+ *
+ * This file is part of Pixel Wheels.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License.
+ *
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package com.agateau.utils.profiling;
+
+/**
+ * A histogram of positive long values, with a fixed memory footprint and a relative precision of
+ * 1/SUB_BUCKET_COUNT.
+ *
+ * Values below SUB_BUCKET_COUNT get their own bucket. Each power of two above that is split in
+ * SUB_BUCKET_COUNT buckets.
+ */
+public class Histogram {
+    private static final int SUB_BUCKET_BITS = 5;
+    private static final int SUB_BUCKET_COUNT = 1 << SUB_BUCKET_BITS;
+    // Values above 2^MAX_EXPONENT are counted in the last bucket
+    private static final int MAX_EXPONENT = 40;
+    private static final int BUCKET_COUNT = (MAX_EXPONENT - SUB_BUCKET_BITS + 2) * SUB_BUCKET_COUNT;
+
+    private final int[] mBuckets = new int[BUCKET_COUNT];
+    private int mCount = 0;
+    private long mSum = 0;
+    private long mMax = 0;
+
+    public void add(long value) {
+        if (value < 0) {
+            value = 0;
+        }
+        ++mBuckets[getBucketIndex(value)];
+        ++mCount;
+        mSum += value;
+        mMax = Math.max(mMax, value);
+    }
+
+    public void clear() {
+        for (int idx = 0; idx < BUCKET_COUNT; ++idx) {
+            mBuckets[idx] = 0;
+        }
+        mCount = 0;
+        mSum = 0;
+        mMax = 0;
+    }
+
+    public int getCount() {
+        return mCount;
+    }
+
+    public long getMax() {
+        return mMax;
+    }
+
+    public double getMean() {
+        return mCount > 0 ? (double)mSum / mCount : 0;
+    }
+
+    /**
+     * Returns the value below which @p percentile percent of the values are. The result is the
+     * upper bound of the bucket containing this value, so it can be a bit above it, but it is never
+     * more than the max.
+     */
+    public long getPercentile(float percentile) {
+        if (mCount == 0) {
+            return 0;
+        }
+        long rank = (long)Math.ceil(percentile / 100 * mCount);
+        rank = Math.max(rank, 1);
+        long seen = 0;
+        for (int idx = 0; idx < BUCKET_COUNT; ++idx) {
+            seen += mBuckets[idx];
+            if (seen >= rank) {
+                return Math.min(getBucketUpperBound(idx), mMax);
+            }
+        }
+        return mMax;
+    }
+
+    static int getBucketIndex(long value) {
+        if (value < SUB_BUCKET_COUNT) {
+            return (int)value;
+        }
+        int exponent = 63 - Long.numberOfLeadingZeros(value);
+        if (exponent > MAX_EXPONENT) {
+            return BUCKET_COUNT - 1;
+        }
+        int shift = exponent - SUB_BUCKET_BITS;
+        int subBucket = (int)(value >> shift) & (SUB_BUCKET_COUNT - 1);
+        return (shift + 1) * SUB_BUCKET_COUNT + subBucket;
+    }
+
+    static long getBucketUpperBound(int index) {
+        if (index < SUB_BUCKET_COUNT) {
+            return index;
+        }
+        int shift = index / SUB_BUCKET_COUNT - 1;
+        long subBucket = index % SUB_BUCKET_COUNT;
+        long lowerBound = (SUB_BUCKET_COUNT + subBucket) << shift;
+        return lowerBound + (1L << shift) - 1;
+    }
+}
@@ -0,0 +1,192 @@
+/*
+ * Copyright 2019 Aurélien Gâteau <mail@agateau.com>
+ *
+ * This file is part of Pixel Wheels.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License.
+ *
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package com.agateau.utils.profiling;
+
+import com.badlogic.gdx.math.WindowedMean;
+import com.badlogic.gdx.utils.Array;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.Locale;
+
+/**
+ * Measures the time spent in named scopes, per frame.
+ *
+ * Scopes are identified by a path like "GameWorld.act/box2d", which makes them nested. A scope can
+ * be entered several times per frame: endFrame() adds the total time spent in each scope during the
+ * frame to its histogram, so that percentiles of the frame times can be reported, not only averages.
+ */
+public class Profiler {
+    private static final int RECENT_FRAME_COUNT = 60;
+    private static final float NS_TO_MS = 1e-6f;
+
+    public static class Scope {
+        private final Profiler mProfiler;
+        private final String mName;
+        private final Scope mParent;
+        private final int mDepth;
+        private final Histogram mHistogram = new Histogram();
+        private final WindowedMean mRecentMean = new WindowedMean(RECENT_FRAME_COUNT);
+        private long mStartTime;
+        private long mFrameTime = 0;
+
+        private Scope(Profiler profiler, String name, Scope parent) {
+            mProfiler = profiler;
+            mName = name;
+            mParent = parent;
+            mDepth = parent == null ? 0 : parent.mDepth + 1;
+        }
+
+        public String getName() {
+            return mName;
+        }
+
+        /**
+         * Nesting level of the scope, 0 for top-level scopes
+         */
+        public int getDepth() {
+            return mDepth;
+        }
+
+        public Histogram getHistogram() {
+            return mHistogram;
+        }
+
+        /**
+         * Mean frame time of the last frames, in milliseconds
+         */
+        public float getRecentMean() {
+            return mRecentMean.getMean();
+        }
+
+        public void start() {
+            if (mProfiler.mEnabled) {
+                mStartTime = System.nanoTime();
+            }
+        }
+
+        public void stop() {
+            if (mProfiler.mEnabled) {
+                mFrameTime += System.nanoTime() - mStartTime;
+            }
+        }
+
+        private void endFrame() {
+            mHistogram.add(mFrameTime);
+            mRecentMean.addValue(mFrameTime * NS_TO_MS);
+            mFrameTime = 0;
+        }
+    }
+
+    // Parents are always before their children
+    private final Array<Scope> mScopes = new Array<>();
+    private boolean mEnabled = true;
+
+    public boolean isEnabled() {
+        return mEnabled;
+    }
+
+    /**
+     * A disabled profiler does not measure anything, so scopes cost almost nothing
+     */
+    public void setEnabled(boolean enabled) {
+        mEnabled = enabled;
+    }
+
+    /**
+     * Returns the scope for @p path, creating it and its parents if necessary.
+     *
+     * This is not meant to be called in hot paths: keep the returned scope instead.
+     */
+    public Scope getScope(String path) {
+        Scope scope = null;
+        for (String name : path.split("/")) {
+            Scope child = findChild(scope, name);
+            if (child == null) {
+                child = addChild(scope, name);
+            }
+            scope = child;
+        }
+        return scope;
+    }
+
+    /**
+     * Scopes, in depth-first order
+     */
+    public Array<Scope> getScopes() {
+        return mScopes;
+    }
+
+    public void endFrame() {
+        if (!mEnabled) {
+            return;
+        }
+        for (int idx = 0, n = mScopes.size; idx < n; ++idx) {
+            mScopes.get(idx).endFrame();
+        }
+    }
+
+    /**
+     * Writes a report of the frame times of all scopes, in microseconds
+     */
+    public void write(Writer writer) throws IOException {
+        writer.write(String.format(Locale.US, "%-40s %8s %8s %8s %8s %8s %8s\n",
+                "scope (us)", "frames", "mean", "p50", "p95", "p99", "max"));
+        for (Scope scope : mScopes) {
+            Histogram histogram = scope.mHistogram;
+            StringBuilder name = new StringBuilder();
+            for (int idx = 0; idx < scope.mDepth; ++idx) {
+                name.append("  ");
+            }
+            name.append(scope.mName);
+            writer.write(String.format(Locale.US, "%-40s %8d %8d %8d %8d %8d %8d\n",
+                    name,
+                    histogram.getCount(),
+                    (long)histogram.getMean() / 1000,
+                    histogram.getPercentile(50) / 1000,
+                    histogram.getPercentile(95) / 1000,
+                    histogram.getPercentile(99) / 1000,
+                    histogram.getMax() / 1000));
+        }
+    }
+
+    private Scope findChild(Scope parent, String name) {
+        for (Scope scope : mScopes) {
+            if (scope.mParent == parent && scope.mName.equals(name)) {
+                return scope;
+            }
+        }
+        return null;
+    }
+
+    private Scope addChild(Scope parent, String name) {
+        Scope scope = new Scope(this, name, parent);
+        if (parent == null) {
+            mScopes.add(scope);
+            return scope;
+        }
+        // Insert after the last descendant of parent
+        int idx = mScopes.indexOf(parent, true) + 1;
+        while (idx < mScopes.size && mScopes.get(idx).mDepth > parent.mDepth) {
+            ++idx;
+        }
+        mScopes.insert(idx, scope);
+        return scope;
+    }
+}
@@ -0,0 +1,150 @@
+/*
+ * Copyright 2019 Aurélien Gâteau <mail@agateau.com>
+ *
+ * This file is part of Pixel Wheels.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License.
+ *
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package com.agateau.utils.telemetry;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+
+/**
+ * Reads files created by TelemetryRecorder, one frame at a time
+ */
+public class TelemetryReader implements AutoCloseable {
+    private final DataInputStream mInputStream;
+    private final String[] mChannelNames;
+    private final byte[] mChannelTypes;
+    // Raw bits of the values
+    private final int[] mValues;
+    private final boolean[] mHasValues;
+    // Time of the next frame, or null if there is no next frame
+    private Float mNextFrameTime;
+
+    public TelemetryReader(File file) throws IOException {
+        mInputStream = new DataInputStream(new BufferedInputStream(new FileInputStream(file)));
+        int magic = mInputStream.readInt();
+        if (magic != TelemetryRecorder.MAGIC) {
+            throw new IOException("Not a telemetry file");
+        }
+        int version = mInputStream.readInt();
+        if (version != TelemetryRecorder.VERSION) {
+            throw new IOException("Unsupported telemetry version " + version);
+        }
+        int channelCount = mInputStream.readInt();
+        mChannelNames = new String[channelCount];
+        mChannelTypes = new byte[channelCount];
+        for (int idx = 0; idx < channelCount; ++idx) {
+            mChannelNames[idx] = mInputStream.readUTF();
+            mChannelTypes[idx] = mInputStream.readByte();
+        }
+        mValues = new int[channelCount];
+        mHasValues = new boolean[channelCount];
+        readRecord();
+    }
+
+    public int getChannelCount() {
+        return mChannelNames.length;
+    }
+
+    public String getChannelName(int channelId) {
+        return mChannelNames[channelId];
+    }
+
+    public boolean isIntChannel(int channelId) {
+        return mChannelTypes[channelId] == TelemetryRecorder.TYPE_INT;
+    }
+
+    /**
+     * Reads the next frame. Returns false if there are no frames left.
+     *
+     * Values of the frame are then available with hasValue(), getFloatValue() and getIntValue()
+     */
+    public boolean readFrame() throws IOException {
+        if (mNextFrameTime == null) {
+            return false;
+        }
+        for (int idx = 0; idx < mHasValues.length; ++idx) {
+            mHasValues[idx] = false;
+        }
+        setValue(TelemetryRecorder.TIME_CHANNEL, Float.floatToRawIntBits(mNextFrameTime));
+        mNextFrameTime = null;
+        while (readRecord()) {
+            if (mNextFrameTime != null) {
+                break;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Returns true if channel @p channelId has a value in the current frame
+     */
+    public boolean hasValue(int channelId) {
+        return mHasValues[channelId];
+    }
+
+    /**
+     * Returns the value of float channel @p channelId in the current frame
+     */
+    public float getFloatValue(int channelId) {
+        return Float.intBitsToFloat(mValues[channelId]);
+    }
+
+    /**
+     * Returns the value of int channel @p channelId in the current frame
+     */
+    public int getIntValue(int channelId) {
+        return mValues[channelId];
+    }
+
+    @Override
+    public void close() throws IOException {
+        mInputStream.close();
+    }
+
+    /**
+     * Reads a record, returns false at the end of the file
+     */
+    private boolean readRecord() throws IOException {
+        int channelId;
+        int bits;
+        try {
+            channelId = mInputStream.readInt();
+            bits = mInputStream.readInt();
+        } catch (EOFException e) {
+            return false;
+        }
+        if (channelId < 0 || channelId >= mChannelNames.length) {
+            throw new IOException("Invalid channel id " + channelId);
+        }
+        if (channelId == TelemetryRecorder.TIME_CHANNEL) {
+            mNextFrameTime = Float.intBitsToFloat(bits);
+        } else {
+            setValue(channelId, bits);
+        }
+        return true;
+    }
+
+    private void setValue(int channelId, int bits) {
+        mValues[channelId] = bits;
+        mHasValues[channelId] = true;
+    }
+}
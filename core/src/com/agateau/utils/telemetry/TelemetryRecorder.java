@@ -0,0 +1,211 @@
+/*
+ * Copyright 2019 Aurélien Gâteau <mail@agateau.com>
+ *
+ * This file is part of Pixel Wheels.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License.
+ *
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package com.agateau.utils.telemetry;
+
+import com.agateau.utils.Assert;
+import com.agateau.utils.log.NLog;
+import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.ByteArray;
+import com.badlogic.gdx.utils.Disposable;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Records values of pre-registered channels in a binary file, without blocking the caller on disk
+ * access.
+ *
+ * Channels must be registered before the first frame starts. Records have a fixed size and are
+ * written in direct buffers, which are written to the file in blocks by a background thread.
+ *
+ * File format (big endian):
+ *
+ *     int MAGIC, int VERSION, int channelCount,
+ *     then for each channel: string name (as written by DataOutputStream.writeUTF), byte type,
+ *     then records until the end of the file: int channelId, 4 bytes value
+ *
+ * Channel 0 is the time channel: each frame starts with a record of this channel. Use
+ * TelemetryReader to read the file.
+ */
+public class TelemetryRecorder implements Disposable {
+    static final int MAGIC = 0x5057544c; // "PWTL"
+    static final int VERSION = 1;
+    static final int RECORD_SIZE = 8;
+    static final byte TYPE_FLOAT = 0;
+    static final byte TYPE_INT = 1;
+    public static final int TIME_CHANNEL = 0;
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+    private static final int BUFFER_COUNT = 4;
+    private static final long DISPOSE_TIMEOUT_MS = 5000;
+
+    private final Array<String> mChannelNames = new Array<>();
+    private final ByteArray mChannelTypes = new ByteArray();
+    private final ArrayBlockingQueue<ByteBuffer> mFreeBuffers = new ArrayBlockingQueue<>(BUFFER_COUNT);
+    private final ExecutorService mExecutor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "telemetry-writer");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private final FileChannel mFileChannel;
+    private ByteBuffer mBuffer;
+    private boolean mStarted = false;
+
+    public TelemetryRecorder(File file) throws IOException {
+        mFileChannel = new FileOutputStream(file).getChannel();
+        for (int idx = 0; idx < BUFFER_COUNT; ++idx) {
+            mFreeBuffers.add(ByteBuffer.allocateDirect(BUFFER_SIZE));
+        }
+        addChannel("t", TYPE_FLOAT);
+    }
+
+    /**
+     * Registers a channel for float values, returns its id
+     */
+    public int addFloatChannel(String name) {
+        return addChannel(name, TYPE_FLOAT);
+    }
+
+    /**
+     * Registers a channel for int values, returns its id
+     */
+    public int addIntChannel(String name) {
+        return addChannel(name, TYPE_INT);
+    }
+
+    /**
+     * Starts a new frame at @p time, in seconds
+     */
+    public void beginFrame(float time) {
+        if (!mStarted) {
+            start();
+        }
+        record(TIME_CHANNEL, time);
+    }
+
+    public void record(int channelId, float value) {
+        Assert.check(mChannelTypes.get(channelId) == TYPE_FLOAT, "Not a float channel");
+        putRecord(channelId, Float.floatToRawIntBits(value));
+    }
+
+    public void record(int channelId, int value) {
+        Assert.check(mChannelTypes.get(channelId) == TYPE_INT, "Not an int channel");
+        putRecord(channelId, value);
+    }
+
+    /**
+     * Writes the pending records and closes the file
+     */
+    @Override
+    public void dispose() {
+        if (mBuffer != null) {
+            submitBuffer();
+        }
+        mExecutor.execute(() -> {
+            try {
+                mFileChannel.close();
+            } catch (IOException e) {
+                NLog.e("Failed to close telemetry file: %s", e);
+            }
+        });
+        mExecutor.shutdown();
+        try {
+            if (!mExecutor.awaitTermination(DISPOSE_TIMEOUT_MS, TimeUnit.MILLISECONDS)) {
+                NLog.e("Timed out while writing telemetry");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private int addChannel(String name, byte type) {
+        Assert.check(!mStarted, "Channels must be added before the first frame");
+        mChannelNames.add(name);
+        mChannelTypes.add(type);
+        return mChannelNames.size - 1;
+    }
+
+    private void start() {
+        mStarted = true;
+        mBuffer = takeFreeBuffer();
+        mBuffer.putInt(MAGIC);
+        mBuffer.putInt(VERSION);
+        mBuffer.putInt(mChannelNames.size);
+        for (int idx = 0; idx < mChannelNames.size; ++idx) {
+            putUTF(mChannelNames.get(idx));
+            mBuffer.put(mChannelTypes.get(idx));
+        }
+    }
+
+    /**
+     * Writes @p text like DataOutputStream.writeUTF() does for ASCII strings
+     */
+    private void putUTF(String text) {
+        Assert.check(text.length() < BUFFER_SIZE / 64, "Channel name is too long");
+        mBuffer.putShort((short)text.length());
+        for (int idx = 0; idx < text.length(); ++idx) {
+            char ch = text.charAt(idx);
+            Assert.check(ch > 0 && ch < 0x80, "Channel names must be ASCII");
+            mBuffer.put((byte)ch);
+        }
+    }
+
+    private void putRecord(int channelId, int bits) {
+        Assert.check(mStarted, "beginFrame() must be called before recording values");
+        if (mBuffer.remaining() < RECORD_SIZE) {
+            submitBuffer();
+            mBuffer = takeFreeBuffer();
+        }
+        mBuffer.putInt(channelId);
+        mBuffer.putInt(bits);
+    }
+
+    private void submitBuffer() {
+        final ByteBuffer buffer = mBuffer;
+        mBuffer = null;
+        buffer.flip();
+        mExecutor.execute(() -> {
+            try {
+                while (buffer.hasRemaining()) {
+                    mFileChannel.write(buffer);
+                }
+            } catch (IOException e) {
+                NLog.e("Failed to write telemetry: %s", e);
+            }
+            buffer.clear();
+            mFreeBuffers.add(buffer);
+        });
+    }
+
+    private ByteBuffer takeFreeBuffer() {
+        try {
+            // Only blocks if the writer thread is BUFFER_COUNT buffers late
+            return mFreeBuffers.take();
+        } catch (InterruptedException e) {
+            throw new RuntimeException("Interrupted while waiting for a telemetry buffer", e);
+        }
+    }
+}
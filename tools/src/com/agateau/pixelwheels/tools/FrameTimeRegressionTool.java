@@ -0,0 +1,216 @@
+/*
+ * Copyright 2019 Aurélien Gâteau <mail@agateau.com>
+ *
+ * This file is part of Pixel Wheels.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License.
+ *
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package com.agateau.pixelwheels.tools;
+
+import com.agateau.pixelwheels.Assets;
+import com.agateau.pixelwheels.GamePlay;
+import com.agateau.pixelwheels.gameinput.InputScript;
+import com.agateau.pixelwheels.gamesetup.GameInfo;
+import com.agateau.pixelwheels.map.Track;
+import com.agateau.pixelwheels.simulation.InputReplayRunner;
+import com.agateau.pixelwheels.vehicledef.VehicleDef;
+import com.agateau.utils.log.NLog;
+import com.agateau.utils.profiling.Histogram;
+import com.badlogic.gdx.ApplicationAdapter;
+import com.badlogic.gdx.backends.headless.HeadlessApplication;
+import com.badlogic.gdx.backends.headless.HeadlessApplicationConfiguration;
+import com.badlogic.gdx.physics.box2d.Box2D;
+import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.ObjectMap;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Properties;
+
+/**
+ * Detects regressions of the game step duration by replaying recorded inputs on all the tracks,
+ * without a GPU.
+ *
+ * "record" runs an AI race on each track, stores the inputs of the first PLAYER_COUNT racers in
+ * <dir>/<track-id>.inputs, then replays them and stores the p95 step duration of each track in
+ * <dir>/baseline.properties.
+ *
+ * "check" replays the stored inputs and fails if the p95 step duration of a track is more than
+ * threshold-percent (default: 20) above its baseline. Baselines are only meaningful on the machine
+ * which recorded them.
+ *
+ * Must be run from the android/assets directory.
+ * Usage: FrameTimeRegressionTool record|check <dir> [threshold-percent]
+ */
+public class FrameTimeRegressionTool {
+    private static final int PLAYER_COUNT = 1;
+    private static final int WARMUP_RUNS = 1;
+    private static final int MEASURED_RUNS = 5;
+    private static final float DEFAULT_THRESHOLD_PERCENT = 20;
+    private static final String BASELINE_FILE_NAME = "baseline.properties";
+
+    public static void main(String[] args) {
+        if (args.length < 2 || !(args[0].equals("record") || args[0].equals("check"))) {
+            System.err.println("Usage: FrameTimeRegressionTool record|check <dir> [threshold-percent]");
+            System.exit(1);
+        }
+        final boolean record = args[0].equals("record");
+        final File dir = new File(args[1]);
+        final float threshold = args.length > 2 ? Float.parseFloat(args[2]) : DEFAULT_THRESHOLD_PERCENT;
+
+        HeadlessApplicationConfiguration config = new HeadlessApplicationConfiguration();
+        // No render loop: everything happens in create()
+        config.renderInterval = -1;
+        new HeadlessApplication(new ApplicationAdapter() {
+            @Override
+            public void create() {
+                int result;
+                try {
+                    result = record ? record(dir) : check(dir, threshold);
+                } catch (IOException e) {
+                    NLog.e("Failed: %s", e);
+                    result = 1;
+                }
+                NLog.flush();
+                System.exit(result);
+            }
+        }, config);
+    }
+
+    private static int record(File dir) throws IOException {
+        Box2D.init();
+        Assets assets = Assets.createHeadless();
+        InputReplayRunner runner = new InputReplayRunner(assets);
+        if (!dir.isDirectory() && !dir.mkdirs()) {
+            throw new IOException("Cannot create " + dir);
+        }
+        ObjectMap<Track, Array<InputScript>> scriptsForTrack = new ObjectMap<>();
+        for (Track track : assets.tracks) {
+            Array<InputScript> scripts = runner.record(track, createEntrants(assets), PLAYER_COUNT);
+            track.dispose();
+            writeScripts(getScriptFile(dir, track), scripts);
+            scriptsForTrack.put(track, scripts);
+        }
+
+        // Measure exactly like check() does, so that the JIT is in the same state
+        Properties baseline = new Properties();
+        for (Track track : assets.tracks) {
+            long p95 = measure(runner, assets, track, scriptsForTrack.get(track));
+            baseline.setProperty(track.getId(), String.valueOf(p95));
+            System.out.printf("%-20s p95=%dus\n", track.getId(), p95 / 1000);
+        }
+        try (OutputStream out = new FileOutputStream(new File(dir, BASELINE_FILE_NAME))) {
+            baseline.store(out, "p95 step durations, in nanoseconds");
+        }
+        return 0;
+    }
+
+    private static int check(File dir, float threshold) throws IOException {
+        Box2D.init();
+        Assets assets = Assets.createHeadless();
+        InputReplayRunner runner = new InputReplayRunner(assets);
+        Properties baseline = new Properties();
+        try (InputStream in = new FileInputStream(new File(dir, BASELINE_FILE_NAME))) {
+            baseline.load(in);
+        }
+        ObjectMap<Track, Array<InputScript>> scriptsForTrack = new ObjectMap<>();
+        for (Track track : assets.tracks) {
+            if (baseline.getProperty(track.getId()) == null) {
+                NLog.i("No baseline for %s, skipping it", track.getId());
+                continue;
+            }
+            scriptsForTrack.put(track, readScripts(getScriptFile(dir, track)));
+        }
+
+        int regressionCount = 0;
+        System.out.println("track,baseline_p95_us,p95_us,change_percent");
+        for (Track track : assets.tracks) {
+            Array<InputScript> scripts = scriptsForTrack.get(track);
+            if (scripts == null) {
+                continue;
+            }
+            long baselineP95 = Long.parseLong(baseline.getProperty(track.getId()));
+            long p95 = measure(runner, assets, track, scripts);
+            float change = (p95 - baselineP95) * 100f / baselineP95;
+            System.out.printf("%s,%d,%d,%.1f\n", track.getId(), baselineP95 / 1000, p95 / 1000, change);
+            if (change > threshold) {
+                NLog.e("%s: p95 step duration regressed by %.1f%%", track.getId(), change);
+                ++regressionCount;
+            }
+        }
+        return regressionCount > 0 ? 1 : 0;
+    }
+
+    /**
+     * Returns the p95 step duration when replaying @p scripts, in nanoseconds
+     */
+    private static long measure(InputReplayRunner runner, Assets assets, Track track, Array<InputScript> scripts) {
+        Histogram histogram = new Histogram();
+        // Do not let garbage from the previous track trigger collections during the measure
+        System.gc();
+        for (int run = 0; run < WARMUP_RUNS + MEASURED_RUNS; ++run) {
+            if (run == WARMUP_RUNS) {
+                histogram.clear();
+            }
+            runner.measure(track, createEntrants(assets), scripts, histogram);
+        }
+        track.dispose();
+        return histogram.getPercentile(95);
+    }
+
+    private static File getScriptFile(File dir, Track track) {
+        return new File(dir, track.getId() + ".inputs");
+    }
+
+    private static void writeScripts(File file, Array<InputScript> scripts) throws IOException {
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(file)))) {
+            out.writeInt(scripts.size);
+            for (InputScript script : scripts) {
+                script.write(out);
+            }
+        }
+    }
+
+    private static Array<InputScript> readScripts(File file) throws IOException {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file)))) {
+            int count = in.readInt();
+            Array<InputScript> scripts = new Array<>();
+            for (int idx = 0; idx < count; ++idx) {
+                scripts.add(InputScript.read(in));
+            }
+            return scripts;
+        }
+    }
+
+    /**
+     * Always returns the same entrants, so that recorded inputs match the vehicle they drove
+     */
+    private static Array<GameInfo.Entrant> createEntrants(Assets assets) {
+        Array<GameInfo.Entrant> entrants = new Array<>();
+        int vehicleCount = assets.vehicleDefs.size;
+        for (int idx = 0; idx < GamePlay.instance.racerCount; ++idx) {
+            VehicleDef vehicleDef = assets.vehicleDefs.get(idx % vehicleCount);
+            entrants.add(new GameInfo.Entrant(vehicleDef.id));
+        }
+        return entrants;
+    }
+}
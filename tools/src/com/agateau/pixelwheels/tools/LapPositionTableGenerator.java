@@ -18,6 +18,7 @@
  */
 package com.agateau.pixelwheels.tools;
 
+import com.agateau.utils.log.NLog;
 import com.badlogic.gdx.Gdx;
 import com.badlogic.gdx.files.FileHandle;
 import com.badlogic.gdx.graphics.Pixmap;
@@ -29,16 +30,28 @@ import com.agateau.pixelwheels.map.LapPositionTable;
 import com.agateau.pixelwheels.map.LapPositionTableIO;
 
 /**
- * Load a .tmx file and save its corresponding lap position table as a PNG file
+ * Load a .tmx file and save its corresponding lap position table as a PNG file.
+ *
+ * When called without arguments, bakes the lap position grid of all the maps and saves them next
+ * to the .tmx files, so that the game does not have to compute them when loading a track.
  */
 public class LapPositionTableGenerator {
     public static void main(String[] args) {
         new CommandLineApplication("LapPositionTableGenerator", args) {
             @Override
             int run(String[] arguments) {
-                FileHandle tmxFile = Gdx.files.absolute(arguments[0]);
-                FileHandle tableFile = Gdx.files.absolute(arguments[1]);
-                LapPositionTableGenerator.generateTable(tmxFile, tableFile);
+                if (arguments.length == 2) {
+                    FileHandle tmxFile = Gdx.files.absolute(arguments[0]);
+                    FileHandle tableFile = Gdx.files.absolute(arguments[1]);
+                    LapPositionTableGenerator.generateTable(tmxFile, tableFile);
+                } else {
+                    FileHandle tmxDir = Gdx.files.absolute("android/assets/maps");
+                    for (FileHandle tmxFile : tmxDir.list(".tmx")) {
+                        FileHandle gridFile = tmxFile.sibling(tmxFile.nameWithoutExtension()
+                                + "." + LapPositionTableIO.GRID_EXTENSION);
+                        LapPositionTableGenerator.processFile(tmxFile, gridFile);
+                    }
+                }
                 return 0;
             }
         };
@@ -55,4 +68,22 @@ public class LapPositionTableGenerator {
         Pixmap pixmap = LapPositionTableIO.createPixmap(table, width, height);
         PixmapIO.writePNG(tableFile, pixmap);
     }
+
+    private static void processFile(FileHandle tmxFile, FileHandle gridFile) {
+        if (gridFile.lastModified() >= tmxFile.lastModified()) {
+            NLog.i("%s: up to date", gridFile.path());
+            return;
+        }
+        NLog.i("%s: updating", gridFile.path());
+        TiledMap map = new TmxMapLoader().load(tmxFile.path());
+        LapPositionTable table = LapPositionTableIO.load(map);
+
+        TiledMapTileLayer layer = (TiledMapTileLayer)map.getLayers().get(0);
+        int width = layer.getWidth() * ((int)layer.getTileWidth());
+        int height = layer.getHeight() * ((int)layer.getTileHeight());
+
+        table.bake(width, height);
+        LapPositionTableIO.saveGrid(table, gridFile);
+        map.dispose();
+    }
 }
@@ -0,0 +1,137 @@
+/*
+ * Copyright 2019 Aurélien Gâteau <mail@agateau.com>
+ *
+ * This file is part of Pixel Wheels.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License.
+ *
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package com.agateau.pixelwheels.tools;
+
+import com.agateau.pixelwheels.Assets;
+import com.agateau.pixelwheels.GamePlay;
+import com.agateau.pixelwheels.gamesetup.GameInfo;
+import com.agateau.pixelwheels.simulation.BatchRaceRunner;
+import com.agateau.pixelwheels.simulation.RaceSimulator;
+import com.agateau.pixelwheels.vehicledef.VehicleDef;
+import com.agateau.utils.log.NLog;
+import com.badlogic.gdx.ApplicationAdapter;
+import com.badlogic.gdx.backends.headless.HeadlessApplication;
+import com.badlogic.gdx.backends.headless.HeadlessApplicationConfiguration;
+import com.badlogic.gdx.physics.box2d.Box2D;
+import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.ObjectMap;
+
+/**
+ * Runs AI-only races without a GPU and prints the average results of each vehicle.
+ *
+ * Races run in parallel, using all the CPU cores unless a thread count is given.
+ *
+ * Must be run from the android/assets directory.
+ * Usage: RaceSimulatorTool <track-id> [race-count] [thread-count]
+ */
+public class RaceSimulatorTool {
+    private static class VehicleStats {
+        int raceCount = 0;
+        int finishedCount = 0;
+        int rankSum = 0;
+        float totalTimeSum = 0;
+        int pickedBonusSum = 0;
+    }
+
+    public static void main(String[] args) {
+        if (args.length < 1) {
+            System.err.println("Usage: RaceSimulatorTool <track-id> [race-count] [thread-count]");
+            System.exit(1);
+        }
+        final String trackId = args[0];
+        final int raceCount = args.length > 1 ? Integer.parseInt(args[1]) : 1;
+        final int threadCount = args.length > 2 ? Integer.parseInt(args[2])
+                : Runtime.getRuntime().availableProcessors();
+
+        HeadlessApplicationConfiguration config = new HeadlessApplicationConfiguration();
+        // No render loop: everything happens in create()
+        config.renderInterval = -1;
+        new HeadlessApplication(new ApplicationAdapter() {
+            @Override
+            public void create() {
+                System.exit(run(trackId, raceCount, threadCount));
+            }
+        }, config);
+    }
+
+    private static int run(String trackId, int raceCount, int threadCount) {
+        Box2D.init();
+        final Assets assets = Assets.createHeadless();
+        if (assets.findTrackById(trackId) == null) {
+            NLog.e("No track with id '%s'", trackId);
+            return 1;
+        }
+
+        BatchRaceRunner runner = new BatchRaceRunner(assets, threadCount);
+        long startTime = System.nanoTime();
+        Array<RaceSimulator.Result> results = runner.run(trackId, raceCount,
+                race -> createEntrants(assets, race));
+        float elapsed = (System.nanoTime() - startTime) / 1e9f;
+
+        ObjectMap<String, VehicleStats> statsForVehicle = new ObjectMap<>();
+        for (int race = 0; race < raceCount; ++race) {
+            RaceSimulator.Result result = results.get(race);
+            for (RaceSimulator.RacerResult racerResult : result.racers) {
+                String vehicleId = racerResult.entrant.getVehicleId();
+                VehicleStats stats = statsForVehicle.get(vehicleId);
+                if (stats == null) {
+                    stats = new VehicleStats();
+                    statsForVehicle.put(vehicleId, stats);
+                }
+                ++stats.raceCount;
+                stats.rankSum += racerResult.rank;
+                stats.pickedBonusSum += racerResult.pickedBonusCount;
+                if (racerResult.finished) {
+                    ++stats.finishedCount;
+                    stats.totalTimeSum += racerResult.totalTime;
+                }
+            }
+            if (result.timedOut) {
+                NLog.i("Race %d timed out after %.1fs", race, result.duration);
+            }
+        }
+
+        System.out.println("vehicle,races,finished,avg_rank,avg_total_time,avg_picked_bonuses");
+        for (VehicleDef vehicleDef : assets.vehicleDefs) {
+            VehicleStats stats = statsForVehicle.get(vehicleDef.id);
+            if (stats == null) {
+                continue;
+            }
+            System.out.printf("%s,%d,%d,%.2f,%.2f,%.2f\n", vehicleDef.id, stats.raceCount, stats.finishedCount,
+                    stats.rankSum / (float)stats.raceCount,
+                    stats.finishedCount > 0 ? stats.totalTimeSum / stats.finishedCount : 0,
+                    stats.pickedBonusSum / (float)stats.raceCount);
+        }
+        NLog.i("%d races in %.1fs using %d threads", raceCount, elapsed, threadCount);
+        return 0;
+    }
+
+    /**
+     * Rotates vehicles between races so that each vehicle gets all the starting positions
+     */
+    private static Array<GameInfo.Entrant> createEntrants(Assets assets, int race) {
+        Array<GameInfo.Entrant> entrants = new Array<>();
+        int vehicleCount = assets.vehicleDefs.size;
+        for (int idx = 0; idx < GamePlay.instance.racerCount; ++idx) {
+            VehicleDef vehicleDef = assets.vehicleDefs.get((race + idx) % vehicleCount);
+            entrants.add(new GameInfo.Entrant(vehicleDef.id));
+        }
+        return entrants;
+    }
+}
@@ -0,0 +1,112 @@
+/*
+ * Copyright 2019 Aurélien Gâteau <mail@agateau.com>
+ *
+ * This file is part of Pixel Wheels.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License.
+ *
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package com.agateau.pixelwheels.tools;
+
+import com.agateau.pixelwheels.Assets;
+import com.agateau.pixelwheels.GameWorld;
+import com.agateau.pixelwheels.map.Track;
+import com.agateau.pixelwheels.racer.LapPositionComponent;
+import com.agateau.pixelwheels.racer.Racer;
+import com.agateau.pixelwheels.replay.Replay;
+import com.agateau.pixelwheels.replay.ReplayPlayer;
+import com.agateau.utils.log.NLog;
+import com.agateau.utils.profiling.Histogram;
+import com.badlogic.gdx.ApplicationAdapter;
+import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.backends.headless.HeadlessApplication;
+import com.badlogic.gdx.backends.headless.HeadlessApplicationConfiguration;
+import com.badlogic.gdx.physics.box2d.Box2D;
+import com.badlogic.gdx.utils.Array;
+
+import java.io.IOException;
+
+/**
+ * Plays a replay recorded by the game, without a GPU, and prints the final state of the racers and
+ * the duration of the frames.
+ *
+ * Must be run from the android/assets directory.
+ * Usage: ReplayTool <replay-file>
+ */
+public class ReplayTool {
+    public static void main(String[] args) {
+        if (args.length != 1) {
+            System.err.println("Usage: ReplayTool <replay-file>");
+            System.exit(1);
+        }
+        final String path = args[0];
+
+        HeadlessApplicationConfiguration config = new HeadlessApplicationConfiguration();
+        // No render loop: everything happens in create()
+        config.renderInterval = -1;
+        new HeadlessApplication(new ApplicationAdapter() {
+            @Override
+            public void create() {
+                int result = run(path);
+                NLog.flush();
+                System.exit(result);
+            }
+        }, config);
+    }
+
+    private static int run(String path) {
+        Box2D.init();
+        Replay replay;
+        try {
+            replay = Replay.read(Gdx.files.absolute(path));
+        } catch (IOException e) {
+            NLog.e("Failed to read %s: %s", path, e);
+            return 1;
+        }
+        Assets assets = Assets.createHeadless();
+        Track track = assets.findTrackById(replay.getTrackId());
+        if (track == null) {
+            NLog.e("No track with id '%s'", replay.getTrackId());
+            return 1;
+        }
+
+        Histogram histogram = new Histogram();
+        ReplayPlayer player = new ReplayPlayer(assets, track, replay);
+        try {
+            while (!player.isFinished()) {
+                long startTime = System.nanoTime();
+                player.step();
+                histogram.add(System.nanoTime() - startTime);
+            }
+            GameWorld world = player.getWorld();
+            System.out.println("rank,vehicle,player,finished,total_time,x,y");
+            Array<Racer> racers = world.getRacers();
+            for (int idx = 0; idx < racers.size; ++idx) {
+                Racer racer = racers.get(idx);
+                LapPositionComponent lapPositionComponent = racer.getLapPositionComponent();
+                System.out.printf("%d,%s,%b,%b,%.3f,%f,%f\n", idx + 1,
+                        racer.getEntrant().getVehicleId(), racer.getEntrant().isPlayer(),
+                        lapPositionComponent.hasFinishedRace(), lapPositionComponent.getTotalTime(),
+                        racer.getX(), racer.getY());
+            }
+        } finally {
+            player.dispose();
+            track.dispose();
+        }
+        NLog.i("%d frames, frame duration in us: mean=%d p50=%d p95=%d p99=%d max=%d",
+                histogram.getCount(), (long) histogram.getMean() / 1000,
+                histogram.getPercentile(50) / 1000, histogram.getPercentile(95) / 1000,
+                histogram.getPercentile(99) / 1000, histogram.getMax() / 1000);
+        return 0;
+    }
+}
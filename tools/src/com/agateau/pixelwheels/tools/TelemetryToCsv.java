@@ -0,0 +1,80 @@
+/*
+ * Copyright 2019 Aurélien Gâteau <mail@agateau.com>
+ *
+ * This file is part of Pixel Wheels.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License.
+ *
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package com.agateau.pixelwheels.tools;
+
+import com.agateau.utils.telemetry.TelemetryReader;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintStream;
+
+/**
+ * Converts a telemetry file created with GamePlay.recordTelemetry to CSV.
+ *
+ * Output has one row per frame and one column per channel. Cells of channels which were not
+ * recorded in a frame are empty.
+ *
+ * Usage: TelemetryToCsv <telemetry.bin>
+ */
+public class TelemetryToCsv {
+    public static void main(String[] args) {
+        if (args.length != 1) {
+            System.err.println("Usage: TelemetryToCsv <telemetry.bin>");
+            System.exit(1);
+        }
+        try {
+            convert(new File(args[0]), System.out);
+        } catch (IOException e) {
+            System.err.println("Failed to convert " + args[0] + ": " + e);
+            System.exit(1);
+        }
+    }
+
+    private static void convert(File file, PrintStream out) throws IOException {
+        try (TelemetryReader reader = new TelemetryReader(file)) {
+            int channelCount = reader.getChannelCount();
+            StringBuilder builder = new StringBuilder();
+            for (int channel = 0; channel < channelCount; ++channel) {
+                if (channel > 0) {
+                    builder.append(',');
+                }
+                builder.append(reader.getChannelName(channel));
+            }
+            out.println(builder);
+
+            while (reader.readFrame()) {
+                builder.setLength(0);
+                for (int channel = 0; channel < channelCount; ++channel) {
+                    if (channel > 0) {
+                        builder.append(',');
+                    }
+                    if (!reader.hasValue(channel)) {
+                        continue;
+                    }
+                    if (reader.isIntChannel(channel)) {
+                        builder.append(reader.getIntValue(channel));
+                    } else {
+                        builder.append(reader.getFloatValue(channel));
+                    }
+                }
+                out.println(builder);
+            }
+        }
+    }
+}